@@ -14,9 +14,12 @@ const AuthProvider = ({ children }) => {
   const [token, setToken] = useState(localStorage.getItem('jwtToken') || null);
   const [user, setUser] = useState(JSON.parse(localStorage.getItem('user')) || null);
 
-  const login = useCallback((jwtToken, userInfo) => {
+  const login = useCallback((jwtToken, userInfo, refreshToken) => {
     localStorage.setItem('jwtToken', jwtToken);
     localStorage.setItem('user', JSON.stringify(userInfo));
+    if (refreshToken) {
+      localStorage.setItem('refreshToken', refreshToken);
+    }
     setToken(jwtToken);
     setUser(userInfo);
     console.log("User logged in successfully.");
@@ -25,11 +28,44 @@ const AuthProvider = ({ children }) => {
   const logout = useCallback(() => {
     localStorage.removeItem('jwtToken');
     localStorage.removeItem('user');
+    localStorage.removeItem('refreshToken');
     setToken(null);
     setUser(null);
     console.log("User logged out.");
   }, []);
 
+  // Access tokens are short-lived: trade the refresh token for a new pair a minute before expiry
+  useEffect(() => {
+    const refreshToken = localStorage.getItem('refreshToken');
+    if (!token || !refreshToken) return;
+
+    let expiresAt;
+    try {
+      expiresAt = JSON.parse(atob(token.split('.')[1].replace(/-/g, '+').replace(/_/g, '/'))).exp * 1000;
+    } catch (err) {
+      return;
+    }
+
+    const timer = setTimeout(async () => {
+      try {
+        const response = await fetch('http://localhost:8081/api/auth/refresh', {
+          method: 'POST',
+          headers: { 'Content-Type': 'application/json' },
+          body: JSON.stringify({ refreshToken })
+        });
+        if (!response.ok) {
+          logout();
+          return;
+        }
+        const data = await response.json();
+        login(data.accessToken, { id: data.id, username: data.username, roles: data.roles }, data.refreshToken);
+      } catch (err) {
+        console.error('Token refresh failed:', err);
+      }
+    }, Math.max(0, expiresAt - Date.now() - 60000));
+    return () => clearTimeout(timer);
+  }, [token, login, logout]);
+
   const isAuthenticated = useCallback(() => !!token, [token]);
   const isAdmin = useCallback(() => user?.roles?.includes('ROLE_ADMIN'), [user]);
 
@@ -343,7 +379,7 @@ const AuthPage = ({ setCurrentPage }) => {
 
       if (response.ok) {
         // Assuming the response body contains the JWT and user info
-        login(data.accessToken, { id: data.id, username: data.username, roles: data.roles });
+        login(data.accessToken, { id: data.id, username: data.username, roles: data.roles }, data.refreshToken);
       } else {
         setError(data.message || 'Authentication failed.');
       }
@@ -0,0 +1,354 @@
+package com.example.bankingservice.batch;
+
+import com.example.bankingservice.engine.LedgerEngine;
+import com.example.bankingservice.hold.ActiveHoldIndex;
+import com.example.bankingservice.model.Transaction;
+import com.example.bankingservice.model.TransactionTypes;
+import com.example.bankingservice.service.AccountLocks;
+import com.example.bankingservice.shard.LedgerIdGenerator;
+import com.example.bankingservice.shard.LedgerShards;
+import com.example.bankingservice.shard.ShardRouter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Posts monthly interest credits and fees to every account, shard by shard, without going
+// through the per-request deposit path:
+//  - balances as of the period end come from one grouped query per chunk of accounts (keyset on account_id);
+//    interest is paid on every currency balance, the fee is charged on the base currency balance only
+//  - interest is written with JDBC batch inserts, together with its period_postings rows and the
+//    batch_runs checkpoint, in one transaction per chunk
+//  - fees are posted like a withdrawal, one account at a time under its AccountLocks lock: the available
+//    balance (current balance, from the shard or the engine, minus active holds) is read, the fee capped
+//    to it and committed, and the engine told, before a concurrent debit can take the same funds
+//  - period_postings' unique (kind, period, account_id, currency) makes a second posting impossible, so a
+//    restarted or concurrent run can only skip accounts, never post twice
+// Postings are dated at the period end (first instant of the next month), so they never count
+// towards the balance of the period they belong to.
+// Finish (or never start) a period's run before resharding: the checkpoint is per shard.
+@Service
+public class PeriodPostingJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(PeriodPostingJob.class);
+
+    // Last account id of the next chunk of chunk-size accounts
+    private static final String CHUNK_END_SQL = "select max(account_id) from (select distinct account_id"
+        + " from transactions where account_id > ? and transaction_date < ? order by account_id limit ?) chunk";
+
+    private static final String BALANCES_SQL = "select t.account_id, t.currency, coalesce(a.base_currency, ?), sum("
+        + TransactionTypes.signedAmountSql("t.type", "t.amount") + ") from transactions t"
+        + " left join accounts a on a.account_id = t.account_id"
+        + " where t.account_id > ? and t.account_id <= ? and t.transaction_date < ?"
+        + " group by t.account_id, t.currency, a.base_currency order by t.account_id, t.currency";
+
+    private static final String CURRENT_BALANCE_SQL = "select coalesce(sum("
+        + TransactionTypes.signedAmountSql("type", "amount") + "), 0) from transactions"
+        + " where account_id = ? and currency = ?";
+
+    private static final String INSERT_POSTING_SQL = "insert into period_postings (id, kind, period, account_id, currency)"
+        + " values (?, ?, ?, ?, ?)";
+
+    private static final String INSERT_TRANSACTION_SQL = "insert into transactions (id, type, amount, currency,"
+        + " account_id, transaction_date) values (?, ?, ?, ?, ?, ?)";
+
+    private static final String CHECKPOINT_SQL = "update batch_runs set last_account_id = ?,"
+        + " accounts_posted = accounts_posted + ? where kind = ? and period = ?";
+
+    @Autowired
+    private LedgerShards shards;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private LedgerEngine ledgerEngine;
+
+    @Autowired
+    private ActiveHoldIndex activeHoldIndex;
+
+    @Autowired
+    private AccountLocks accountLocks;
+
+    @Value("${banking.currency.default:USD}")
+    private String defaultCurrency;
+
+    @Value("${banking.batch.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${banking.batch.interest.annual-rate:0.02}")
+    private BigDecimal interestAnnualRate;
+
+    @Value("${banking.batch.fee.monthly-amount:2.00}")
+    private BigDecimal monthlyFee;
+
+    // Accounts at or above this balance at the period end pay no fee
+    @Value("${banking.batch.fee.waiver-balance:1000.00}")
+    private BigDecimal feeWaiverBalance;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile Map<String, Object> lastRun = Map.of("state", "never run");
+
+    // Previous month's interest, then fees, on the 1st of every month by default
+    @Scheduled(cron = "${banking.batch.cron:0 30 1 1 * *}")
+    public void postPreviousMonth() {
+        YearMonth period = YearMonth.now().minusMonths(1);
+        try {
+            run(PostingKind.INTEREST, period);
+            run(PostingKind.FEE, period);
+        } catch (RuntimeException e) {
+            logger.error("Scheduled period postings failed", e);
+        }
+    }
+
+    // Runs on a background thread; false when a run is already in progress
+    public boolean start(PostingKind kind, YearMonth period) {
+        validate(period);
+        if (running.get()) {
+            return false;
+        }
+        Thread worker = new Thread(() -> {
+            try {
+                run(kind, period);
+            } catch (RuntimeException e) {
+                logger.error("Period postings failed", e);
+            }
+        }, "period-postings");
+        worker.start();
+        return true;
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> status = new HashMap<>(lastRun);
+        status.put("running", running.get());
+        return status;
+    }
+
+    public Map<String, Object> run(PostingKind kind, YearMonth period) {
+        validate(period);
+        if (shardRouter.targetShards() != null) {
+            throw new IllegalStateException("A reshard is in progress.");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Period postings are already running.");
+        }
+        long started = System.currentTimeMillis();
+        try {
+            long posted = 0;
+            for (String shard : shards.names()) {
+                posted += postShard(shards.dataSource(shard), kind, period);
+            }
+            Map<String, Object> summary = new HashMap<>();
+            summary.put("state", "done");
+            summary.put("kind", kind.transactionType());
+            summary.put("period", period.toString());
+            summary.put("accountsPosted", posted);
+            summary.put("durationMs", System.currentTimeMillis() - started);
+            lastRun = summary;
+            logger.info("Period postings done: {}", summary);
+            return summary;
+        } catch (RuntimeException e) {
+            lastRun = Map.of("state", "failed", "kind", kind.transactionType(), "period", period.toString(),
+                "error", String.valueOf(e.getMessage()));
+            throw e;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private long postShard(DataSource dataSource, PostingKind kind, YearMonth period) {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        String periodKey = period.toString();
+        Timestamp periodEnd = Timestamp.valueOf(period.plusMonths(1).atDay(1).atStartOfDay());
+
+        Long after = resumePoint(jdbc, kind, periodKey);
+        if (after == null) {
+            return 0; // already done on this shard
+        }
+        long posted = 0;
+        while (true) {
+            Long lastAccountId = jdbc.queryForObject(CHUNK_END_SQL, Long.class, after, periodEnd, chunkSize);
+            if (lastAccountId == null) {
+                break;
+            }
+            // {account_id, currency, base currency, balance}
+            List<Object[]> balances = jdbc.query(BALANCES_SQL,
+                (rs, row) -> new Object[] {rs.getLong(1), rs.getString(2), rs.getString(3), rs.getBigDecimal(4)},
+                defaultCurrency, after, lastAccountId, periodEnd);
+            if (kind == PostingKind.FEE) {
+                posted += postFees(jdbc, transaction, periodKey, periodEnd, balances, lastAccountId);
+                after = lastAccountId;
+                continue;
+            }
+            List<Transaction> chunk;
+            try {
+                chunk = transaction.execute(status -> postChunk(jdbc, kind, periodKey, periodEnd, balances, lastAccountId));
+            } catch (DuplicateKeyException e) {
+                // Another run posted part of this chunk first: the retry only sees what is left
+                chunk = transaction.execute(status -> postChunk(jdbc, kind, periodKey, periodEnd, balances, lastAccountId));
+            }
+            chunk.forEach(ledgerEngine::applyPersisted); // committed, so the in-memory engine (if enabled) follows
+            posted += chunk.size();
+            after = lastAccountId;
+        }
+        jdbc.update("update batch_runs set status = 'done', finished_at = ? where kind = ? and period = ?",
+            Timestamp.valueOf(LocalDateTime.now()), kind.transactionType(), periodKey);
+        return posted;
+    }
+
+    // Last checkpointed account id (Long.MIN_VALUE for a fresh run), or null when the run is done
+    private Long resumePoint(JdbcTemplate jdbc, PostingKind kind, String periodKey) {
+        List<Object[]> runs = jdbc.query("select status, last_account_id from batch_runs where kind = ? and period = ?",
+            (rs, row) -> new Object[] {rs.getString(1), rs.getObject(2) != null ? rs.getLong(2) : null},
+            kind.transactionType(), periodKey);
+        if (runs.isEmpty()) {
+            try {
+                jdbc.update("insert into batch_runs (kind, period, status, started_at) values (?, ?, 'running', ?)",
+                    kind.transactionType(), periodKey, Timestamp.valueOf(LocalDateTime.now()));
+            } catch (DuplicateKeyException e) {
+                return resumePoint(jdbc, kind, periodKey);
+            }
+            return Long.MIN_VALUE;
+        }
+        if ("done".equals(runs.get(0)[0])) {
+            return null;
+        }
+        Long checkpoint = (Long) runs.get(0)[1];
+        return checkpoint != null ? checkpoint : Long.MIN_VALUE;
+    }
+
+    // Returns the posted transactions
+    private List<Transaction> postChunk(JdbcTemplate jdbc, PostingKind kind, String periodKey, Timestamp periodEnd,
+                          List<Object[]> balances, long lastAccountId) {
+        Set<String> alreadyPosted = alreadyPosted(jdbc, kind, periodKey, (Long) balances.get(0)[0], lastAccountId);
+
+        List<Transaction> posted = new ArrayList<>();
+        List<Object[]> transactions = new ArrayList<>();
+        List<Object[]> postings = new ArrayList<>();
+        for (Object[] balance : balances) {
+            Long accountId = (Long) balance[0];
+            String currency = (String) balance[1];
+            if (alreadyPosted.contains(accountId + ":" + currency)) {
+                continue;
+            }
+            BigDecimal amount = postingAmount(kind, (BigDecimal) balance[3]);
+            if (amount.signum() <= 0) {
+                continue;
+            }
+            long id = LedgerIdGenerator.nextId();
+            transactions.add(new Object[] {id, kind.transactionType(), amount, currency, accountId, periodEnd});
+            postings.add(new Object[] {id, kind.transactionType(), periodKey, accountId, currency});
+            Transaction tx = new Transaction(kind.transactionType(), amount, currency, accountId);
+            tx.setId(id);
+            tx.setTransactionDate(periodEnd.toLocalDateTime());
+            posted.add(tx);
+        }
+
+        // Postings first: a concurrent duplicate fails here, before any transaction row is written
+        jdbc.batchUpdate(INSERT_POSTING_SQL, postings);
+        jdbc.batchUpdate(INSERT_TRANSACTION_SQL, transactions);
+        jdbc.update(CHECKPOINT_SQL, lastAccountId, postings.size(), kind.transactionType(), periodKey);
+        return posted;
+    }
+
+    // Fees of one chunk (base currency balances only), each in its own transaction; returns how many were posted
+    private long postFees(JdbcTemplate jdbc, TransactionTemplate transaction, String periodKey, Timestamp periodEnd,
+                          List<Object[]> balances, long lastAccountId) {
+        Set<String> alreadyPosted = alreadyPosted(jdbc, PostingKind.FEE, periodKey, (Long) balances.get(0)[0], lastAccountId);
+        long posted = 0;
+        for (Object[] balance : balances) {
+            Long accountId = (Long) balance[0];
+            String currency = (String) balance[1];
+            if (!currency.equals(balance[2]) || alreadyPosted.contains(accountId + ":" + currency)) {
+                continue;
+            }
+            BigDecimal fee = postingAmount(PostingKind.FEE, (BigDecimal) balance[3]);
+            if (fee.signum() > 0 && accountLocks.withLock(accountId,
+                    () -> postFee(jdbc, transaction, periodKey, periodEnd, accountId, currency, fee))) {
+                posted++;
+            }
+        }
+        jdbc.update(CHECKPOINT_SQL, lastAccountId, posted, PostingKind.FEE.transactionType(), periodKey);
+        return posted;
+    }
+
+    // Called with the account lock held, which every debit of the account also takes
+    private boolean postFee(JdbcTemplate jdbc, TransactionTemplate transaction, String periodKey, Timestamp periodEnd,
+                            Long accountId, String currency, BigDecimal fee) {
+        BigDecimal amount = fee.min(availableBalance(jdbc, accountId, currency));
+        if (amount.signum() <= 0) {
+            return false;
+        }
+        long id = LedgerIdGenerator.nextId();
+        String type = PostingKind.FEE.transactionType();
+        try {
+            transaction.executeWithoutResult(status -> {
+                jdbc.update(INSERT_POSTING_SQL, id, type, periodKey, accountId, currency);
+                jdbc.update(INSERT_TRANSACTION_SQL, id, type, amount, currency, accountId, periodEnd);
+            });
+        } catch (DuplicateKeyException e) {
+            return false; // another run posted it first
+        }
+        Transaction tx = new Transaction(type, amount, currency, accountId);
+        tx.setId(id);
+        tx.setTransactionDate(periodEnd.toLocalDateTime());
+        // Queued on the account's partition before the lock is released, so the next debit sees the fee
+        ledgerEngine.applyPersisted(tx);
+        return true;
+    }
+
+    private Set<String> alreadyPosted(JdbcTemplate jdbc, PostingKind kind, String periodKey,
+                                      long firstAccountId, long lastAccountId) {
+        return new HashSet<>(jdbc.query(
+            "select account_id, currency from period_postings where kind = ? and period = ? and account_id between ? and ?",
+            (rs, row) -> rs.getLong(1) + ":" + rs.getString(2),
+            kind.transactionType(), periodKey, firstAccountId, lastAccountId));
+    }
+
+    // Current balance (the engine's when enabled, it may be ahead of the table) minus active holds
+    private BigDecimal availableBalance(JdbcTemplate jdbc, Long accountId, String currency) {
+        BigDecimal balance = ledgerEngine.isEnabled()
+            ? ledgerEngine.balances(accountId).getOrDefault(currency, BigDecimal.ZERO)
+            : jdbc.queryForObject(CURRENT_BALANCE_SQL, BigDecimal.class, accountId, currency);
+        return balance.subtract(activeHoldIndex.heldAmount(accountId, currency));
+    }
+
+    private BigDecimal postingAmount(PostingKind kind, BigDecimal balance) {
+        if (balance == null || balance.signum() <= 0) {
+            return BigDecimal.ZERO;
+        }
+        if (kind == PostingKind.INTEREST) {
+            return balance.multiply(interestAnnualRate).divide(BigDecimal.valueOf(12), 2, RoundingMode.HALF_EVEN);
+        }
+        // Fees never take the period-end balance below zero
+        return balance.compareTo(feeWaiverBalance) >= 0 ? BigDecimal.ZERO : monthlyFee.min(balance);
+    }
+
+    private static void validate(YearMonth period) {
+        if (!period.isBefore(YearMonth.now())) {
+            throw new IllegalArgumentException("Period " + period + " has not ended yet.");
+        }
+    }
+}
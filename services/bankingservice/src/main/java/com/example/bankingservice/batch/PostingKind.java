@@ -0,0 +1,30 @@
+package com.example.bankingservice.batch;
+
+import com.example.bankingservice.model.TransactionTypes;
+
+import java.util.Locale;
+
+// What the period batch posts; the value doubles as the transaction type and the batch_runs.kind
+public enum PostingKind {
+
+    INTEREST(TransactionTypes.INTEREST),
+    FEE(TransactionTypes.FEE);
+
+    private final String transactionType;
+
+    PostingKind(String transactionType) {
+        this.transactionType = transactionType;
+    }
+
+    public String transactionType() {
+        return transactionType;
+    }
+
+    public static PostingKind of(String name) {
+        try {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Unknown posting kind: " + name);
+        }
+    }
+}
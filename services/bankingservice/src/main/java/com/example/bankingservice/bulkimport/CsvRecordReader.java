@@ -0,0 +1,106 @@
+package com.example.bankingservice.bulkimport;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.Locale;
+
+// Comma-separated records with a header line naming the columns (any order, extra columns ignored):
+// account_id, type, amount, transaction_date and optionally currency. Values are plain (ids, codes,
+// decimals, ISO dates), so quoted fields are rejected rather than parsed.
+class CsvRecordReader extends ImportRecordReader {
+
+    private final int[] columnOf = new int[FIELDS.size()]; // field -> column, -1 when absent
+    private final int columns;
+    private final int[] starts;
+    private final int[] ends;
+    private final Slice[] values = new Slice[FIELDS.size()];
+    private String error;
+
+    CsvRecordReader(Reader in, int bufferChars) throws IOException {
+        super(in, bufferChars);
+        if (!nextLine()) {
+            throw new IllegalArgumentException("The file is empty.");
+        }
+        Arrays.fill(columnOf, -1);
+        String[] header = line().replace("\uFEFF", "").split(",", -1); // without a byte order mark
+        for (int column = 0; column < header.length; column++) {
+            int field = FIELDS.indexOf(header[column].trim().toLowerCase(Locale.ROOT));
+            if (field >= 0) {
+                columnOf[field] = column;
+            }
+        }
+        for (int field = 0; field < FIELDS.size(); field++) {
+            if (columnOf[field] < 0 && field != CURRENCY) {
+                throw new IllegalArgumentException("The header has no " + FIELDS.get(field) + " column.");
+            }
+            values[field] = new Slice();
+        }
+        columns = header.length;
+        starts = new int[columns];
+        ends = new int[columns];
+    }
+
+    @Override
+    boolean next() throws IOException {
+        do {
+            if (!nextLine()) {
+                return false;
+            }
+        } while (isBlankLine());
+
+        error = null;
+        int column = 0;
+        int start = lineStart;
+        for (int i = lineStart; i <= lineEnd; i++) {
+            if (i == lineEnd || buffer[i] == ',') {
+                if (column < columns) {
+                    starts[column] = start;
+                    ends[column] = i;
+                }
+                column++;
+                start = i + 1;
+            } else if (buffer[i] == '"') {
+                error = "Quoted fields are not supported.";
+                return true;
+            }
+        }
+        if (column != columns) {
+            error = "Expected " + columns + " columns, found " + column + ".";
+            return true;
+        }
+        for (int field = 0; field < FIELDS.size(); field++) {
+            int fieldColumn = columnOf[field];
+            if (fieldColumn >= 0) {
+                values[field].start = trimStart(starts[fieldColumn], ends[fieldColumn]);
+                values[field].end = trimEnd(values[field].start, ends[fieldColumn]);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    CharSequence field(int field) {
+        Slice value = values[field];
+        return columnOf[field] < 0 || value.start == value.end ? null : value;
+    }
+
+    @Override
+    String error() {
+        return error;
+    }
+
+    private int trimStart(int start, int end) {
+        while (start < end && buffer[start] == ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private int trimEnd(int start, int end) {
+        while (end > start && buffer[end - 1] == ' ') {
+            end--;
+        }
+        return end;
+    }
+}
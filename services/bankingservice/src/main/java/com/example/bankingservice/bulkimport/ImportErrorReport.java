@@ -0,0 +1,62 @@
+package com.example.bankingservice.bulkimport;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Rejected rows (CSV), written to by the parser and the writers. A rejected row was not imported:
+// after fixing the records the file can be imported again.
+class ImportErrorReport implements AutoCloseable {
+
+    private final Path path;
+    private final BufferedWriter writer;
+    private final AtomicLong rejected = new AtomicLong();
+
+    ImportErrorReport(Path path) {
+        this.path = path;
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+            writer.write("line,error,record\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void reject(long line, String error, String record) {
+        rejected.incrementAndGet();
+        String row = line + "," + quoted(error) + "," + quoted(record) + "\n";
+        synchronized (writer) {
+            try {
+                writer.write(row);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    long rejected() {
+        return rejected.get();
+    }
+
+    Path path() {
+        return path;
+    }
+
+    @Override
+    public void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String quoted(String value) {
+        return "\"" + String.valueOf(value).replace("\"", "\"\"") + "\"";
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.bankingservice.bulkimport;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Path;
+import java.util.Locale;
+
+public enum ImportFormat {
+
+    CSV,
+    NDJSON;
+
+    // The named format, or the one the file extension implies (.csv, .ndjson, .jsonl) when name is null
+    public static ImportFormat of(String name, Path file) {
+        if (name != null) {
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown import format: " + name + " (csv or ndjson)");
+            }
+        }
+        String fileName = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (fileName.endsWith(".csv")) {
+            return CSV;
+        }
+        if (fileName.endsWith(".ndjson") || fileName.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        throw new IllegalArgumentException("Cannot tell the format of " + file.getFileName() + ", give format csv or ndjson.");
+    }
+
+    ImportRecordReader open(Reader in, int bufferChars) throws IOException {
+        return this == CSV ? new CsvRecordReader(in, bufferChars) : new NdjsonRecordReader(in, bufferChars);
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.bankingservice.bulkimport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+
+// Reads import records line by line from a reusable character buffer: no String per line, and
+// the buffer only grows for a line longer than it (up to MAX_LINE). Field values are views into
+// the buffer, valid until the next call to next().
+abstract class ImportRecordReader implements Closeable {
+
+    static final int ACCOUNT_ID = 0;
+    static final int TYPE = 1;
+    static final int AMOUNT = 2;
+    static final int CURRENCY = 3;
+    static final int TRANSACTION_DATE = 4;
+    static final List<String> FIELDS = List.of("account_id", "type", "amount", "currency", "transaction_date");
+
+    private static final int MAX_LINE = 1 << 20;
+
+    private final Reader in;
+    private boolean endOfInput;
+    private int next;    // start of the next unread line
+    private int scanned; // buffer[next..scanned) holds no line break
+    private int end;     // end of the data in the buffer
+    private long lineNumber;
+
+    protected char[] buffer;
+    protected int lineStart;
+    protected int lineEnd;
+
+    protected ImportRecordReader(Reader in, int bufferChars) {
+        this.in = in;
+        this.buffer = new char[bufferChars];
+    }
+
+    // Advances to the next non-blank record; false at the end of the input
+    abstract boolean next() throws IOException;
+
+    // Value of one of FIELDS, or null when the record does not have it
+    abstract CharSequence field(int field);
+
+    // Why the current line is not a record (wrong column count, malformed JSON), or null
+    abstract String error();
+
+    long lineNumber() {
+        return lineNumber;
+    }
+
+    String line() {
+        return new String(buffer, lineStart, lineEnd - lineStart);
+    }
+
+    // Makes the next line current (lineStart/lineEnd, without its line break); false at the end of the input
+    protected boolean nextLine() throws IOException {
+        while (true) {
+            for (int i = scanned; i < end; i++) {
+                if (buffer[i] == '\n') {
+                    setLine(next, i);
+                    next = i + 1;
+                    scanned = next;
+                    return true;
+                }
+            }
+            scanned = end;
+            if (endOfInput) {
+                if (next == end) {
+                    return false;
+                }
+                setLine(next, end);
+                next = end;
+                return true;
+            }
+            fill();
+        }
+    }
+
+    protected boolean isBlankLine() {
+        for (int i = lineStart; i < lineEnd; i++) {
+            if (!Character.isWhitespace(buffer[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void setLine(int start, int breakAt) {
+        lineStart = start;
+        lineEnd = breakAt > start && buffer[breakAt - 1] == '\r' ? breakAt - 1 : breakAt;
+        lineNumber++;
+    }
+
+    // Moves the unread part to the front of the buffer (growing it if the line fills it) and reads more
+    private void fill() throws IOException {
+        if (next > 0) {
+            System.arraycopy(buffer, next, buffer, 0, end - next);
+            end -= next;
+            scanned -= next;
+            next = 0;
+        }
+        if (end == buffer.length) {
+            if (buffer.length >= MAX_LINE) {
+                throw new IOException("Line " + (lineNumber + 1) + " is longer than " + MAX_LINE + " characters.");
+            }
+            char[] grown = new char[Math.min(buffer.length * 2, MAX_LINE)];
+            System.arraycopy(buffer, 0, grown, 0, end);
+            buffer = grown;
+        }
+        int read = in.read(buffer, end, buffer.length - end);
+        if (read < 0) {
+            endOfInput = true;
+        } else {
+            end += read;
+        }
+    }
+
+    // A field of the current line, read straight from the buffer
+    protected final class Slice implements CharSequence {
+
+        int start;
+        int end;
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return buffer[start + index];
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            return new String(buffer, start + from, to - from);
+        }
+
+        @Override
+        public String toString() {
+            return new String(buffer, start, end - start);
+        }
+    }
+}
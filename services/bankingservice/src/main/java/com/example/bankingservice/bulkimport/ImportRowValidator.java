@@ -0,0 +1,114 @@
+package com.example.bankingservice.bulkimport;
+
+import com.example.bankingservice.model.TransactionTypes;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Turns an import record into a transactions row {id, type, amount, currency, account_id,
+// transaction_date, line} (id and line left for the job to set), or throws IllegalArgumentException
+// saying what is wrong.
+// Types and currencies resolve to the canonical constants, so valid rows share their Strings.
+class ImportRowValidator {
+
+    private static final int MAX_INTEGER_DIGITS = 17; // DECIMAL(19, 2)
+
+    private final List<String> types = new ArrayList<>();
+    private final Collection<String> currencies;
+    private final String defaultCurrency;
+    private final LocalDateTime notAfter;
+
+    ImportRowValidator(Collection<String> currencies, String defaultCurrency, LocalDateTime notAfter) {
+        this.types.addAll(TransactionTypes.credits());
+        this.types.addAll(TransactionTypes.debits());
+        this.currencies = currencies;
+        this.defaultCurrency = defaultCurrency;
+        this.notAfter = notAfter;
+    }
+
+    Object[] toRow(ImportRecordReader record) {
+        long accountId = accountId(required(record, ImportRecordReader.ACCOUNT_ID));
+        String type = canonical(required(record, ImportRecordReader.TYPE), types, "Unknown transaction type");
+        BigDecimal amount = amount(required(record, ImportRecordReader.AMOUNT));
+        CharSequence currencyCode = record.field(ImportRecordReader.CURRENCY);
+        String currency = currencyCode != null ? canonical(currencyCode, currencies, "Unsupported currency") : defaultCurrency;
+        LocalDateTime date = date(required(record, ImportRecordReader.TRANSACTION_DATE));
+        return new Object[] {null, type, amount, currency, accountId, date, null};
+    }
+
+    private static CharSequence required(ImportRecordReader record, int field) {
+        CharSequence value = record.field(field);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing " + ImportRecordReader.FIELDS.get(field) + ".");
+        }
+        return value;
+    }
+
+    private static long accountId(CharSequence value) {
+        long accountId;
+        try {
+            accountId = Long.parseLong(value, 0, value.length(), 10);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid account_id: " + value);
+        }
+        if (accountId <= 0) {
+            throw new IllegalArgumentException("account_id must be positive.");
+        }
+        return accountId;
+    }
+
+    private static BigDecimal amount(CharSequence value) {
+        BigDecimal amount;
+        try {
+            amount = new BigDecimal(value.toString());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount: " + value);
+        }
+        if (amount.signum() <= 0) {
+            throw new IllegalArgumentException("Amount must be positive.");
+        }
+        if (amount.stripTrailingZeros().scale() > 2 || amount.precision() - amount.scale() > MAX_INTEGER_DIGITS) {
+            throw new IllegalArgumentException("Amount must have at most " + MAX_INTEGER_DIGITS + " digits and 2 decimals.");
+        }
+        return amount.setScale(2);
+    }
+
+    // ISO date-time (2023-04-01T09:30:00) or date (midnight)
+    private LocalDateTime date(CharSequence value) {
+        LocalDateTime date;
+        try {
+            date = value.length() == 10 ? LocalDate.parse(value).atStartOfDay() : LocalDateTime.parse(value);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid transaction_date: " + value);
+        }
+        if (date.isAfter(notAfter)) {
+            throw new IllegalArgumentException("transaction_date is in the future.");
+        }
+        return date;
+    }
+
+    private static String canonical(CharSequence value, Collection<String> known, String message) {
+        for (String candidate : known) {
+            if (equalsIgnoreCase(candidate, value)) {
+                return candidate;
+            }
+        }
+        throw new IllegalArgumentException(message + ": " + value);
+    }
+
+    private static boolean equalsIgnoreCase(String candidate, CharSequence value) {
+        if (candidate.length() != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < candidate.length(); i++) {
+            if (Character.toLowerCase(candidate.charAt(i)) != Character.toLowerCase(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
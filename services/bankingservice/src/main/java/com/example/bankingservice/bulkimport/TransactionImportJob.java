@@ -0,0 +1,408 @@
+package com.example.bankingservice.bulkimport;
+
+import com.example.bankingservice.engine.LedgerEngine;
+import com.example.bankingservice.fx.FxRateService;
+import com.example.bankingservice.model.Transaction;
+import com.example.bankingservice.shard.LedgerIdGenerator;
+import com.example.bankingservice.shard.LedgerShards;
+import com.example.bankingservice.shard.ShardRouter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Imports historical transactions from a CSV or NDJSON file in banking.import.dir, bypassing the
+// per-request deposit path (no balance checks: history is taken as it is; reconciliation flags
+// anything inconsistent afterwards):
+//  - one reader thread streams the file through a reusable buffer and validates every record;
+//    invalid records go to the error report with their line number and the run goes on
+//  - valid rows are handed, in batches of batch-size, to writer threads partitioned by account, so
+//    one account's rows are written by one thread in file order; bounded queues hold the reader
+//    back when the database is the bottleneck
+//  - a writer stores each batch with one JDBC batch insert per shard, in one transaction; a batch
+//    the database refuses is reported row by row, so the error report lists exactly what is missing
+//  - a writer that fails unexpectedly fails the run; it and the other writers then only report what
+//    they are handed as not imported, so the reader never waits on a queue nobody takes from
+// Rows get new ledger ids, so importing the same file twice imports it twice. Do not reshard while
+// an import runs: the run stops if a reshard starts.
+@Service
+public class TransactionImportJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionImportJob.class);
+
+    private static final String INSERT_SQL = "insert into transactions (id, type, amount, currency, account_id, transaction_date)"
+        + " values (?, ?, ?, ?, ?, ?)";
+
+    private static final List<Object[]> END = List.of();
+
+    @Autowired
+    private LedgerShards shards;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private FxRateService fxRateService;
+
+    @Autowired
+    private LedgerEngine ledgerEngine;
+
+    @Value("${banking.currency.default:USD}")
+    private String defaultCurrency;
+
+    @Value("${banking.import.dir:imports}")
+    private String importDir;
+
+    @Value("${banking.import.writers:4}")
+    private int writerCount;
+
+    @Value("${banking.import.batch-size:5000}")
+    private int batchSize;
+
+    // Batches queued per writer before the reader waits
+    @Value("${banking.import.queue-batches:4}")
+    private int queueBatches;
+
+    @Value("${banking.import.buffer-chars:65536}")
+    private int bufferChars;
+
+    @Value("${banking.import.progress-every:100000}")
+    private long progressEvery;
+
+    @Value("${banking.import.report-dir:reports}")
+    private String reportDir;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile Run current;
+    private volatile Map<String, Object> lastRun = Map.of("state", "never run");
+
+    // Runs on a background thread; false when an import is already in progress.
+    // file is relative to banking.import.dir; format null = from the file extension.
+    public boolean start(String file, String format) {
+        Path path = resolve(file);
+        ImportFormat importFormat = ImportFormat.of(format, path);
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread worker = new Thread(() -> {
+            try {
+                runClaimed(path, importFormat);
+            } catch (RuntimeException e) {
+                logger.error("Transaction import failed: {}", e.getMessage());
+            }
+        }, "transaction-import");
+        try {
+            worker.start();
+        } catch (Throwable e) {
+            running.set(false);
+            throw e;
+        }
+        return true;
+    }
+
+    // Progress of the running import, or the summary of the last one
+    public Map<String, Object> status() {
+        Run run = current;
+        Map<String, Object> status = run != null ? run.progress("running") : new HashMap<>(lastRun);
+        status.put("running", running.get());
+        return status;
+    }
+
+    public Map<String, Object> run(Path file, ImportFormat format) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("An import is already running.");
+        }
+        return runClaimed(file, format);
+    }
+
+    // The caller has set running; it is reset when the run ends, however it ends
+    private Map<String, Object> runClaimed(Path file, ImportFormat format) {
+        if (shardRouter.targetShards() != null) {
+            running.set(false);
+            throw new IllegalStateException("A reshard is in progress.");
+        }
+        String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS"));
+        ImportRowValidator validator = new ImportRowValidator(fxRateService.snapshot().getCurrencies(), defaultCurrency,
+            LocalDateTime.now());
+        try (ImportErrorReport report = new ImportErrorReport(Path.of(reportDir, "import-" + stamp + "-errors.csv"));
+             ImportRecordReader reader = format.open(new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8), bufferChars)) {
+            Run run = new Run(file, format, report);
+            current = run;
+            read(run, reader, validator);
+            if (run.failure != null) {
+                throw run.failure;
+            }
+            Map<String, Object> summary = run.progress("done");
+            lastRun = summary;
+            logger.info("Transaction import done: {}", summary);
+            return summary;
+        } catch (IOException e) {
+            lastRun = Map.of("state", "failed", "file", file.toString(), "error", String.valueOf(e.getMessage()));
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            Run run = current;
+            Map<String, Object> summary = run != null ? run.progress("failed") : new HashMap<>(Map.of("file", file.toString()));
+            summary.put("state", "failed");
+            summary.put("error", String.valueOf(e.getMessage()));
+            lastRun = summary;
+            throw e;
+        } finally {
+            current = null;
+            running.set(false);
+        }
+    }
+
+    // Resolves a file name inside banking.import.dir; anything outside it is refused
+    private Path resolve(String file) {
+        if (file == null || file.isBlank()) {
+            throw new IllegalArgumentException("file is required.");
+        }
+        Path directory = Path.of(importDir).toAbsolutePath().normalize();
+        Path path = directory.resolve(file).normalize();
+        if (!path.startsWith(directory)) {
+            throw new IllegalArgumentException("The file must be inside the import directory.");
+        }
+        if (!Files.isRegularFile(path)) {
+            throw new IllegalArgumentException("No such file in the import directory: " + file);
+        }
+        return path;
+    }
+
+    private void read(Run run, ImportRecordReader reader, ImportRowValidator validator) throws IOException {
+        PartitionWriter[] writers = new PartitionWriter[writerCount];
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < writerCount; i++) {
+            writers[i] = new PartitionWriter(run);
+            Thread thread = new Thread(writers[i], "transaction-import-writer-" + i);
+            thread.start();
+            threads.add(thread);
+        }
+        try {
+            List<List<Object[]>> pending = new ArrayList<>();
+            for (int i = 0; i < writerCount; i++) {
+                pending.add(new ArrayList<>(batchSize));
+            }
+            while (run.failure == null && reader.next()) {
+                run.lines++;
+                String error = reader.error();
+                Object[] row = null;
+                if (error == null) {
+                    try {
+                        row = validator.toRow(reader);
+                    } catch (IllegalArgumentException e) {
+                        error = e.getMessage();
+                    }
+                }
+                if (error != null) {
+                    run.report.reject(reader.lineNumber(), error, reader.line());
+                    continue;
+                }
+                row[0] = LedgerIdGenerator.nextId();
+                row[6] = reader.lineNumber();
+
+                int partition = Math.floorMod(Long.hashCode((Long) row[4] * 0x9E3779B97F4A7C15L), writerCount);
+                List<Object[]> batch = pending.get(partition);
+                batch.add(row);
+                if (batch.size() == batchSize) {
+                    writers[partition].put(batch);
+                    pending.set(partition, new ArrayList<>(batchSize));
+                }
+                if (run.lines % progressEvery == 0) {
+                    logger.info("Transaction import progress: {}", run.progress("running"));
+                }
+            }
+            for (int i = 0; i < writerCount; i++) {
+                if (!pending.get(i).isEmpty()) {
+                    writers[i].put(pending.get(i));
+                }
+            }
+        } finally {
+            for (PartitionWriter writer : writers) {
+                writer.put(END);
+            }
+            for (Thread thread : threads) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    // Stores one batch, grouped by shard; a shard's rows go in one transaction
+    private void write(Run run, List<Object[]> batch) {
+        Map<String, List<Object[]>> byShard = new LinkedHashMap<>();
+        for (Object[] row : batch) {
+            byShard.computeIfAbsent(shardRouter.shardOf((Long) row[4]), shard -> new ArrayList<>()).add(row);
+        }
+        byShard.forEach((shard, rows) -> {
+            if (shardRouter.targetShards() != null) {
+                run.fail(new IllegalStateException("A reshard started, the import stopped."));
+                rejectAll(run, rows, "Not imported: the import stopped.");
+                return;
+            }
+            try {
+                run.transactions.get(shard).executeWithoutResult(status -> run.jdbc.get(shard).batchUpdate(INSERT_SQL, rows, rows.size(),
+                    (ps, row) -> {
+                        ps.setLong(1, (Long) row[0]);
+                        ps.setString(2, (String) row[1]);
+                        ps.setBigDecimal(3, (BigDecimal) row[2]);
+                        ps.setString(4, (String) row[3]);
+                        ps.setLong(5, (Long) row[4]);
+                        ps.setTimestamp(6, Timestamp.valueOf((LocalDateTime) row[5]));
+                    }));
+            } catch (RuntimeException e) {
+                rejectAll(run, rows, "Not imported: " + e.getMessage());
+                return;
+            }
+            run.imported.addAndGet(rows.size());
+            if (ledgerEngine.isEnabled()) {
+                rows.forEach(row -> ledgerEngine.applyPersisted(toTransaction(row)));
+            }
+        });
+    }
+
+    private static void rejectAll(Run run, List<Object[]> rows, String error) {
+        for (Object[] row : rows) {
+            run.report.reject((Long) row[6], error, row[4] + "," + row[1] + "," + row[2] + "," + row[3] + "," + row[5]);
+        }
+    }
+
+    private static Transaction toTransaction(Object[] row) {
+        Transaction tx = new Transaction((String) row[1], (BigDecimal) row[2], (String) row[3], (Long) row[4]);
+        tx.setId((Long) row[0]);
+        tx.setTransactionDate((LocalDateTime) row[5]);
+        return tx;
+    }
+
+    // Takes the batches of one account partition off the reader
+    private final class PartitionWriter implements Runnable {
+
+        private final Run run;
+        private final BlockingQueue<List<Object[]>> queue = new ArrayBlockingQueue<>(queueBatches);
+        private volatile boolean finished;
+
+        PartitionWriter(Run run) {
+            this.run = run;
+        }
+
+        // Waits for room in the queue while the writer is alive; a batch for a writer that is gone
+        // is reported as not imported
+        void put(List<Object[]> batch) {
+            try {
+                while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+                    if (finished) {
+                        rejectAll(run, batch, "Not imported: the import stopped.");
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while queueing import rows.", e);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    List<Object[]> batch;
+                    try {
+                        batch = queue.take();
+                    } catch (InterruptedException e) {
+                        run.fail(new IllegalStateException("An import writer was interrupted."));
+                        return;
+                    }
+                    if (batch == END) {
+                        return;
+                    }
+                    if (run.failure != null) {
+                        rejectAll(run, batch, "Not imported: the import stopped.");
+                        continue;
+                    }
+                    try {
+                        write(run, batch);
+                    } catch (Throwable e) {
+                        logger.error("Transaction import writer {} failed", Thread.currentThread().getName(), e);
+                        run.fail(new IllegalStateException("An import writer failed: " + e, e));
+                    }
+                }
+            } finally {
+                finished = true;
+            }
+        }
+    }
+
+    private final class Run {
+
+        final Path file;
+        final ImportFormat format;
+        final ImportErrorReport report;
+        final long started = System.currentTimeMillis();
+        final AtomicLong imported = new AtomicLong();
+        final Map<String, JdbcTemplate> jdbc = new HashMap<>();
+        final Map<String, TransactionTemplate> transactions = new HashMap<>();
+        volatile long lines; // reader thread only
+        volatile RuntimeException failure;
+
+        Run(Path file, ImportFormat format, ImportErrorReport report) {
+            this.file = file;
+            this.format = format;
+            this.report = report;
+            for (String shard : shards.names()) {
+                jdbc.put(shard, new JdbcTemplate(shards.dataSource(shard)));
+                transactions.put(shard, new TransactionTemplate(new DataSourceTransactionManager(shards.dataSource(shard))));
+            }
+        }
+
+        void fail(RuntimeException e) {
+            if (failure == null) {
+                failure = e;
+            }
+        }
+
+        Map<String, Object> progress(String state) {
+            long durationMs = System.currentTimeMillis() - started;
+            long importedRows = imported.get();
+            Map<String, Object> progress = new HashMap<>();
+            progress.put("state", state);
+            progress.put("file", file.getFileName().toString());
+            progress.put("format", format.name().toLowerCase(Locale.ROOT));
+            progress.put("lines", lines);
+            progress.put("imported", importedRows);
+            progress.put("rejected", report.rejected());
+            progress.put("errors", report.path().toString());
+            progress.put("rowsPerSecond", durationMs > 0 ? importedRows * 1000 / durationMs : importedRows);
+            progress.put("durationMs", durationMs);
+            return progress;
+        }
+    }
+}
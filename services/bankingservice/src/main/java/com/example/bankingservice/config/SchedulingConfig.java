@@ -0,0 +1,10 @@
+package com.example.bankingservice.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Enables @Scheduled housekeeping jobs (e.g. velocity window eviction)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,8 +1,15 @@
 package com.example.bankingservice.controller;
 
+import com.example.bankingservice.dto.TransactionFilter;
+import com.example.bankingservice.dto.TransactionHistory;
+import com.example.bankingservice.dto.TransactionView;
+import com.example.bankingservice.dto.ValidatedUser;
 import com.example.bankingservice.model.Transaction;
+import com.example.bankingservice.model.TransactionTypes;
+import com.example.bankingservice.service.AccountService;
 import com.example.bankingservice.service.TransactionService;
 import com.example.bankingservice.service.UserValidationService;
+import com.example.bankingservice.velocity.VelocityLimitExceededException;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -10,10 +17,14 @@ import io.swagger.v3.oas.annotations.media.*;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.*;
 
 @RestController
@@ -21,45 +32,56 @@ import java.util.*;
 @Tag(name = "Banking API", description = "Handles deposits, withdrawals, balance, and transaction history")
 public class BankingController {
 
+    private static final String COMPACT_CBOR = "application/cbor";
+    private static final String COMPACT_SMILE = "application/x-jackson-smile";
+    private static final int MAX_SEARCH_PAGE_SIZE = 200;
+
     @Autowired
     private TransactionService transactionService;
 
+    @Autowired
+    private AccountService accountService;
+
     @Autowired
     private UserValidationService userValidationService;
 
     @Operation(
         summary = "Deposit funds",
-        description = "Deposits a specific amount into the authenticated user's account.",
+        description = "Deposits a specific amount into the authenticated user's account, in the account's base currency unless currency is given.",
         requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
             required = true,
             content = @Content(
                 mediaType = "application/json",
-                schema = @Schema(example = "{\"amount\": 100.0}")
+                schema = @Schema(example = "{\"amount\": 100.0, \"currency\": \"EUR\"}")
             )
         )
     )
     @ApiResponse(responseCode = "200", description = "Deposit successful")
+    @ApiResponse(responseCode = "400", description = "Unsupported currency")
     @ApiResponse(responseCode = "403", description = "User is blacklisted or invalid")
     @PostMapping("/deposit")
     public ResponseEntity<?> deposit(
             @RequestHeader("Authorization") String authHeader,
             @RequestBody Map<String, Object> request) {
 
-        if (!userValidationService.validateUser(authHeader)) {
+        Long userId = activeUserId(authHeader);
+        if (userId == null) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body("User is blacklisted or invalid");
         }
 
-        Long userId = userValidationService.getUserIdFromToken(authHeader);
-        if (userId == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid token");
-
         BigDecimal amount = new BigDecimal(request.get("amount").toString());
-        Transaction tx = new Transaction("deposit", amount, userId);
-        return ResponseEntity.ok(transactionService.deposit(tx));
+        Transaction tx = new Transaction("deposit", amount, currencyOf(request), userId);
+
+        try {
+            return ResponseEntity.ok(transactionService.deposit(tx));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
     }
 
     @Operation(
         summary = "Withdraw funds",
-        description = "Withdraws a specific amount from the authenticated user's account.",
+        description = "Withdraws a specific amount from the authenticated user's account, in the account's base currency unless currency is given.",
         requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
             required = true,
             content = @Content(
@@ -69,27 +91,104 @@ public class BankingController {
         )
     )
     @ApiResponse(responseCode = "200", description = "Withdrawal successful")
-    @ApiResponse(responseCode = "400", description = "Insufficient funds")
+    @ApiResponse(responseCode = "400", description = "Insufficient funds or unsupported currency")
     @ApiResponse(responseCode = "403", description = "User is blacklisted or invalid")
+    @ApiResponse(responseCode = "429", description = "Withdrawal velocity limit reached")
     @PostMapping("/withdraw")
     public ResponseEntity<?> withdraw(
             @RequestHeader("Authorization") String authHeader,
             @RequestBody Map<String, Object> request) {
 
-        if (!userValidationService.validateUser(authHeader)) {
+        Long userId = activeUserId(authHeader);
+        if (userId == null) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body("User is blacklisted or invalid");
         }
 
-        Long userId = userValidationService.getUserIdFromToken(authHeader);
-        if (userId == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid token");
-
         BigDecimal amount = new BigDecimal(request.get("amount").toString());
-        Transaction tx = new Transaction("withdraw", amount, userId);
+        Transaction tx = new Transaction("withdraw", amount, currencyOf(request), userId);
 
         try {
             return ResponseEntity.ok(transactionService.withdraw(tx));
         } catch (IllegalArgumentException ex) {
-            return ResponseEntity.badRequest().body("Insufficient funds.");
+            return ResponseEntity.badRequest().body(ex.getMessage().startsWith("Insufficient") ? "Insufficient funds." : ex.getMessage());
+        } catch (VelocityLimitExceededException ex) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(ex.getMessage());
+        }
+    }
+
+    @Operation(
+        summary = "Transfer funds",
+        description = "Moves an amount to another account, or to another currency of the same account. "
+            + "currency defaults to the sender's base currency, toCurrency to the recipient's; the amount is converted at the current rate.",
+        requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            required = true,
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(example = "{\"toAccountId\": 2, \"amount\": 50.0, \"currency\": \"USD\", \"toCurrency\": \"EUR\"}")
+            )
+        )
+    )
+    @ApiResponse(responseCode = "200", description = "Transfer done; returns both transactions and the rate used")
+    @ApiResponse(responseCode = "400", description = "Insufficient funds, invalid amount or unsupported currency")
+    @ApiResponse(responseCode = "403", description = "User is blacklisted or invalid")
+    @ApiResponse(responseCode = "404", description = "Target account not found")
+    @ApiResponse(responseCode = "429", description = "Withdrawal velocity limit reached")
+    @PostMapping("/transfer")
+    public ResponseEntity<?> transfer(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestBody Map<String, Object> request) {
+
+        Long userId = activeUserId(authHeader);
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("User is blacklisted or invalid");
+        }
+
+        Long toAccountId = Long.valueOf(request.get("toAccountId").toString());
+        BigDecimal amount = new BigDecimal(request.get("amount").toString());
+        String toCurrency = request.get("toCurrency") != null ? request.get("toCurrency").toString() : null;
+
+        try {
+            return ResponseEntity.ok(transactionService.transfer(userId, toAccountId, amount, currencyOf(request), toCurrency));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        } catch (NoSuchElementException ex) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+        } catch (VelocityLimitExceededException ex) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(ex.getMessage());
+        }
+    }
+
+    @Operation(
+        summary = "Set the account base currency",
+        description = "Sets the currency used when a request names none. Only possible before the account's first transaction.",
+        requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            required = true,
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(example = "{\"currency\": \"EUR\"}")
+            )
+        )
+    )
+    @ApiResponse(responseCode = "200", description = "Base currency set")
+    @ApiResponse(responseCode = "400", description = "Unsupported currency")
+    @ApiResponse(responseCode = "403", description = "User is blacklisted or invalid")
+    @ApiResponse(responseCode = "409", description = "The account already has transactions")
+    @PutMapping("/currency")
+    public ResponseEntity<?> setBaseCurrency(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestBody Map<String, Object> request) {
+
+        Long userId = activeUserId(authHeader);
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("User is blacklisted or invalid");
+        }
+
+        try {
+            return ResponseEntity.ok(accountService.changeBaseCurrency(userId, String.valueOf(request.get("currency"))));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        } catch (IllegalStateException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
         }
     }
 
@@ -98,27 +197,115 @@ public class BankingController {
     @ApiResponse(responseCode = "403", description = "User is blacklisted or invalid")
     @GetMapping("/transactions")
     public ResponseEntity<?> getTransactions(@RequestHeader("Authorization") String authHeader) {
-        Long userId = userValidationService.getUserIdFromToken(authHeader);
-        if (userId == null || !userValidationService.validateUser(authHeader)) {
+        Long userId = activeUserId(authHeader);
+        if (userId == null) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body("User is blacklisted or invalid");
         }
 
         return ResponseEntity.ok(transactionService.getTransactionsByAccountId(userId));
     }
 
-    @Operation(summary = "Get account balance", description = "Returns the current balance for the authenticated user's account.")
+    @Operation(summary = "Get transaction history (compact)", description = "Same history as /transactions, encoded column-wise as CBOR or Smile. Selected with the Accept header.")
+    @ApiResponse(responseCode = "200", description = "Columnar transaction history")
+    @ApiResponse(responseCode = "403", description = "User is blacklisted or invalid")
+    @GetMapping(value = "/transactions", produces = {COMPACT_CBOR, COMPACT_SMILE})
+    public ResponseEntity<?> getTransactionsCompact(@RequestHeader("Authorization") String authHeader) {
+        Long userId = activeUserId(authHeader);
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("User is blacklisted or invalid");
+        }
+
+        return ResponseEntity.ok(TransactionHistory.of(userId, transactionService.getTransactionsByAccountId(userId)));
+    }
+
+    @Operation(
+        summary = "Search transactions",
+        description = "Filters an account's transactions by date range (from inclusive, to exclusive, ISO date-time), "
+            + "type, amount range and currency. Newest first, paged with page/size (size at most 200). "
+            + "accountId defaults to the caller's account; other accounts need an admin token."
+    )
+    @ApiResponse(responseCode = "200", description = "One page of matching transactions and whether there is a next page")
+    @ApiResponse(responseCode = "400", description = "Invalid filter")
+    @ApiResponse(responseCode = "403", description = "User is blacklisted or invalid, or not allowed to search that account")
+    @GetMapping("/transactions/search")
+    public ResponseEntity<?> searchTransactions(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestParam(required = false) Long accountId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) List<String> type,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(required = false) String currency,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+
+        ValidatedUser user = userValidationService.validate(authHeader);
+        if (user == null || user.isBlacklisted()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("User is blacklisted or invalid");
+        }
+        Long searchedAccount = accountId != null ? accountId : user.getId();
+        if (!searchedAccount.equals(user.getId()) && !user.isAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Searching other accounts requires admin rights");
+        }
+
+        List<String> types = new ArrayList<>();
+        for (String name : type != null ? type : List.<String>of()) {
+            if (TransactionTypes.sign(name) == 0) {
+                return ResponseEntity.badRequest().body("Unknown transaction type: " + name);
+            }
+            types.add(name.toLowerCase(Locale.ROOT));
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            return ResponseEntity.badRequest().body("from must be before to.");
+        }
+        if (minAmount != null && maxAmount != null && minAmount.compareTo(maxAmount) > 0) {
+            return ResponseEntity.badRequest().body("minAmount must not exceed maxAmount.");
+        }
+        if (page < 0 || size < 1 || size > MAX_SEARCH_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body("page must be >= 0 and size between 1 and " + MAX_SEARCH_PAGE_SIZE + ".");
+        }
+
+        TransactionFilter filter = new TransactionFilter(searchedAccount, from, to, types, minAmount, maxAmount,
+            currency != null ? currency.trim().toUpperCase(Locale.ROOT) : null);
+        Slice<TransactionView> result = transactionService.search(filter, PageRequest.of(page, size));
+        Map<String, Object> body = new HashMap<>();
+        body.put("transactions", result.getContent());
+        body.put("page", page);
+        body.put("size", size);
+        body.put("hasNext", result.hasNext());
+        return ResponseEntity.ok(body);
+    }
+
+    @Operation(summary = "Get account balance", description = "Returns the balance and available balance in the account's base currency, and the balance of every currency held.")
     @ApiResponse(responseCode = "200", description = "Current balance")
     @ApiResponse(responseCode = "403", description = "User is blacklisted or invalid")
     @GetMapping("/balance")
     public ResponseEntity<?> getBalance(@RequestHeader("Authorization") String authHeader) {
-        Long userId = userValidationService.getUserIdFromToken(authHeader);
-        if (userId == null || !userValidationService.validateUser(authHeader)) {
+        Long userId = activeUserId(authHeader);
+        if (userId == null) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body("User is blacklisted or invalid");
         }
 
-        BigDecimal balance = transactionService.getCurrentBalance(userId);
+        String currency = accountService.baseCurrency(userId);
+        Map<String, BigDecimal> balances = transactionService.getBalances(userId);
         Map<String, Object> result = new HashMap<>();
-        result.put("balance", balance);
+        result.put("balance", balances.getOrDefault(currency, BigDecimal.ZERO));
+        result.put("currency", currency);
+        result.put("available", transactionService.getAvailableBalance(userId, currency));
+        result.put("balances", balances);
         return ResponseEntity.ok(result);
     }
-}
\ No newline at end of file
+
+    // Optional "currency" of a request body; null means the account's base currency
+    private static String currencyOf(Map<String, Object> request) {
+        Object currency = request.get("currency");
+        return currency != null ? currency.toString() : null;
+    }
+
+    // One validation round-trip per request; null when the token is invalid or the user is blacklisted
+    private Long activeUserId(String authHeader) {
+        ValidatedUser user = userValidationService.validate(authHeader);
+        return user == null || user.isBlacklisted() ? null : user.getId();
+    }
+}
\ No newline at end of file
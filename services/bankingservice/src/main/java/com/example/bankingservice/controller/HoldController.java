@@ -0,0 +1,137 @@
+package com.example.bankingservice.controller;
+
+import com.example.bankingservice.dto.ValidatedUser;
+import com.example.bankingservice.service.HoldService;
+import com.example.bankingservice.service.UserValidationService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import io.swagger.v3.oas.annotations.media.*;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.*;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.*;
+
+@RestController
+@RequestMapping("/api/banking/holds")
+@Tag(name = "Holds API", description = "Reserves funds and later captures or releases them")
+public class HoldController {
+
+    @Autowired
+    private HoldService holdService;
+
+    @Autowired
+    private UserValidationService userValidationService;
+
+    @Operation(
+        summary = "Place a hold",
+        description = "Reserves an amount of the authenticated user's available balance, in the account's base currency unless currency is given. Expires after ttlSeconds (optional).",
+        requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            required = true,
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(example = "{\"amount\": 25.0, \"currency\": \"USD\", \"ttlSeconds\": 3600}")
+            )
+        )
+    )
+    @ApiResponse(responseCode = "200", description = "Hold placed")
+    @ApiResponse(responseCode = "400", description = "Insufficient funds, unsupported currency or invalid expiry")
+    @ApiResponse(responseCode = "403", description = "User is blacklisted or invalid")
+    @PostMapping
+    public ResponseEntity<?> placeHold(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestBody Map<String, Object> request) {
+
+        Long userId = activeUserId(authHeader);
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("User is blacklisted or invalid");
+        }
+
+        BigDecimal amount = new BigDecimal(request.get("amount").toString());
+        Object ttlSeconds = request.get("ttlSeconds");
+        Duration ttl = ttlSeconds != null ? Duration.ofSeconds(Long.parseLong(ttlSeconds.toString())) : null;
+        String currency = request.get("currency") != null ? request.get("currency").toString() : null;
+
+        try {
+            return ResponseEntity.ok(holdService.placeHold(userId, amount, currency, ttl));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+
+    @Operation(
+        summary = "Capture a hold",
+        description = "Turns an active hold into a withdrawal. Captures the full held amount unless a smaller amount is given.",
+        requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            required = false,
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(example = "{\"amount\": 20.0}")
+            )
+        )
+    )
+    @ApiResponse(responseCode = "200", description = "Hold captured, returns the withdrawal")
+    @ApiResponse(responseCode = "400", description = "Amount exceeds the held amount")
+    @ApiResponse(responseCode = "403", description = "User is blacklisted or invalid")
+    @ApiResponse(responseCode = "404", description = "Hold not found")
+    @ApiResponse(responseCode = "409", description = "Hold already captured, released or expired")
+    @PostMapping("/{id}/capture")
+    public ResponseEntity<?> capture(
+            @RequestHeader("Authorization") String authHeader,
+            @PathVariable("id") Long holdId,
+            @RequestBody(required = false) Map<String, Object> request) {
+
+        Long userId = activeUserId(authHeader);
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("User is blacklisted or invalid");
+        }
+
+        BigDecimal amount = request != null && request.get("amount") != null
+            ? new BigDecimal(request.get("amount").toString())
+            : null;
+
+        try {
+            return ResponseEntity.ok(holdService.capture(holdId, userId, amount));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        } catch (NoSuchElementException ex) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+        } catch (IllegalStateException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+        }
+    }
+
+    @Operation(summary = "Release a hold", description = "Cancels an active hold and makes its funds available again.")
+    @ApiResponse(responseCode = "200", description = "Hold released")
+    @ApiResponse(responseCode = "403", description = "User is blacklisted or invalid")
+    @ApiResponse(responseCode = "404", description = "Hold not found")
+    @ApiResponse(responseCode = "409", description = "Hold already captured, released or expired")
+    @PostMapping("/{id}/release")
+    public ResponseEntity<?> release(
+            @RequestHeader("Authorization") String authHeader,
+            @PathVariable("id") Long holdId) {
+
+        Long userId = activeUserId(authHeader);
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("User is blacklisted or invalid");
+        }
+
+        try {
+            return ResponseEntity.ok(holdService.release(holdId, userId));
+        } catch (NoSuchElementException ex) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+        } catch (IllegalStateException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+        }
+    }
+
+    private Long activeUserId(String authHeader) {
+        ValidatedUser user = userValidationService.validate(authHeader);
+        return user == null || user.isBlacklisted() ? null : user.getId();
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.bankingservice.controller;
+
+import com.example.bankingservice.batch.PeriodPostingJob;
+import com.example.bankingservice.batch.PostingKind;
+import com.example.bankingservice.bulkimport.TransactionImportJob;
+import com.example.bankingservice.dto.ValidatedUser;
+import com.example.bankingservice.reconciliation.ReconciliationJob;
+import com.example.bankingservice.service.UserValidationService;
+import com.example.bankingservice.shard.LedgerResharder;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import io.swagger.v3.oas.annotations.media.*;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.*;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+@RestController
+@RequestMapping("/api/banking/admin/ledger")
+@Tag(name = "Ledger Admin API", description = "Ledger sharding, reconciliation, period postings and imports (admins only)")
+public class LedgerAdminController {
+
+    @Autowired
+    private LedgerResharder ledgerResharder;
+
+    @Autowired
+    private ReconciliationJob reconciliationJob;
+
+    @Autowired
+    private PeriodPostingJob periodPostingJob;
+
+    @Autowired
+    private TransactionImportJob transactionImportJob;
+
+    @Autowired
+    private UserValidationService userValidationService;
+
+    @Operation(summary = "Get shard status", description = "Returns the shards currently owning accounts and the state of the last reshard.")
+    @ApiResponse(responseCode = "200", description = "Shard status")
+    @ApiResponse(responseCode = "403", description = "Caller is not an admin")
+    @GetMapping("/reshard")
+    public ResponseEntity<?> getStatus(@RequestHeader("Authorization") String authHeader) {
+        if (!isAdmin(authHeader)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Admin role required");
+        }
+        return ResponseEntity.ok(ledgerResharder.status());
+    }
+
+    @Operation(
+        summary = "Start a reshard",
+        description = "Moves accounts onto the given set of configured shards in the background. Traffic keeps flowing during the move.",
+        requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            required = true,
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(example = "{\"shards\": [\"ledger0\", \"ledger1\", \"ledger2\"]}")
+            )
+        )
+    )
+    @ApiResponse(responseCode = "202", description = "Reshard started")
+    @ApiResponse(responseCode = "400", description = "Unknown or invalid shard list")
+    @ApiResponse(responseCode = "403", description = "Caller is not an admin")
+    @ApiResponse(responseCode = "409", description = "A reshard is already running")
+    @PostMapping("/reshard")
+    public ResponseEntity<?> reshard(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestBody Map<String, List<String>> request) {
+
+        if (!isAdmin(authHeader)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Admin role required");
+        }
+
+        try {
+            if (!ledgerResharder.start(request.get("shards"))) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body("A reshard is already running");
+            }
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(ledgerResharder.status());
+    }
+
+    @Operation(summary = "Get reconciliation status", description = "Returns the summary of the last reconciliation run and whether one is running.")
+    @ApiResponse(responseCode = "200", description = "Reconciliation status")
+    @ApiResponse(responseCode = "403", description = "Caller is not an admin")
+    @GetMapping("/reconciliation")
+    public ResponseEntity<?> getReconciliation(@RequestHeader("Authorization") String authHeader) {
+        if (!isAdmin(authHeader)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Admin role required");
+        }
+        return ResponseEntity.ok(reconciliationJob.status());
+    }
+
+    @Operation(summary = "Start a reconciliation", description = "Recomputes all balances from the ledger in the background and writes a CSV mismatch report.")
+    @ApiResponse(responseCode = "202", description = "Reconciliation started")
+    @ApiResponse(responseCode = "403", description = "Caller is not an admin")
+    @ApiResponse(responseCode = "409", description = "A reconciliation is already running")
+    @PostMapping("/reconciliation")
+    public ResponseEntity<?> reconcile(@RequestHeader("Authorization") String authHeader) {
+        if (!isAdmin(authHeader)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Admin role required");
+        }
+        if (!reconciliationJob.start()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("A reconciliation is already running");
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(reconciliationJob.status());
+    }
+
+    @Operation(summary = "Get period posting status", description = "Returns the summary of the last interest/fee batch run.")
+    @ApiResponse(responseCode = "200", description = "Period posting status")
+    @ApiResponse(responseCode = "403", description = "Caller is not an admin")
+    @GetMapping("/postings")
+    public ResponseEntity<?> getPostings(@RequestHeader("Authorization") String authHeader) {
+        if (!isAdmin(authHeader)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Admin role required");
+        }
+        return ResponseEntity.ok(periodPostingJob.status());
+    }
+
+    @Operation(
+        summary = "Post interest or fees for a period",
+        description = "Runs the interest or fee batch for a finished month in the background. Each account is posted at most once per period.",
+        requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            required = true,
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(example = "{\"kind\": \"interest\", \"period\": \"2024-05\"}")
+            )
+        )
+    )
+    @ApiResponse(responseCode = "202", description = "Batch started")
+    @ApiResponse(responseCode = "400", description = "Unknown kind or period not finished")
+    @ApiResponse(responseCode = "403", description = "Caller is not an admin")
+    @ApiResponse(responseCode = "409", description = "A batch is already running")
+    @PostMapping("/postings")
+    public ResponseEntity<?> post(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestBody Map<String, String> request) {
+
+        if (!isAdmin(authHeader)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Admin role required");
+        }
+
+        try {
+            PostingKind kind = PostingKind.of(request.get("kind"));
+            YearMonth period = YearMonth.parse(String.valueOf(request.get("period")));
+            if (!periodPostingJob.start(kind, period)) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body("A batch is already running");
+            }
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(periodPostingJob.status());
+    }
+
+    @Operation(summary = "Get import status", description = "Returns the progress of the running transaction import, or the summary of the last one.")
+    @ApiResponse(responseCode = "200", description = "Import status")
+    @ApiResponse(responseCode = "403", description = "Caller is not an admin")
+    @GetMapping("/import")
+    public ResponseEntity<?> getImport(@RequestHeader("Authorization") String authHeader) {
+        if (!isAdmin(authHeader)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Admin role required");
+        }
+        return ResponseEntity.ok(transactionImportJob.status());
+    }
+
+    @Operation(
+        summary = "Import historical transactions",
+        description = "Imports a CSV or NDJSON file from the server's import directory in the background. "
+            + "The format follows the file extension unless given. Rejected rows are written to an error report.",
+        requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            required = true,
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(example = "{\"file\": \"history-2023.csv\", \"format\": \"csv\"}")
+            )
+        )
+    )
+    @ApiResponse(responseCode = "202", description = "Import started")
+    @ApiResponse(responseCode = "400", description = "Missing or unknown file, or unknown format")
+    @ApiResponse(responseCode = "403", description = "Caller is not an admin")
+    @ApiResponse(responseCode = "409", description = "An import is already running")
+    @PostMapping("/import")
+    public ResponseEntity<?> importTransactions(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestBody Map<String, String> request) {
+
+        if (!isAdmin(authHeader)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Admin role required");
+        }
+
+        try {
+            if (!transactionImportJob.start(request.get("file"), request.get("format"))) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body("An import is already running");
+            }
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(transactionImportJob.status());
+    }
+
+    private boolean isAdmin(String authHeader) {
+        ValidatedUser user = userValidationService.validate(authHeader);
+        return user != null && !user.isBlacklisted() && user.isAdmin();
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.bankingservice.controller;
+
+import com.example.bankingservice.dto.ValidatedUser;
+import com.example.bankingservice.service.StandingOrderService;
+import com.example.bankingservice.service.UserValidationService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import io.swagger.v3.oas.annotations.media.*;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.*;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+@RestController
+@RequestMapping("/api/banking/standing-orders")
+@Tag(name = "Standing Orders API", description = "Recurring deposits and withdrawals")
+public class StandingOrderController {
+
+    @Autowired
+    private StandingOrderService standingOrderService;
+
+    @Autowired
+    private UserValidationService userValidationService;
+
+    @Operation(
+        summary = "Create a standing order",
+        description = "Schedules a recurring deposit or withdrawal (daily, weekly or monthly) on the authenticated user's account, "
+            + "in the account's base currency unless currency is given. Starts now unless startAt is given; endAt is optional.",
+        requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            required = true,
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(example = "{\"type\": \"withdraw\", \"amount\": 50.0, \"frequency\": \"monthly\", "
+                    + "\"startAt\": \"2025-07-01T08:00:00\", \"endAt\": \"2026-06-30T23:59:59\"}")
+            )
+        )
+    )
+    @ApiResponse(responseCode = "200", description = "Standing order created")
+    @ApiResponse(responseCode = "400", description = "Invalid type, amount, frequency, currency or dates")
+    @ApiResponse(responseCode = "403", description = "User is blacklisted or invalid")
+    @PostMapping
+    public ResponseEntity<?> create(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestBody Map<String, Object> request) {
+
+        Long userId = activeUserId(authHeader);
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("User is blacklisted or invalid");
+        }
+
+        try {
+            BigDecimal amount = request.get("amount") != null ? new BigDecimal(request.get("amount").toString()) : null;
+            return ResponseEntity.ok(standingOrderService.create(userId,
+                text(request, "type"), amount, text(request, "currency"), text(request, "frequency"),
+                dateTime(request, "startAt"), dateTime(request, "endAt")));
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+
+    @Operation(summary = "List standing orders", description = "Returns the authenticated user's standing orders, newest first, with their next run and last error.")
+    @ApiResponse(responseCode = "200", description = "Standing orders")
+    @ApiResponse(responseCode = "403", description = "User is blacklisted or invalid")
+    @GetMapping
+    public ResponseEntity<?> list(@RequestHeader("Authorization") String authHeader) {
+        Long userId = activeUserId(authHeader);
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("User is blacklisted or invalid");
+        }
+        return ResponseEntity.ok(standingOrderService.list(userId));
+    }
+
+    @Operation(summary = "Cancel a standing order", description = "Stops an active standing order; no further runs are posted.")
+    @ApiResponse(responseCode = "200", description = "Standing order cancelled")
+    @ApiResponse(responseCode = "403", description = "User is blacklisted or invalid")
+    @ApiResponse(responseCode = "404", description = "Standing order not found")
+    @ApiResponse(responseCode = "409", description = "Standing order already cancelled or finished")
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> cancel(
+            @RequestHeader("Authorization") String authHeader,
+            @PathVariable("id") Long orderId) {
+
+        Long userId = activeUserId(authHeader);
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("User is blacklisted or invalid");
+        }
+
+        try {
+            return ResponseEntity.ok(standingOrderService.cancel(orderId, userId));
+        } catch (NoSuchElementException ex) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+        } catch (IllegalStateException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+        }
+    }
+
+    private static String text(Map<String, Object> request, String key) {
+        Object value = request.get(key);
+        return value != null ? value.toString().trim().toLowerCase(Locale.ROOT) : null;
+    }
+
+    private static LocalDateTime dateTime(Map<String, Object> request, String key) {
+        Object value = request.get(key);
+        return value != null ? LocalDateTime.parse(value.toString()) : null;
+    }
+
+    private Long activeUserId(String authHeader) {
+        ValidatedUser user = userValidationService.validate(authHeader);
+        return user == null || user.isBlacklisted() ? null : user.getId();
+    }
+}
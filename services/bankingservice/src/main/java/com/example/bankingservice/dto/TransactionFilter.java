@@ -0,0 +1,56 @@
+package com.example.bankingservice.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Transaction search filters; everything but the account is optional (null / empty = no filter)
+public class TransactionFilter {
+
+    private final Long accountId;
+    private final LocalDateTime from; // inclusive
+    private final LocalDateTime to; // exclusive
+    private final List<String> types;
+    private final BigDecimal minAmount;
+    private final BigDecimal maxAmount;
+    private final String currency;
+
+    public TransactionFilter(Long accountId, LocalDateTime from, LocalDateTime to, List<String> types,
+                             BigDecimal minAmount, BigDecimal maxAmount, String currency) {
+        this.accountId = accountId;
+        this.from = from;
+        this.to = to;
+        this.types = types != null ? List.copyOf(types) : List.of();
+        this.minAmount = minAmount;
+        this.maxAmount = maxAmount;
+        this.currency = currency;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public List<String> getTypes() {
+        return types;
+    }
+
+    public BigDecimal getMinAmount() {
+        return minAmount;
+    }
+
+    public BigDecimal getMaxAmount() {
+        return maxAmount;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+}
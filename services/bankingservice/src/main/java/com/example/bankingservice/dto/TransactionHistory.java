@@ -0,0 +1,98 @@
+package com.example.bankingservice.dto;
+
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+// Compact, column-oriented transaction history served to clients that ask for CBOR or Smile.
+// One array per field instead of one object per row: no repeated field names, the type is a
+// small index into typeDictionary (currency likewise into currencyDictionary), amounts are
+// hundredths of the row's currency and dates are epoch millis (UTC).
+public class TransactionHistory {
+
+    private final long accountId;
+    private final List<String> typeDictionary;
+    private final List<String> currencyDictionary;
+    private final long[] ids;
+    private final byte[] types;
+    private final byte[] currencies;
+    private final long[] amounts;
+    private final long[] transactionDates;
+
+    public TransactionHistory(long accountId, List<String> typeDictionary, List<String> currencyDictionary, long[] ids,
+                              byte[] types, byte[] currencies, long[] amounts, long[] transactionDates) {
+        this.accountId = accountId;
+        this.typeDictionary = typeDictionary;
+        this.currencyDictionary = currencyDictionary;
+        this.ids = ids;
+        this.types = types;
+        this.currencies = currencies;
+        this.amounts = amounts;
+        this.transactionDates = transactionDates;
+    }
+
+    // Builds the columnar form from history rows (already ordered newest first)
+    public static TransactionHistory of(long accountId, List<TransactionView> transactions) {
+        int size = transactions.size();
+        List<String> dictionary = new ArrayList<>(4);
+        List<String> currencyDictionary = new ArrayList<>(2);
+        long[] ids = new long[size];
+        byte[] types = new byte[size];
+        byte[] currencies = new byte[size];
+        long[] amounts = new long[size];
+        long[] dates = new long[size];
+
+        for (int i = 0; i < size; i++) {
+            TransactionView tx = transactions.get(i);
+            int typeIndex = dictionary.indexOf(tx.type());
+            if (typeIndex < 0) {
+                typeIndex = dictionary.size();
+                dictionary.add(tx.type());
+            }
+            int currencyIndex = currencyDictionary.indexOf(tx.currency());
+            if (currencyIndex < 0) {
+                currencyIndex = currencyDictionary.size();
+                currencyDictionary.add(tx.currency());
+            }
+            ids[i] = tx.id();
+            types[i] = (byte) typeIndex;
+            currencies[i] = (byte) currencyIndex;
+            amounts[i] = tx.amount().movePointRight(2).longValueExact();
+            dates[i] = tx.transactionDate().toInstant(ZoneOffset.UTC).toEpochMilli();
+        }
+        return new TransactionHistory(accountId, dictionary, currencyDictionary, ids, types, currencies, amounts, dates);
+    }
+
+    public long getAccountId() {
+        return accountId;
+    }
+
+    public List<String> getTypeDictionary() {
+        return typeDictionary;
+    }
+
+    public List<String> getCurrencyDictionary() {
+        return currencyDictionary;
+    }
+
+    public long[] getIds() {
+        return ids;
+    }
+
+    public byte[] getTypes() {
+        return types;
+    }
+
+    public byte[] getCurrencies() {
+        return currencies;
+    }
+
+    public long[] getAmounts() {
+        return amounts;
+    }
+
+    public long[] getTransactionDates() {
+        return transactionDates;
+    }
+}
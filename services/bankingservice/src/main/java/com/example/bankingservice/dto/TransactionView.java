@@ -0,0 +1,10 @@
+package com.example.bankingservice.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Read-side row of the transactions table (history, search): an immutable projection filled by a
+// constructor expression, so reads never create managed entities. Serializes like Transaction.
+public record TransactionView(Long id, String type, BigDecimal amount, String currency, Long accountId,
+                              LocalDateTime transactionDate) {
+}
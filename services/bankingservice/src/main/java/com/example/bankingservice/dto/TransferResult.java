@@ -0,0 +1,31 @@
+package com.example.bankingservice.dto;
+
+import com.example.bankingservice.model.Transaction;
+
+import java.math.BigDecimal;
+
+// Both legs of a transfer and the rate used between them
+public class TransferResult {
+
+    private final Transaction debit;
+    private final Transaction credit;
+    private final BigDecimal rate;
+
+    public TransferResult(Transaction debit, Transaction credit, BigDecimal rate) {
+        this.debit = debit;
+        this.credit = credit;
+        this.rate = rate;
+    }
+
+    public Transaction getDebit() {
+        return debit;
+    }
+
+    public Transaction getCredit() {
+        return credit;
+    }
+
+    public BigDecimal getRate() {
+        return rate;
+    }
+}
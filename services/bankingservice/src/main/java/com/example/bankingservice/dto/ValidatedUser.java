@@ -0,0 +1,32 @@
+package com.example.bankingservice.dto;
+
+// The facts bankingservice needs about the caller, from one validation round-trip
+public class ValidatedUser {
+
+    private final Long id;
+    private final boolean blacklisted;
+    private final boolean admin;
+
+    public ValidatedUser(Long id, boolean blacklisted) {
+        this(id, blacklisted, false);
+    }
+
+    public ValidatedUser(Long id, boolean blacklisted, boolean admin) {
+        this.id = id;
+        this.blacklisted = blacklisted;
+        this.admin = admin;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public boolean isBlacklisted() {
+        return blacklisted;
+    }
+
+    // ROLE_ADMIN in clientservice; required for /api/banking/admin/**
+    public boolean isAdmin() {
+        return admin;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.bankingservice.engine;
+
+import com.example.bankingservice.model.Transaction;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+
+// One request to a partition's event loop. applied completes once the loop has checked and
+// updated the in-memory balance; result completes once the change is durable in the journal
+// (CREDIT, DEBIT), immediately (APPLY), or with the balances read (BALANCES).
+final class EngineCommand {
+
+    enum Kind {
+        CREDIT,   // journaled credit
+        DEBIT,    // journaled debit, refused when it exceeds the available balance
+        APPLY,    // already stored in the transactions table by someone else; memory only
+        BALANCES  // read every currency balance of the account
+    }
+
+    final Kind kind;
+    final long accountId;
+    final Transaction tx;
+    final long minorAmount;
+    final CompletableFuture<Void> applied = new CompletableFuture<>();
+    final CompletableFuture<Object> result = new CompletableFuture<>();
+
+    EngineCommand(Kind kind, long accountId, Transaction tx) {
+        this.kind = kind;
+        this.accountId = accountId;
+        this.tx = tx;
+        this.minorAmount = tx != null ? toMinor(tx.getAmount()) : 0;
+    }
+
+    static long toMinor(BigDecimal amount) {
+        try {
+            return amount.movePointRight(2).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amounts have at most two decimals.");
+        }
+    }
+
+    void fail(RuntimeException e) {
+        applied.completeExceptionally(e);
+        result.completeExceptionally(e);
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.bankingservice.engine;
+
+import com.example.bankingservice.hold.ActiveHoldIndex;
+import com.example.bankingservice.model.TransactionTypes;
+import com.example.bankingservice.shard.LedgerIdGenerator;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// One single-writer event loop: owns the balances (minor units, one map per currency) of the
+// accounts hashed to it, and is the only thread that ever reads or writes them. Commands come in
+// through a lock-free ring; journaled changes are handed to the LedgerJournal in the same order.
+class EnginePartition implements Runnable {
+
+    private static final int IDLE_SPINS = 1_000;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final MpscRing<EngineCommand> ring;
+    private final Map<String, LongLongMap> balances = new HashMap<>();
+    private final LedgerJournal journal;
+    private final ActiveHoldIndex activeHoldIndex;
+    private final long submitTimeoutNanos;
+    private final Thread thread;
+
+    private volatile boolean running = true;
+    private volatile boolean parked;
+
+    EnginePartition(int index, int ringSize, LedgerJournal journal, ActiveHoldIndex activeHoldIndex, long submitTimeoutMillis) {
+        this.ring = new MpscRing<>(ringSize);
+        this.journal = journal;
+        this.activeHoldIndex = activeHoldIndex;
+        this.submitTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(submitTimeoutMillis);
+        this.thread = new Thread(this, "ledger-engine-" + index);
+        this.thread.setDaemon(true);
+    }
+
+    // Startup load, before start(): the thread start publishes the maps to the loop
+    void load(long accountId, String currency, long minorBalance) {
+        map(currency).add(accountId, minorBalance);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    // Waits for queued commands to be processed, then stops the loop
+    void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(thread);
+        thread.join();
+    }
+
+    // Backpressure: a full ring makes the caller wait, up to the submit timeout
+    void submit(EngineCommand command) {
+        if (!running) {
+            throw new IllegalStateException("Ledger engine is stopped.");
+        }
+        long deadline = System.nanoTime() + submitTimeoutNanos;
+        while (!ring.offer(command)) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Ledger engine is overloaded.");
+            }
+            Thread.yield();
+        }
+        // A missed wake-up (the loop parking just as we publish) only costs one park interval
+        if (parked) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    @Override
+    public void run() {
+        int idle = 0;
+        while (running || !ring.isEmpty()) {
+            EngineCommand command = ring.poll();
+            if (command != null) {
+                idle = 0;
+                process(command);
+            } else if (++idle < IDLE_SPINS) {
+                Thread.onSpinWait();
+            } else {
+                parked = true;
+                if (ring.isEmpty() && running) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+                parked = false;
+            }
+        }
+    }
+
+    private void process(EngineCommand command) {
+        try {
+            if (journal.failed() && (command.kind == EngineCommand.Kind.CREDIT || command.kind == EngineCommand.Kind.DEBIT)) {
+                // Memory may be ahead of the journal now; only a restart (recovery) can fix that
+                command.fail(new IllegalStateException("Ledger engine stopped: journal write failed."));
+                return;
+            }
+            switch (command.kind) {
+                case CREDIT -> {
+                    map(command.tx.getCurrency()).add(command.accountId, command.minorAmount);
+                    journal(command);
+                }
+                case DEBIT -> {
+                    String currency = command.tx.getCurrency();
+                    LongLongMap map = map(currency);
+                    long held = EngineCommand.toMinor(activeHoldIndex.heldAmount(command.accountId, currency));
+                    if (map.get(command.accountId) - held < command.minorAmount) {
+                        command.fail(new IllegalArgumentException("Insufficient funds for withdrawal."));
+                        return;
+                    }
+                    map.add(command.accountId, -command.minorAmount);
+                    journal(command);
+                }
+                case APPLY -> {
+                    int sign = TransactionTypes.sign(command.tx.getType());
+                    map(command.tx.getCurrency()).add(command.accountId, sign * command.minorAmount);
+                    command.applied.complete(null);
+                    command.result.complete(command.tx);
+                }
+                case BALANCES -> {
+                    Map<String, BigDecimal> result = new TreeMap<>();
+                    balances.forEach((currency, map) -> {
+                        if (map.containsKey(command.accountId)) {
+                            result.put(currency, BigDecimal.valueOf(map.get(command.accountId), 2));
+                        }
+                    });
+                    command.applied.complete(null);
+                    command.result.complete(result);
+                }
+            }
+        } catch (RuntimeException e) {
+            command.fail(e);
+        }
+    }
+
+    private void journal(EngineCommand command) {
+        if (command.tx.getId() == null) {
+            command.tx.setId(LedgerIdGenerator.nextId());
+        }
+        command.applied.complete(null);
+        journal.append(command.tx, command.result);
+    }
+
+    private LongLongMap map(String currency) {
+        return balances.computeIfAbsent(currency, code -> new LongLongMap(1024));
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.bankingservice.engine;
+
+import com.example.bankingservice.hold.ActiveHoldIndex;
+import com.example.bankingservice.model.Transaction;
+import com.example.bankingservice.model.TransactionTypes;
+import com.example.bankingservice.reconciliation.StoredBalanceSource;
+import com.example.bankingservice.shard.LedgerShards;
+import com.example.bankingservice.shard.ShardRouter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+// Optional high-throughput ledger mode (banking.engine.enabled). Balances live in memory, split
+// over single-writer event loops by account; a deposit or withdrawal is a command to the owning
+// loop, which checks and updates the balance without any database round-trip and journals the
+// change. Callers get their answer once the journal is fsynced (group commit); the transactions
+// table is filled asynchronously from the journal.
+//
+// On startup, journal segments left by a crash are stored first (idempotently, by transaction id),
+// then balances are loaded from the transactions table. Changes written to the table by other
+// paths (hold captures, period postings) must be reported with applyPersisted.
+@Component
+public class LedgerEngine implements StoredBalanceSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerEngine.class);
+
+    private static final String INSERT_SQL = "insert into transactions (id, type, amount, currency, account_id, transaction_date)"
+        + " values (?, ?, ?, ?, ?, ?)";
+
+    private static final String BALANCES_SQL = "select account_id, currency, sum("
+        + TransactionTypes.signedAmountSql("type", "amount") + ") from transactions group by account_id, currency";
+
+    @Autowired
+    private LedgerShards shards;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ActiveHoldIndex activeHoldIndex;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${banking.engine.enabled:false}")
+    private boolean enabled;
+
+    @Value("${banking.engine.partitions:4}")
+    private int partitionCount;
+
+    @Value("${banking.engine.ring-size:8192}")
+    private int ringSize;
+
+    @Value("${banking.engine.submit-timeout-ms:1000}")
+    private long submitTimeoutMillis;
+
+    @Value("${banking.engine.journal.dir:journal}")
+    private String journalDir;
+
+    @Value("${banking.engine.journal.segment-bytes:67108864}")
+    private long segmentBytes;
+
+    @Value("${banking.engine.journal.max-batch:512}")
+    private int maxBatch;
+
+    private JdbcTemplate jdbc;
+    private LedgerJournal journal;
+    private EnginePartition[] partitions;
+
+    @PostConstruct
+    void start() throws IOException, InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        jdbc = new JdbcTemplate(dataSource);
+        Path directory = Path.of(journalDir);
+        int recovered = recover(directory);
+
+        journal = new LedgerJournal(directory, segmentBytes, maxBatch, ringSize, this::store);
+        partitions = new EnginePartition[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new EnginePartition(i, ringSize, journal, activeHoldIndex, submitTimeoutMillis);
+        }
+        long accounts = load();
+
+        journal.start();
+        for (EnginePartition partition : partitions) {
+            partition.start();
+        }
+        logger.info("Ledger engine started: {} partitions, {} balances loaded, {} journaled transactions recovered",
+            partitionCount, accounts, recovered);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        for (EnginePartition partition : partitions) {
+            partition.stop();
+        }
+        journal.close();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Durable once the returned future completes (use await)
+    public CompletableFuture<Object> credit(Transaction tx) {
+        EngineCommand command = new EngineCommand(EngineCommand.Kind.CREDIT, tx.getAccountId(), tx);
+        partitionOf(tx.getAccountId()).submit(command);
+        return command.result;
+    }
+
+    // Returns once the balance check is done (IllegalArgumentException on insufficient funds), so a
+    // caller holding the account lock can release it before waiting for the returned durability future
+    public CompletableFuture<Object> debit(Transaction tx) {
+        EngineCommand command = new EngineCommand(EngineCommand.Kind.DEBIT, tx.getAccountId(), tx);
+        partitionOf(tx.getAccountId()).submit(command);
+        await(command.applied);
+        return command.result;
+    }
+
+    // A transaction already stored in the transactions table by another path; no-op when disabled
+    public void applyPersisted(Transaction tx) {
+        if (enabled) {
+            partitionOf(tx.getAccountId()).submit(new EngineCommand(EngineCommand.Kind.APPLY, tx.getAccountId(), tx));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public Map<String, BigDecimal> balances(Long accountId) {
+        EngineCommand command = new EngineCommand(EngineCommand.Kind.BALANCES, accountId, null);
+        partitionOf(accountId).submit(command);
+        return (Map<String, BigDecimal>) await(command.result);
+    }
+
+    // Waits until every change the engine journaled before the call is in the transactions table;
+    // false on timeout. Always true when disabled (the table is the ledger then).
+    public boolean awaitStored(long timeoutMillis) {
+        if (!enabled) {
+            return true;
+        }
+        try {
+            return journal.awaitStored(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // Waits for a command future, rethrowing the engine's exception as is
+    public static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public String name() {
+        return "engine";
+    }
+
+    // Reconciliation compares the in-memory balances with the ledger
+    @Override
+    public BigDecimal balanceOf(Long accountId, String currency) {
+        return enabled ? balances(accountId).get(currency) : null;
+    }
+
+    private EnginePartition partitionOf(long accountId) {
+        return partitions[(int) Math.floorMod(LongLongMap.mix(accountId), (long) partitions.length)];
+    }
+
+    // Stores what a previous run journaled but may not have stored, then removes the segments
+    private int recover(Path directory) throws IOException {
+        int recovered = 0;
+        for (Path segment : LedgerJournal.segments(directory)) {
+            List<Transaction> transactions = LedgerJournal.read(segment);
+            store(transactions, true);
+            Files.delete(segment);
+            recovered += transactions.size();
+        }
+        return recovered;
+    }
+
+    // Batch inserts per account on the account's shard. A replay (recovery, retry after a partial
+    // failure) may find rows already stored, so it deletes them by id first (ids are global).
+    private void store(List<Transaction> transactions, boolean replay) {
+        Map<Long, List<Object[]>> byAccount = new LinkedHashMap<>();
+        for (Transaction tx : transactions) {
+            byAccount.computeIfAbsent(tx.getAccountId(), id -> new ArrayList<>()).add(new Object[] {
+                tx.getId(), tx.getType(), tx.getAmount(), tx.getCurrency(), tx.getAccountId(), tx.getTransactionDate()});
+        }
+        byAccount.forEach((accountId, rows) -> shardRouter.onAccount(accountId, () -> {
+            if (replay) {
+                jdbc.batchUpdate("delete from transactions where id = ?", rows.stream().map(row -> new Object[] {row[0]}).toList());
+            }
+            return jdbc.batchUpdate(INSERT_SQL, rows);
+        }));
+    }
+
+    // Loads every (account, currency) balance from the shard owning the account
+    private long load() {
+        long[] loaded = new long[1];
+        for (String shard : shards.names()) {
+            new JdbcTemplate(shards.dataSource(shard)).query(BALANCES_SQL, rs -> {
+                long accountId = rs.getLong(1);
+                // Rows left on a shard by an interrupted reshard do not count
+                if (shard.equals(shardRouter.shardOf(accountId))) {
+                    partitionOf(accountId).load(accountId, rs.getString(2), EngineCommand.toMinor(rs.getBigDecimal(3)));
+                    loaded[0]++;
+                }
+            });
+        }
+        return loaded[0];
+    }
+}
@@ -0,0 +1,332 @@
+package com.example.bankingservice.engine;
+
+import com.example.bankingservice.model.Transaction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Append-only journal of the engine's ledger changes, in segment files journal-<n>.log.
+// The writer thread does group commit: it drains whatever the event loops queued since the last
+// write, appends it with one write and one fsync, and only then completes the callers' futures.
+// Written batches go, in order, to a persister thread that stores them in the transactions table;
+// a segment is deleted once every batch in it is stored, so the journal only holds the DB's lag.
+//
+// Record: int length | long id | long accountId | long amount (minor units) | long epochSecond |
+// int nano | byte typeLength | type | currency (3 bytes) | int crc32 (of everything after length).
+// A torn record at the end of the last segment (crash during a write) fails its CRC and ends replay.
+class LedgerJournal implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerJournal.class);
+
+    private static final int MAX_RECORD = 256;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long RETRY_MILLIS = 1_000;
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final int maxBatch;
+    private final BiConsumer<List<Transaction>, Boolean> store; // (batch, retry)
+    private final MpscRing<Entry> ring;
+    private final BlockingQueue<Batch> stored = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private final Thread persister;
+    // Entries taken by append, and entries stored in the database or failed; equal once the journal is drained
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong settled = new AtomicLong();
+
+    private FileChannel channel; // writer thread only
+    private Path segment;
+    private long segmentNumber;
+
+    private volatile boolean running = true;
+    private volatile boolean parked;
+    private volatile IOException failure;
+
+    LedgerJournal(Path directory, long segmentBytes, int maxBatch, int ringSize, BiConsumer<List<Transaction>, Boolean> store) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxBatch = maxBatch;
+        this.store = store;
+        this.ring = new MpscRing<>(ringSize);
+        this.writer = new Thread(this::writeLoop, "ledger-journal");
+        this.writer.setDaemon(true);
+        this.persister = new Thread(this::persistLoop, "ledger-journal-persister");
+        this.persister.setDaemon(true);
+    }
+
+    // Existing segments, oldest first
+    static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().matches("journal-\\d+\\.log")).sorted().toList();
+        }
+    }
+
+    static List<Transaction> read(Path segment) throws IOException {
+        List<Transaction> transactions = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment)))) {
+            while (true) {
+                Transaction tx = readRecord(in);
+                if (tx == null) {
+                    return transactions;
+                }
+                transactions.add(tx);
+            }
+        }
+    }
+
+    void start() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> existing = segments(directory);
+        segmentNumber = existing.isEmpty() ? 0 : number(existing.get(existing.size() - 1));
+        openNextSegment();
+        writer.start();
+        persister.start();
+    }
+
+    boolean failed() {
+        return failure != null;
+    }
+
+    // Called by the event loops; waits while the ring is full (the journal sets the pace)
+    void append(Transaction tx, CompletableFuture<Object> durable) {
+        Entry entry = new Entry(tx, durable);
+        while (!ring.offer(entry)) {
+            if (failure != null) {
+                durable.completeExceptionally(new IllegalStateException("Ledger journal write failed.", failure));
+                return;
+            }
+            Thread.yield();
+        }
+        appended.incrementAndGet();
+        if (parked) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    // Waits until everything appended before the call is stored in the database (or has failed)
+    boolean awaitStored(long timeoutMillis) throws InterruptedException {
+        long target = appended.get();
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (settled.get() < target) {
+            if (System.currentTimeMillis() >= deadline) {
+                return false;
+            }
+            Thread.sleep(5);
+        }
+        return true;
+    }
+
+    // Writes what is queued, then waits (up to timeout) for it to be stored in the database
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join();
+        stored.add(Batch.END);
+        persister.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    private void writeLoop() {
+        List<Entry> batch = new ArrayList<>(maxBatch);
+        ByteBuffer buffer = ByteBuffer.allocate(maxBatch * MAX_RECORD);
+        while (running || !ring.isEmpty()) {
+            Entry entry;
+            while (batch.size() < maxBatch && (entry = ring.poll()) != null) {
+                batch.add(entry);
+            }
+            if (batch.isEmpty()) {
+                parked = true;
+                if (ring.isEmpty() && running) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+                parked = false;
+                continue;
+            }
+            write(batch, buffer);
+            batch.clear();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.warn("Closing ledger journal segment failed: {}", e.getMessage());
+        }
+        // The last segment is deleted once everything written before it is stored
+        stored.add(new Batch(List.of(), segment));
+    }
+
+    private void write(List<Entry> batch, ByteBuffer buffer) {
+        if (failure != null) {
+            batch.forEach(entry -> entry.durable.completeExceptionally(new IllegalStateException("Ledger journal write failed.", failure)));
+            settled.addAndGet(batch.size());
+            return;
+        }
+        List<Transaction> transactions = new ArrayList<>(batch.size());
+        try {
+            buffer.clear();
+            for (Entry entry : batch) {
+                writeRecord(buffer, entry.tx);
+                transactions.add(entry.tx);
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            failure = e;
+            logger.error("Ledger journal write failed, engine stops accepting changes", e);
+            batch.forEach(entry -> entry.durable.completeExceptionally(new IllegalStateException("Ledger journal write failed.", e)));
+            settled.addAndGet(batch.size());
+            return;
+        }
+        batch.forEach(entry -> entry.durable.complete(entry.tx));
+
+        Path full = null;
+        try {
+            if (channel.position() >= segmentBytes) {
+                full = segment;
+                channel.close();
+                openNextSegment();
+            }
+        } catch (IOException e) {
+            failure = e;
+            logger.error("Ledger journal rotation failed, engine stops accepting changes", e);
+        }
+        stored.add(new Batch(transactions, full));
+    }
+
+    // Stores batches in journal order; retries until the database takes them
+    private void persistLoop() {
+        while (true) {
+            Batch batch;
+            try {
+                batch = stored.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (batch == Batch.END) {
+                return;
+            }
+            boolean retry = false;
+            while (!batch.transactions.isEmpty()) {
+                try {
+                    store.accept(batch.transactions, retry);
+                    settled.addAndGet(batch.transactions.size());
+                    break;
+                } catch (RuntimeException e) {
+                    logger.warn("Storing {} journaled transactions failed, retrying: {}", batch.transactions.size(), e.getMessage());
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(RETRY_MILLIS));
+                    retry = true;
+                }
+            }
+            if (batch.completedSegment != null) {
+                try {
+                    Files.deleteIfExists(batch.completedSegment);
+                } catch (IOException e) {
+                    logger.warn("Deleting stored journal segment failed: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void openNextSegment() throws IOException {
+        segmentNumber++;
+        segment = directory.resolve(String.format("journal-%012d.log", segmentNumber));
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    private static long number(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring("journal-".length(), name.length() - ".log".length()));
+    }
+
+    private static void writeRecord(ByteBuffer buffer, Transaction tx) {
+        byte[] type = tx.getType().getBytes(StandardCharsets.US_ASCII);
+        byte[] currency = tx.getCurrency().getBytes(StandardCharsets.US_ASCII);
+        int start = buffer.position();
+        buffer.putInt(0); // length, filled in below
+        buffer.putLong(tx.getId());
+        buffer.putLong(tx.getAccountId());
+        buffer.putLong(EngineCommand.toMinor(tx.getAmount()));
+        buffer.putLong(tx.getTransactionDate().toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(tx.getTransactionDate().getNano());
+        buffer.put((byte) type.length);
+        buffer.put(type);
+        buffer.put(currency, 0, 3);
+        int length = buffer.position() - start - 4;
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), start + 4, length);
+        buffer.putInt((int) crc.getValue());
+        buffer.putInt(start, length);
+    }
+
+    // Next record, or null at the end of the segment or at a torn/corrupt record
+    private static Transaction readRecord(DataInputStream in) throws IOException {
+        try {
+            int length = in.readInt();
+            if (length <= 0 || length > MAX_RECORD) {
+                return null;
+            }
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if (in.readInt() != (int) crc.getValue()) {
+                return null;
+            }
+            ByteBuffer record = ByteBuffer.wrap(payload);
+            long id = record.getLong();
+            long accountId = record.getLong();
+            BigDecimal amount = BigDecimal.valueOf(record.getLong(), 2);
+            LocalDateTime date = LocalDateTime.ofEpochSecond(record.getLong(), record.getInt(), ZoneOffset.UTC);
+            byte[] type = new byte[record.get()];
+            record.get(type);
+            byte[] currency = new byte[3];
+            record.get(currency);
+
+            Transaction tx = new Transaction(new String(type, StandardCharsets.US_ASCII), amount,
+                new String(currency, StandardCharsets.US_ASCII), accountId);
+            tx.setId(id);
+            tx.setTransactionDate(date);
+            return tx;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private record Entry(Transaction tx, CompletableFuture<Object> durable) {
+    }
+
+    // completedSegment: set on the last batch of a segment, which can be deleted once the batch is stored
+    private record Batch(List<Transaction> transactions, Path completedSegment) {
+        static final Batch END = new Batch(List.of(), null);
+    }
+}
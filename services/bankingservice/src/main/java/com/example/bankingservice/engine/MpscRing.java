@@ -0,0 +1,63 @@
+package com.example.bankingservice.engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Bounded multi-producer single-consumer ring. Each slot carries a sequence number telling
+// whose turn it is: producers claim a slot with one CAS on the tail and publish it by bumping
+// the slot's sequence, the consumer reads slots strictly in order. No locks on either side.
+class MpscRing<T> {
+
+    private final Object[] items;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private long head; // consumer thread only
+
+    MpscRing(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring capacity must be a power of two: " + capacity);
+        }
+        this.items = new Object[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    // False when the ring is full
+    boolean offer(T item) {
+        while (true) {
+            long position = tail.get();
+            int slot = (int) (position & mask);
+            long difference = sequences.get(slot) - position;
+            if (difference < 0) {
+                return false; // the consumer has not freed this slot yet
+            }
+            if (difference == 0 && tail.compareAndSet(position, position + 1)) {
+                items[slot] = item;
+                sequences.lazySet(slot, position + 1);
+                return true;
+            }
+        }
+    }
+
+    // Next item, or null when the ring is empty
+    @SuppressWarnings("unchecked")
+    T poll() {
+        int slot = (int) (head & mask);
+        if (sequences.get(slot) != head + 1) {
+            return null;
+        }
+        T item = (T) items[slot];
+        items[slot] = null;
+        sequences.lazySet(slot, head + items.length);
+        head++;
+        return item;
+    }
+
+    boolean isEmpty() {
+        return sequences.get((int) (head & mask)) != head + 1;
+    }
+}
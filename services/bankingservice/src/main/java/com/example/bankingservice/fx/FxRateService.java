@@ -0,0 +1,116 @@
+package com.example.bankingservice.fx;
+
+import jakarta.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Exchange rates for the hot path: loaded from a rates file into an immutable FxSnapshot that is
+// swapped atomically on reload, so conversions are plain map lookups and never touch the database.
+// A file that fails to parse leaves the previous snapshot in place.
+@Component
+public class FxRateService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FxRateService.class);
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    // Properties file: base=USD, then one CODE=rate line per currency (units per 1 base)
+    @Value("${banking.fx.rates-location:classpath:fx-rates.properties}")
+    private String ratesLocation;
+
+    private final AtomicReference<FxSnapshot> snapshot = new AtomicReference<>();
+    private volatile long loadedModified = -1;
+
+    @PostConstruct
+    void loadRates() throws IOException {
+        Resource resource = resourceLoader.getResource(ratesLocation);
+        snapshot.set(parse(resource));
+        loadedModified = lastModified(resource);
+        logger.info("FX rates loaded from {}: {}", ratesLocation, snapshot.get().getCurrencies());
+    }
+
+    // Picks up edits of a file: resource (classpath resources never change)
+    @Scheduled(fixedDelayString = "${banking.fx.reload-interval-ms:60000}")
+    public void reloadIfChanged() {
+        Resource resource = resourceLoader.getResource(ratesLocation);
+        long modified = lastModified(resource);
+        if (modified <= 0 || modified == loadedModified) {
+            return;
+        }
+        try {
+            snapshot.set(parse(resource));
+            loadedModified = modified;
+            logger.info("FX rates reloaded: {}", snapshot.get().getCurrencies());
+        } catch (IOException | RuntimeException e) {
+            logger.warn("FX rates reload failed, keeping the previous rates: {}", e.getMessage());
+        }
+    }
+
+    public FxSnapshot snapshot() {
+        return snapshot.get();
+    }
+
+    // Upper-cased ISO code, or IllegalArgumentException when no rate is loaded for it
+    public String normalize(String currency) {
+        String code = currency.trim().toUpperCase(Locale.ROOT);
+        if (!snapshot.get().supports(code)) {
+            throw new IllegalArgumentException("Unsupported currency: " + currency);
+        }
+        return code;
+    }
+
+    public BigDecimal convert(BigDecimal amount, String from, String to) {
+        return snapshot.get().convert(amount, from, to);
+    }
+
+    static FxSnapshot parse(Resource resource) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = resource.getInputStream()) {
+            properties.load(in);
+        }
+        String base = properties.getProperty("base");
+        if (base == null) {
+            throw new IllegalArgumentException("Rates file has no base currency.");
+        }
+        Map<String, BigDecimal> rates = new HashMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            if (name.equals("base")) {
+                continue;
+            }
+            String code = name.trim().toUpperCase(Locale.ROOT);
+            FxSnapshot.checkLedgerCompatible(code);
+            BigDecimal rate = new BigDecimal(properties.getProperty(name).trim());
+            if (rate.signum() <= 0) {
+                throw new IllegalArgumentException("Rate of " + code + " must be positive.");
+            }
+            rates.put(code, rate);
+        }
+        return new FxSnapshot(base.trim().toUpperCase(Locale.ROOT), rates, Instant.now());
+    }
+
+    private static long lastModified(Resource resource) {
+        try {
+            return resource.isFile() ? resource.lastModified() : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.bankingservice.fx;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.Currency;
+import java.util.Map;
+import java.util.Set;
+
+// One immutable set of exchange rates, all quoted against the same base currency
+// (1 base = rate units of the currency). Replaced as a whole when the rates are reloaded, so a
+// conversion always uses rates from a single load.
+public final class FxSnapshot {
+
+    private final String base;
+    private final Map<String, BigDecimal> rates;
+    private final Instant loadedAt;
+
+    public FxSnapshot(String base, Map<String, BigDecimal> rates, Instant loadedAt) {
+        BigDecimal baseRate = rates.get(base);
+        if (baseRate == null || baseRate.compareTo(BigDecimal.ONE) != 0) {
+            throw new IllegalArgumentException("The rate of the base currency " + base + " must be 1.");
+        }
+        this.base = base;
+        this.rates = Map.copyOf(rates);
+        this.loadedAt = loadedAt;
+    }
+
+    public String getBase() {
+        return base;
+    }
+
+    public Set<String> getCurrencies() {
+        return rates.keySet();
+    }
+
+    public Instant getLoadedAt() {
+        return loadedAt;
+    }
+
+    public boolean supports(String currency) {
+        return rates.containsKey(currency);
+    }
+
+    // Units of "to" for one unit of "from"
+    public BigDecimal rate(String from, String to) {
+        return rateOf(to).divide(rateOf(from), MathContext.DECIMAL64);
+    }
+
+    // Rounded half-even to the minor unit of "to": whole yen for JPY, cents for most others
+    public BigDecimal convert(BigDecimal amount, String from, String to) {
+        if (from.equals(to)) {
+            return amount;
+        }
+        return amount.multiply(rateOf(to)).divide(rateOf(from), fractionDigits(to), RoundingMode.HALF_EVEN);
+    }
+
+    private BigDecimal rateOf(String currency) {
+        BigDecimal rate = rates.get(currency);
+        if (rate == null) {
+            throw new IllegalArgumentException("Unsupported currency: " + currency);
+        }
+        return rate;
+    }
+
+    // Decimals of the currency's minor unit; the ledger's two for currencies without one (e.g. XAU)
+    static int fractionDigits(String currency) {
+        int digits = Currency.getInstance(currency).getDefaultFractionDigits();
+        return digits >= 0 ? digits : 2;
+    }
+
+    // The ledger stores amounts with two decimals, so currencies needing more cannot be held
+    static void checkLedgerCompatible(String currency) {
+        if (fractionDigits(currency) > 2) {
+            throw new IllegalArgumentException("Currency " + currency + " needs more than two decimals.");
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.bankingservice.hold;
+
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// In-memory view of the active holds: the hold itself by id, and the total held per account and
+// currency so available balance (ledger balance - active holds) never needs a query on the holds table.
+@Component
+public class ActiveHoldIndex {
+
+    private final ConcurrentMap<Long, ActiveHold> holds = new ConcurrentHashMap<>();
+    private final ConcurrentMap<HeldKey, Long> heldByAccount = new ConcurrentHashMap<>();
+
+    public void add(long holdId, long accountId, String currency, BigDecimal amount) {
+        ActiveHold hold = new ActiveHold(new HeldKey(accountId, currency), toMinor(amount));
+        if (holds.putIfAbsent(holdId, hold) == null) {
+            heldByAccount.merge(hold.key(), hold.amount(), Long::sum);
+        }
+    }
+
+    // Returns false when the hold was no longer active (already captured, released or expired)
+    public boolean remove(long holdId) {
+        ActiveHold hold = holds.remove(holdId);
+        if (hold == null) {
+            return false;
+        }
+        heldByAccount.computeIfPresent(hold.key(), (key, held) -> held == hold.amount() ? null : held - hold.amount());
+        return true;
+    }
+
+    // Account of an active hold, null when it is no longer active
+    public Long accountOf(long holdId) {
+        ActiveHold hold = holds.get(holdId);
+        return hold == null ? null : hold.key().accountId();
+    }
+
+    public boolean contains(long holdId) {
+        return holds.containsKey(holdId);
+    }
+
+    public BigDecimal heldAmount(Long accountId, String currency) {
+        Long held = heldByAccount.get(new HeldKey(accountId, currency));
+        return held == null ? BigDecimal.ZERO.setScale(2) : BigDecimal.valueOf(held, 2);
+    }
+
+    public int size() {
+        return holds.size();
+    }
+
+    private static long toMinor(BigDecimal amount) {
+        return amount.movePointRight(2).longValueExact();
+    }
+
+    private record HeldKey(long accountId, String currency) {
+    }
+
+    private record ActiveHold(HeldKey key, long amount) {
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.bankingservice.hold;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+// Hashed timing wheel: ids are dropped into the slot of their deadline tick and collected when
+// the wheel's hand passes that slot, so finding what expired costs O(entries in one slot) per tick
+// instead of a scan or a query over everything outstanding. Deadlines further away than one
+// rotation simply stay in their slot until the hand comes round with the deadline reached.
+public class TimerWheel {
+
+    private final long tickMillis;
+    private final List<Entry>[] slots;
+    private long currentTick; // last tick already processed
+
+    @SuppressWarnings("unchecked")
+    public TimerWheel(int slotCount, long tickMillis, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.slots = new List[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            slots[i] = new ArrayList<>();
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    public synchronized void schedule(long id, long deadlineMillis) {
+        // Round up so the deadline has been reached when the hand visits the slot, and never
+        // schedule into a slot the hand has already passed
+        long tick = Math.max((deadlineMillis + tickMillis - 1) / tickMillis, currentTick + 1);
+        slots[slotOf(tick)].add(new Entry(id, deadlineMillis));
+    }
+
+    // Moves the hand up to now and returns the ids whose deadline has been reached
+    public synchronized List<Long> advance(long nowMillis) {
+        List<Long> due = new ArrayList<>();
+        long targetTick = nowMillis / tickMillis;
+        // After a long pause every slot is visited once, which already covers the whole wheel
+        long from = Math.max(currentTick + 1, targetTick - slots.length + 1);
+        for (long tick = from; tick <= targetTick; tick++) {
+            Iterator<Entry> entries = slots[slotOf(tick)].iterator();
+            while (entries.hasNext()) {
+                Entry entry = entries.next();
+                if (entry.deadlineMillis <= nowMillis) {
+                    due.add(entry.id);
+                    entries.remove();
+                }
+            }
+        }
+        currentTick = Math.max(currentTick, targetTick);
+        return due;
+    }
+
+    public synchronized int size() {
+        int size = 0;
+        for (List<Entry> slot : slots) {
+            size += slot.size();
+        }
+        return size;
+    }
+
+    private int slotOf(long tick) {
+        return (int) Math.floorMod(tick, (long) slots.length);
+    }
+
+    private record Entry(long id, long deadlineMillis) {
+    }
+}
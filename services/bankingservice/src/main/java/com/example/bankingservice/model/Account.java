@@ -0,0 +1,57 @@
+package com.example.bankingservice.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+// Banking-side settings of an account (the user id from clientservice), created on first use
+@Entity
+@Table(name = "accounts")
+public class Account {
+
+    @Id
+    @Column(name = "account_id")
+    private Long accountId;
+
+    @Column(name = "base_currency", nullable = false, length = 3)
+    private String baseCurrency; // ISO 4217 code, the default for deposits, withdrawals and /balance
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public Account() {
+    }
+
+    public Account(Long accountId, String baseCurrency) {
+        this.accountId = accountId;
+        this.baseCurrency = baseCurrency;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+
+    public String getBaseCurrency() {
+        return baseCurrency;
+    }
+
+    public void setBaseCurrency(String baseCurrency) {
+        this.baseCurrency = baseCurrency;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
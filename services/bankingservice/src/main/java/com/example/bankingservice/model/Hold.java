@@ -0,0 +1,123 @@
+package com.example.bankingservice.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import com.example.bankingservice.shard.LedgerId;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Funds reserved on an account until they are captured (turned into a withdrawal), released or expire
+@Entity
+@Table(name = "holds")
+public class Hold {
+
+    public static final String ACTIVE = "active";
+    public static final String CAPTURED = "captured";
+    public static final String RELEASED = "released";
+    public static final String EXPIRED = "expired";
+
+    @Id
+    @LedgerId
+    private Long id;
+
+    @Column(nullable = false)
+    private Long accountId;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    @Column(nullable = false, length = 16)
+    private String status; // one of the constants above
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "capture_transaction_id")
+    private Long captureTransactionId; // withdrawal created by the capture
+
+    public Hold() {
+    }
+
+    public Hold(Long accountId, BigDecimal amount, String currency, LocalDateTime expiresAt) {
+        this.accountId = accountId;
+        this.amount = amount;
+        this.currency = currency;
+        this.status = ACTIVE;
+        this.createdAt = LocalDateTime.now();
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getCaptureTransactionId() {
+        return captureTransactionId;
+    }
+
+    public void setCaptureTransactionId(Long captureTransactionId) {
+        this.captureTransactionId = captureTransactionId;
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.bankingservice.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import com.example.bankingservice.shard.LedgerId;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+// A recurring deposit or withdrawal. Occurrence n is due at startAt + n periods (computed from the
+// start, so a monthly order on the 31st stays on the last day of shorter months instead of drifting).
+@Entity
+@Table(name = "standing_orders")
+public class StandingOrder {
+
+    public static final String ACTIVE = "active";
+    public static final String FINISHED = "finished"; // past its end
+    public static final String CANCELLED = "cancelled";
+
+    public static final String DAILY = "daily";
+    public static final String WEEKLY = "weekly";
+    public static final String MONTHLY = "monthly";
+    public static final Set<String> FREQUENCIES = Set.of(DAILY, WEEKLY, MONTHLY);
+
+    @Id
+    @LedgerId
+    private Long id;
+
+    @Column(nullable = false)
+    private Long accountId;
+
+    @Column(nullable = false, length = 16)
+    private String type; // deposit or withdraw
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    @Column(nullable = false, length = 16)
+    private String frequency; // one of FREQUENCIES
+
+    @Column(name = "start_at", nullable = false)
+    private LocalDateTime startAt;
+
+    @Column(name = "end_at")
+    private LocalDateTime endAt; // no occurrence after this, null = open-ended
+
+    @Column(nullable = false)
+    private long occurrence; // index of the next occurrence
+
+    @Column(name = "next_run_at", nullable = false)
+    private LocalDateTime nextRunAt; // due time of the next occurrence
+
+    @Column(name = "fire_at", nullable = false)
+    private LocalDateTime fireAt; // when the scheduler tries it (later than nextRunAt while waiting for a retry)
+
+    @Column(nullable = false)
+    private int attempts; // failed attempts of the next occurrence
+
+    @Column(nullable = false, length = 16)
+    private String status; // one of the status constants above
+
+    @Column(name = "last_transaction_id")
+    private Long lastTransactionId;
+
+    @Column(name = "last_error")
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public StandingOrder() {
+    }
+
+    public StandingOrder(Long accountId, String type, BigDecimal amount, String currency, String frequency,
+                         LocalDateTime startAt, LocalDateTime endAt) {
+        this.accountId = accountId;
+        this.type = type;
+        this.amount = amount;
+        this.currency = currency;
+        this.frequency = frequency;
+        this.startAt = startAt;
+        this.endAt = endAt;
+        this.nextRunAt = startAt;
+        this.fireAt = startAt;
+        this.status = ACTIVE;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Due time of occurrence n
+    public LocalDateTime occurrenceAt(long n) {
+        return switch (frequency) {
+            case DAILY -> startAt.plusDays(n);
+            case WEEKLY -> startAt.plusWeeks(n);
+            case MONTHLY -> startAt.plusMonths(n);
+            default -> throw new IllegalStateException("Unknown frequency: " + frequency);
+        };
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public String getFrequency() {
+        return frequency;
+    }
+
+    public void setFrequency(String frequency) {
+        this.frequency = frequency;
+    }
+
+    public LocalDateTime getStartAt() {
+        return startAt;
+    }
+
+    public void setStartAt(LocalDateTime startAt) {
+        this.startAt = startAt;
+    }
+
+    public LocalDateTime getEndAt() {
+        return endAt;
+    }
+
+    public void setEndAt(LocalDateTime endAt) {
+        this.endAt = endAt;
+    }
+
+    public long getOccurrence() {
+        return occurrence;
+    }
+
+    public void setOccurrence(long occurrence) {
+        this.occurrence = occurrence;
+    }
+
+    public LocalDateTime getNextRunAt() {
+        return nextRunAt;
+    }
+
+    public void setNextRunAt(LocalDateTime nextRunAt) {
+        this.nextRunAt = nextRunAt;
+    }
+
+    public LocalDateTime getFireAt() {
+        return fireAt;
+    }
+
+    public void setFireAt(LocalDateTime fireAt) {
+        this.fireAt = fireAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Long getLastTransactionId() {
+        return lastTransactionId;
+    }
+
+    public void setLastTransactionId(Long lastTransactionId) {
+        this.lastTransactionId = lastTransactionId;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
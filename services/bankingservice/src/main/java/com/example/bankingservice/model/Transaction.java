@@ -1,12 +1,12 @@
 package com.example.bankingservice.model;
 
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import jakarta.persistence.Column;
 
+import com.example.bankingservice.shard.LedgerId;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime; // Import LocalDateTime for transaction date
 
@@ -15,15 +15,18 @@ import java.time.LocalDateTime; // Import LocalDateTime for transaction date
 public class Transaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @LedgerId // unique across ledger shards, see LedgerIdGenerator
     private Long id; // Unique identifier for each transaction
 
-    @Column(nullable = false)
-    private String type; // "deposit" or "withdraw"
+    @Column(nullable = false, length = 16)
+    private String type; // see TransactionTypes
 
-    @Column(nullable = false)
+    @Column(nullable = false, precision = 19, scale = 2) // DECIMAL(19,2), see db/migration
     private BigDecimal amount; // Amount of money involved in the transaction
 
+    @Column(nullable = false, length = 3)
+    private String currency; // ISO 4217 code; balances are kept per currency
+
     @Column(nullable = false)
     private Long accountId; // ID of the account associated with the transaction
 
@@ -43,6 +46,11 @@ public class Transaction {
         this.transactionDate = LocalDateTime.now(); // Set to current time upon creation
     }
 
+    public Transaction(String type, BigDecimal amount, String currency, Long accountId) {
+        this(type, amount, accountId);
+        this.currency = currency;
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -68,6 +76,14 @@ public class Transaction {
         this.amount = amount;
     }
 
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
     public Long getAccountId() {
         return accountId;
     }
@@ -84,4 +100,4 @@ public class Transaction {
     public void setTransactionDate(LocalDateTime transactionDate) {
         this.transactionDate = transactionDate;
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.example.bankingservice.model;
+
+import java.util.Locale;
+import java.util.Set;
+
+// The transaction types and which way each one moves the balance. Every balance computation
+// (Java or SQL) goes through here, so a new type only has to be added once.
+public final class TransactionTypes {
+
+    public static final String DEPOSIT = "deposit";
+    public static final String WITHDRAW = "withdraw";
+    public static final String INTEREST = "interest"; // posted by the period batch
+    public static final String FEE = "fee"; // posted by the period batch
+    public static final String TRANSFER_OUT = "transfer_out";
+    public static final String TRANSFER_IN = "transfer_in";
+
+    private static final Set<String> CREDITS = Set.of(DEPOSIT, INTEREST, TRANSFER_IN);
+    private static final Set<String> DEBITS = Set.of(WITHDRAW, FEE, TRANSFER_OUT);
+
+    private TransactionTypes() {
+    }
+
+    // +1 for credits, -1 for debits, 0 for unknown types (ignored by balances, flagged by reconciliation)
+    public static int sign(String type) {
+        if (type == null) {
+            return 0;
+        }
+        String normalized = type.toLowerCase(Locale.ROOT);
+        if (CREDITS.contains(normalized)) {
+            return 1;
+        }
+        return DEBITS.contains(normalized) ? -1 : 0;
+    }
+
+    public static Set<String> credits() {
+        return CREDITS;
+    }
+
+    public static Set<String> debits() {
+        return DEBITS;
+    }
+
+    // SQL expression for the signed amount of a row, for set-based balance queries
+    public static String signedAmountSql(String typeColumn, String amountColumn) {
+        return "case when lower(" + typeColumn + ") in (" + quoted(CREDITS) + ") then " + amountColumn
+            + " when lower(" + typeColumn + ") in (" + quoted(DEBITS) + ") then -" + amountColumn
+            + " else 0 end";
+    }
+
+    private static String quoted(Set<String> types) {
+        StringBuilder sql = new StringBuilder();
+        for (String type : types) {
+            sql.append(sql.length() == 0 ? "'" : ", '").append(type).append("'");
+        }
+        return sql.toString();
+    }
+}
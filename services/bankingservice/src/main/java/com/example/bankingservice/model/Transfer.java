@@ -0,0 +1,206 @@
+package com.example.bankingservice.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import com.example.bankingservice.shard.LedgerId;
+import com.example.bankingservice.shard.LedgerIdGenerator;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// A transfer between two accounts (or two currencies of one account), recorded on the source
+// account's shard before any money moves. The ids of its ledger legs are fixed up front, so
+// whether a leg was written can be checked by id after a crash.
+@Entity
+@Table(name = "transfers")
+public class Transfer {
+
+    public static final String PENDING = "pending";
+    public static final String COMPLETED = "completed";
+    public static final String REVERSED = "reversed"; // debited, credit failed, debit credited back
+    public static final String FAILED = "failed"; // debit refused or never written
+
+    @Id
+    @LedgerId
+    private Long id;
+
+    @Column(nullable = false)
+    private Long accountId; // source
+
+    @Column(name = "to_account_id", nullable = false)
+    private Long toAccountId;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    @Column(name = "converted_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal convertedAmount;
+
+    @Column(name = "to_currency", nullable = false, length = 3)
+    private String toCurrency;
+
+    @Column(nullable = false, length = 16)
+    private String status; // one of the constants above
+
+    @Column(name = "debit_transaction_id", nullable = false)
+    private Long debitTransactionId;
+
+    @Column(name = "credit_transaction_id", nullable = false)
+    private Long creditTransactionId;
+
+    @Column(name = "reversal_transaction_id", nullable = false)
+    private Long reversalTransactionId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public Transfer() {
+    }
+
+    public Transfer(Long accountId, BigDecimal amount, String currency, Long toAccountId, BigDecimal convertedAmount, String toCurrency) {
+        this.accountId = accountId;
+        this.amount = amount;
+        this.currency = currency;
+        this.toAccountId = toAccountId;
+        this.convertedAmount = convertedAmount;
+        this.toCurrency = toCurrency;
+        this.status = PENDING;
+        this.debitTransactionId = LedgerIdGenerator.nextId();
+        this.creditTransactionId = LedgerIdGenerator.nextId();
+        this.reversalTransactionId = LedgerIdGenerator.nextId();
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = createdAt;
+    }
+
+    public Transaction debitLeg() {
+        return leg(debitTransactionId, TransactionTypes.TRANSFER_OUT, amount, currency, accountId);
+    }
+
+    public Transaction creditLeg() {
+        return leg(creditTransactionId, TransactionTypes.TRANSFER_IN, convertedAmount, toCurrency, toAccountId);
+    }
+
+    // Gives the debited amount back to the source account
+    public Transaction reversalLeg() {
+        return leg(reversalTransactionId, TransactionTypes.TRANSFER_IN, amount, currency, accountId);
+    }
+
+    private static Transaction leg(Long id, String type, BigDecimal amount, String currency, Long accountId) {
+        Transaction tx = new Transaction(type, amount, currency, accountId);
+        tx.setId(id);
+        return tx;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+
+    public Long getToAccountId() {
+        return toAccountId;
+    }
+
+    public void setToAccountId(Long toAccountId) {
+        this.toAccountId = toAccountId;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public BigDecimal getConvertedAmount() {
+        return convertedAmount;
+    }
+
+    public void setConvertedAmount(BigDecimal convertedAmount) {
+        this.convertedAmount = convertedAmount;
+    }
+
+    public String getToCurrency() {
+        return toCurrency;
+    }
+
+    public void setToCurrency(String toCurrency) {
+        this.toCurrency = toCurrency;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Long getDebitTransactionId() {
+        return debitTransactionId;
+    }
+
+    public void setDebitTransactionId(Long debitTransactionId) {
+        this.debitTransactionId = debitTransactionId;
+    }
+
+    public Long getCreditTransactionId() {
+        return creditTransactionId;
+    }
+
+    public void setCreditTransactionId(Long creditTransactionId) {
+        this.creditTransactionId = creditTransactionId;
+    }
+
+    public Long getReversalTransactionId() {
+        return reversalTransactionId;
+    }
+
+    public void setReversalTransactionId(Long reversalTransactionId) {
+        this.reversalTransactionId = reversalTransactionId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
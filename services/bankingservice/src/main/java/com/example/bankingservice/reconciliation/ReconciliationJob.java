@@ -0,0 +1,393 @@
+package com.example.bankingservice.reconciliation;
+
+import com.example.bankingservice.engine.LedgerEngine;
+import com.example.bankingservice.hold.ActiveHoldIndex;
+import com.example.bankingservice.model.TransactionTypes;
+import com.example.bankingservice.repository.TransactionRepository;
+import com.example.bankingservice.service.TransactionService;
+import com.example.bankingservice.shard.LedgerShards;
+import com.example.bankingservice.shard.ShardRouter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Recomputes every account balance (one per currency held) from the transactions and checks it, shard by shard.
+// Each shard's account id range is split on a fork-join pool down to ranges of range-size ids;
+// a range is read as one forward-only stream in the order of the (account_id, transaction_date, id)
+// index, with no sort, so memory stays bounded by one account's running balances (one per currency)
+// per worker, whatever the table size. Reads are throttled (RowThrottle)
+// and the pool is small, leaving connections and I/O for online traffic.
+//
+// Checks: running balance never negative, known type, positive amount; and against cached or
+// stored balances (active holds, StoredBalanceSource beans). Those compare live state with a
+// snapshot, so their mismatches are confirmed against the live balance before being reported.
+// A stored balance is confirmed against the transactions table summed again; in engine mode only
+// once the journal has stored what the engine held when the stored balance was read.
+@Service
+public class ReconciliationJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReconciliationJob.class);
+
+    private static final int THROTTLE_BATCH = 1_000;
+    private static final int MAX_SUSPECTS = 10_000;
+    private static final int CONFIRM_ATTEMPTS = 3;
+
+    @Autowired
+    private LedgerShards shards;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ActiveHoldIndex activeHoldIndex;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private LedgerEngine ledgerEngine;
+
+    @Autowired(required = false)
+    private List<StoredBalanceSource> storedBalanceSources = List.of();
+
+    @Value("${banking.reconciliation.parallelism:2}")
+    private int parallelism;
+
+    @Value("${banking.reconciliation.range-size:100000}")
+    private long rangeSize;
+
+    @Value("${banking.reconciliation.fetch-size:5000}")
+    private int fetchSize;
+
+    @Value("${banking.reconciliation.max-rows-per-second:100000}")
+    private long maxRowsPerSecond;
+
+    @Value("${banking.reconciliation.drain-timeout-ms:30000}")
+    private long drainTimeoutMillis;
+
+    @Value("${banking.reconciliation.report-dir:reports}")
+    private String reportDir;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile Map<String, Object> lastRun = Map.of("state", "never run");
+
+    @Scheduled(cron = "${banking.reconciliation.cron:-}")
+    public void scheduledRun() {
+        try {
+            run();
+        } catch (IllegalStateException e) {
+            logger.warn("Scheduled reconciliation skipped: {}", e.getMessage());
+        }
+    }
+
+    // Runs on a background thread; false when a run is already in progress
+    public boolean start() {
+        if (running.get()) {
+            return false;
+        }
+        Thread worker = new Thread(() -> {
+            try {
+                run();
+            } catch (RuntimeException e) {
+                logger.error("Reconciliation failed", e);
+            }
+        }, "ledger-reconciliation");
+        worker.start();
+        return true;
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> status = new HashMap<>(lastRun);
+        status.put("running", running.get());
+        return status;
+    }
+
+    public Map<String, Object> run() {
+        if (shardRouter.targetShards() != null) {
+            throw new IllegalStateException("A reshard is in progress.");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Reconciliation is already running.");
+        }
+        long started = System.currentTimeMillis();
+        String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try (ReconciliationReport report = new ReconciliationReport(Path.of(reportDir, "reconciliation-" + stamp + ".csv"))) {
+            Run run = new Run(report, new RowThrottle(maxRowsPerSecond));
+            long[] totals = new long[2];
+            for (String shard : shards.names()) {
+                long[] shardTotals = reconcileShard(pool, run, shard);
+                totals[0] += shardTotals[0];
+                totals[1] += shardTotals[1];
+            }
+            confirmSuspects(run);
+
+            Map<String, Object> summary = new HashMap<>();
+            summary.put("state", "done");
+            summary.put("startedAt", stamp);
+            summary.put("accounts", totals[0]);
+            summary.put("rows", totals[1]);
+            summary.put("mismatches", report.mismatches());
+            summary.put("unconfirmed", run.unconfirmedSuspects);
+            summary.put("report", report.path().toString());
+            summary.put("durationMs", System.currentTimeMillis() - started);
+            lastRun = summary;
+            logger.info("Reconciliation done: {}", summary);
+            return summary;
+        } catch (RuntimeException e) {
+            lastRun = Map.of("state", "failed", "startedAt", stamp, "error", String.valueOf(e.getMessage()));
+            throw e;
+        } finally {
+            pool.shutdown();
+            running.set(false);
+        }
+    }
+
+    // Returns {accounts, rows}
+    private long[] reconcileShard(ForkJoinPool pool, Run run, String shard) {
+        DataSource dataSource = shards.dataSource(shard);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        Map<String, Object> bounds = jdbc.queryForMap("select min(account_id) lo, max(account_id) hi from transactions");
+        if (bounds.get("lo") == null) {
+            return new long[2];
+        }
+        long lo = ((Number) bounds.get("lo")).longValue();
+        long hi = ((Number) bounds.get("hi")).longValue();
+        return pool.invoke(new RangeTask(run, shard, streamingTemplate(dataSource), lo, hi));
+    }
+
+    // MySQL Connector/J only streams row by row with fetch size Integer.MIN_VALUE; otherwise it buffers the whole result
+    private JdbcTemplate streamingTemplate(DataSource dataSource) {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        try (Connection connection = dataSource.getConnection()) {
+            boolean mysql = connection.getMetaData().getDatabaseProductName().toLowerCase().contains("mysql");
+            jdbc.setFetchSize(mysql ? Integer.MIN_VALUE : fetchSize);
+        } catch (SQLException e) {
+            jdbc.setFetchSize(fetchSize);
+        }
+        return jdbc;
+    }
+
+    private class RangeTask extends RecursiveTask<long[]> {
+
+        private final Run run;
+        private final String shard;
+        private final JdbcTemplate jdbc;
+        private final long lo;
+        private final long hi;
+
+        RangeTask(Run run, String shard, JdbcTemplate jdbc, long lo, long hi) {
+            this.run = run;
+            this.shard = shard;
+            this.jdbc = jdbc;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (hi - lo < rangeSize) {
+                return scan();
+            }
+            long mid = lo + (hi - lo) / 2;
+            RangeTask left = new RangeTask(run, shard, jdbc, lo, mid);
+            RangeTask right = new RangeTask(run, shard, jdbc, mid + 1, hi);
+            right.fork();
+            long[] totals = left.compute();
+            long[] rightTotals = right.join();
+            return new long[] {totals[0] + rightTotals[0], totals[1] + rightTotals[1]};
+        }
+
+        private long[] scan() {
+            AccountState state = new AccountState();
+            long[] totals = new long[2];
+            jdbc.query("select account_id, currency, id, type, amount from transactions"
+                    + " where account_id between ? and ? order by account_id, transaction_date, id", rs -> {
+                long accountId = rs.getLong(1);
+                if (accountId != state.accountId) {
+                    if (state.accountId != Long.MIN_VALUE) {
+                        finishAccount(run, shard, state);
+                    }
+                    totals[0]++;
+                    state.reset(accountId);
+                }
+                state.apply(run, shard, rs.getLong(3), rs.getString(2), rs.getString(4), rs.getBigDecimal(5));
+                if (++totals[1] % THROTTLE_BATCH == 0) {
+                    try {
+                        run.throttle.acquire(THROTTLE_BATCH);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Reconciliation interrupted", e);
+                    }
+                }
+            }, lo, hi);
+            if (state.accountId != Long.MIN_VALUE) {
+                finishAccount(run, shard, state);
+            }
+            return totals;
+        }
+    }
+
+    private void finishAccount(Run run, String shard, AccountState state) {
+        state.balances.forEach((currency, running) -> {
+            BigDecimal balance = BigDecimal.valueOf(running.balance, 2);
+            if (balance.compareTo(activeHoldIndex.heldAmount(state.accountId, currency)) < 0) {
+                run.suspect(new Suspect(shard, state.accountId, currency, null));
+            }
+            for (StoredBalanceSource source : storedBalanceSources) {
+                BigDecimal stored = source.balanceOf(state.accountId, currency);
+                if (stored != null && stored.compareTo(balance) != 0) {
+                    run.suspect(new Suspect(shard, state.accountId, currency, source));
+                }
+            }
+        });
+    }
+
+    // Snapshot vs live mismatches: only reported if they still hold against the live balance
+    private void confirmSuspects(Run run) {
+        for (Suspect suspect : run.suspects) {
+            if (suspect.source == null) {
+                BigDecimal live = transactionService.getCurrentBalance(suspect.accountId, suspect.currency);
+                BigDecimal held = activeHoldIndex.heldAmount(suspect.accountId, suspect.currency);
+                if (live.compareTo(held) < 0) {
+                    run.report.mismatch(suspect.shard, suspect.accountId, null, "holds-exceed-balance",
+                        "currency=" + suspect.currency + " balance=" + live + " held=" + held);
+                }
+            } else {
+                confirmStoredBalance(run, suspect);
+            }
+        }
+        if (run.droppedSuspects > 0) {
+            logger.warn("Reconciliation: {} unconfirmed cache mismatches not reported (limit {})",
+                run.droppedSuspects, MAX_SUSPECTS);
+        }
+        if (run.unconfirmedSuspects > 0) {
+            logger.warn("Reconciliation: {} stored balances could not be confirmed"
+                + " (journal not drained or balance kept changing)", run.unconfirmedSuspects);
+        }
+    }
+
+    // The stored balance is read, the journal drained up to that point, then the ledger summed. If the
+    // stored balance is unchanged afterwards, the ledger sum covers exactly the same changes.
+    private void confirmStoredBalance(Run run, Suspect suspect) {
+        for (int attempt = 0; attempt < CONFIRM_ATTEMPTS; attempt++) {
+            BigDecimal stored = suspect.source.balanceOf(suspect.accountId, suspect.currency);
+            if (stored == null) {
+                return;
+            }
+            if (!ledgerEngine.awaitStored(drainTimeoutMillis)) {
+                break;
+            }
+            BigDecimal ledger = ledgerBalance(suspect.accountId, suspect.currency);
+            if (stored.compareTo(ledger) == 0) {
+                return;
+            }
+            BigDecimal after = suspect.source.balanceOf(suspect.accountId, suspect.currency);
+            if (after != null && after.compareTo(stored) == 0) {
+                run.report.mismatch(suspect.shard, suspect.accountId, null, "stored-balance:" + suspect.source.name(),
+                    "currency=" + suspect.currency + " ledger=" + ledger + " stored=" + stored);
+                return;
+            }
+        }
+        run.unconfirmedSuspects++;
+    }
+
+    // Balance summed by the database on the shard owning the account, whatever serves live reads
+    private BigDecimal ledgerBalance(long accountId, String currency) {
+        List<TransactionRepository.CurrencyBalance> sums = shardRouter.onAccount(accountId,
+            () -> transactionRepository.sumBalances(accountId, TransactionTypes.credits(), TransactionTypes.debits()));
+        for (TransactionRepository.CurrencyBalance sum : sums) {
+            if (sum.getCurrency().equals(currency)) {
+                return sum.getBalance();
+            }
+        }
+        return BigDecimal.ZERO;
+    }
+
+    // Running state of the account being streamed: one balance per currency, in minor units
+    private static final class AccountState {
+
+        private long accountId = Long.MIN_VALUE;
+        private final Map<String, RunningBalance> balances = new TreeMap<>();
+
+        void reset(long accountId) {
+            this.accountId = accountId;
+            balances.clear();
+        }
+
+        void apply(Run run, String shard, long transactionId, String currency, String type, BigDecimal amount) {
+            RunningBalance running = balances.computeIfAbsent(currency, code -> new RunningBalance());
+            if (amount == null || amount.signum() <= 0) {
+                run.report.mismatch(shard, accountId, transactionId, "non-positive-amount", "amount=" + amount);
+                return;
+            }
+            int sign = TransactionTypes.sign(type);
+            if (sign == 0) {
+                run.report.mismatch(shard, accountId, transactionId, "unknown-type", "type=" + type);
+                return;
+            }
+            running.balance += sign * amount.movePointRight(2).longValueExact();
+            // Reported once per account balance, at the first transaction taking it below zero
+            if (running.balance < 0 && !running.overdrawn) {
+                running.overdrawn = true;
+                run.report.mismatch(shard, accountId, transactionId, "negative-balance",
+                    "running balance " + BigDecimal.valueOf(running.balance, 2) + " " + currency);
+            }
+        }
+    }
+
+    private static final class RunningBalance {
+
+        private long balance;
+        private boolean overdrawn;
+    }
+
+    private record Suspect(String shard, long accountId, String currency, StoredBalanceSource source) {
+    }
+
+    private static final class Run {
+
+        private final ReconciliationReport report;
+        private final RowThrottle throttle;
+        private final List<Suspect> suspects = new ArrayList<>();
+        private int droppedSuspects;
+        private int unconfirmedSuspects; // confirmation runs on the calling thread only
+
+        Run(ReconciliationReport report, RowThrottle throttle) {
+            this.report = report;
+            this.throttle = throttle;
+        }
+
+        synchronized void suspect(Suspect suspect) {
+            if (suspects.size() < MAX_SUSPECTS) {
+                suspects.add(suspect);
+            } else {
+                droppedSuspects++;
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.bankingservice.reconciliation;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Mismatch report (CSV), written to by all workers
+class ReconciliationReport implements AutoCloseable {
+
+    private final Path path;
+    private final BufferedWriter writer;
+    private final AtomicLong mismatches = new AtomicLong();
+
+    ReconciliationReport(Path path) {
+        this.path = path;
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+            writer.write("shard,account_id,transaction_id,check,detail\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void mismatch(String shard, long accountId, Long transactionId, String check, String detail) {
+        mismatches.incrementAndGet();
+        String line = shard + "," + accountId + "," + (transactionId != null ? transactionId : "") + ","
+            + check + ",\"" + detail.replace("\"", "\"\"") + "\"\n";
+        synchronized (writer) {
+            try {
+                writer.write(line);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    long mismatches() {
+        return mismatches.get();
+    }
+
+    Path path() {
+        return path;
+    }
+
+    @Override
+    public void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
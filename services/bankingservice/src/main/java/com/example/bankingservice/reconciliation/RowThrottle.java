@@ -0,0 +1,32 @@
+package com.example.bankingservice.reconciliation;
+
+import java.util.concurrent.TimeUnit;
+
+// Caps the rows per second read by all reconciliation workers together, so the job cannot
+// saturate the database while online traffic is running. Workers reserve time slots in turn
+// and sleep until theirs begins.
+class RowThrottle {
+
+    private final long nanosPerRow;
+    private long nextFreeNanos = System.nanoTime();
+
+    RowThrottle(long maxRowsPerSecond) {
+        this.nanosPerRow = maxRowsPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / maxRowsPerSecond : 0;
+    }
+
+    void acquire(int rows) throws InterruptedException {
+        if (nanosPerRow == 0) {
+            return;
+        }
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long start = Math.max(now, nextFreeNanos);
+            nextFreeNanos = start + rows * nanosPerRow;
+            waitNanos = start - now;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
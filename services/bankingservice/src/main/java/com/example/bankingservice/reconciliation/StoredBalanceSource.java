@@ -0,0 +1,13 @@
+package com.example.bankingservice.reconciliation;
+
+import java.math.BigDecimal;
+
+// A balance kept somewhere other than the ledger (a table, a cache) that reconciliation should
+// compare with the balance recomputed from transactions. Any bean implementing it is picked up.
+public interface StoredBalanceSource {
+
+    String name();
+
+    // The stored balance of the account in one currency, or null when this source does not track it
+    BigDecimal balanceOf(Long accountId, String currency);
+}
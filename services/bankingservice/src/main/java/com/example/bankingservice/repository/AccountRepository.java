@@ -0,0 +1,9 @@
+package com.example.bankingservice.repository;
+
+import com.example.bankingservice.model.Account;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AccountRepository extends JpaRepository<Account, Long> {
+}
@@ -0,0 +1,31 @@
+package com.example.bankingservice.repository;
+
+import com.example.bankingservice.model.Hold;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface HoldRepository extends JpaRepository<Hold, Long> {
+
+    // Active holds still within their expiry (loaded into the in-memory index at startup)
+    List<Hold> findByStatusAndExpiresAtAfter(String status, LocalDateTime now);
+
+    // Moves a hold out of "active" only if nobody else did first; returns the number of rows changed
+    @Transactional
+    @Modifying
+    @Query("update Hold h set h.status = :status where h.id = :id and h.status = 'active'")
+    int finishActive(@Param("id") Long id, @Param("status") String status);
+
+    // Bulk-expires holds whose deadline passed while the service was down
+    @Transactional
+    @Modifying
+    @Query("update Hold h set h.status = 'expired' where h.status = 'active' and h.expiresAt <= :now")
+    int expireDue(@Param("now") LocalDateTime now);
+}
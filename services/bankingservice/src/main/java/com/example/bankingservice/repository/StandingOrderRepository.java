@@ -0,0 +1,82 @@
+package com.example.bankingservice.repository;
+
+import com.example.bankingservice.model.StandingOrder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// The updates below only apply while the order is active and still at the expected occurrence, so
+// a run that lost a race (another instance, a cancel) changes nothing and reports 0 rows.
+@Repository
+public interface StandingOrderRepository extends JpaRepository<StandingOrder, Long> {
+
+    List<StandingOrder> findByAccountIdOrderByCreatedAtDesc(Long accountId);
+
+    // Scheduler horizon load
+    @Transactional(readOnly = true)
+    @Query("select o.id as id, o.accountId as accountId, o.fireAt as fireAt from StandingOrder o"
+        + " where o.status = 'active' and o.fireAt < :until")
+    List<DueOrder> findDueBefore(@Param("until") LocalDateTime until);
+
+    // Claims an occurrence before it is posted by moving to the next one (joins the run's transaction)
+    @Transactional
+    @Modifying
+    @Query("update StandingOrder o set o.occurrence = :next, o.nextRunAt = :nextRunAt, o.fireAt = :nextRunAt,"
+        + " o.attempts = 0, o.status = :status, o.lastTransactionId = null, o.lastError = null"
+        + " where o.id = :id and o.occurrence = :occurrence and o.status = 'active'")
+    int advance(@Param("id") Long id, @Param("occurrence") long occurrence, @Param("next") long next,
+                @Param("nextRunAt") LocalDateTime nextRunAt, @Param("status") String status);
+
+    // The posting of the occurrence claimed by advance
+    @Transactional
+    @Modifying
+    @Query("update StandingOrder o set o.lastTransactionId = :transactionId where o.id = :id and o.occurrence = :next")
+    int recordPosting(@Param("id") Long id, @Param("next") long next, @Param("transactionId") Long transactionId);
+
+    // Gives back an occurrence claimed by advance whose posting was refused; a no-op once the order
+    // was cancelled or moved on since the claim
+    @Transactional
+    @Modifying
+    @Query("update StandingOrder o set o.occurrence = :occurrence, o.nextRunAt = :nextRunAt, o.fireAt = :fireAt,"
+        + " o.attempts = :attempts, o.status = 'active', o.lastTransactionId = :lastTransactionId, o.lastError = :lastError"
+        + " where o.id = :id and o.occurrence = :next and o.status = :claimedStatus and o.lastTransactionId is null")
+    int release(@Param("id") Long id, @Param("next") long next, @Param("claimedStatus") String claimedStatus,
+                @Param("occurrence") long occurrence, @Param("nextRunAt") LocalDateTime nextRunAt,
+                @Param("fireAt") LocalDateTime fireAt, @Param("attempts") int attempts,
+                @Param("lastTransactionId") Long lastTransactionId, @Param("lastError") String lastError);
+
+    // Moves to a later occurrence without posting (missed runs beyond the catch-up limit, failed runs)
+    @Transactional
+    @Modifying
+    @Query("update StandingOrder o set o.occurrence = :next, o.nextRunAt = :nextRunAt, o.fireAt = :nextRunAt,"
+        + " o.attempts = 0, o.status = :status, o.lastError = :error"
+        + " where o.id = :id and o.occurrence = :occurrence and o.status = 'active'")
+    int skip(@Param("id") Long id, @Param("occurrence") long occurrence, @Param("next") long next,
+             @Param("nextRunAt") LocalDateTime nextRunAt, @Param("status") String status, @Param("error") String error);
+
+    @Transactional
+    @Modifying
+    @Query("update StandingOrder o set o.attempts = :attempts, o.fireAt = :fireAt, o.lastError = :error"
+        + " where o.id = :id and o.occurrence = :occurrence and o.status = 'active'")
+    int retryLater(@Param("id") Long id, @Param("occurrence") long occurrence, @Param("attempts") int attempts,
+                   @Param("fireAt") LocalDateTime fireAt, @Param("error") String error);
+
+    @Transactional
+    @Modifying
+    @Query("update StandingOrder o set o.status = 'cancelled' where o.id = :id and o.status = 'active'")
+    int cancelActive(@Param("id") Long id);
+
+    interface DueOrder {
+        Long getId();
+
+        Long getAccountId();
+
+        LocalDateTime getFireAt();
+    }
+}
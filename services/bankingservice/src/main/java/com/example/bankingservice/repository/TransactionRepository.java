@@ -1,18 +1,46 @@
 package com.example.bankingservice.repository;
 
+import com.example.bankingservice.dto.TransactionView;
 import com.example.bankingservice.model.Transaction;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, TransactionSearchRepository {
 
-    // Custom query method to find transactions by accountId and order them by transactionDate in descending order
-    // This is for fetching transaction history.
-    List<Transaction> findByAccountIdOrderByTransactionDateDesc(Long accountId);
+    // Transaction history, newest first. Read paths never load entities: the rows are immutable
+    // projections, so there is nothing in the persistence context and no dirty-checking snapshot.
+    @Transactional(readOnly = true)
+    @Query("select new com.example.bankingservice.dto.TransactionView(t.id, t.type, t.amount, t.currency, t.accountId, t.transactionDate)"
+        + " from Transaction t where t.accountId = :accountId order by t.transactionDate desc, t.id desc")
+    List<TransactionView> findHistory(@Param("accountId") Long accountId);
 
-    // Custom query method to find all transactions for a given accountId (used for balance calculation)
-    List<Transaction> findByAccountId(Long accountId);
-}
\ No newline at end of file
+    // Balance per currency, summed by the database (see TransactionTypes for the signs)
+    @Transactional(readOnly = true)
+    @Query("select t.currency as currency, sum(case when lower(t.type) in :credits then t.amount"
+        + " when lower(t.type) in :debits then -t.amount else 0 end) as balance"
+        + " from Transaction t where t.accountId = :accountId group by t.currency")
+    List<CurrencyBalance> sumBalances(@Param("accountId") Long accountId,
+                                      @Param("credits") Collection<String> credits,
+                                      @Param("debits") Collection<String> debits);
+
+    // Recent transactions of one type across all accounts (used to seed the velocity windows at startup)
+    List<Transaction> findByTypeAndTransactionDateAfter(String type, LocalDateTime since);
+
+    boolean existsByAccountId(Long accountId);
+
+    interface CurrencyBalance {
+
+        String getCurrency();
+
+        BigDecimal getBalance();
+    }
+}
\ No newline at end of file
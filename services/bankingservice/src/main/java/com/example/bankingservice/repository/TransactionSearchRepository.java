@@ -0,0 +1,14 @@
+package com.example.bankingservice.repository;
+
+import com.example.bankingservice.dto.TransactionFilter;
+import com.example.bankingservice.dto.TransactionView;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+// Custom fragment of TransactionRepository (implemented in TransactionSearchRepositoryImpl)
+public interface TransactionSearchRepository {
+
+    // Newest first; a Slice, so no count query is needed to page through the results
+    Slice<TransactionView> search(TransactionFilter filter, Pageable pageable);
+}
@@ -0,0 +1,70 @@
+package com.example.bankingservice.repository;
+
+import com.example.bankingservice.dto.TransactionFilter;
+import com.example.bankingservice.dto.TransactionView;
+import com.example.bankingservice.model.Transaction;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Criteria query built from the filters that are set. It selects only the TransactionView columns,
+// which idx_transactions_account_date_cover holds together with every filter column (see V7).
+public class TransactionSearchRepositoryImpl implements TransactionSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<TransactionView> search(TransactionFilter filter, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TransactionView> query = cb.createQuery(TransactionView.class);
+        Root<Transaction> tx = query.from(Transaction.class);
+
+        List<Predicate> where = new ArrayList<>();
+        where.add(cb.equal(tx.get("accountId"), filter.getAccountId()));
+        if (filter.getFrom() != null) {
+            where.add(cb.greaterThanOrEqualTo(tx.<LocalDateTime>get("transactionDate"), filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            where.add(cb.lessThan(tx.<LocalDateTime>get("transactionDate"), filter.getTo()));
+        }
+        if (!filter.getTypes().isEmpty()) {
+            where.add(tx.get("type").in(filter.getTypes()));
+        }
+        if (filter.getMinAmount() != null) {
+            where.add(cb.greaterThanOrEqualTo(tx.<BigDecimal>get("amount"), filter.getMinAmount()));
+        }
+        if (filter.getMaxAmount() != null) {
+            where.add(cb.lessThanOrEqualTo(tx.<BigDecimal>get("amount"), filter.getMaxAmount()));
+        }
+        if (filter.getCurrency() != null) {
+            where.add(cb.equal(tx.get("currency"), filter.getCurrency()));
+        }
+
+        query.select(cb.construct(TransactionView.class,
+                tx.get("id"), tx.get("type"), tx.get("amount"), tx.get("currency"), tx.get("accountId"), tx.get("transactionDate")))
+            .where(where.toArray(Predicate[]::new))
+            .orderBy(cb.desc(tx.get("transactionDate")), cb.desc(tx.get("id")));
+
+        // One row more than the page tells whether there is a next page
+        List<TransactionView> rows = entityManager.createQuery(query)
+            .setFirstResult((int) pageable.getOffset())
+            .setMaxResults(pageable.getPageSize() + 1)
+            .getResultList();
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.bankingservice.repository;
+
+import com.example.bankingservice.model.Transfer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Status changes only apply to pending transfers, so the transfer itself and a recovery pass (or
+// two instances recovering) cannot both settle one
+@Repository
+public interface TransferRepository extends JpaRepository<Transfer, Long> {
+
+    // Recovery: transfers left pending for longer than a transfer takes
+    @Transactional(readOnly = true)
+    List<Transfer> findByStatusAndUpdatedAtBefore(String status, LocalDateTime before);
+
+    @Transactional
+    @Modifying
+    @Query("update Transfer t set t.status = :status, t.updatedAt = :now where t.id = :id and t.status = 'pending'")
+    int finishPending(@Param("id") Long id, @Param("status") String status, @Param("now") LocalDateTime now);
+
+    // A recovery pass takes a pending transfer for itself; 0 when another one touched it since it was read
+    @Transactional
+    @Modifying
+    @Query("update Transfer t set t.updatedAt = :now where t.id = :id and t.status = 'pending' and t.updatedAt = :seen")
+    int claimPending(@Param("id") Long id, @Param("seen") LocalDateTime seen, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,30 @@
+package com.example.bankingservice.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// Striped per-account locks so "check available balance, then write" sequences (withdraw, hold,
+// capture) of the same account cannot interleave within this instance.
+@Component
+public class AccountLocks {
+
+    private final ReentrantLock[] stripes = new ReentrantLock[256];
+
+    public AccountLocks() {
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public <T> T withLock(Long accountId, Supplier<T> action) {
+        ReentrantLock lock = stripes[Math.floorMod(Long.hashCode(accountId) * 0x9E3779B9, stripes.length)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.bankingservice.service;
+
+import com.example.bankingservice.fx.FxRateService;
+import com.example.bankingservice.model.Account;
+import com.example.bankingservice.repository.AccountRepository;
+import com.example.bankingservice.repository.TransactionRepository;
+import com.example.bankingservice.shard.ShardRouter;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+@Service
+public class AccountService {
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private FxRateService fxRateService;
+
+    // Base currency of new accounts, and of accounts that existed before currencies were introduced
+    @Value("${banking.currency.default:USD}")
+    private String defaultCurrency;
+
+    @Value("${banking.currency.cache-size:100000}")
+    private int cacheSize;
+
+    // Base currency of recently used accounts, so postings and balance reads do not select the account row.
+    // Only accounts that already have a transaction are cached: changeBaseCurrency refuses those, so no
+    // instance can make an entry stale. The least recently used entry goes beyond cache-size.
+    private Map<Long, String> baseCurrencies;
+
+    @PostConstruct
+    void createCache() {
+        baseCurrencies = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    public String getDefaultCurrency() {
+        return defaultCurrency;
+    }
+
+    public Optional<Account> find(Long accountId) {
+        return shardRouter.onAccount(accountId, () -> accountRepository.findById(accountId));
+    }
+
+    // Accounts rows are only created on first use through this service: an account that only has
+    // ledger rows (bulk import) exists too
+    public boolean exists(Long accountId) {
+        return shardRouter.onAccount(accountId,
+            () -> accountRepository.existsById(accountId) || transactionRepository.existsByAccountId(accountId));
+    }
+
+    // Accounts are created on first use (the user already exists in clientservice)
+    public Account getOrCreate(Long accountId) {
+        return shardRouter.onAccount(accountId, () -> accountRepository.findById(accountId)
+            .orElseGet(() -> accountRepository.save(new Account(accountId, defaultCurrency))));
+    }
+
+    // Base currency of an account that is about to be used, creating it on first use
+    public String baseCurrencyOrCreate(Long accountId) {
+        String cached = baseCurrencies.get(accountId);
+        return cached != null ? cached : remember(accountId, getOrCreate(accountId).getBaseCurrency());
+    }
+
+    public String baseCurrency(Long accountId) {
+        String cached = baseCurrencies.get(accountId);
+        if (cached != null) {
+            return cached;
+        }
+        return find(accountId).map(account -> remember(accountId, account.getBaseCurrency())).orElse(defaultCurrency);
+    }
+
+    // Caches the currency once the account has a transaction, after which it can no longer change
+    private String remember(Long accountId, String currency) {
+        if (shardRouter.onAccount(accountId, () -> transactionRepository.existsByAccountId(accountId))) {
+            baseCurrencies.put(accountId, currency);
+        }
+        return currency;
+    }
+
+    // Only while the account has no transactions: existing balances would otherwise change meaning
+    public Account changeBaseCurrency(Long accountId, String currency) {
+        String code = fxRateService.normalize(currency);
+        return shardRouter.onAccount(accountId, () -> {
+            if (transactionRepository.existsByAccountId(accountId)) {
+                throw new IllegalStateException("The base currency can only be changed before the first transaction.");
+            }
+            Account account = getOrCreate(accountId);
+            account.setBaseCurrency(code);
+            return accountRepository.save(account);
+        });
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.bankingservice.service;
+
+import com.example.bankingservice.engine.LedgerEngine;
+import com.example.bankingservice.fx.FxRateService;
+import com.example.bankingservice.hold.ActiveHoldIndex;
+import com.example.bankingservice.hold.TimerWheel;
+import com.example.bankingservice.model.Hold;
+import com.example.bankingservice.model.Transaction;
+import com.example.bankingservice.repository.HoldRepository;
+import com.example.bankingservice.repository.TransactionRepository;
+import com.example.bankingservice.shard.ShardRouter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Card-style two-step flow: reserve funds (hold), then capture them as a withdrawal or release them.
+// The holds table is the durable record; ActiveHoldIndex and the expiry wheel are rebuilt from it on startup.
+@Service
+public class HoldService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HoldService.class);
+
+    @Autowired
+    private HoldRepository holdRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private ActiveHoldIndex activeHoldIndex;
+
+    @Autowired
+    private AccountLocks accountLocks;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private FxRateService fxRateService;
+
+    @Autowired
+    private LedgerEngine ledgerEngine;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${banking.holds.default-ttl:7d}")
+    private Duration defaultTtl;
+
+    @Value("${banking.holds.max-ttl:30d}")
+    private Duration maxTtl;
+
+    @Value("${banking.holds.wheel-slots:3600}")
+    private int wheelSlots;
+
+    @Value("${banking.holds.wheel-tick-ms:1000}")
+    private long wheelTickMillis;
+
+    private TimerWheel expiryWheel;
+    private ScheduledExecutorService expiryTicker;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void loadActiveHolds() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        expiryWheel = new TimerWheel(wheelSlots, wheelTickMillis, System.currentTimeMillis());
+
+        LocalDateTime now = LocalDateTime.now();
+        int[] expired = new int[1];
+        shardRouter.forEachShard(shard -> {
+            expired[0] += holdRepository.expireDue(now);
+            for (Hold hold : holdRepository.findByStatusAndExpiresAtAfter(Hold.ACTIVE, now)) {
+                track(hold);
+            }
+        });
+        logger.info("Loaded {} active holds ({} expired while down)", activeHoldIndex.size(), expired[0]);
+
+        expiryTicker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hold-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        expiryTicker.scheduleAtFixedRate(this::expireDue, wheelTickMillis, wheelTickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stopTicker() {
+        expiryTicker.shutdownNow();
+    }
+
+    // Reserves funds in one currency (null = the account's base currency);
+    // fails with IllegalArgumentException when the available balance is too low
+    public Hold placeHold(Long accountId, BigDecimal amount, String currency, Duration ttl) {
+        if (amount.signum() <= 0) {
+            throw new IllegalArgumentException("Hold amount must be positive.");
+        }
+        Duration holdTtl = ttl != null ? ttl : defaultTtl;
+        if (holdTtl.isNegative() || holdTtl.isZero() || holdTtl.compareTo(maxTtl) > 0) {
+            throw new IllegalArgumentException("Hold expiry must be between 1 second and " + maxTtl + ".");
+        }
+
+        String holdCurrency = currency != null ? fxRateService.normalize(currency) : accountService.baseCurrencyOrCreate(accountId);
+        return shardRouter.onAccount(accountId, () -> accountLocks.withLock(accountId, () -> {
+            if (transactionService.getAvailableBalance(accountId, holdCurrency).compareTo(amount) < 0) {
+                throw new IllegalArgumentException("Insufficient funds for hold.");
+            }
+            Hold hold = holdRepository.save(new Hold(accountId, amount, holdCurrency, LocalDateTime.now().plus(holdTtl)));
+            track(hold);
+            return hold;
+        }));
+    }
+
+    // Turns an active hold into a withdrawal of up to the held amount (null = the full amount)
+    public Transaction capture(Long holdId, Long accountId, BigDecimal amount) {
+        return shardRouter.onAccount(accountId, () -> captureOnShard(holdId, accountId, amount));
+    }
+
+    private Transaction captureOnShard(Long holdId, Long accountId, BigDecimal amount) {
+        Hold hold = findOwnedHold(holdId, accountId);
+        BigDecimal captureAmount = amount != null ? amount : hold.getAmount();
+        if (captureAmount.signum() <= 0 || captureAmount.compareTo(hold.getAmount()) > 0) {
+            throw new IllegalArgumentException("Capture amount must be positive and at most the held amount.");
+        }
+
+        return accountLocks.withLock(accountId, () -> {
+            if (!activeHoldIndex.contains(holdId) || hold.getExpiresAt().isBefore(LocalDateTime.now())) {
+                throw new IllegalStateException("Hold is no longer active.");
+            }
+            Transaction withdrawal = transactionTemplate.execute(status -> {
+                // Conditional update: loses cleanly against a concurrent release or expiry
+                if (holdRepository.finishActive(holdId, Hold.CAPTURED) == 0) {
+                    throw new IllegalStateException("Hold is no longer active.");
+                }
+                Transaction tx = transactionRepository.save(new Transaction("withdraw", captureAmount, hold.getCurrency(), accountId));
+                hold.setStatus(Hold.CAPTURED);
+                hold.setCaptureTransactionId(tx.getId());
+                holdRepository.save(hold);
+                return tx;
+            });
+            // Order matters with the engine: the balance drops before the held amount is freed
+            ledgerEngine.applyPersisted(withdrawal);
+            activeHoldIndex.remove(holdId);
+            return withdrawal;
+        });
+    }
+
+    public Hold release(Long holdId, Long accountId) {
+        return shardRouter.onAccount(accountId, () -> releaseOnShard(holdId, accountId));
+    }
+
+    private Hold releaseOnShard(Long holdId, Long accountId) {
+        Hold hold = findOwnedHold(holdId, accountId);
+        if (holdRepository.finishActive(holdId, Hold.RELEASED) == 0) {
+            throw new IllegalStateException("Hold is no longer active.");
+        }
+        activeHoldIndex.remove(holdId);
+        hold.setStatus(Hold.RELEASED);
+        return hold;
+    }
+
+    private Hold findOwnedHold(Long holdId, Long accountId) {
+        return holdRepository.findById(holdId)
+            .filter(hold -> hold.getAccountId().equals(accountId))
+            .orElseThrow(() -> new NoSuchElementException("Hold not found."));
+    }
+
+    private void track(Hold hold) {
+        activeHoldIndex.add(hold.getId(), hold.getAccountId(), hold.getCurrency(), hold.getAmount());
+        expiryWheel.schedule(hold.getId(), hold.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    // Runs on the ticker thread: frees the funds of every hold whose deadline the wheel has reached
+    private void expireDue() {
+        long now = System.currentTimeMillis();
+        for (Long holdId : expiryWheel.advance(now)) {
+            // Captured/released holds are no longer indexed; their wheel entry is simply dropped
+            Long accountId = activeHoldIndex.accountOf(holdId);
+            if (accountId == null) {
+                continue;
+            }
+            try {
+                if (shardRouter.onAccount(accountId, () -> holdRepository.finishActive(holdId, Hold.EXPIRED)) == 1) {
+                    activeHoldIndex.remove(holdId);
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Hold expiry failed for hold {}, retrying: {}", holdId, e.getMessage());
+                expiryWheel.schedule(holdId, now + wheelTickMillis);
+            }
+        }
+    }
+}
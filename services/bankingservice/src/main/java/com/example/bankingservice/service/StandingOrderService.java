@@ -0,0 +1,335 @@
+package com.example.bankingservice.service;
+
+import com.example.bankingservice.engine.LedgerEngine;
+import com.example.bankingservice.fx.FxRateService;
+import com.example.bankingservice.model.StandingOrder;
+import com.example.bankingservice.model.Transaction;
+import com.example.bankingservice.model.TransactionTypes;
+import com.example.bankingservice.repository.StandingOrderRepository;
+import com.example.bankingservice.shard.ShardContext;
+import com.example.bankingservice.shard.ShardRouter;
+import com.example.bankingservice.standingorder.DueOrderQueue;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Recurring deposits and withdrawals. The standing_orders table is the durable schedule; the due
+// queue holds only the orders firing within the next horizon, loaded once per horizon with one
+// indexed query per shard, so the ticker never polls the table. Every tick, due orders are run in
+// batches (one load per shard per batch) through TransactionService, so funds checks, holds,
+// velocity limits and the engine apply as for any other withdrawal.
+//
+// A run first claims its occurrence by moving the order to the next one, conditionally on the
+// occurrence, and only posts when the claim succeeded, so each occurrence is posted at most once
+// even with a cancel racing it or several instances. Claim and posting commit together, under the
+// account lock; engine postings cannot be rolled back, so there the claim commits first and is
+// given back if the posting is refused. A refused run (insufficient funds, velocity limit) is retried after retry-delay,
+// up to max-attempts, then that occurrence is skipped. After downtime the missed occurrences are
+// posted one by one (catch-up), at most max-missed-runs of them; older ones are skipped.
+@Service
+public class StandingOrderService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StandingOrderService.class);
+
+    private static final Set<String> TYPES = Set.of(TransactionTypes.DEPOSIT, TransactionTypes.WITHDRAW);
+
+    @Autowired
+    private StandingOrderRepository standingOrderRepository;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private FxRateService fxRateService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private AccountLocks accountLocks;
+
+    @Autowired
+    private LedgerEngine ledgerEngine;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${banking.standing-orders.horizon:10m}")
+    private Duration horizon;
+
+    @Value("${banking.standing-orders.tick-ms:1000}")
+    private long tickMillis;
+
+    @Value("${banking.standing-orders.batch-size:500}")
+    private int batchSize;
+
+    @Value("${banking.standing-orders.retry-delay:15m}")
+    private Duration retryDelay;
+
+    @Value("${banking.standing-orders.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${banking.standing-orders.max-missed-runs:31}")
+    private int maxMissedRuns;
+
+    private final DueOrderQueue dueOrders = new DueOrderQueue();
+    private ScheduledExecutorService ticker;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void startScheduler() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        loadHorizon(LocalDateTime.now());
+        logger.info("Loaded {} standing orders due within {}", dueOrders.size(), horizon);
+
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "standing-orders");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleWithFixedDelay(() -> {
+            try {
+                tick(LocalDateTime.now());
+            } catch (RuntimeException e) {
+                logger.error("Standing order tick failed", e);
+            }
+        }, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stopScheduler() {
+        ticker.shutdownNow();
+    }
+
+    // type: deposit or withdraw; currency null = the account's base currency; startAt null = now
+    public StandingOrder create(Long accountId, String type, BigDecimal amount, String currency, String frequency,
+                                LocalDateTime startAt, LocalDateTime endAt) {
+        if (type == null || !TYPES.contains(type)) {
+            throw new IllegalArgumentException("Standing order type must be deposit or withdraw.");
+        }
+        if (amount == null || amount.signum() <= 0 || amount.stripTrailingZeros().scale() > 2) {
+            throw new IllegalArgumentException("Standing order amount must be positive, with at most 2 decimals.");
+        }
+        if (frequency == null || !StandingOrder.FREQUENCIES.contains(frequency)) {
+            throw new IllegalArgumentException("Frequency must be one of " + StandingOrder.FREQUENCIES + ".");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = startAt != null ? startAt : now;
+        if (start.isBefore(now.minusMinutes(1))) {
+            throw new IllegalArgumentException("Standing order start must not be in the past.");
+        }
+        if (endAt != null && endAt.isBefore(start)) {
+            throw new IllegalArgumentException("Standing order end must be after its start.");
+        }
+        String orderCurrency = currency != null ? fxRateService.normalize(currency) : accountService.baseCurrencyOrCreate(accountId);
+
+        StandingOrder order = shardRouter.onAccount(accountId, () -> standingOrderRepository.save(
+            new StandingOrder(accountId, type, amount, orderCurrency, frequency, start, endAt)));
+        dueOrders.offer(order.getId(), accountId, order.getFireAt());
+        return order;
+    }
+
+    public List<StandingOrder> list(Long accountId) {
+        return shardRouter.onAccount(accountId, () -> standingOrderRepository.findByAccountIdOrderByCreatedAtDesc(accountId));
+    }
+
+    public StandingOrder cancel(Long orderId, Long accountId) {
+        return shardRouter.onAccount(accountId, () -> {
+            StandingOrder order = standingOrderRepository.findById(orderId)
+                .filter(found -> found.getAccountId().equals(accountId))
+                .orElseThrow(() -> new NoSuchElementException("Standing order not found."));
+            if (standingOrderRepository.cancelActive(orderId) == 0) {
+                throw new IllegalStateException("Standing order is no longer active.");
+            }
+            dueOrders.remove(orderId);
+            order.setStatus(StandingOrder.CANCELLED);
+            return order;
+        });
+    }
+
+    // One scheduler step (ticker thread): reload the queue when the horizon is reached, then run what is due
+    void tick(LocalDateTime now) {
+        if (!now.isBefore(dueOrders.horizonEnd())) {
+            loadHorizon(now);
+        }
+        List<DueOrderQueue.Entry> batch;
+        while (!(batch = dueOrders.pollDue(now, batchSize)).isEmpty()) {
+            runBatch(batch, now);
+        }
+    }
+
+    // The horizon is extended before the load, so an order created meanwhile is offered, not lost
+    void loadHorizon(LocalDateTime now) {
+        LocalDateTime end = now.plus(horizon);
+        dueOrders.extendHorizon(end);
+        shardRouter.forEachShard(shard -> {
+            for (StandingOrderRepository.DueOrder due : standingOrderRepository.findDueBefore(end)) {
+                // Rows left on a shard by an interrupted reshard are not the account's
+                if (shard.equals(shardRouter.shardOf(due.getAccountId()))) {
+                    dueOrders.offer(due.getId(), due.getAccountId(), due.getFireAt());
+                }
+            }
+        });
+    }
+
+    private void runBatch(List<DueOrderQueue.Entry> batch, LocalDateTime now) {
+        Map<String, List<DueOrderQueue.Entry>> byShard = new LinkedHashMap<>();
+        for (DueOrderQueue.Entry entry : batch) {
+            byShard.computeIfAbsent(shardRouter.shardOf(entry.accountId()), shard -> new ArrayList<>()).add(entry);
+        }
+        byShard.forEach((shard, entries) -> {
+            Map<Long, StandingOrder> orders = new HashMap<>();
+            ShardContext.on(shard, () -> standingOrderRepository.findAllById(entries.stream().map(DueOrderQueue.Entry::orderId).toList()))
+                .forEach(order -> orders.put(order.getId(), order));
+            for (DueOrderQueue.Entry entry : entries) {
+                StandingOrder order = orders.get(entry.orderId());
+                try {
+                    if (order == null) {
+                        // Moved by a reshard since the horizon load: read it where it lives now
+                        order = shardRouter.onAccount(entry.accountId(), () -> standingOrderRepository.findById(entry.orderId()).orElse(null));
+                    }
+                    if (order != null) {
+                        run(order, now);
+                    }
+                } catch (RuntimeException e) {
+                    logger.warn("Standing order {} failed, retrying: {}", entry.orderId(), e.getMessage());
+                    dueOrders.offer(entry.orderId(), entry.accountId(), now.plus(retryDelay));
+                }
+            }
+        });
+    }
+
+    private void run(StandingOrder order, LocalDateTime now) {
+        if (!StandingOrder.ACTIVE.equals(order.getStatus())) {
+            return;
+        }
+        if (order.getFireAt().isAfter(now)) {
+            dueOrders.offer(order.getId(), order.getAccountId(), order.getFireAt()); // stale entry
+            return;
+        }
+        long occurrence = order.getOccurrence();
+
+        // Catch-up: keep at most max-missed-runs overdue occurrences, skip the older ones
+        long keepFrom = occurrence;
+        while (!order.occurrenceAt(keepFrom + maxMissedRuns).isAfter(now)) {
+            keepFrom++;
+        }
+        if (isPastEnd(order, keepFrom)) {
+            skip(order, occurrence, keepFrom, "Ended");
+            return;
+        }
+        if (keepFrom > occurrence) {
+            skip(order, occurrence, keepFrom, "Skipped " + (keepFrom - occurrence) + " missed runs");
+            return;
+        }
+
+        long next = occurrence + 1;
+        String status = isPastEnd(order, next) ? StandingOrder.FINISHED : StandingOrder.ACTIVE;
+        boolean posted;
+        try {
+            posted = ledgerEngine.isEnabled() ? claimThenPost(order, occurrence, next, status)
+                : shardRouter.onAccount(order.getAccountId(), () -> accountLocks.withLock(order.getAccountId(),
+                    () -> transactionTemplate.execute(tx -> claim(order, occurrence, next, status) && record(order, next, post(order)))));
+        } catch (RuntimeException e) {
+            refused(order, occurrence, now, e);
+            return;
+        }
+        if (posted) {
+            reschedule(order, order.occurrenceAt(next), status);
+        }
+    }
+
+    // False when the order was cancelled, or the occurrence run by another instance, meanwhile
+    private boolean claim(StandingOrder order, long occurrence, long next, String status) {
+        return standingOrderRepository.advance(order.getId(), occurrence, next, order.occurrenceAt(next), status) == 1;
+    }
+
+    private boolean record(StandingOrder order, long next, Transaction posted) {
+        standingOrderRepository.recordPosting(order.getId(), next, posted.getId());
+        return true;
+    }
+
+    // Engine mode: the claim is committed before posting; a refused posting gives the occurrence back
+    private boolean claimThenPost(StandingOrder order, long occurrence, long next, String status) {
+        if (!shardRouter.onAccount(order.getAccountId(), () -> claim(order, occurrence, next, status))) {
+            return false;
+        }
+        Transaction posted;
+        try {
+            posted = post(order);
+        } catch (RuntimeException e) {
+            shardRouter.onAccount(order.getAccountId(), () -> standingOrderRepository.release(order.getId(), next, status,
+                occurrence, order.getNextRunAt(), order.getFireAt(), order.getAttempts(), order.getLastTransactionId(), order.getLastError()));
+            throw e;
+        }
+        return shardRouter.onAccount(order.getAccountId(), () -> record(order, next, posted));
+    }
+
+    private Transaction post(StandingOrder order) {
+        Transaction tx = new Transaction(order.getType(), order.getAmount(), order.getCurrency(), order.getAccountId());
+        return TransactionTypes.DEPOSIT.equals(order.getType()) ? transactionService.deposit(tx) : transactionService.withdraw(tx);
+    }
+
+    // Retried after retry-delay, until max-attempts; then this occurrence is skipped
+    private void refused(StandingOrder order, long occurrence, LocalDateTime now, RuntimeException e) {
+        int attempts = order.getAttempts() + 1;
+        String error = truncate(e.getMessage());
+        if (attempts >= maxAttempts) {
+            skip(order, occurrence, occurrence + 1, "Skipped after " + attempts + " attempts: " + error);
+            return;
+        }
+        LocalDateTime retryAt = now.plus(retryDelay);
+        shardRouter.onAccount(order.getAccountId(),
+            () -> standingOrderRepository.retryLater(order.getId(), occurrence, attempts, retryAt, error));
+        dueOrders.offer(order.getId(), order.getAccountId(), retryAt);
+    }
+
+    private void skip(StandingOrder order, long occurrence, long to, String reason) {
+        String status = isPastEnd(order, to) ? StandingOrder.FINISHED : StandingOrder.ACTIVE;
+        int updated = shardRouter.onAccount(order.getAccountId(), () -> standingOrderRepository.skip(
+            order.getId(), occurrence, to, order.occurrenceAt(to), status, truncate(reason)));
+        if (updated == 1) {
+            reschedule(order, order.occurrenceAt(to), status);
+        }
+    }
+
+    private void reschedule(StandingOrder order, LocalDateTime fireAt, String status) {
+        if (StandingOrder.ACTIVE.equals(status)) {
+            dueOrders.offer(order.getId(), order.getAccountId(), fireAt);
+        }
+    }
+
+    private static boolean isPastEnd(StandingOrder order, long occurrence) {
+        return order.getEndAt() != null && order.occurrenceAt(occurrence).isAfter(order.getEndAt());
+    }
+
+    private static String truncate(String message) {
+        String text = String.valueOf(message);
+        return text.length() <= 255 ? text : text.substring(0, 255);
+    }
+}
@@ -1,19 +1,71 @@
 package com.example.bankingservice.service;
 
+import com.example.bankingservice.dto.TransactionFilter;
+import com.example.bankingservice.dto.TransactionView;
+import com.example.bankingservice.dto.TransferResult;
+import com.example.bankingservice.engine.LedgerEngine;
+import com.example.bankingservice.fx.FxRateService;
+import com.example.bankingservice.fx.FxSnapshot;
+import com.example.bankingservice.hold.ActiveHoldIndex;
 import com.example.bankingservice.model.Transaction;
+import com.example.bankingservice.model.TransactionTypes;
+import com.example.bankingservice.model.Transfer;
 import com.example.bankingservice.repository.TransactionRepository; // Import your TransactionRepository
+import com.example.bankingservice.repository.TransferRepository;
+import com.example.bankingservice.shard.ShardRouter;
+import com.example.bankingservice.velocity.VelocityLimitExceededException;
+import com.example.bankingservice.velocity.VelocityLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class TransactionService {
 
+    private static final Logger logger = LoggerFactory.getLogger(TransactionService.class);
+
     @Autowired // Autowire your TransactionRepository
     private TransactionRepository transactionRepository;
 
+    @Autowired
+    private TransferRepository transferRepository;
+
+    @Autowired
+    private VelocityLimiter velocityLimiter;
+
+    @Autowired
+    private ActiveHoldIndex activeHoldIndex;
+
+    @Autowired
+    private AccountLocks accountLocks;
+
+    // Every ledger access runs on the shard owning the account
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private FxRateService fxRateService;
+
+    // When enabled, balances and ledger writes go through the in-memory engine instead of the database
+    @Autowired
+    private LedgerEngine ledgerEngine;
+
     // Method to handle deposits
     public Transaction deposit(Transaction tx) {
         // Implement deposit logic:
@@ -21,9 +73,10 @@ public class TransactionService {
         // 2. Add the deposit amount to the balance (this logic will be in your service)
         // 3. Save the new transaction record to the database
         tx.setType("deposit"); // Ensure type is correctly set
+        tx.setCurrency(currencyFor(tx)); // Account base currency unless the request named one
         // The transactionDate is set in the Transaction model's constructor, or you can set it here:
         // tx.setTransactionDate(LocalDateTime.now());
-        return transactionRepository.save(tx); // Save the transaction to the database
+        return credit(tx); // Save the transaction to the database
     }
 
     // Method to handle withdrawals
@@ -33,32 +86,181 @@ public class TransactionService {
         // 2. Check for overdraft: If amount > current balance, throw an exception or return an error
         // 3. Subtract the withdrawal amount from the balance
         // 4. Save the new transaction record to the database
-        BigDecimal currentBalance = getCurrentBalance(tx.getAccountId());
-        if (currentBalance.compareTo(tx.getAmount()) < 0) {
-            throw new IllegalArgumentException("Insufficient funds for withdrawal.");
-        }
         tx.setType("withdraw"); // Ensure type is correctly set
-        // The transactionDate is set in the Transaction model's constructor, or you can set it here:
-        // tx.setTransactionDate(LocalDateTime.now());
-        return transactionRepository.save(tx); // Save the transaction to the database
+        tx.setCurrency(currencyFor(tx));
+        return debit(tx);
+    }
+
+    // Moves money to another account (or another currency of the same account), converting at the
+    // current FX snapshot. The two accounts may live on different shards, so debit and credit are
+    // two writes: the transfer row is stored first, with the ids of both legs, and a failed credit is
+    // compensated by crediting the amount back. Whatever is left pending (crash, failed compensation)
+    // is completed or reversed by TransferRecovery.
+    public TransferResult transfer(Long fromAccountId, Long toAccountId, BigDecimal amount, String fromCurrency, String toCurrency) {
+        if (amount.signum() <= 0) {
+            throw new IllegalArgumentException("Transfer amount must be positive.");
+        }
+        if (!accountService.exists(toAccountId)) {
+            throw new NoSuchElementException("Target account not found.");
+        }
+        String source = fromCurrency != null ? fxRateService.normalize(fromCurrency) : accountService.baseCurrencyOrCreate(fromAccountId);
+        String target = toCurrency != null ? fxRateService.normalize(toCurrency) : accountService.baseCurrency(toAccountId);
+        if (fromAccountId.equals(toAccountId) && source.equals(target)) {
+            throw new IllegalArgumentException("Transfer to the same account needs a different currency.");
+        }
+
+        FxSnapshot rates = fxRateService.snapshot(); // one snapshot for rate and amount
+        BigDecimal converted = rates.convert(amount, source, target);
+        if (converted.signum() <= 0) {
+            throw new IllegalArgumentException("Transfer amount is too small to convert.");
+        }
+
+        Transfer transfer = shardRouter.onAccount(fromAccountId,
+            () -> transferRepository.save(new Transfer(fromAccountId, amount, source, toAccountId, converted, target)));
+        Transaction debit;
+        try {
+            debit = debit(transfer.debitLeg());
+        } catch (RuntimeException e) {
+            finishTransfer(transfer, Transfer.FAILED);
+            throw e;
+        }
+        Transaction credit = transfer.creditLeg();
+        RuntimeException creditFailure = settleTransfer(transfer, credit);
+        if (creditFailure != null) {
+            throw creditFailure;
+        }
+        return new TransferResult(debit, credit, rates.rate(source, target));
+    }
+
+    // Second half of a debited transfer: writes the credit leg, or the reversal leg when the credit
+    // fails. Returns the credit failure, null once credited. If the reversal fails as well the
+    // transfer stays pending for TransferRecovery.
+    RuntimeException settleTransfer(Transfer transfer, Transaction credit) {
+        try {
+            credit(credit);
+        } catch (RuntimeException e) {
+            try {
+                credit(transfer.reversalLeg());
+                finishTransfer(transfer, Transfer.REVERSED);
+            } catch (RuntimeException reversalFailure) {
+                logger.error("ALERT transfer {}: account {} debited {} {} but neither the credit nor its reversal was written,"
+                    + " left pending for recovery (credit: {}, reversal: {})", transfer.getId(), transfer.getAccountId(),
+                    transfer.getAmount(), transfer.getCurrency(), e.getMessage(), reversalFailure.getMessage());
+            }
+            return e;
+        }
+        finishTransfer(transfer, Transfer.COMPLETED);
+        return null;
+    }
+
+    // The money has moved (or not) by now; a status that cannot be written is settled by recovery later
+    void finishTransfer(Transfer transfer, String status) {
+        try {
+            shardRouter.onAccount(transfer.getAccountId(),
+                () -> transferRepository.finishPending(transfer.getId(), status, LocalDateTime.now()));
+            transfer.setStatus(status);
+        } catch (RuntimeException e) {
+            logger.warn("Transfer {} could not be marked {}, left for recovery: {}", transfer.getId(), status, e.getMessage());
+        }
+    }
+
+    // Velocity, then funds check and write under the account lock; the velocity limits are kept in the default currency
+    private Transaction debit(Transaction tx) {
+        BigDecimal velocityAmount = fxRateService.convert(tx.getAmount(), tx.getCurrency(), accountService.getDefaultCurrency());
+        long now = System.currentTimeMillis();
+        if (!velocityLimiter.tryAcquire(tx.getAccountId(), velocityAmount, now)) {
+            throw new VelocityLimitExceededException("Withdrawal limit for the current window reached.");
+        }
+        try {
+            if (ledgerEngine.isEnabled()) {
+                // The lock only covers the engine's funds check (holds check funds under it too), not the journal write
+                CompletableFuture<Object> durable = accountLocks.withLock(tx.getAccountId(), () -> ledgerEngine.debit(tx));
+                LedgerEngine.await(durable);
+                return tx;
+            }
+            Transaction saved = shardRouter.onAccount(tx.getAccountId(), () -> accountLocks.withLock(tx.getAccountId(), () -> {
+                // Funds reserved by active holds are not available for withdrawal
+                BigDecimal availableBalance = getAvailableBalance(tx.getAccountId(), tx.getCurrency());
+                if (availableBalance.compareTo(tx.getAmount()) < 0) {
+                    throw new IllegalArgumentException("Insufficient funds for withdrawal.");
+                }
+                // The transactionDate is set in the Transaction model's constructor, or you can set it here:
+                // tx.setTransactionDate(LocalDateTime.now());
+                return transactionRepository.save(tx); // Save the transaction to the database
+            }));
+            releaseOnRollback(tx.getAccountId(), velocityAmount, now);
+            return saved;
+        } catch (RuntimeException e) {
+            velocityLimiter.release(tx.getAccountId(), velocityAmount, now); // the withdrawal did not happen
+            throw e;
+        }
+    }
+
+    // Inside a caller's transaction (standing orders) the withdrawal only happens if that transaction commits
+    private void releaseOnRollback(Long accountId, BigDecimal velocityAmount, long acquiredAtMillis) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    velocityLimiter.release(accountId, velocityAmount, acquiredAtMillis);
+                }
+            }
+        });
+    }
+
+    Transaction credit(Transaction tx) {
+        if (ledgerEngine.isEnabled()) {
+            LedgerEngine.await(ledgerEngine.credit(tx));
+            return tx;
+        }
+        return shardRouter.onAccount(tx.getAccountId(), () -> transactionRepository.save(tx));
+    }
+
+    private String currencyFor(Transaction tx) {
+        if (tx.getCurrency() != null) {
+            return fxRateService.normalize(tx.getCurrency());
+        }
+        return accountService.baseCurrencyOrCreate(tx.getAccountId());
     }
 
     // Method to get all transactions for a specific account, ordered by date
-    public List<Transaction> getTransactionsByAccountId(Long accountId) {
-        return transactionRepository.findByAccountIdOrderByTransactionDateDesc(accountId);
+    public List<TransactionView> getTransactionsByAccountId(Long accountId) {
+        return shardRouter.onAccount(accountId, () -> transactionRepository.findHistory(accountId));
+    }
+
+    // Filtered, paginated history of one account (projection only, see TransactionSearchRepository)
+    public Slice<TransactionView> search(TransactionFilter filter, Pageable pageable) {
+        return shardRouter.onAccount(filter.getAccountId(), () -> transactionRepository.search(filter, pageable));
+    }
+
+    // Ledger balance minus the funds reserved by active holds, in one currency
+    public BigDecimal getAvailableBalance(Long accountId, String currency) {
+        return getCurrentBalance(accountId, currency).subtract(activeHoldIndex.heldAmount(accountId, currency));
     }
 
-    // Method to calculate the current balance for a specific account
+    // Balance in the account's base currency
     public BigDecimal getCurrentBalance(Long accountId) {
-        List<Transaction> transactions = transactionRepository.findByAccountId(accountId);
-        BigDecimal balance = BigDecimal.ZERO;
-        for (Transaction tx : transactions) {
-            if ("deposit".equalsIgnoreCase(tx.getType())) {
-                balance = balance.add(tx.getAmount());
-            } else if ("withdraw".equalsIgnoreCase(tx.getType())) {
-                balance = balance.subtract(tx.getAmount());
-            }
+        return getCurrentBalance(accountId, accountService.baseCurrency(accountId));
+    }
+
+    public BigDecimal getCurrentBalance(Long accountId, String currency) {
+        return getBalances(accountId).getOrDefault(currency, BigDecimal.ZERO);
+    }
+
+    // Method to calculate the current balance for a specific account, per currency
+    public Map<String, BigDecimal> getBalances(Long accountId) {
+        if (ledgerEngine.isEnabled()) {
+            return ledgerEngine.balances(accountId);
+        }
+        List<TransactionRepository.CurrencyBalance> sums = shardRouter.onAccount(accountId,
+            () -> transactionRepository.sumBalances(accountId, TransactionTypes.credits(), TransactionTypes.debits()));
+        Map<String, BigDecimal> balances = new TreeMap<>();
+        for (TransactionRepository.CurrencyBalance sum : sums) {
+            balances.put(sum.getCurrency(), sum.getBalance());
         }
-        return balance;
+        return balances;
     }
-}
\ No newline at end of file
+}
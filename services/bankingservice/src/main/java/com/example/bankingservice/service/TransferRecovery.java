@@ -0,0 +1,113 @@
+package com.example.bankingservice.service;
+
+import com.example.bankingservice.engine.LedgerEngine;
+import com.example.bankingservice.model.Transfer;
+import com.example.bankingservice.repository.TransactionRepository;
+import com.example.bankingservice.repository.TransferRepository;
+import com.example.bankingservice.shard.ShardRouter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Settles transfers left pending for longer than stale-after: a crash between their two legs, or a
+// failed credit whose reversal failed too. The legs' ids are on the transfer row, so each is looked
+// up on its account's shard (in engine mode once the journal is stored):
+//  - no debit: the transfer never took money, it is marked failed
+//  - credit or reversal written: marked completed or reversed
+//  - debit only: the credit is written now, or the reversal if the credit fails again
+// A transfer still pending after that (reversal failed too) is retried on the next pass.
+@Service
+public class TransferRecovery {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransferRecovery.class);
+
+    @Autowired
+    private TransferRepository transferRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private LedgerEngine ledgerEngine;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${banking.transfers.stale-after:5m}")
+    private Duration staleAfter;
+
+    @Value("${banking.transfers.drain-timeout-ms:30000}")
+    private long drainTimeoutMillis;
+
+    // Returns the number of transfers settled
+    @Scheduled(fixedDelayString = "${banking.transfers.recovery-interval-ms:60000}")
+    public int recover() {
+        LocalDateTime before = LocalDateTime.now().minus(staleAfter);
+        List<Transfer> pending = new ArrayList<>();
+        shardRouter.forEachShard(shard -> {
+            for (Transfer transfer : transferRepository.findByStatusAndUpdatedAtBefore(Transfer.PENDING, before)) {
+                // Rows left on a shard by an interrupted reshard are not the account's
+                if (shard.equals(shardRouter.shardOf(transfer.getAccountId()))) {
+                    pending.add(transfer);
+                }
+            }
+        });
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        // Every leg the engine has journaled must be in the table before legs are looked up there
+        if (!ledgerEngine.awaitStored(drainTimeoutMillis)) {
+            logger.warn("Transfer recovery postponed: the ledger journal is not stored yet ({} pending transfers)", pending.size());
+            return 0;
+        }
+        int settled = 0;
+        for (Transfer transfer : pending) {
+            try {
+                if (settle(transfer)) {
+                    settled++;
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Recovering transfer {} failed, retrying on the next pass: {}", transfer.getId(), e.getMessage());
+            }
+        }
+        if (settled > 0) {
+            logger.info("Transfer recovery settled {} of {} pending transfers", settled, pending.size());
+        }
+        return settled;
+    }
+
+    private boolean settle(Transfer transfer) {
+        LocalDateTime now = LocalDateTime.now();
+        if (shardRouter.onAccount(transfer.getAccountId(),
+                () -> transferRepository.claimPending(transfer.getId(), transfer.getUpdatedAt(), now)) == 0) {
+            return false; // settled or taken by someone else meanwhile
+        }
+        transfer.setUpdatedAt(now);
+        if (!written(transfer.getAccountId(), transfer.getDebitTransactionId())) {
+            transactionService.finishTransfer(transfer, Transfer.FAILED);
+        } else if (written(transfer.getToAccountId(), transfer.getCreditTransactionId())) {
+            transactionService.finishTransfer(transfer, Transfer.COMPLETED);
+        } else if (written(transfer.getAccountId(), transfer.getReversalTransactionId())) {
+            transactionService.finishTransfer(transfer, Transfer.REVERSED);
+        } else {
+            transactionService.settleTransfer(transfer, transfer.creditLeg());
+        }
+        return !Transfer.PENDING.equals(transfer.getStatus());
+    }
+
+    private boolean written(Long accountId, Long transactionId) {
+        return shardRouter.onAccount(accountId, () -> transactionRepository.existsById(transactionId));
+    }
+}
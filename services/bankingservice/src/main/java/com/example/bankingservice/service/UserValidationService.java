@@ -1,54 +1,89 @@
 package com.example.bankingservice.service;
 
+import com.example.bankingservice.dto.ValidatedUser;
+import com.example.microbank.grpc.user.UserValidationGrpc;
+import com.example.microbank.grpc.user.ValidateTokenRequest;
+import com.example.microbank.grpc.user.ValidateTokenResponse;
+
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.StatusRuntimeException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class UserValidationService {
 
+    private static final Logger logger = LoggerFactory.getLogger(UserValidationService.class);
+
     @Value("${client.service.url}")
     private String clientServiceBaseUrl;
 
+    // host:port of clientservice's gRPC server; when empty the REST endpoint is used instead
+    @Value("${client.service.grpc-target:}")
+    private String grpcTarget;
+
+    @Value("${client.service.grpc-deadline-ms:2000}")
+    private long grpcDeadlineMs;
+
     private final RestTemplate restTemplate = new RestTemplate();
 
+    // One HTTP/2 channel shared by all request threads; calls are multiplexed over it
+    private ManagedChannel channel;
+    private UserValidationGrpc.UserValidationBlockingStub stub;
+
+    @PostConstruct
+    void openChannel() {
+        if (grpcTarget != null && !grpcTarget.isBlank()) {
+            channel = ManagedChannelBuilder.forTarget(grpcTarget).usePlaintext().build();
+            stub = UserValidationGrpc.newBlockingStub(channel);
+        }
+    }
+
+    @PreDestroy
+    void closeChannel() throws InterruptedException {
+        if (channel != null) {
+            channel.shutdown().awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
     private String getUserEndpoint() {
-        return clientServiceBaseUrl + "/user/me";
+        return clientServiceBaseUrl + "/api/user/summary";
     }
 
     private String formatToken(String token) {
         return token != null && token.startsWith("Bearer ") ? token : "Bearer " + token;
     }
 
-    public boolean validateUser(String token) {
-        try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", formatToken(token));
-            HttpEntity<Void> request = new HttpEntity<>(headers);
-
-            ResponseEntity<Map> response = restTemplate.exchange(
-                getUserEndpoint(),
-                HttpMethod.GET,
-                request,
-                Map.class
-            );
-
-            if (response.getStatusCode().is2xxSuccessful()) {
-                Map user = response.getBody();
-                return user != null && !(Boolean.TRUE.equals(user.get("blacklisted")));
-            }
+    // Resolves the caller once per request: null when the token is invalid or the user is unknown
+    public ValidatedUser validate(String token) {
+        return stub != null ? validateWithGrpc(token) : validateWithRest(token);
+    }
 
-            System.out.println("Validation failed with status: " + response.getStatusCode());
-        } catch (Exception e) {
-            System.out.println("Validation exception: " + e.getMessage());
+    private ValidatedUser validateWithGrpc(String token) {
+        try {
+            ValidateTokenResponse response = stub
+                .withDeadlineAfter(grpcDeadlineMs, TimeUnit.MILLISECONDS)
+                .validateToken(ValidateTokenRequest.newBuilder().setToken(formatToken(token)).build());
+            return response.getValid() ? new ValidatedUser(response.getUserId(), response.getBlacklisted(), response.getAdmin()) : null;
+        } catch (StatusRuntimeException e) {
+            logger.warn("Validation exception: {}", e.getStatus());
         }
-        return false;
+        return null;
     }
 
-    public Long getUserIdFromToken(String token) {
+    private ValidatedUser validateWithRest(String token) {
         try {
             HttpHeaders headers = new HttpHeaders();
             headers.set("Authorization", formatToken(token));
@@ -63,16 +98,20 @@ public class UserValidationService {
 
             if (response.getStatusCode().is2xxSuccessful()) {
                 Map user = response.getBody();
-                if (user != null && user.containsKey("id")) {
-                    Object idObj = user.get("id");
-                    return (idObj instanceof Integer) ? ((Integer) idObj).longValue() : (Long) idObj;
+                if (user != null && user.get("id") instanceof Number id) {
+                    return new ValidatedUser(id.longValue(), Boolean.TRUE.equals(user.get("blacklisted")), hasAdminRole(user.get("roles")));
                 }
             }
 
-            System.out.println("Failed to extract user ID with status: " + response.getStatusCode());
+            logger.warn("Validation failed with status: {}", response.getStatusCode());
         } catch (Exception e) {
-            System.out.println("Error getting user ID: " + e.getMessage());
+            logger.warn("Validation exception: {}", e.getMessage());
         }
         return null;
     }
+
+    // /api/user/summary lists the role names: ["ROLE_USER", "ROLE_ADMIN"]
+    private boolean hasAdminRole(Object roles) {
+        return roles instanceof Collection<?> list && list.contains("ROLE_ADMIN");
+    }
 }
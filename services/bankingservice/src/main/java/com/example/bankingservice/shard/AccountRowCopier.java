@@ -0,0 +1,125 @@
+package com.example.bankingservice.shard;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSetMetaData;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.function.Supplier;
+
+// Moves all rows of one account from one shard to another with plain JDBC, table by table.
+// Rows keep their (globally unique) key and replace any row with the same key on the target, so a
+// move interrupted half-way can simply be run again. The source rows are deleted only after the
+// target has committed and the move is recorded (onCopied), so a crash in between leaves the
+// account readable where the routing state says it is. Only the keys that were copied are deleted;
+// a row that reached the source meanwhile is copied by another pass instead of being lost.
+@Component
+public class AccountRowCopier {
+
+    // Every table whose rows belong to exactly one account (account_id column), with its primary key; new ones go here
+    static final Map<String, String> ACCOUNT_TABLES = Map.of(
+        "accounts", "account_id",
+        "transactions", "id",
+        "holds", "id",
+        "period_postings", "id",
+        "standing_orders", "id",
+        "transfers", "id");
+
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private LedgerShards shards;
+
+    // Returns the number of rows moved
+    public int move(long accountId, String from, String to, Runnable onCopied) {
+        JdbcTemplate source = new JdbcTemplate(shards.dataSource(from));
+        JdbcTemplate target = new JdbcTemplate(shards.dataSource(to));
+
+        int moved = 0;
+        boolean recorded = false;
+        while (true) {
+            // Copied keys per table
+            Map<String, List<Object[]>> copied = inTransaction(to, () -> {
+                Map<String, List<Object[]>> keys = new HashMap<>();
+                for (Map.Entry<String, String> table : ACCOUNT_TABLES.entrySet()) {
+                    keys.put(table.getKey(), copyTable(table.getKey(), table.getValue(), accountId, source, target));
+                }
+                return keys;
+            });
+            int rows = copied.values().stream().mapToInt(List::size).sum();
+            if (!recorded) {
+                onCopied.run();
+                recorded = true;
+            } else if (rows == 0) {
+                return moved;
+            }
+            moved += rows;
+            inTransaction(from, () -> {
+                copied.forEach((table, keys) ->
+                    source.batchUpdate("delete from " + table + " where " + ACCOUNT_TABLES.get(table) + " = ?", keys));
+                return null;
+            });
+        }
+    }
+
+    // Returns the keys of the rows copied
+    private List<Object[]> copyTable(String table, String keyColumn, long accountId, JdbcTemplate source, JdbcTemplate target) {
+        return source.query("select * from " + table + " where account_id = ?", rs -> {
+            ResultSetMetaData meta = rs.getMetaData();
+            int columns = meta.getColumnCount();
+            StringJoiner names = new StringJoiner(", ");
+            StringJoiner params = new StringJoiner(", ");
+            int keyIndex = -1;
+            for (int i = 1; i <= columns; i++) {
+                names.add(meta.getColumnName(i));
+                params.add("?");
+                if (keyColumn.equalsIgnoreCase(meta.getColumnName(i))) {
+                    keyIndex = i - 1;
+                }
+            }
+            String insert = "insert into " + table + " (" + names + ") values (" + params + ")";
+
+            List<Object[]> copied = new ArrayList<>();
+            List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+            while (rs.next()) {
+                Object[] row = new Object[columns];
+                for (int i = 0; i < columns; i++) {
+                    row[i] = rs.getObject(i + 1);
+                }
+                batch.add(row);
+                if (batch.size() == BATCH_SIZE) {
+                    flush(table, keyColumn, insert, keyIndex, batch, target, copied);
+                }
+            }
+            flush(table, keyColumn, insert, keyIndex, batch, target, copied);
+            return copied;
+        }, accountId);
+    }
+
+    private void flush(String table, String keyColumn, String insert, int keyIndex, List<Object[]> batch, JdbcTemplate target,
+                       List<Object[]> copied) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Object[]> keys = new ArrayList<>(batch.size());
+        for (Object[] row : batch) {
+            keys.add(new Object[] {row[keyIndex]});
+        }
+        target.batchUpdate("delete from " + table + " where " + keyColumn + " = ?", keys);
+        target.batchUpdate(insert, batch);
+        copied.addAll(keys);
+        batch.clear();
+    }
+
+    private <T> T inTransaction(String shard, Supplier<T> work) {
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(shards.dataSource(shard)));
+        return transaction.execute(status -> work.get());
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.bankingservice.shard;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Marks an id generated by LedgerIdGenerator instead of the shard's AUTO_INCREMENT
+@IdGeneratorType(LedgerIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface LedgerId {
+}
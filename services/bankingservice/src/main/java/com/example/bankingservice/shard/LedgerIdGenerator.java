@@ -0,0 +1,49 @@
+package com.example.bankingservice.shard;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+import java.time.Instant;
+
+// Ids that are unique across shards, so rows keep their id when a reshard moves them and the
+// in-memory indexes (holds) can stay keyed by id. Layout, 53 bits so the ids stay exact in JSON:
+//   31 bits seconds since 2024-01-01 | 6 bits node id | 16 bits sequence
+// When a second's sequence runs out the clock is borrowed from the next second instead of waiting.
+// An id the caller set before saving (transfer legs, see Transfer) is kept.
+public class LedgerIdGenerator implements IdentifierGenerator {
+
+    private static final long EPOCH_SECONDS = Instant.parse("2024-01-01T00:00:00Z").getEpochSecond();
+    private static final int NODE_BITS = 6;
+    private static final int SEQUENCE_BITS = 16;
+    private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+
+    private static volatile long nodeId;
+    private static long lastSecond;
+    private static long sequence;
+
+    static void setNodeId(int id) {
+        if (id < 0 || id >= (1 << NODE_BITS)) {
+            throw new IllegalArgumentException("banking.ledger.node-id must be between 0 and " + ((1 << NODE_BITS) - 1));
+        }
+        nodeId = id;
+    }
+
+    public static synchronized long nextId() {
+        long second = Instant.now().getEpochSecond() - EPOCH_SECONDS;
+        if (second > lastSecond) {
+            lastSecond = second;
+            sequence = 0;
+        } else if (++sequence > MAX_SEQUENCE) {
+            // Sequence exhausted (or the clock went back): continue in the next second
+            lastSecond++;
+            sequence = 0;
+        }
+        return (lastSecond << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        Object assigned = session.getEntityPersister(null, object).getIdentifier(object, session);
+        return assigned != null ? assigned : nextId();
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.bankingservice.shard;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Online resharding: moves every account whose owner differs between the current and the target
+// ring, one account at a time, while traffic keeps flowing (see ShardRouter). Accounts used during
+// the run are moved on their first request; the scan below picks up all the others.
+// Run it on one instance: the target ring and every moved account are stored (ShardRoutingState),
+// so restarted instances and the other instances route by them too, the latter within
+// banking.ledger.routing-refresh-ms; no account moves before banking.ledger.reshard-grace-ms has
+// passed, and writes to accounts still to move are fenced in the shared routing state. The stored ring replaces banking.ledger.shards[*].active once
+// the run is done. If the run is interrupted, start it again with the same shards; moves are idempotent.
+@Service
+public class LedgerResharder {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerResharder.class);
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private LedgerShards shards;
+
+    @Autowired
+    private LedgerShardProperties properties;
+
+    private volatile String state = "idle";
+    private volatile String error;
+    private final AtomicLong accountsMoved = new AtomicLong();
+    private final AtomicLong rowsMoved = new AtomicLong();
+    private Thread worker;
+
+    // Runs the reshard on a background thread; false when one is already running
+    public synchronized boolean start(List<String> targetShards) {
+        ConsistentHashRing target = targetRing(targetShards);
+        if (worker != null && worker.isAlive()) {
+            return false;
+        }
+        worker = new Thread(() -> {
+            try {
+                run(target);
+            } catch (RuntimeException e) {
+                logger.error("Reshard failed: {}", e.getMessage());
+            }
+        }, "ledger-reshard");
+        worker.start();
+        return true;
+    }
+
+    // Synchronous variant, also used by start()
+    public void run(List<String> targetShards) {
+        run(targetRing(targetShards));
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("state", state);
+        status.put("shards", shardRouter.ringShards());
+        status.put("targetShards", shardRouter.targetShards());
+        status.put("accountsMoved", accountsMoved.get());
+        status.put("rowsMoved", rowsMoved.get());
+        status.put("error", error);
+        return status;
+    }
+
+    private void run(ConsistentHashRing target) {
+        state = "running";
+        error = null;
+        accountsMoved.set(0);
+        rowsMoved.set(0);
+        try {
+            shardRouter.beginMove(target);
+            for (String shard : shards.names()) {
+                scan(shard);
+            }
+            shardRouter.finishMove();
+            state = "done";
+            logger.info("Reshard to {} done: {} accounts, {} rows moved", target.shards(), accountsMoved.get(), rowsMoved.get());
+        } catch (RuntimeException e) {
+            state = "failed";
+            error = e.getMessage();
+            throw e;
+        }
+    }
+
+    private void scan(String shard) {
+        JdbcTemplate jdbc = new JdbcTemplate(shards.dataSource(shard));
+        jdbc.setFetchSize(1_000);
+        StringBuilder accounts = new StringBuilder();
+        for (String table : AccountRowCopier.ACCOUNT_TABLES.keySet()) {
+            accounts.append(accounts.length() == 0 ? "" : " union ")
+                .append("select distinct account_id from ").append(table);
+        }
+        jdbc.query(accounts.toString(), rs -> {
+            int rows = shardRouter.moveIfNeeded(rs.getLong(1));
+            if (rows > 0) {
+                accountsMoved.incrementAndGet();
+                rowsMoved.addAndGet(rows);
+            }
+        });
+    }
+
+    private ConsistentHashRing targetRing(List<String> targetShards) {
+        if (targetShards == null || targetShards.isEmpty()) {
+            throw new IllegalArgumentException("The target shard list is empty.");
+        }
+        if (new HashSet<>(targetShards).size() != targetShards.size()) {
+            throw new IllegalArgumentException("The target shard list contains duplicates.");
+        }
+        for (String shard : targetShards) {
+            if (!shards.names().contains(shard)) {
+                throw new IllegalArgumentException("Unknown ledger shard: " + shard);
+            }
+        }
+        return new ConsistentHashRing(targetShards, properties.getVirtualNodes());
+    }
+}
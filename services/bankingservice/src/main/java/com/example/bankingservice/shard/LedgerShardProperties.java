@@ -0,0 +1,95 @@
+package com.example.bankingservice.shard;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// banking.ledger.*: the ledger shards and how accounts are spread over them.
+// With no shard configured, spring.datasource is the only shard ("default").
+@ConfigurationProperties(prefix = "banking.ledger")
+public class LedgerShardProperties {
+
+    private List<Shard> shards = new ArrayList<>();
+
+    // Points per shard on the hash ring; more points = more even spread
+    private int virtualNodes = 160;
+
+    // Unique per running instance (0-63), part of every ledger id
+    private int nodeId = 0;
+
+    public List<Shard> getShards() {
+        return shards;
+    }
+
+    public void setShards(List<Shard> shards) {
+        this.shards = shards;
+    }
+
+    public int getVirtualNodes() {
+        return virtualNodes;
+    }
+
+    public void setVirtualNodes(int virtualNodes) {
+        this.virtualNodes = virtualNodes;
+    }
+
+    public int getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(int nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public static class Shard {
+
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+
+        // Inactive shards are connected and migrated but own no accounts until a reshard adds them
+        private boolean active = true;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        public void setActive(boolean active) {
+            this.active = active;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.bankingservice.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+// The connection pool of every configured shard, in configuration order.
+// Closed by Spring on shutdown (inferred close method).
+public class LedgerShards implements AutoCloseable {
+
+    private final Map<String, DataSource> dataSources = new LinkedHashMap<>();
+    private final List<String> activeShards = new ArrayList<>();
+
+    void add(String name, DataSource dataSource, boolean active) {
+        if (dataSources.putIfAbsent(name, dataSource) != null) {
+            throw new IllegalArgumentException("Duplicate ledger shard name: " + name);
+        }
+        if (active) {
+            activeShards.add(name);
+        }
+    }
+
+    public List<String> names() {
+        return List.copyOf(dataSources.keySet());
+    }
+
+    // Shards owning accounts at startup
+    public List<String> activeShards() {
+        return Collections.unmodifiableList(activeShards);
+    }
+
+    public DataSource dataSource(String name) {
+        DataSource dataSource = dataSources.get(name);
+        if (dataSource == null) {
+            throw new NoSuchElementException("Unknown ledger shard: " + name);
+        }
+        return dataSource;
+    }
+
+    Map<Object, Object> asTargets() {
+        return new LinkedHashMap<>(dataSources);
+    }
+
+    @Override
+    public void close() {
+        for (DataSource dataSource : dataSources.values()) {
+            if (dataSource instanceof HikariDataSource pool) {
+                pool.close();
+            }
+        }
+    }
+}
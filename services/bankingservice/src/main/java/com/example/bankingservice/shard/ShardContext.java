@@ -0,0 +1,31 @@
+package com.example.bankingservice.shard;
+
+import java.util.function.Supplier;
+
+// The ledger shard the current thread is working on; read by ShardRoutingDataSource when a
+// connection is taken, so it has to be set before a transaction or repository call starts.
+public final class ShardContext {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    public static <T> T on(String shard, Supplier<T> action) {
+        String previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
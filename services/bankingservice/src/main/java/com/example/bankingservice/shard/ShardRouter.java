@@ -0,0 +1,302 @@
+package com.example.bankingservice.shard;
+
+import jakarta.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Decides which ledger shard an account lives on and runs ledger work there.
+// Normal traffic takes the account's stripe as a reader; moving an account during a reshard takes
+// it as the writer, so no request of that account runs while its rows change shard.
+// The rings and the accounts moved by a running reshard are stored in ShardRoutingState: loaded
+// on startup (the stored ring wins over the configured active flags) and re-read every
+// routing-refresh-ms, so a restarted instance, or one not running the reshard, follows the moves.
+// The stripes only cover this instance. Across instances, an account the reshard will move is only
+// written to, or moved, while holding its fence in the shared routing state; an instance starts
+// moving accounts reshard-grace-ms after it has seen the reshard, by which time every instance has
+// seen it and fences its writes too.
+@Component
+public class ShardRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardRouter.class);
+
+    @Autowired
+    private LedgerShards shards;
+
+    @Autowired
+    private LedgerShardProperties properties;
+
+    @Autowired
+    private AccountRowCopier rowCopier;
+
+    @Autowired
+    private ShardRoutingState routingState;
+
+    @Value("${banking.ledger.reshard-grace-ms:15000}")
+    private long reshardGraceMs;
+
+    private final ReentrantReadWriteLock[] stripes = new ReentrantReadWriteLock[256];
+
+    private volatile ConsistentHashRing ring;
+    private volatile Move move; // set while a reshard is running
+    private long movedSeq; // last stored move seen (guarded by this)
+
+    public ShardRouter() {
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    @PostConstruct
+    synchronized void buildRing() {
+        ShardRoutingState.Rings rings = routingState.loadOrInit(shards.activeShards());
+        ring = ringOf(rings.shards());
+        move = null;
+        movedSeq = 0;
+        if (rings.targetShards() != null) {
+            follow(rings.targetShards());
+        }
+        if (move != null) {
+            logger.info("Ledger shards: {} (configured: {}), reshard to {} pending, {} accounts moved",
+                ring.shards(), shards.names(), move.target.shards(), move.moved.size());
+        } else {
+            logger.info("Ledger shards: {} (configured: {})", ring.shards(), shards.names());
+        }
+    }
+
+    // Picks up what another instance (or a previous run of this one) changed in the stored routing state
+    @Scheduled(fixedDelayString = "${banking.ledger.routing-refresh-ms:5000}")
+    synchronized void refresh() {
+        ShardRoutingState.Rings rings = routingState.load();
+        if (rings == null) {
+            return;
+        }
+        if (move == null && rings.targetShards() != null) {
+            follow(rings.targetShards());
+        } else if (move != null) {
+            movedSeq = routingState.movedSince(movedSeq, move.moved::add);
+            if (rings.targetShards() == null) {
+                // Finished elsewhere: the target is the ring now
+                ring = move.target;
+                move = null;
+                movedSeq = 0;
+            }
+        }
+        if (move == null && !ring.shards().equals(rings.shards())) {
+            ring = ringOf(rings.shards());
+        }
+    }
+
+    // Runs ledger work for one account on that account's shard. Nested calls (e.g. HoldService ->
+    // TransactionService for the same account) stay on the shard chosen by the outermost call.
+    public <T> T onAccount(Long accountId, Supplier<T> action) {
+        if (ShardContext.current() != null) {
+            return action.get();
+        }
+        while (true) {
+            Move pending = move;
+            Routed<T> routed;
+            if (pending != null && pending.needsMove(ring, accountId)) {
+                routed = routingState.fenced(accountId, fence -> onFencedAccount(pending, fence, accountId, action));
+                if (routed == null) {
+                    refresh(); // the stored reshard may no longer be the one followed here
+                }
+            } else {
+                routed = onStripe(pending, accountId, action);
+            }
+            if (routed != null) {
+                return routed.result();
+            }
+            // A reshard started or finished in between: decide again
+        }
+    }
+
+    // Runs the action under the account's stripe; null (action not run) when the reshard changed meanwhile
+    private <T> Routed<T> onStripe(Move pending, Long accountId, Supplier<T> action) {
+        ReentrantReadWriteLock.ReadLock lock = stripe(accountId).readLock();
+        lock.lock();
+        try {
+            if (move != pending) {
+                return null;
+            }
+            return new Routed<>(ShardContext.on(shardOf(pending, accountId), action));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // An account the reshard moves but that has not moved as far as this instance knows: holding its
+    // fence, accounts touched during an active reshard move first (so the scan cannot miss their new
+    // rows), then the action runs on the account's shard. Null when the stored reshard differs.
+    private <T> Routed<T> onFencedAccount(Move pending, ShardRoutingState.Fence fence, Long accountId, Supplier<T> action) {
+        if (!pending.target.shards().equals(fence.targetShards())) {
+            return null;
+        }
+        if (fence.moved()) {
+            pending.moved.add(accountId);
+        } else if (pending.isActive()) {
+            moveAccount(pending, accountId);
+        }
+        return onStripe(pending, accountId, action);
+    }
+
+    // Runs the action once per configured shard (startup loads, batch jobs)
+    public void forEachShard(Consumer<String> action) {
+        for (String shard : shards.names()) {
+            ShardContext.on(shard, () -> {
+                action.accept(shard);
+                return null;
+            });
+        }
+    }
+
+    public String shardOf(Long accountId) {
+        return shardOf(move, accountId);
+    }
+
+    public List<String> ringShards() {
+        return ring.shards();
+    }
+
+    public List<String> targetShards() {
+        Move pending = move;
+        return pending != null ? pending.target.shards() : null;
+    }
+
+    // Starts routing moved accounts to the target ring. Resumes when the same target is already pending.
+    synchronized void beginMove(ConsistentHashRing target) {
+        if (move != null) {
+            if (!move.target.shards().equals(target.shards())) {
+                throw new IllegalStateException("A reshard to " + move.target.shards() + " is still pending.");
+            }
+            return;
+        }
+        if (!routingState.begin(target.shards())) {
+            throw new IllegalStateException("Another reshard is pending; see the shard_routing table.");
+        }
+        move = new Move(target, reshardGraceMs);
+        // Wait for requests that were routed before the move was visible
+        for (ReentrantReadWriteLock stripe : stripes) {
+            stripe.writeLock().lock();
+            stripe.writeLock().unlock();
+        }
+    }
+
+    // Moves the account if it changes shard and has not moved yet; returns the number of rows moved.
+    // Waits for the reshard's grace period first.
+    int moveIfNeeded(long accountId) {
+        Move pending = move;
+        if (pending == null || !pending.needsMove(ring, accountId)) {
+            return 0;
+        }
+        pending.awaitActive();
+        return routingState.fenced(accountId, fence -> {
+            if (!pending.target.shards().equals(fence.targetShards())) {
+                throw new IllegalStateException("The stored reshard target is no longer " + pending.target.shards() + ".");
+            }
+            if (fence.moved()) {
+                pending.moved.add(accountId);
+                return 0;
+            }
+            return moveAccount(pending, accountId);
+        });
+    }
+
+    synchronized void finishMove() {
+        routingState.finish(move.target.shards());
+        ring = move.target;
+        move = null;
+        movedSeq = 0;
+    }
+
+    // Called holding the account's fence
+    private int moveAccount(Move pending, long accountId) {
+        ReentrantReadWriteLock.WriteLock lock = stripe(accountId).writeLock();
+        lock.lock();
+        try {
+            if (!pending.needsMove(ring, accountId)) {
+                return 0;
+            }
+            int rows = rowCopier.move(accountId, ring.shardFor(accountId), pending.target.shardFor(accountId),
+                () -> routingState.markMoved(accountId));
+            pending.moved.add(accountId);
+            return rows;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private String shardOf(Move pending, Long accountId) {
+        if (pending != null && pending.moved.contains(accountId)) {
+            return pending.target.shardFor(accountId);
+        }
+        return ring.shardFor(accountId);
+    }
+
+    // Routes by the stored target ring and the accounts already moved to it
+    private void follow(List<String> targetShards) {
+        Move pending = new Move(ringOf(targetShards), reshardGraceMs);
+        movedSeq = routingState.movedSince(0, pending.moved::add);
+        move = pending;
+    }
+
+    private ConsistentHashRing ringOf(List<String> ringShards) {
+        for (String shard : ringShards) {
+            if (!shards.names().contains(shard)) {
+                throw new IllegalStateException("Stored ledger ring " + ringShards + " names an unconfigured shard: " + shard);
+            }
+        }
+        return new ConsistentHashRing(ringShards, properties.getVirtualNodes());
+    }
+
+    private ReentrantReadWriteLock stripe(Long accountId) {
+        return stripes[Math.floorMod(Long.hashCode(accountId) * 0x9E3779B9, stripes.length)];
+    }
+
+    private record Routed<T>(T result) {
+    }
+
+    private static final class Move {
+
+        private final ConsistentHashRing target;
+        private final Set<Long> moved = ConcurrentHashMap.newKeySet();
+        private final long activeAtNanos; // no account moves before, see reshard-grace-ms
+
+        private Move(ConsistentHashRing target, long graceMs) {
+            this.target = target;
+            this.activeAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(graceMs);
+        }
+
+        boolean needsMove(ConsistentHashRing current, long accountId) {
+            return !moved.contains(accountId) && !current.shardFor(accountId).equals(target.shardFor(accountId));
+        }
+
+        boolean isActive() {
+            return System.nanoTime() - activeAtNanos >= 0;
+        }
+
+        void awaitActive() {
+            long remaining = activeAtNanos - System.nanoTime();
+            if (remaining > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for the reshard grace period.", e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.bankingservice.shard;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+// The DataSource JPA sees: hands out a connection of the shard in ShardContext. Without a shard
+// set (schema validation at startup, Flyway bootstrap) it falls back to the first shard.
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.bankingservice.shard;
+
+import jakarta.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+
+// Where ShardRouter keeps its routing state so it survives restarts and is shared by every
+// instance: the shard_routing row (current ring, target ring of a running reshard) and the
+// accounts already moved to the target, all on the first configured shard. While a reshard runs,
+// the account fences serialize moving an account with writing to it across all instances.
+@Component
+@DependsOnDatabaseInitialization
+public class ShardRoutingState {
+
+    private static final int ROW_ID = 1;
+
+    @Autowired
+    private LedgerShards shards;
+
+    private DataSource dataSource;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate transaction;
+
+    @PostConstruct
+    void connect() {
+        dataSource = shards.dataSource(shards.names().get(0));
+        jdbc = new JdbcTemplate(dataSource);
+        transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    // shards: the current ring; targetShards: null unless a reshard is running
+    record Rings(List<String> shards, List<String> targetShards) {
+    }
+
+    // The stored rings; the first start stores the given ring
+    Rings loadOrInit(List<String> initialShards) {
+        Rings rings = load();
+        if (rings != null) {
+            return rings;
+        }
+        try {
+            jdbc.update("insert into shard_routing (id, shards) values (?, ?)", ROW_ID, join(initialShards));
+        } catch (DuplicateKeyException e) {
+            return loadOrInit(initialShards); // another instance stored it first
+        }
+        return new Rings(initialShards, null);
+    }
+
+    // null before the first start
+    Rings load() {
+        List<Rings> rows = jdbc.query("select shards, target_shards from shard_routing where id = ?",
+            (rs, row) -> new Rings(split(rs.getString(1)), rs.getString(2) != null ? split(rs.getString(2)) : null), ROW_ID);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    // What a fenced caller sees: the stored target ring (null once the reshard finished) and whether the account moved
+    record Fence(List<String> targetShards, boolean moved) {
+    }
+
+    // Runs the work holding the account's fence row lock, on a connection taken straight from the pool
+    // rather than one bound to a Spring transaction, so the work's own transactions are unaffected.
+    // The lock is released (the connection committed) when the work returns.
+    <T> T fenced(long accountId, Function<Fence, T> work) {
+        try {
+            jdbc.update("insert into shard_account_fences (account_id) values (?)", accountId);
+        } catch (DuplicateKeyException e) {
+            // fenced before
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                Fence fence = lockFence(connection, accountId);
+                T result = work.apply(fence);
+                connection.commit();
+                return result;
+            } catch (RuntimeException | Error | SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not fence account " + accountId + " for the reshard", e);
+        }
+    }
+
+    private static Fence lockFence(Connection connection, long accountId) throws SQLException {
+        try (PreparedStatement lock = connection.prepareStatement(
+                "select account_id from shard_account_fences where account_id = ? for update")) {
+            lock.setLong(1, accountId);
+            lock.executeQuery().close();
+        }
+        String target;
+        try (PreparedStatement rings = connection.prepareStatement("select target_shards from shard_routing where id = ?")) {
+            rings.setInt(1, ROW_ID);
+            try (ResultSet rs = rings.executeQuery()) {
+                target = rs.next() ? rs.getString(1) : null;
+            }
+        }
+        boolean moved;
+        try (PreparedStatement accounts = connection.prepareStatement("select 1 from shard_moved_accounts where account_id = ?")) {
+            accounts.setLong(1, accountId);
+            try (ResultSet rs = accounts.executeQuery()) {
+                moved = rs.next();
+            }
+        }
+        return new Fence(target != null ? split(target) : null, moved);
+    }
+
+    // False when another reshard is stored as running
+    boolean begin(List<String> targetShards) {
+        String target = join(targetShards);
+        return jdbc.update("update shard_routing set target_shards = ? where id = ? and (target_shards is null or target_shards = ?)",
+            target, ROW_ID, target) == 1;
+    }
+
+    void markMoved(long accountId) {
+        try {
+            jdbc.update("insert into shard_moved_accounts (account_id) values (?)", accountId);
+        } catch (DuplicateKeyException e) {
+            // moved again after an interrupted run: already recorded
+        }
+    }
+
+    // Accounts moved after seq (0 = all); returns the last seq seen
+    long movedSince(long seq, LongConsumer accounts) {
+        long[] last = {seq};
+        jdbc.query("select seq, account_id from shard_moved_accounts where seq > ? order by seq", rs -> {
+            last[0] = rs.getLong(1);
+            accounts.accept(rs.getLong(2));
+        }, seq);
+        return last[0];
+    }
+
+    // The target ring becomes the current one
+    void finish(List<String> shards) {
+        transaction.execute(status -> {
+            jdbc.update("update shard_routing set shards = ?, target_shards = null where id = ?", join(shards), ROW_ID);
+            jdbc.update("delete from shard_account_fences");
+            return jdbc.update("delete from shard_moved_accounts");
+        });
+    }
+
+    private static List<String> split(String shards) {
+        return Arrays.asList(shards.split(","));
+    }
+
+    private static String join(List<String> shards) {
+        return String.join(",", shards);
+    }
+}
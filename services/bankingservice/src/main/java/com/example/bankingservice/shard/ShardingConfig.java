@@ -0,0 +1,84 @@
+package com.example.bankingservice.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// One pool per ledger shard behind a routing DataSource, so JPA and the repositories stay unaware of sharding
+@Configuration
+@EnableConfigurationProperties(LedgerShardProperties.class)
+public class ShardingConfig {
+
+    @Bean
+    public LedgerShards ledgerShards(LedgerShardProperties properties, DataSourceProperties dataSourceProperties) {
+        LedgerIdGenerator.setNodeId(properties.getNodeId());
+
+        LedgerShards shards = new LedgerShards();
+        if (properties.getShards().isEmpty()) {
+            shards.add("default", dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build(), true);
+            return shards;
+        }
+        for (LedgerShardProperties.Shard shard : properties.getShards()) {
+            HikariDataSource pool = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(shard.getUrl())
+                .username(shard.getUsername())
+                .password(shard.getPassword())
+                .build();
+            pool.setPoolName("ledger-" + shard.getName());
+            shards.add(shard.getName(), pool, shard.isActive());
+        }
+        return shards;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(LedgerShards shards) {
+        ShardRoutingDataSource routing = new ShardRoutingDataSource();
+        routing.setTargetDataSources(shards.asTargets());
+        routing.setDefaultTargetDataSource(shards.dataSource(shards.names().get(0)));
+        return routing;
+    }
+
+    // V6 fills the currency of existing rows with the configured default currency
+    @Bean
+    public FlywayConfigurationCustomizer defaultCurrencyPlaceholder(@Value("${banking.currency.default:USD}") String defaultCurrency) {
+        String code = defaultCurrency.trim().toUpperCase(Locale.ROOT);
+        if (!code.matches("[A-Z]{3}")) {
+            throw new IllegalStateException("banking.currency.default must be an ISO 4217 code: " + defaultCurrency);
+        }
+        return configuration -> {
+            Map<String, String> placeholders = new HashMap<>(configuration.getPlaceholders());
+            placeholders.put("default_currency", code);
+            configuration.placeholders(placeholders);
+        };
+    }
+
+    // Runs the same migrations on every shard (the auto-configured Flyway only sees the default one)
+    @Bean
+    public FlywayMigrationStrategy shardMigrationStrategy(LedgerShards shards) {
+        return flyway -> {
+            for (String shard : shards.names()) {
+                Flyway.configure()
+                    .configuration(flyway.getConfiguration())
+                    .dataSource(shards.dataSource(shard))
+                    .load()
+                    .migrate();
+            }
+        };
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.bankingservice.standingorder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+// The standing orders to try before the horizon end, earliest first. The scheduler fills it from the
+// database once per horizon, and new or rescheduled orders that fall inside the horizon are
+// offered directly, so the table is never polled per tick. It is only a hint: every run checks the
+// order again in the database, so an entry for a cancelled or already-run order is harmless.
+public class DueOrderQueue {
+
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>(Comparator.comparing(Entry::fireAt));
+    private final Map<Long, Entry> latest = new HashMap<>(); // superseded entries stay queued and are skipped
+    private LocalDateTime horizonEnd = LocalDateTime.MIN;
+
+    // Orders firing before this time are kept; later ones are left to the next horizon load
+    public synchronized void extendHorizon(LocalDateTime end) {
+        if (end.isAfter(horizonEnd)) {
+            horizonEnd = end;
+        }
+    }
+
+    public synchronized LocalDateTime horizonEnd() {
+        return horizonEnd;
+    }
+
+    // false when fireAt is beyond the horizon
+    public synchronized boolean offer(long orderId, long accountId, LocalDateTime fireAt) {
+        if (!fireAt.isBefore(horizonEnd)) {
+            return false;
+        }
+        Entry entry = new Entry(orderId, accountId, fireAt);
+        latest.put(orderId, entry);
+        queue.add(entry);
+        return true;
+    }
+
+    public synchronized void remove(long orderId) {
+        latest.remove(orderId);
+    }
+
+    // Up to max orders due at now, earliest first
+    public synchronized List<Entry> pollDue(LocalDateTime now, int max) {
+        List<Entry> due = new ArrayList<>();
+        while (due.size() < max && !queue.isEmpty() && !queue.peek().fireAt().isAfter(now)) {
+            Entry entry = queue.poll();
+            if (latest.get(entry.orderId()) == entry) {
+                latest.remove(entry.orderId());
+                due.add(entry);
+            }
+        }
+        return due;
+    }
+
+    public synchronized int size() {
+        return latest.size();
+    }
+
+    public record Entry(long orderId, long accountId, LocalDateTime fireAt) {
+    }
+}
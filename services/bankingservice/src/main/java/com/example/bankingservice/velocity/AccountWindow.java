@@ -0,0 +1,109 @@
+package com.example.bankingservice.velocity;
+
+import java.util.Arrays;
+
+// Sliding-window counter for one account: a ring of time buckets holding the number and
+// total amount (minor units) of withdrawals that fell into each bucket. Running totals are
+// kept alongside, so a check is O(1) apart from expiring the buckets that slid out of the window.
+class AccountWindow {
+
+    private final long bucketMillis;
+    private final long[] bucketEpochs; // absolute bucket number (time / bucketMillis) stored in each slot
+    private final int[] counts;
+    private final long[] amounts;
+
+    private long headEpoch = Long.MIN_VALUE; // newest bucket seen so far
+    private int totalCount;
+    private long totalAmount;
+
+    AccountWindow(int buckets, long bucketMillis) {
+        this.bucketMillis = bucketMillis;
+        this.bucketEpochs = new long[buckets];
+        this.counts = new int[buckets];
+        this.amounts = new long[buckets];
+        Arrays.fill(bucketEpochs, Long.MIN_VALUE);
+    }
+
+    // Records the withdrawal only if it keeps the window within both limits
+    synchronized boolean tryRecord(long nowMillis, long amount, int maxCount, long maxAmount) {
+        advance(nowMillis / bucketMillis);
+        if (totalCount + 1 > maxCount || totalAmount + amount > maxAmount) {
+            return false;
+        }
+        add(nowMillis / bucketMillis, 1, amount);
+        return true;
+    }
+
+    // Unconditional record, used when seeding from history (may be older than the head bucket)
+    synchronized void record(long atMillis, long amount) {
+        long epoch = atMillis / bucketMillis;
+        if (epoch > headEpoch) {
+            advance(epoch);
+        } else if (epoch <= headEpoch - bucketEpochs.length) {
+            return; // already outside the window
+        }
+        add(epoch, 1, amount);
+    }
+
+    // Undoes a tryRecord whose withdrawal did not go through
+    synchronized void release(long atMillis, long amount) {
+        long epoch = atMillis / bucketMillis;
+        int slot = slot(epoch);
+        if (bucketEpochs[slot] == epoch && counts[slot] > 0) {
+            counts[slot]--;
+            amounts[slot] -= amount;
+            totalCount--;
+            totalAmount -= amount;
+        }
+    }
+
+    synchronized boolean isIdle(long nowMillis) {
+        advance(nowMillis / bucketMillis);
+        return totalCount == 0;
+    }
+
+    synchronized int count(long nowMillis) {
+        advance(nowMillis / bucketMillis);
+        return totalCount;
+    }
+
+    synchronized long amount(long nowMillis) {
+        advance(nowMillis / bucketMillis);
+        return totalAmount;
+    }
+
+    private void add(long epoch, int count, long amount) {
+        int slot = slot(epoch);
+        if (bucketEpochs[slot] != epoch) {
+            bucketEpochs[slot] = epoch;
+            counts[slot] = 0;
+            amounts[slot] = 0;
+        }
+        counts[slot] += count;
+        amounts[slot] += amount;
+        totalCount += count;
+        totalAmount += amount;
+    }
+
+    // Moves the head to the current bucket, dropping every bucket that left the window
+    private void advance(long epoch) {
+        if (epoch <= headEpoch) {
+            return;
+        }
+        long oldest = epoch - bucketEpochs.length;
+        for (int slot = 0; slot < bucketEpochs.length; slot++) {
+            if (bucketEpochs[slot] != Long.MIN_VALUE && bucketEpochs[slot] <= oldest) {
+                totalCount -= counts[slot];
+                totalAmount -= amounts[slot];
+                bucketEpochs[slot] = Long.MIN_VALUE;
+                counts[slot] = 0;
+                amounts[slot] = 0;
+            }
+        }
+        headEpoch = epoch;
+    }
+
+    private int slot(long epoch) {
+        return (int) Math.floorMod(epoch, (long) bucketEpochs.length);
+    }
+}
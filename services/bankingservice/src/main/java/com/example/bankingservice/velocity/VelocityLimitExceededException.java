@@ -0,0 +1,9 @@
+package com.example.bankingservice.velocity;
+
+// Thrown by TransactionService.withdraw when a withdrawal would break a velocity rule
+public class VelocityLimitExceededException extends RuntimeException {
+
+    public VelocityLimitExceededException(String message) {
+        super(message);
+    }
+}
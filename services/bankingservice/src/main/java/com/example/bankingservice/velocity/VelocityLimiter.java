@@ -0,0 +1,135 @@
+package com.example.bankingservice.velocity;
+
+import com.example.bankingservice.fx.FxRateService;
+import com.example.bankingservice.model.Transaction;
+import com.example.bankingservice.model.TransactionTypes;
+import com.example.bankingservice.repository.TransactionRepository;
+import com.example.bankingservice.shard.ShardRouter;
+
+import jakarta.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Per-account withdrawal velocity rules ("max N withdrawals or X amount per rolling window"),
+// evaluated in memory so TransactionService.withdraw never has to query the ledger for them.
+@Component
+public class VelocityLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(VelocityLimiter.class);
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private FxRateService fxRateService;
+
+    // Unit of max-amount; withdrawals in other currencies are converted into it
+    @Value("${banking.currency.default:USD}")
+    private String limitCurrency;
+
+    @Value("${banking.velocity.enabled:true}")
+    private boolean enabled;
+
+    @Value("${banking.velocity.window:1h}")
+    private Duration window;
+
+    @Value("${banking.velocity.buckets:60}")
+    private int buckets;
+
+    @Value("${banking.velocity.max-withdrawals:20}")
+    private int maxWithdrawals;
+
+    @Value("${banking.velocity.max-amount:10000.00}")
+    private BigDecimal maxAmount;
+
+    private final ConcurrentMap<Long, AccountWindow> windows = new ConcurrentHashMap<>();
+
+    // Reserves room for a withdrawal in the account's window; false when a rule would be broken
+    public boolean tryAcquire(Long accountId, BigDecimal amount, long nowMillis) {
+        if (!enabled) {
+            return true;
+        }
+        long minor = toMinor(amount);
+        long limit = toMinor(maxAmount);
+        boolean[] allowed = new boolean[1];
+        // compute() keeps the check-and-record atomic with respect to evictIdle() removing the window
+        windows.compute(accountId, (id, accountWindow) -> {
+            AccountWindow target = accountWindow != null ? accountWindow : newWindow();
+            allowed[0] = target.tryRecord(nowMillis, minor, maxWithdrawals, limit);
+            return target;
+        });
+        return allowed[0];
+    }
+
+    // Gives back a reservation whose withdrawal failed afterwards (e.g. insufficient funds)
+    public void release(Long accountId, BigDecimal amount, long acquiredAtMillis) {
+        if (!enabled) {
+            return;
+        }
+        long minor = toMinor(amount);
+        windows.computeIfPresent(accountId, (id, accountWindow) -> {
+            accountWindow.release(acquiredAtMillis, minor);
+            return accountWindow;
+        });
+    }
+
+    // Rebuilds the windows from the withdrawals still inside the window, so a restart does not reset the limits.
+    // Runs while the context starts, before the web server and the schedulers: a withdrawal recorded by
+    // tryAcquire during seeding would otherwise be counted twice, once live and once from its stored row.
+    @PostConstruct
+    public void seedFromHistory() {
+        if (!enabled) {
+            return;
+        }
+        // Transaction dates are stamped with LocalDateTime.now(), i.e. in the JVM's zone
+        LocalDateTime since = LocalDateTime.now().minus(window);
+        // Transfers out are limited like withdrawals (TransactionService.debit)
+        shardRouter.forEachShard(shard -> {
+            for (String type : List.of(TransactionTypes.WITHDRAW, TransactionTypes.TRANSFER_OUT)) {
+                for (Transaction tx : transactionRepository.findByTypeAndTransactionDateAfter(type, since)) {
+                    long at = tx.getTransactionDate().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                    long minor = toMinor(fxRateService.convert(tx.getAmount(), tx.getCurrency(), limitCurrency));
+                    windows.compute(tx.getAccountId(), (id, accountWindow) -> {
+                        AccountWindow target = accountWindow != null ? accountWindow : newWindow();
+                        target.record(at, minor);
+                        return target;
+                    });
+                }
+            }
+        });
+        logger.info("Velocity windows seeded for {} accounts", windows.size());
+    }
+
+    // Drops windows of accounts with no withdrawal left inside the window
+    @Scheduled(fixedDelayString = "${banking.velocity.eviction-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.currentTimeMillis();
+        for (Long accountId : windows.keySet()) {
+            windows.computeIfPresent(accountId, (id, accountWindow) -> accountWindow.isIdle(now) ? null : accountWindow);
+        }
+    }
+
+    private AccountWindow newWindow() {
+        return new AccountWindow(buckets, window.toMillis() / buckets);
+    }
+
+    private static long toMinor(BigDecimal amount) {
+        return amount.movePointRight(2).longValue();
+    }
+}
@@ -0,0 +1,26 @@
+-- Ledger routing state shared by all instances (shard.ShardRoutingState). Created on every shard
+-- like the other tables, but only the first configured shard's copy is used.
+-- One row: the shards of the current ring, and the target ring while a reshard runs.
+CREATE TABLE shard_routing (
+    id            INT           NOT NULL,
+    shards        VARCHAR(1024) NOT NULL,
+    target_shards VARCHAR(1024),
+    PRIMARY KEY (id)
+);
+
+-- Accounts already moved to the target ring of the running reshard; emptied when it finishes.
+-- seq lets instances pick up the moves made by another instance incrementally.
+CREATE TABLE shard_moved_accounts (
+    seq        BIGINT NOT NULL AUTO_INCREMENT,
+    account_id BIGINT NOT NULL,
+    PRIMARY KEY (seq),
+    CONSTRAINT uk_shard_moved_accounts_account UNIQUE (account_id)
+);
+
+-- One row per account taken by a running reshard, locked (SELECT ... FOR UPDATE) by whoever moves the
+-- account and by every write to it until it has moved, so no instance writes to the old shard while
+-- its rows are copied; emptied when the reshard finishes.
+CREATE TABLE shard_account_fences (
+    account_id BIGINT NOT NULL,
+    PRIMARY KEY (account_id)
+);
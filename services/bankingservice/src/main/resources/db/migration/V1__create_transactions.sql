@@ -0,0 +1,9 @@
+-- Ledger table. IF NOT EXISTS keeps this a no-op on databases created by the old ddl-auto=update.
+CREATE TABLE IF NOT EXISTS transactions (
+    id               BIGINT         NOT NULL AUTO_INCREMENT,
+    type             VARCHAR(16)    NOT NULL,
+    amount           DECIMAL(19, 2) NOT NULL,
+    account_id       BIGINT         NOT NULL,
+    transaction_date DATETIME(6)    NOT NULL,
+    PRIMARY KEY (id)
+);
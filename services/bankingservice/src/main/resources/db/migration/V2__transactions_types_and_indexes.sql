@@ -0,0 +1,6 @@
+-- Tighten the column types Hibernate generated (VARCHAR(255), DECIMAL(38,2)) on pre-Flyway databases.
+ALTER TABLE transactions MODIFY COLUMN type VARCHAR(16) NOT NULL;
+ALTER TABLE transactions MODIFY COLUMN amount DECIMAL(19, 2) NOT NULL;
+
+-- History (ORDER BY transaction_date DESC) and balance lookups are always scoped to one account.
+CREATE INDEX idx_transactions_account_date ON transactions (account_id, transaction_date);
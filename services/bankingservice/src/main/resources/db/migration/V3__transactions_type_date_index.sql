@@ -0,0 +1,2 @@
+-- Cross-account scans of recent activity (velocity window seeding at startup) filter on type and date.
+CREATE INDEX idx_transactions_type_date ON transactions (type, transaction_date);
@@ -0,0 +1,15 @@
+-- Authorization holds (reserve -> capture/release). The durable record behind the in-memory hold index.
+CREATE TABLE holds (
+    id                     BIGINT         NOT NULL AUTO_INCREMENT,
+    account_id             BIGINT         NOT NULL,
+    amount                 DECIMAL(19, 2) NOT NULL,
+    status                 VARCHAR(16)    NOT NULL,
+    created_at             DATETIME(6)    NOT NULL,
+    expires_at             DATETIME(6)    NOT NULL,
+    capture_transaction_id BIGINT,
+    PRIMARY KEY (id)
+);
+
+-- Startup reload of active holds and the per-account lookups
+CREATE INDEX idx_holds_status_expires ON holds (status, expires_at);
+CREATE INDEX idx_holds_account_status ON holds (account_id, status);
@@ -0,0 +1,27 @@
+-- Interest/fee period batch (batch.PeriodPostingJob)
+
+-- Progress of one batch (kind + period) on this database; the run resumes after last_account_id
+CREATE TABLE batch_runs (
+    id              BIGINT      NOT NULL AUTO_INCREMENT,
+    kind            VARCHAR(16) NOT NULL,
+    period          VARCHAR(7)  NOT NULL,
+    status          VARCHAR(16) NOT NULL,
+    last_account_id BIGINT,
+    accounts_posted BIGINT      NOT NULL DEFAULT 0,
+    started_at      DATETIME(6) NOT NULL,
+    finished_at     DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_batch_runs_kind_period UNIQUE (kind, period)
+);
+
+-- One row per account that received a posting for a period, written in the same transaction as
+-- the posting itself; the unique key is what makes a second posting impossible.
+-- id is the id of the posted transaction.
+CREATE TABLE period_postings (
+    id         BIGINT      NOT NULL,
+    kind       VARCHAR(16) NOT NULL,
+    period     VARCHAR(7)  NOT NULL,
+    account_id BIGINT      NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_period_postings_kind_period_account UNIQUE (kind, period, account_id)
+);
@@ -0,0 +1,23 @@
+-- Multi-currency ledger: every amount carries its ISO 4217 currency. Existing rows were all in
+-- the default currency, banking.currency.default, passed in as the default_currency placeholder
+-- (ShardingConfig). On MySQL 8 these column additions are INSTANT.
+ALTER TABLE transactions ADD COLUMN currency VARCHAR(3) NOT NULL DEFAULT '${default_currency}';
+ALTER TABLE holds ADD COLUMN currency VARCHAR(3) NOT NULL DEFAULT '${default_currency}';
+
+-- Banking-side account settings, created on first use
+CREATE TABLE accounts (
+    account_id    BIGINT      NOT NULL,
+    base_currency VARCHAR(3)  NOT NULL,
+    created_at    DATETIME(6) NOT NULL,
+    PRIMARY KEY (account_id)
+);
+
+-- Every account with ledger rows exists already, in the default currency
+INSERT INTO accounts (account_id, base_currency, created_at)
+SELECT DISTINCT account_id, '${default_currency}', CURRENT_TIMESTAMP(6) FROM transactions;
+
+-- Interest is posted per currency balance, so the once-per-period key includes the currency
+ALTER TABLE period_postings ADD COLUMN currency VARCHAR(3) NOT NULL DEFAULT '${default_currency}';
+ALTER TABLE period_postings DROP CONSTRAINT uk_period_postings_kind_period_account;
+ALTER TABLE period_postings ADD CONSTRAINT uk_period_postings_kind_period_account_currency
+    UNIQUE (kind, period, account_id, currency);
@@ -0,0 +1,6 @@
+-- Transaction search (GET /api/banking/transactions/search) filters one account by date range, then by
+-- type, amount and currency, and only returns those columns: all of them are in this index, so a search
+-- never reads the table rows. id is explicit so ORDER BY transaction_date DESC, id DESC follows the index.
+-- It starts with (account_id, transaction_date), so it replaces idx_transactions_account_date.
+CREATE INDEX idx_transactions_account_date_cover ON transactions (account_id, transaction_date, id, type, amount, currency);
+DROP INDEX idx_transactions_account_date ON transactions;
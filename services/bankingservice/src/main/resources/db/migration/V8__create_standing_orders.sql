@@ -0,0 +1,27 @@
+-- Standing orders: recurring deposits/withdrawals (service.StandingOrderService). Rows live on the
+-- shard of their account; id comes from LedgerIdGenerator.
+-- next_run_at is the occurrence to post next (start_at + occurrence periods); fire_at is when the
+-- scheduler should try it, which is later than next_run_at while a failed run waits for its retry.
+CREATE TABLE standing_orders (
+    id                  BIGINT         NOT NULL,
+    account_id          BIGINT         NOT NULL,
+    type                VARCHAR(16)    NOT NULL,
+    amount              DECIMAL(19, 2) NOT NULL,
+    currency            VARCHAR(3)     NOT NULL,
+    frequency           VARCHAR(16)    NOT NULL,
+    start_at            DATETIME(6)    NOT NULL,
+    end_at              DATETIME(6),
+    occurrence          BIGINT         NOT NULL DEFAULT 0,
+    next_run_at         DATETIME(6)    NOT NULL,
+    fire_at             DATETIME(6)    NOT NULL,
+    attempts            INT            NOT NULL DEFAULT 0,
+    status              VARCHAR(16)    NOT NULL,
+    last_transaction_id BIGINT,
+    last_error          VARCHAR(255),
+    created_at          DATETIME(6)    NOT NULL,
+    PRIMARY KEY (id)
+);
+
+-- Horizon loads of the scheduler, and the per-account listing
+CREATE INDEX idx_standing_orders_status_fire ON standing_orders (status, fire_at);
+CREATE INDEX idx_standing_orders_account ON standing_orders (account_id);
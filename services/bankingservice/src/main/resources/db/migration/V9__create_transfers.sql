@@ -0,0 +1,23 @@
+-- Transfers between accounts (service.TransactionService.transfer). The row is written on the shard of
+-- the source account before the debit, with the ids its ledger legs will get, so a transfer cut short
+-- (crash, failed credit) can be completed or reversed later by TransferRecovery.
+CREATE TABLE transfers (
+    id                      BIGINT         NOT NULL,
+    account_id              BIGINT         NOT NULL,
+    to_account_id           BIGINT         NOT NULL,
+    amount                  DECIMAL(19, 2) NOT NULL,
+    currency                VARCHAR(3)     NOT NULL,
+    converted_amount        DECIMAL(19, 2) NOT NULL,
+    to_currency             VARCHAR(3)     NOT NULL,
+    status                  VARCHAR(16)    NOT NULL,
+    debit_transaction_id    BIGINT         NOT NULL,
+    credit_transaction_id   BIGINT         NOT NULL,
+    reversal_transaction_id BIGINT         NOT NULL,
+    created_at              DATETIME(6)    NOT NULL,
+    updated_at              DATETIME(6)    NOT NULL,
+    PRIMARY KEY (id)
+);
+
+-- Recovery scans for pending transfers; the per-account index serves resharding
+CREATE INDEX idx_transfers_status_updated ON transfers (status, updated_at);
+CREATE INDEX idx_transfers_account ON transfers (account_id);
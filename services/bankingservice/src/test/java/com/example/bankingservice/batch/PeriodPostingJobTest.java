@@ -0,0 +1,124 @@
+package com.example.bankingservice.batch;
+
+import com.example.bankingservice.model.Transaction;
+import com.example.bankingservice.service.AccountLocks;
+import com.example.bankingservice.service.HoldService;
+import com.example.bankingservice.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class PeriodPostingJobTest {
+
+    // A long-finished month, so the test does not depend on today's date
+    private static final YearMonth PERIOD = YearMonth.of(2020, 1);
+
+    @Autowired
+    private PeriodPostingJob periodPostingJob;
+
+    @Autowired
+    private HoldService holdService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AccountLocks accountLocks;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void postsInterestAndFeesExactlyOncePerAccountAndPeriod() {
+        insert(920001, "deposit", "1200.00", LocalDateTime.of(2020, 1, 10, 12, 0));
+        insert(920002, "deposit", "300.00", LocalDateTime.of(2020, 1, 10, 12, 0));
+        insert(920002, "withdraw", "100.00", LocalDateTime.of(2020, 1, 20, 12, 0));
+        insert(920003, "deposit", "1.50", LocalDateTime.of(2020, 1, 31, 23, 0));
+        insert(920004, "deposit", "500.00", LocalDateTime.of(2020, 2, 3, 9, 0)); // after the period
+        // Less available now than at the period end: spent since, or held
+        insert(920005, "deposit", "3.00", LocalDateTime.of(2020, 1, 10, 12, 0));
+        insert(920005, "withdraw", "2.50", LocalDateTime.of(2020, 2, 3, 9, 0));
+        insert(920006, "deposit", "5.00", LocalDateTime.of(2020, 1, 10, 12, 0));
+        holdService.placeHold(920006L, new BigDecimal("4.00"), null, Duration.ofMinutes(5));
+
+        periodPostingJob.run(PostingKind.INTEREST, PERIOD);
+        periodPostingJob.run(PostingKind.FEE, PERIOD);
+
+        // 2% a year on the period-end balance, one month
+        assertThat(posted(920001, "interest")).isEqualByComparingTo("2.00");
+        assertThat(posted(920002, "interest")).isEqualByComparingTo("0.33");
+        // Fee waived at >= 1000.00, capped at the balance
+        assertThat(posted(920001, "fee")).isNull();
+        assertThat(posted(920002, "fee")).isEqualByComparingTo("2.00");
+        assertThat(posted(920003, "fee")).isEqualByComparingTo("1.50");
+        assertThat(posted(920004, "interest")).isNull();
+        // Capped at what is available when posted (920006 also got 0.01 interest)
+        assertThat(posted(920005, "fee")).isEqualByComparingTo("0.50");
+        assertThat(posted(920006, "fee")).isEqualByComparingTo("1.01");
+
+        // Dated at the period end, i.e. outside the period they belong to
+        LocalDateTime postedAt = jdbcTemplate.queryForObject(
+            "select transaction_date from transactions where account_id = 920001 and type = 'interest'", LocalDateTime.class);
+        assertThat(postedAt).isEqualTo(LocalDateTime.of(2020, 2, 1, 0, 0));
+
+        // A restart from an old checkpoint and a second full run post nothing again
+        jdbcTemplate.update("update batch_runs set status = 'running', last_account_id = null where period = ?", PERIOD.toString());
+        periodPostingJob.run(PostingKind.INTEREST, PERIOD);
+        periodPostingJob.run(PostingKind.INTEREST, PERIOD);
+        assertThat(count(920001, "interest")).isEqualTo(1);
+        assertThat(count(920002, "interest")).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("select status from batch_runs where kind = 'interest' and period = ?",
+            String.class, PERIOD.toString())).isEqualTo("done");
+    }
+
+    @Test
+    void aFeeWaitsForAConcurrentWithdrawalAndIsCappedAfterIt() throws Exception {
+        YearMonth period = YearMonth.of(2020, 3);
+        insert(920101, "deposit", "2.00", LocalDateTime.of(2020, 3, 10, 12, 0));
+
+        // The withdrawal holds the account lock while the fee run reaches the account
+        CompletableFuture<Void> feeRun = accountLocks.withLock(920101L, () -> {
+            CompletableFuture<Void> run = CompletableFuture.runAsync(() -> periodPostingJob.run(PostingKind.FEE, period));
+            sleep(300);
+            transactionService.withdraw(new Transaction("withdraw", new BigDecimal("1.50"), 920101L));
+            return run;
+        });
+        feeRun.get();
+
+        assertThat(posted(920101, "fee")).isEqualByComparingTo("0.50");
+        assertThat(transactionService.getCurrentBalance(920101L)).isEqualByComparingTo("0.00");
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void insert(long accountId, String type, String amount, LocalDateTime date) {
+        jdbcTemplate.update("insert into transactions (type, amount, account_id, transaction_date) values (?, ?, ?, ?)",
+            type, new BigDecimal(amount), accountId, date);
+    }
+
+    private BigDecimal posted(long accountId, String type) {
+        return jdbcTemplate.query("select amount from transactions where account_id = ? and type = ?",
+            rs -> rs.next() ? rs.getBigDecimal(1) : null, accountId, type);
+    }
+
+    private int count(long accountId, String type) {
+        return jdbcTemplate.queryForObject("select count(*) from transactions where account_id = ? and type = ?",
+            Integer.class, accountId, type);
+    }
+}
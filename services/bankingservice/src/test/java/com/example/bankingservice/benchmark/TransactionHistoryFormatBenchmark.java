@@ -0,0 +1,112 @@
+package com.example.bankingservice.benchmark;
+
+import com.example.bankingservice.dto.TransactionHistory;
+import com.example.bankingservice.dto.TransactionView;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Payload size and serialization cost of a 1,000 row history per format.
+ *
+ * Run after {@code mvn test-compile}:
+ * <pre>
+ * mvn dependency:build-classpath -Dmdep.outputFile=target/cp.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *     com.example.bankingservice.benchmark.TransactionHistoryFormatBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionHistoryFormatBenchmark {
+
+    private final ObjectMapper json = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final ObjectMapper cbor = new CBORMapper();
+    private final ObjectMapper smile = new SmileMapper();
+
+    private List<TransactionView> rows;
+    private TransactionHistory columnar;
+
+    @Setup
+    public void setUp() {
+        rows = sampleRows(1_000);
+        columnar = TransactionHistory.of(42L, rows);
+    }
+
+    @Benchmark
+    public byte[] jsonEntities() throws IOException {
+        return json.writeValueAsBytes(rows);
+    }
+
+    @Benchmark
+    public byte[] jsonEntitiesGzip() throws IOException {
+        return gzip(json.writeValueAsBytes(rows));
+    }
+
+    @Benchmark
+    public byte[] cborColumnar() throws IOException {
+        return cbor.writeValueAsBytes(TransactionHistory.of(42L, rows));
+    }
+
+    @Benchmark
+    public byte[] smileColumnar() throws IOException {
+        return smile.writeValueAsBytes(TransactionHistory.of(42L, rows));
+    }
+
+    @Benchmark
+    public byte[] cborColumnarGzip() throws IOException {
+        return gzip(cbor.writeValueAsBytes(TransactionHistory.of(42L, rows)));
+    }
+
+    static List<TransactionView> sampleRows(int count) {
+        List<TransactionView> rows = new ArrayList<>(count);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 0);
+        for (int i = 0; i < count; i++) {
+            rows.add(new TransactionView(1_000_000L + i, i % 3 == 0 ? "withdraw" : "deposit",
+                BigDecimal.valueOf(1_000 + (i * 7919L) % 250_000, 2), "USD", 42L,
+                start.plusMinutes(i * 37L).plusSeconds(i % 60)));
+        }
+        return rows;
+    }
+
+    static byte[] gzip(byte[] payload) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(payload);
+        }
+        return out.toByteArray();
+    }
+
+    public static void main(String[] args) throws Exception {
+        TransactionHistoryFormatBenchmark sizes = new TransactionHistoryFormatBenchmark();
+        sizes.setUp();
+        System.out.printf("Payload bytes for %d rows:%n", sizes.rows.size());
+        System.out.printf("  json entities      %8d%n", sizes.jsonEntities().length);
+        System.out.printf("  json entities gzip %8d%n", sizes.jsonEntitiesGzip().length);
+        System.out.printf("  cbor columnar      %8d%n", sizes.cborColumnar().length);
+        System.out.printf("  cbor columnar gzip %8d%n", sizes.cborColumnarGzip().length);
+        System.out.printf("  smile columnar     %8d%n", sizes.smileColumnar().length);
+
+        new Runner(new OptionsBuilder().include(TransactionHistoryFormatBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.bankingservice.benchmark;
+
+import com.example.bankingservice.BankingServiceApplication;
+import com.example.bankingservice.dto.TransactionView;
+import com.example.bankingservice.model.Transaction;
+import com.example.bankingservice.service.TransactionService;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one 1,000 row history read: managed entities (read-write and read-only transaction)
+ * against the constructor-expression projection used by TransactionService. The GC profiler's
+ * gc.alloc.rate.norm is the heap allocated per request.
+ *
+ * Run after {@code mvn test-compile}:
+ * <pre>
+ * mvn dependency:build-classpath -Dmdep.outputFile=target/cp.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *     com.example.bankingservice.benchmark.TransactionHistoryReadBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionHistoryReadBenchmark {
+
+    private static final long ACCOUNT = 42L;
+    private static final String ENTITY_QUERY =
+        "select t from Transaction t where t.accountId = :accountId order by t.transactionDate desc, t.id desc";
+
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private EntityManager entityManager;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(BankingServiceApplication.class)
+            .web(WebApplicationType.NONE)
+            .run("--spring.datasource.url=jdbc:h2:mem:history-benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        transactionService = context.getBean(TransactionService.class);
+        entityManager = context.getBean(EntityManager.class);
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        List<Object[]> rows = new ArrayList<>();
+        for (TransactionView row : TransactionHistoryFormatBenchmark.sampleRows(1_000)) {
+            rows.add(new Object[] {row.id(), row.type(), row.amount(), row.currency(), ACCOUNT, row.transactionDate()});
+        }
+        context.getBean(JdbcTemplate.class).batchUpdate("insert into transactions"
+            + " (id, type, amount, currency, account_id, transaction_date) values (?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    // What history reads used to cost: entities plus dirty-checking snapshots, flushed at commit
+    @Benchmark
+    public List<Transaction> entitiesReadWrite() {
+        return readWrite.execute(status -> entityManager.createQuery(ENTITY_QUERY, Transaction.class)
+            .setParameter("accountId", ACCOUNT).getResultList());
+    }
+
+    @Benchmark
+    public List<Transaction> entitiesReadOnly() {
+        return readOnly.execute(status -> entityManager.createQuery(ENTITY_QUERY, Transaction.class)
+            .setParameter("accountId", ACCOUNT).getResultList());
+    }
+
+    @Benchmark
+    public List<TransactionView> projection() {
+        return transactionService.getTransactionsByAccountId(ACCOUNT);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+            .include(TransactionHistoryReadBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.bankingservice.bulkimport;
+
+import com.example.bankingservice.service.TransactionService;
+import com.example.bankingservice.shard.ShardRouter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.Mockito.doThrow;
+
+// A tiny read buffer and batch size, so buffer growth, compaction and several batches per writer are exercised
+@SpringBootTest(properties = {
+    "banking.import.dir=target/import-test",
+    "banking.import.report-dir=target/import-reports",
+    "banking.import.buffer-chars=16",
+    "banking.import.batch-size=2",
+    "banking.import.writers=3"
+})
+class TransactionImportJobTest {
+
+    @Autowired
+    private TransactionImportJob transactionImportJob;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @SpyBean
+    private ShardRouter shardRouter;
+
+    @Test
+    void importsValidCsvRowsAndReportsTheRest() throws Exception {
+        Path file = write("history.csv",
+            "\uFEFFtype,account_id,amount,transaction_date,currency,note\r\n"
+            + "deposit,960001,100.00,2023-01-05T10:00:00,USD,salary\r\n"
+            + "withdraw,960001,30,2023-01-06,,\r\n"
+            + "DEPOSIT,960002,12.5,2023-02-01T08:00:00,eur,\r\n"
+            + "\r\n"
+            + "deposit,960002,1.001,2023-02-01T08:00:00,EUR,\r\n"
+            + "refund,960002,5.00,2023-02-01T08:00:00,EUR,\r\n"
+            + "deposit,960003,5.00,2999-01-01T00:00:00,USD,\r\n"
+            + "deposit,960003,\"5.00\",2023-01-01,USD,\r\n"
+            + "deposit,960003,5.00\r\n"
+            + "interest,960001,0.50,2023-01-31T23:59:59,USD,last line without a break");
+
+        Map<String, Object> summary = transactionImportJob.run(file, ImportFormat.CSV);
+
+        assertThat(summary).containsEntry("state", "done").containsEntry("lines", 9L)
+            .containsEntry("imported", 4L).containsEntry("rejected", 5L);
+        assertThat(transactionService.getCurrentBalance(960001L, "USD")).isEqualByComparingTo("70.50");
+        assertThat(transactionService.getCurrentBalance(960002L, "EUR")).isEqualByComparingTo("12.50");
+        assertThat(transactionService.getBalances(960003L)).isEmpty();
+
+        List<String> errors = Files.readAllLines(Path.of((String) summary.get("errors")));
+        assertThat(errors.get(0)).isEqualTo("line,error,record");
+        assertThat(errors).hasSize(6)
+            .anyMatch(line -> line.startsWith("6,") && line.contains("2 decimals"))
+            .anyMatch(line -> line.startsWith("7,") && line.contains("Unknown transaction type: refund"))
+            .anyMatch(line -> line.startsWith("8,") && line.contains("future"))
+            .anyMatch(line -> line.startsWith("9,") && line.contains("Quoted"))
+            .anyMatch(line -> line.startsWith("10,") && line.contains("Expected 6 columns"));
+    }
+
+    @Test
+    void importsNdjsonAndRefusesFilesOutsideTheImportDirectory() throws Exception {
+        Path file = write("history.ndjson",
+            "{\"account_id\": 960101, \"type\": \"deposit\", \"amount\": 40.25, \"transaction_date\": \"2023-03-01T12:00:00\"}\n"
+            + "{\"account_id\": 960101, \"type\": \"fee\", \"amount\": \"0.25\", \"transaction_date\": \"2023-03-31\", \"source\": {\"x\": 1}}\n"
+            + "{\"account_id\": 960101, \"type\": \"deposit\", \"amount\": 1\n"
+            + "[1, 2]\n");
+
+        Map<String, Object> summary = transactionImportJob.run(file, ImportFormat.of(null, file));
+
+        assertThat(summary).containsEntry("imported", 2L).containsEntry("rejected", 2L);
+        assertThat(transactionService.getCurrentBalance(960101L, "USD")).isEqualByComparingTo("40.00");
+        assertThatThrownBy(() -> transactionImportJob.start("../pom.xml", null))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> transactionImportJob.start("history.ndjson", "xml"))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void aFailingWriterFailsTheRunInsteadOfBlockingTheReader() throws Exception {
+        doThrow(new IllegalStateException("routing broke")).when(shardRouter).shardOf(960201L);
+        // Far more batches for the failing writer's partition than its queue holds
+        StringBuilder csv = new StringBuilder("type,account_id,amount,transaction_date,currency,note\n");
+        for (int i = 0; i < 40; i++) {
+            csv.append("deposit,960201,1.00,2023-01-05T10:00:00,USD,\n");
+        }
+        Path file = write("failing.csv", csv.toString());
+
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () ->
+            assertThatThrownBy(() -> transactionImportJob.run(file, ImportFormat.CSV))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("routing broke"));
+
+        assertThat(transactionImportJob.status()).containsEntry("running", false).containsEntry("state", "failed");
+        assertThat(transactionService.getBalances(960201L)).isEmpty();
+    }
+
+    private static Path write(String name, String content) throws Exception {
+        Path directory = Files.createDirectories(Path.of("target/import-test"));
+        return Files.writeString(directory.resolve(name), content);
+    }
+}
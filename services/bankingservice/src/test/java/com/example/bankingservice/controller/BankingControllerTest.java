@@ -0,0 +1,80 @@
+package com.example.bankingservice.controller;
+
+import com.example.bankingservice.dto.TransactionView;
+import com.example.bankingservice.dto.ValidatedUser;
+import com.example.bankingservice.service.TransactionService;
+import com.example.bankingservice.service.UserValidationService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BankingControllerTest {
+
+    private static final String TOKEN = "Bearer test-token";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private UserValidationService userValidationService;
+
+    @MockBean
+    private TransactionService transactionService;
+
+    @BeforeEach
+    void setUp() {
+        when(userValidationService.validate(anyString())).thenReturn(new ValidatedUser(7L, false));
+
+        TransactionView deposit = new TransactionView(1L, "deposit", new BigDecimal("100.00"), "USD", 7L,
+            LocalDateTime.of(2024, 1, 1, 12, 0));
+        TransactionView withdraw = new TransactionView(2L, "withdraw", new BigDecimal("25.50"), "USD", 7L,
+            LocalDateTime.of(2024, 1, 2, 12, 0));
+        when(transactionService.getTransactionsByAccountId(7L)).thenReturn(List.of(withdraw, deposit));
+    }
+
+    @Test
+    void transactionsDefaultToJson() throws Exception {
+        mockMvc.perform(get("/api/banking/transactions").header("Authorization", TOKEN).accept(MediaType.ALL))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+            .andExpect(jsonPath("$[0].type").value("withdraw"))
+            .andExpect(jsonPath("$[1].amount").value(100.00));
+    }
+
+    @Test
+    void transactionsAsColumnarCbor() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/banking/transactions")
+                .header("Authorization", TOKEN)
+                .accept(MediaType.parseMediaType("application/cbor")))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/cbor"))
+            .andReturn();
+
+        JsonNode history = new CBORMapper().readTree(result.getResponse().getContentAsByteArray());
+        assertThat(history.get("accountId").asLong()).isEqualTo(7L);
+        assertThat(history.get("typeDictionary").get(0).asText()).isEqualTo("withdraw");
+        assertThat(history.get("types").binaryValue()).containsExactly(0, 1);
+        assertThat(history.get("amounts").get(0).asLong()).isEqualTo(2550L);
+        assertThat(history.get("transactionDates").get(1).asLong()).isEqualTo(1704110400000L);
+    }
+}
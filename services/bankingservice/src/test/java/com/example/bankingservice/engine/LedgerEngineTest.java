@@ -0,0 +1,58 @@
+package com.example.bankingservice.engine;
+
+import com.example.bankingservice.model.Transaction;
+import com.example.bankingservice.service.HoldService;
+import com.example.bankingservice.service.TransactionService;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+    "banking.engine.enabled=true",
+    "banking.engine.partitions=2",
+    "banking.engine.journal.dir=target/ledger-engine-journal"
+})
+class LedgerEngineTest {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private HoldService holdService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void keepsBalancesInMemoryAndStoresTheJournalAsynchronously() throws InterruptedException {
+        transactionService.deposit(new Transaction("deposit", new BigDecimal("100.00"), 940001L));
+        transactionService.withdraw(new Transaction("withdraw", new BigDecimal("30.00"), 940001L));
+        holdService.placeHold(940001L, new BigDecimal("50.00"), null, Duration.ofMinutes(5));
+
+        // 70.00 left, 50.00 of it held
+        assertThat(transactionService.getCurrentBalance(940001L)).isEqualByComparingTo("70.00");
+        assertThat(transactionService.getAvailableBalance(940001L, "USD")).isEqualByComparingTo("20.00");
+        assertThatThrownBy(() -> transactionService.withdraw(new Transaction("withdraw", new BigDecimal("20.01"), 940001L)))
+            .isInstanceOf(IllegalArgumentException.class);
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (storedRows(940001L) < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(storedRows(940001L)).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("select sum(case when type = 'deposit' then amount else -amount end)"
+            + " from transactions where account_id = 940001", BigDecimal.class)).isEqualByComparingTo("70.00");
+    }
+
+    private int storedRows(long accountId) {
+        return jdbcTemplate.queryForObject("select count(*) from transactions where account_id = ?", Integer.class, accountId);
+    }
+}
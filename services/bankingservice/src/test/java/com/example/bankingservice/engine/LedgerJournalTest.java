@@ -0,0 +1,109 @@
+package com.example.bankingservice.engine;
+
+import com.example.bankingservice.model.Transaction;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LedgerJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void journalsDurablyAndDeletesSegmentsOnceStored() throws Exception {
+        List<Transaction> stored = Collections.synchronizedList(new ArrayList<>());
+        LedgerJournal journal = new LedgerJournal(directory, 1L << 20, 64, 1024, (batch, retry) -> stored.addAll(batch));
+        journal.start();
+
+        List<CompletableFuture<Object>> durable = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            CompletableFuture<Object> future = new CompletableFuture<>();
+            journal.append(transaction(i), future);
+            durable.add(future);
+        }
+        CompletableFuture.allOf(durable.toArray(CompletableFuture[]::new)).join();
+
+        // Everything acknowledged is in the segment, byte for byte readable again
+        List<Transaction> replayed = LedgerJournal.read(LedgerJournal.segments(directory).get(0));
+        assertThat(replayed).hasSize(100);
+        assertThat(replayed.get(42).getId()).isEqualTo(1042L);
+        assertThat(replayed.get(42).getAmount()).isEqualByComparingTo("42.05");
+        assertThat(replayed.get(42).getCurrency()).isEqualTo("EUR");
+        assertThat(replayed.get(42).getTransactionDate()).isEqualTo(LocalDateTime.of(2024, 5, 1, 12, 0, 42, 123_000_000));
+
+        journal.close();
+        assertThat(stored).hasSize(100);
+        assertThat(LedgerJournal.segments(directory)).isEmpty();
+    }
+
+    @Test
+    void replayStopsAtATornRecord() throws Exception {
+        LedgerJournal journal = new LedgerJournal(directory, 1L << 20, 64, 1024, (batch, retry) -> {
+            throw new IllegalStateException("database down");
+        });
+        journal.start();
+        CompletableFuture<Object> durable = new CompletableFuture<>();
+        journal.append(transaction(1), durable);
+        durable.join();
+        Path segment = LedgerJournal.segments(directory).get(0);
+
+        // A crash in the middle of the next write leaves half a record behind
+        Files.write(segment, new byte[] {0, 0, 0, 60, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        assertThat(LedgerJournal.read(segment)).extracting(Transaction::getId).containsExactly(1001L);
+    }
+
+    @Test
+    void ringAndMapKeepEveryUpdateFromConcurrentProducers() throws Exception {
+        MpscRing<Long> ring = new MpscRing<>(64);
+        LongLongMap balances = new LongLongMap(4);
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < 4; p++) {
+            Thread producer = new Thread(() -> {
+                for (long i = 0; i < 10_000; i++) {
+                    while (!ring.offer(i % 100)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+        int consumed = 0;
+        while (consumed < 40_000) {
+            Long account = ring.poll();
+            if (account != null) {
+                balances.add(account, 1);
+                consumed++;
+            }
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        assertThat(ring.poll()).isNull();
+        assertThat(balances.size()).isEqualTo(100);
+        assertThat(balances.get(7)).isEqualTo(400);
+        assertThat(balances.get(100)).isZero();
+    }
+
+    private static Transaction transaction(int i) {
+        Transaction tx = new Transaction("deposit", BigDecimal.valueOf(i * 100L + 5, 2), "EUR", 7L);
+        tx.setId(1000L + i);
+        tx.setTransactionDate(LocalDateTime.of(2024, 5, 1, 12, 0, 0, 123_000_000).plusSeconds(i));
+        return tx;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.bankingservice.fx;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FxRateServiceTest {
+
+    @Test
+    void convertsThroughTheBaseAndRoundsToTwoDecimals() throws IOException {
+        FxSnapshot rates = FxRateService.parse(rates("base=usd\nUSD=1\neur=0.92\nGBP=0.79\n"));
+
+        assertThat(rates.getBase()).isEqualTo("USD");
+        assertThat(rates.convert(new BigDecimal("100.00"), "USD", "EUR")).isEqualByComparingTo("92.00");
+        assertThat(rates.convert(new BigDecimal("10.00"), "EUR", "GBP")).isEqualByComparingTo("8.59");
+        assertThat(rates.convert(new BigDecimal("10.00"), "EUR", "EUR")).isEqualByComparingTo("10.00");
+        assertThat(rates.rate("USD", "EUR")).isEqualByComparingTo("0.92");
+    }
+
+    @Test
+    void roundsToTheMinorUnitOfTheTargetCurrency() throws IOException {
+        FxSnapshot rates = FxRateService.parse(rates("base=USD\nUSD=1\nJPY=151.50\n"));
+
+        // 49.995 yen: no fractional yen is credited
+        assertThat(rates.convert(new BigDecimal("0.33"), "USD", "JPY")).isEqualByComparingTo("50");
+        assertThat(rates.convert(new BigDecimal("0.33"), "USD", "JPY").scale()).isZero();
+        assertThat(rates.convert(new BigDecimal("1000"), "JPY", "USD")).isEqualByComparingTo("6.60");
+    }
+
+    @Test
+    void rejectsUnusableRateFiles() {
+        // The ledger keeps two decimals, so a three-decimal currency cannot be held
+        assertThatThrownBy(() -> FxRateService.parse(rates("base=USD\nUSD=1\nKWD=0.31\n")))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FxRateService.parse(rates("base=USD\nUSD=1\nEUR=0\n")))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FxRateService.parse(rates("base=USD\nUSD=2\n")))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FxRateService.parse(rates("USD=1\n")))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static ByteArrayResource rates(String content) {
+        return new ByteArrayResource(content.getBytes(StandardCharsets.ISO_8859_1));
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.bankingservice.hold;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimerWheelTest {
+
+    private static final long SECOND = 1_000L;
+
+    // Eight one-second slots, so one rotation covers eight seconds
+    private final TimerWheel wheel = new TimerWheel(8, SECOND, 0);
+
+    @Test
+    void returnsIdsOnceTheirDeadlineIsReached() {
+        wheel.schedule(1, 2 * SECOND);
+        wheel.schedule(2, 3 * SECOND + 500);
+
+        assertThat(wheel.advance(SECOND)).isEmpty();
+        assertThat(wheel.advance(2 * SECOND)).containsExactly(1L);
+        assertThat(wheel.advance(3 * SECOND)).isEmpty();
+        assertThat(wheel.advance(4 * SECOND)).containsExactly(2L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void keepsDeadlinesBeyondOneRotationUntilTheyAreDue() {
+        wheel.schedule(1, 10 * SECOND); // same slot as tick 2
+
+        assertThat(wheel.advance(2 * SECOND)).isEmpty();
+        assertThat(wheel.advance(9 * SECOND)).isEmpty();
+        assertThat(wheel.advance(10 * SECOND)).containsExactly(1L);
+    }
+
+    @Test
+    void collectsEverythingDueAfterALongPause() {
+        wheel.schedule(1, 3 * SECOND);
+        wheel.schedule(2, 12 * SECOND);
+        wheel.schedule(3, 40 * SECOND);
+
+        assertThat(wheel.advance(30 * SECOND)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(wheel.size()).isEqualTo(1);
+    }
+
+    @Test
+    void schedulesPastDeadlinesForTheNextTick() {
+        wheel.advance(5 * SECOND);
+        wheel.schedule(1, SECOND);
+
+        assertThat(wheel.advance(6 * SECOND)).containsExactly(1L);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.bankingservice.reconciliation;
+
+import com.example.bankingservice.engine.LedgerEngine;
+import com.example.bankingservice.model.Transaction;
+import com.example.bankingservice.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// In engine mode the engine's balances are the stored balances checked against the transactions table
+@SpringBootTest(properties = {
+    "banking.engine.enabled=true",
+    "banking.engine.partitions=2",
+    "banking.engine.journal.dir=target/reconciliation-engine-journal",
+    "banking.reconciliation.report-dir=target/reconciliation-reports"
+})
+class ReconciliationEngineTest {
+
+    @Autowired
+    private ReconciliationJob reconciliationJob;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private LedgerEngine ledgerEngine;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void reportsEngineBalancesThatDisagreeWithTheStoredLedger() throws Exception {
+        transactionService.deposit(new Transaction("deposit", new BigDecimal("100.00"), 915001L));
+        transactionService.withdraw(new Transaction("withdraw", new BigDecimal("30.00"), 915001L));
+        transactionService.deposit(new Transaction("deposit", new BigDecimal("40.00"), 915002L));
+        assertThat(ledgerEngine.awaitStored(5_000)).isTrue();
+
+        // The stored withdrawal no longer matches what the engine applied
+        jdbcTemplate.update("update transactions set amount = 10.00 where account_id = 915001 and type = 'withdraw'");
+
+        Map<String, Object> summary = reconciliationJob.run();
+
+        List<String> lines = Files.readAllLines(Path.of((String) summary.get("report")));
+        assertThat(lines).anyMatch(line -> line.contains(",915001,") && line.contains("stored-balance:engine")
+            && line.contains("ledger=90.00") && line.contains("stored=70.00"));
+        assertThat(lines).noneMatch(line -> line.contains(",915002,"));
+    }
+}
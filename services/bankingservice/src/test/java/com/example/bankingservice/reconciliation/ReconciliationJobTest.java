@@ -0,0 +1,101 @@
+package com.example.bankingservice.reconciliation;
+
+import com.example.bankingservice.service.HoldService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Small ranges so the fork-join split is exercised even on a handful of accounts
+@SpringBootTest(properties = {
+    "banking.reconciliation.range-size=2",
+    "banking.reconciliation.report-dir=target/reconciliation-reports"
+})
+class ReconciliationJobTest {
+
+    @Autowired
+    private ReconciliationJob reconciliationJob;
+
+    @Autowired
+    private HoldService holdService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void reportsLedgerAndCacheMismatches() throws Exception {
+        insert(910001, "deposit", "100.00");
+        insert(910001, "withdraw", "30.00");
+        insert(910002, "deposit", "10.00");
+        insert(910002, "withdraw", "20.00");
+        insert(910002, "deposit", "50.00");
+        insert(910003, "deposit", "5.00");
+        insert(910003, "refund", "5.00");
+        insert(910004, "deposit", "100.00");
+        holdService.placeHold(910004L, new BigDecimal("80.00"), null, Duration.ofMinutes(5));
+        insert(910004, "withdraw", "50.00"); // bypasses the hold check
+        // Currencies interleaved in date order: each keeps its own running balance
+        insert(910005, "deposit", "10.00", "USD");
+        insert(910005, "deposit", "10.00", "EUR");
+        insert(910005, "withdraw", "8.00", "USD");
+        insert(910005, "withdraw", "8.00", "EUR");
+        insert(910006, "deposit", "10.00", "EUR");
+        insert(910006, "withdraw", "5.00", "USD");
+
+        Map<String, Object> summary = reconciliationJob.run();
+
+        List<String> lines = Files.readAllLines(Path.of((String) summary.get("report")));
+        assertThat(lines.get(0)).isEqualTo("shard,account_id,transaction_id,check,detail");
+        assertThat(lines).anyMatch(line -> line.contains(",910002,") && line.contains("negative-balance"));
+        assertThat(lines).anyMatch(line -> line.contains(",910003,") && line.contains("unknown-type"));
+        assertThat(lines).anyMatch(line -> line.contains(",910004,") && line.contains("holds-exceed-balance"));
+        assertThat(lines).anyMatch(line -> line.contains(",910001,") && line.contains("stored-balance:test"));
+        assertThat(lines).noneMatch(line -> line.contains(",910001,") && !line.contains("stored-balance"));
+        assertThat(lines).noneMatch(line -> line.contains(",910005,"));
+        assertThat(lines).anyMatch(line -> line.contains(",910006,") && line.contains("negative-balance") && line.contains("USD"));
+        assertThat((Long) summary.get("accounts")).isGreaterThanOrEqualTo(4);
+        assertThat((Long) summary.get("rows")).isGreaterThanOrEqualTo(9);
+    }
+
+    private void insert(long accountId, String type, String amount) {
+        jdbcTemplate.update("insert into transactions (type, amount, account_id, transaction_date) values (?, ?, ?, ?)",
+            type, new BigDecimal(amount), accountId, LocalDateTime.now());
+    }
+
+    private void insert(long accountId, String type, String amount, String currency) {
+        jdbcTemplate.update("insert into transactions (type, amount, currency, account_id, transaction_date) values (?, ?, ?, ?, ?)",
+            type, new BigDecimal(amount), currency, accountId, LocalDateTime.now());
+    }
+
+    @TestConfiguration
+    static class StoredBalances {
+
+        // Claims 999.00 for account 910001, whose ledger balance is 70.00
+        @Bean
+        StoredBalanceSource testBalances() {
+            return new StoredBalanceSource() {
+                @Override
+                public String name() {
+                    return "test";
+                }
+
+                @Override
+                public BigDecimal balanceOf(Long accountId, String currency) {
+                    return accountId == 910001L ? new BigDecimal("999.00") : null;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.bankingservice.repository;
+
+import com.example.bankingservice.dto.TransactionFilter;
+import com.example.bankingservice.dto.TransactionView;
+import com.example.bankingservice.service.TransactionService;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties =
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.bankingservice.repository.TransactionSearchTest$RecordingInspector")
+class TransactionSearchTest {
+
+    private static final long ACCOUNT = 950001L;
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 0, 0);
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void filtersPagesAndUsesTheCoveringIndex() {
+        for (int day = 0; day < 30; day++) {
+            insert(950000L + day, day % 3 == 0 ? "withdraw" : "deposit", BigDecimal.valueOf(10 + day), START.plusDays(day));
+        }
+        insert(950100L, "deposit", new BigDecimal("15.00"), START.plusDays(3)); // another account's row
+        RecordingInspector.statements.clear();
+
+        TransactionFilter filter = new TransactionFilter(ACCOUNT, START.plusDays(5), START.plusDays(25), List.of("deposit"),
+            new BigDecimal("20"), new BigDecimal("32"), "USD");
+        Slice<TransactionView> first = transactionService.search(filter, PageRequest.of(0, 5));
+        Slice<TransactionView> second = transactionService.search(filter, PageRequest.of(1, 5));
+
+        // Days 10..22 that are deposits (not a multiple of 3): 22, 20, 19, 17, 16 | 14, 13, 11, 10
+        assertThat(first.getContent()).extracting(TransactionView::amount)
+            .usingElementComparator(BigDecimal::compareTo)
+            .containsExactly(bd(32), bd(30), bd(29), bd(27), bd(26));
+        assertThat(first.hasNext()).isTrue();
+        assertThat(second.getContent()).hasSize(4);
+        assertThat(second.hasNext()).isFalse();
+
+        String sql = RecordingInspector.statements.stream()
+            .filter(statement -> statement.toLowerCase().contains("from transactions"))
+            .findFirst().orElseThrow();
+        // Only the projected columns are selected, never the whole row
+        assertThat(sql.toLowerCase()).startsWith("select t1_0.id,t1_0.type,t1_0.amount,t1_0.currency,t1_0.account_id,t1_0.transaction_date");
+
+        String plan = jdbcTemplate.queryForObject("explain " + sql, String.class, ACCOUNT, START, START, "deposit",
+            BigDecimal.ONE, BigDecimal.TEN, "USD", 5, 0).toLowerCase();
+        assertThat(plan).contains("idx_transactions_account_date_cover").doesNotContain("tablescan");
+    }
+
+    private void insert(long id, String type, BigDecimal amount, LocalDateTime date) {
+        jdbcTemplate.update("insert into transactions (id, type, amount, currency, account_id, transaction_date) values (?, ?, ?, 'USD', ?, ?)",
+            id, type, amount, id == 950100L ? 950100L : ACCOUNT, date);
+    }
+
+    private static BigDecimal bd(int value) {
+        return BigDecimal.valueOf(value);
+    }
+
+    public static class RecordingInspector implements StatementInspector {
+
+        static final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.bankingservice.service;
+
+import com.example.bankingservice.dto.TransferResult;
+import com.example.bankingservice.model.Transaction;
+import com.example.bankingservice.model.Transfer;
+import com.example.bankingservice.repository.TransactionRepository;
+import com.example.bankingservice.repository.TransferRepository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class MultiCurrencyTest {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransferRecovery transferRecovery;
+
+    @Autowired
+    private TransferRepository transferRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void keepsOneBalancePerCurrencyAndConvertsOnTransfer() {
+        accountService.changeBaseCurrency(930002L, "eur");
+        transactionService.deposit(new Transaction("deposit", new BigDecimal("100.00"), 930001L));
+        transactionService.deposit(new Transaction("deposit", new BigDecimal("20.00"), "EUR", 930001L));
+
+        TransferResult result = transactionService.transfer(930001L, 930002L, new BigDecimal("50.00"), null, null);
+
+        assertThat(result.getCredit().getCurrency()).isEqualTo("EUR");
+        assertThat(result.getCredit().getAmount()).isEqualByComparingTo("46.00");
+        assertThat(transactionService.getBalances(930001L)).containsOnlyKeys("EUR", "USD");
+        assertThat(transactionService.getCurrentBalance(930001L, "USD")).isEqualByComparingTo("50.00");
+        assertThat(transactionService.getCurrentBalance(930001L, "EUR")).isEqualByComparingTo("20.00");
+        assertThat(transactionService.getCurrentBalance(930002L)).isEqualByComparingTo("46.00");
+        Transfer transfer = transferRepository.findAll().stream()
+            .filter(row -> row.getAccountId() == 930001L).findFirst().orElseThrow();
+        assertThat(transfer.getStatus()).isEqualTo(Transfer.COMPLETED);
+        assertThat(transfer.getDebitTransactionId()).isEqualTo(result.getDebit().getId());
+        assertThat(transactionRepository.existsById(transfer.getCreditTransactionId())).isTrue();
+
+        // Funds are checked per currency: 20 EUR do not cover a 30 EUR withdrawal
+        assertThatThrownBy(() -> transactionService.withdraw(new Transaction("withdraw", new BigDecimal("30.00"), "EUR", 930001L)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> accountService.changeBaseCurrency(930001L, "GBP"))
+            .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> transactionService.transfer(930001L, 939999L, BigDecimal.ONE, null, null))
+            .isInstanceOf(NoSuchElementException.class);
+        assertThatThrownBy(() -> transactionService.deposit(new Transaction("deposit", BigDecimal.ONE, "XAU", 930001L)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void transfersToAnAccountThatOnlyHasLedgerRows() {
+        transactionService.deposit(new Transaction("deposit", new BigDecimal("40.00"), 930021L));
+        // Imported history (or created before accounts existed): no accounts row
+        Transaction imported = new Transaction("deposit", new BigDecimal("1.00"), "USD", 930022L);
+        imported.setTransactionDate(LocalDateTime.now());
+        transactionRepository.save(imported);
+        assertThat(accountService.find(930022L)).isEmpty();
+
+        TransferResult result = transactionService.transfer(930021L, 930022L, new BigDecimal("15.00"), null, null);
+
+        assertThat(result.getCredit().getCurrency()).isEqualTo("USD");
+        assertThat(transactionService.getCurrentBalance(930022L)).isEqualByComparingTo("16.00");
+        assertThat(transactionService.getCurrentBalance(930021L)).isEqualByComparingTo("25.00");
+    }
+
+    @Test
+    void seesABaseCurrencyChangedElsewhereUntilTheFirstTransaction() {
+        assertThat(accountService.baseCurrencyOrCreate(930031L)).isEqualTo("USD");
+        // changeBaseCurrency on another instance: nothing is cached here yet that could go stale
+        jdbcTemplate.update("update accounts set base_currency = 'EUR' where account_id = 930031");
+
+        transactionService.deposit(new Transaction("deposit", new BigDecimal("10.00"), 930031L));
+
+        assertThat(transactionService.getBalances(930031L)).containsOnlyKeys("EUR");
+        assertThat(accountService.baseCurrency(930031L)).isEqualTo("EUR");
+    }
+
+    @Test
+    void recoversTransfersCutShortBetweenTheirLegs() {
+        transactionService.deposit(new Transaction("deposit", new BigDecimal("100.00"), 930011L));
+        LocalDateTime longAgo = LocalDateTime.now().minusHours(1);
+        // Crashed after the debit, and crashed before it
+        Transfer debited = stale(new Transfer(930011L, new BigDecimal("30.00"), "USD", 930012L, new BigDecimal("30.00"), "USD"), longAgo);
+        transactionRepository.save(debited.debitLeg());
+        Transfer notDebited = stale(new Transfer(930011L, new BigDecimal("5.00"), "USD", 930012L, new BigDecimal("5.00"), "USD"), longAgo);
+
+        assertThat(transferRecovery.recover()).isEqualTo(2);
+
+        assertThat(transferRepository.findById(debited.getId()).orElseThrow().getStatus()).isEqualTo(Transfer.COMPLETED);
+        assertThat(transferRepository.findById(notDebited.getId()).orElseThrow().getStatus()).isEqualTo(Transfer.FAILED);
+        assertThat(transactionService.getCurrentBalance(930011L)).isEqualByComparingTo("70.00");
+        assertThat(transactionService.getCurrentBalance(930012L)).isEqualByComparingTo("30.00");
+        assertThat(transferRecovery.recover()).isZero();
+    }
+
+    private Transfer stale(Transfer transfer, LocalDateTime updatedAt) {
+        transfer.setUpdatedAt(updatedAt);
+        return transferRepository.save(transfer);
+    }
+}
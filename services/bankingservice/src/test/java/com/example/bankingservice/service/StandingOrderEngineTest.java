@@ -0,0 +1,58 @@
+package com.example.bankingservice.service;
+
+import com.example.bankingservice.model.StandingOrder;
+import com.example.bankingservice.model.Transaction;
+import com.example.bankingservice.repository.StandingOrderRepository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// In engine mode the occurrence is claimed before posting and given back when the posting is refused
+@SpringBootTest(properties = {
+    "banking.engine.enabled=true",
+    "banking.engine.partitions=2",
+    "banking.engine.journal.dir=target/standing-order-engine-journal",
+    "banking.standing-orders.tick-ms=3600000",
+    "banking.standing-orders.retry-delay=1m"
+})
+class StandingOrderEngineTest {
+
+    @Autowired
+    private StandingOrderService standingOrderService;
+
+    @Autowired
+    private StandingOrderRepository standingOrderRepository;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Test
+    void postsClaimedOccurrencesAndGivesBackRefusedOnes() {
+        LocalDateTime now = LocalDateTime.now();
+        transactionService.deposit(new Transaction("deposit", new BigDecimal("100.00"), 971001L));
+        StandingOrder funded = standingOrderRepository.save(new StandingOrder(971001L, "withdraw", new BigDecimal("10.00"),
+            "USD", StandingOrder.DAILY, now.minusMinutes(1), null));
+        StandingOrder unfunded = standingOrderRepository.save(new StandingOrder(971002L, "withdraw", new BigDecimal("10.00"),
+            "USD", StandingOrder.DAILY, now.minusMinutes(1), null));
+
+        standingOrderService.loadHorizon(now);
+        standingOrderService.tick(now);
+
+        StandingOrder posted = standingOrderRepository.findById(funded.getId()).orElseThrow();
+        assertThat(transactionService.getCurrentBalance(971001L)).isEqualByComparingTo("90.00");
+        assertThat(posted.getOccurrence()).isEqualTo(1);
+        assertThat(posted.getLastTransactionId()).isNotNull();
+
+        StandingOrder refused = standingOrderRepository.findById(unfunded.getId()).orElseThrow();
+        assertThat(refused.getOccurrence()).isZero();
+        assertThat(refused.getAttempts()).isEqualTo(1);
+        assertThat(refused.getStatus()).isEqualTo(StandingOrder.ACTIVE);
+        assertThat(refused.getLastError()).contains("Insufficient funds");
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.bankingservice.service;
+
+import com.example.bankingservice.model.StandingOrder;
+import com.example.bankingservice.model.Transaction;
+import com.example.bankingservice.repository.StandingOrderRepository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// The background ticker is slowed down so the test drives the scheduler with its own clock
+@SpringBootTest(properties = {
+    "banking.standing-orders.tick-ms=3600000",
+    "banking.standing-orders.max-missed-runs=3",
+    "banking.standing-orders.max-attempts=2",
+    "banking.standing-orders.retry-delay=1m"
+})
+class StandingOrderServiceTest {
+
+    @Autowired
+    private StandingOrderService standingOrderService;
+
+    @Autowired
+    private StandingOrderRepository standingOrderRepository;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Test
+    void catchesUpMissedRunsAfterDowntime() {
+        LocalDateTime now = LocalDateTime.now();
+        transactionService.deposit(new Transaction("deposit", new BigDecimal("100.00"), 970001L));
+        // Six daily occurrences passed while "down": the three oldest are skipped, three are posted
+        StandingOrder order = standingOrderRepository.save(new StandingOrder(970001L, "withdraw", new BigDecimal("10.00"),
+            "USD", StandingOrder.DAILY, now.minusDays(5).minusHours(1), null));
+
+        standingOrderService.loadHorizon(now);
+        standingOrderService.tick(now);
+
+        StandingOrder after = standingOrderRepository.findById(order.getId()).orElseThrow();
+        assertThat(transactionService.getCurrentBalance(970001L)).isEqualByComparingTo("70.00");
+        assertThat(after.getOccurrence()).isEqualTo(6);
+        assertThat(after.getNextRunAt()).isAfter(now);
+        assertThat(after.getLastTransactionId()).isNotNull();
+
+        standingOrderService.tick(now.plusMinutes(1)); // nothing due any more
+        assertThat(transactionService.getCurrentBalance(970001L)).isEqualByComparingTo("70.00");
+    }
+
+    @Test
+    void retriesRefusedRunsThenSkipsTheOccurrence() {
+        LocalDateTime now = LocalDateTime.now();
+        StandingOrder order = standingOrderRepository.save(new StandingOrder(970002L, "withdraw", new BigDecimal("5.00"),
+            "USD", StandingOrder.DAILY, now.minusMinutes(1), null));
+
+        standingOrderService.loadHorizon(now);
+        standingOrderService.tick(now);
+        StandingOrder refused = standingOrderRepository.findById(order.getId()).orElseThrow();
+        assertThat(refused.getAttempts()).isEqualTo(1);
+        assertThat(refused.getOccurrence()).isZero();
+        assertThat(refused.getFireAt()).isAfter(now);
+        assertThat(refused.getLastError()).contains("Insufficient funds");
+
+        standingOrderService.tick(now.plusMinutes(2));
+        StandingOrder skipped = standingOrderRepository.findById(order.getId()).orElseThrow();
+        assertThat(skipped.getOccurrence()).isEqualTo(1);
+        assertThat(skipped.getAttempts()).isZero();
+        assertThat(skipped.getLastError()).startsWith("Skipped after 2 attempts");
+        assertThat(transactionService.getBalances(970002L)).isEmpty();
+
+        assertThat(standingOrderService.cancel(order.getId(), 970002L).getStatus()).isEqualTo(StandingOrder.CANCELLED);
+        assertThatThrownBy(() -> standingOrderService.cancel(order.getId(), 970002L)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void createdOrderRunsFromTheQueueUntilItsEnd() {
+        LocalDateTime now = LocalDateTime.now();
+        StandingOrder order = standingOrderService.create(970003L, "deposit", new BigDecimal("25.00"), null,
+            StandingOrder.MONTHLY, now, now.plusMonths(1).minusDays(1));
+
+        standingOrderService.tick(now.plusSeconds(1));
+
+        assertThat(transactionService.getCurrentBalance(970003L)).isEqualByComparingTo("25.00");
+        assertThat(standingOrderService.list(970003L)).singleElement()
+            .satisfies(listed -> assertThat(listed.getStatus()).isEqualTo(StandingOrder.FINISHED));
+        assertThatThrownBy(() -> standingOrderService.cancel(order.getId(), 970004L)).isInstanceOf(NoSuchElementException.class);
+        assertThatThrownBy(() -> standingOrderService.create(970003L, "deposit", BigDecimal.TEN, null,
+            StandingOrder.DAILY, now.minusDays(1), null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> standingOrderService.create(970003L, "transfer_out", BigDecimal.TEN, null,
+            StandingOrder.DAILY, null, null)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
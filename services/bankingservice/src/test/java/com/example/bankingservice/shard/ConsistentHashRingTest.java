@@ -0,0 +1,57 @@
+package com.example.bankingservice.shard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConsistentHashRingTest {
+
+    private static final int ACCOUNTS = 100_000;
+
+    @Test
+    void spreadsSequentialAccountsEvenly() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("ledger0", "ledger1", "ledger2", "ledger3"), 160);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (long accountId = 1; accountId <= ACCOUNTS; accountId++) {
+            counts.merge(ring.shardFor(accountId), 1, Integer::sum);
+        }
+
+        assertThat(counts).hasSize(4);
+        // Within 20% of a perfect quarter each
+        assertThat(counts.values()).allSatisfy(count -> assertThat(count).isBetween(20_000, 30_000));
+    }
+
+    @Test
+    void addingAShardOnlyMovesAccountsOntoIt() {
+        ConsistentHashRing before = new ConsistentHashRing(List.of("ledger0", "ledger1", "ledger2"), 160);
+        ConsistentHashRing after = new ConsistentHashRing(List.of("ledger0", "ledger1", "ledger2", "ledger3"), 160);
+
+        int moved = 0;
+        for (long accountId = 1; accountId <= ACCOUNTS; accountId++) {
+            String from = before.shardFor(accountId);
+            String to = after.shardFor(accountId);
+            if (!from.equals(to)) {
+                assertThat(to).isEqualTo("ledger3");
+                moved++;
+            }
+        }
+
+        // About a quarter of the accounts, instead of the ~75% a modulo scheme would move
+        assertThat(moved).isBetween(20_000, 30_000);
+    }
+
+    @Test
+    void sameShardsGiveTheSameRouting() {
+        ConsistentHashRing one = new ConsistentHashRing(List.of("ledger0", "ledger1"), 160);
+        ConsistentHashRing two = new ConsistentHashRing(List.of("ledger0", "ledger1"), 160);
+
+        for (long accountId = 1; accountId <= 1_000; accountId++) {
+            assertThat(one.shardFor(accountId)).isEqualTo(two.shardFor(accountId));
+        }
+    }
+}
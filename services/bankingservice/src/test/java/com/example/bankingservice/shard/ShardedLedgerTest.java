@@ -0,0 +1,210 @@
+package com.example.bankingservice.shard;
+
+import com.example.bankingservice.model.Hold;
+import com.example.bankingservice.model.Transaction;
+import com.example.bankingservice.service.HoldService;
+import com.example.bankingservice.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Three active embedded shards plus one spare, which the test then reshards onto
+@SpringBootTest(properties = {
+    "banking.ledger.shards[0].name=ledger0",
+    "banking.ledger.shards[0].url=jdbc:h2:mem:ledger0;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "banking.ledger.shards[0].username=sa",
+    "banking.ledger.shards[1].name=ledger1",
+    "banking.ledger.shards[1].url=jdbc:h2:mem:ledger1;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "banking.ledger.shards[1].username=sa",
+    "banking.ledger.shards[2].name=ledger2",
+    "banking.ledger.shards[2].url=jdbc:h2:mem:ledger2;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "banking.ledger.shards[2].username=sa",
+    "banking.ledger.shards[3].name=ledger3",
+    "banking.ledger.shards[3].url=jdbc:h2:mem:ledger3;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "banking.ledger.shards[3].username=sa",
+    "banking.ledger.shards[3].active=false",
+    "banking.velocity.enabled=false",
+    "banking.ledger.reshard-grace-ms=200"
+})
+class ShardedLedgerTest {
+
+    private static final int ACCOUNTS = 200;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private HoldService holdService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private LedgerResharder ledgerResharder;
+
+    @Autowired
+    private LedgerShards ledgerShards;
+
+    @Autowired
+    private AccountRowCopier rowCopier;
+
+    @Autowired
+    private ShardRoutingState routingState;
+
+    @Test
+    void routesAccountsByHashAndReshardsOnline() throws Exception {
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        for (long accountId = 1; accountId <= ACCOUNTS; accountId++) {
+            transactionService.deposit(new Transaction("deposit", BigDecimal.valueOf(100 + accountId), accountId));
+            transactionService.withdraw(new Transaction("withdraw", BigDecimal.valueOf(10), accountId));
+            balances.put(accountId, transactionService.getCurrentBalance(accountId));
+        }
+        Hold hold = holdService.placeHold(7L, new BigDecimal("50.00"), null, Duration.ofMinutes(5));
+
+        assertThat(shardRouter.ringShards()).containsExactly("ledger0", "ledger1", "ledger2");
+        assertRowsOnOwningShard();
+        assertThat(rowCount("ledger3")).isZero();
+        for (String shard : List.of("ledger0", "ledger1", "ledger2")) {
+            assertThat(rowCount(shard)).isPositive();
+        }
+
+        ledgerResharder.run(List.of("ledger0", "ledger1", "ledger2", "ledger3"));
+
+        assertThat(shardRouter.ringShards()).containsExactly("ledger0", "ledger1", "ledger2", "ledger3");
+        assertThat(rowCount("ledger3")).isPositive();
+        assertRowsOnOwningShard();
+        int total = 0;
+        for (String shard : ledgerShards.names()) {
+            total += rowCount(shard);
+        }
+        assertThat(total).isEqualTo(ACCOUNTS * 2);
+        for (long accountId = 1; accountId <= ACCOUNTS; accountId++) {
+            assertThat(transactionService.getCurrentBalance(accountId)).isEqualByComparingTo(balances.get(accountId));
+        }
+
+        // The hold moved with its account and is still usable
+        Transaction captured = holdService.capture(hold.getId(), 7L, null);
+        assertThat(captured.getAmount()).isEqualByComparingTo("50.00");
+        assertThat(transactionService.getCurrentBalance(7L)).isEqualByComparingTo(balances.get(7L).subtract(new BigDecimal("50.00")));
+        assertThat(storedRing()).containsExactly("ledger0,ledger1,ledger2,ledger3", null);
+
+        restoresAnInterruptedReshardFromTheStoredRoutingState();
+        keepsRowsWrittenToTheSourceDuringAMove();
+        fencesSerializeAcrossConnections();
+    }
+
+    // Runs after the reshard above, on the same shards
+    private void restoresAnInterruptedReshardFromTheStoredRoutingState() {
+        for (long accountId = 1001; accountId <= 1040; accountId++) {
+            transactionService.deposit(new Transaction("deposit", BigDecimal.valueOf(accountId), accountId));
+        }
+        List<String> target = List.of("ledger0", "ledger1");
+        List<Long> leaving = new ArrayList<>();
+        for (long accountId = 1001; accountId <= 1040; accountId++) {
+            if (!shardRouter.shardOf(accountId).equals("ledger0") && !shardRouter.shardOf(accountId).equals("ledger1")) {
+                leaving.add(accountId);
+            }
+        }
+        assertThat(leaving).hasSizeGreaterThan(1);
+        List<String> ringBefore = shardRouter.ringShards();
+
+        // Interrupted after moving one account, then the instance restarts
+        shardRouter.beginMove(new ConsistentHashRing(target, 160));
+        long moved = leaving.get(0);
+        long notMoved = leaving.get(1);
+        String notMovedShard = shardRouter.shardOf(notMoved);
+        assertThat(shardRouter.moveIfNeeded(moved)).isPositive();
+        shardRouter.buildRing();
+
+        assertThat(shardRouter.targetShards()).isEqualTo(target);
+        assertThat(shardRouter.ringShards()).isEqualTo(ringBefore);
+        assertThat(target).contains(shardRouter.shardOf(moved));
+        assertThat(shardRouter.shardOf(notMoved)).isEqualTo(notMovedShard);
+        assertThat(transactionService.getCurrentBalance(moved)).isEqualByComparingTo(BigDecimal.valueOf(moved));
+
+        ledgerResharder.run(target);
+        assertThat(storedRing()).containsExactly("ledger0,ledger1", null);
+        shardRouter.buildRing();
+        assertThat(shardRouter.ringShards()).isEqualTo(target);
+        assertThat(transactionService.getCurrentBalance(notMoved)).isEqualByComparingTo(BigDecimal.valueOf(notMoved));
+    }
+
+    // A write reaching the old shard after the copy is moved by another pass, not deleted with the copied rows
+    private void keepsRowsWrittenToTheSourceDuringAMove() {
+        long accountId = 5001;
+        transactionService.deposit(new Transaction("deposit", new BigDecimal("10.00"), accountId));
+        String owner = shardRouter.shardOf(accountId);
+        String other = owner.equals("ledger0") ? "ledger1" : "ledger0";
+
+        int moved = rowCopier.move(accountId, owner, other, () -> jdbc(owner).update(
+            "insert into transactions (id, type, amount, account_id, transaction_date) values (?, 'deposit', 5.00, ?, now())",
+            LedgerIdGenerator.nextId(), accountId));
+
+        assertThat(moved).isEqualTo(3); // accounts row, the deposit, the late deposit
+        assertThat(accountRows(owner, accountId)).isZero();
+        assertThat(accountRows(other, accountId)).isEqualTo(2);
+        rowCopier.move(accountId, other, owner, () -> { });
+        assertThat(transactionService.getCurrentBalance(accountId)).isEqualByComparingTo("15.00");
+    }
+
+    // Two holders of the same account fence (e.g. two instances) never overlap
+    private void fencesSerializeAcrossConnections() throws Exception {
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> routingState.fenced(5002L, fence -> {
+            locked.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        assertThat(locked.await(10, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Boolean> second = CompletableFuture.supplyAsync(() -> routingState.fenced(5002L, ShardRoutingState.Fence::moved));
+
+        Thread.sleep(200);
+        assertThat(second).isNotDone();
+        release.countDown();
+        first.get(10, TimeUnit.SECONDS);
+        assertThat(second.get(10, TimeUnit.SECONDS)).isFalse();
+    }
+
+    private int accountRows(String shard, long accountId) {
+        return jdbc(shard).queryForObject("select count(*) from transactions where account_id = ?", Integer.class, accountId);
+    }
+
+    private List<String> storedRing() {
+        return jdbc("ledger0").queryForObject("select shards, target_shards from shard_routing",
+            (rs, row) -> Arrays.asList(rs.getString(1), rs.getString(2)));
+    }
+
+    private void assertRowsOnOwningShard() {
+        for (String shard : ledgerShards.names()) {
+            List<Long> accounts = jdbc(shard).queryForList("select distinct account_id from transactions", Long.class);
+            assertThat(accounts).allSatisfy(accountId -> assertThat(shardRouter.shardOf(accountId)).isEqualTo(shard));
+        }
+    }
+
+    private int rowCount(String shard) {
+        return jdbc(shard).queryForObject("select count(*) from transactions", Integer.class);
+    }
+
+    private JdbcTemplate jdbc(String shard) {
+        return new JdbcTemplate(ledgerShards.dataSource(shard));
+    }
+}
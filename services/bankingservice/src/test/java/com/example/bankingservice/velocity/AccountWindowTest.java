@@ -0,0 +1,62 @@
+package com.example.bankingservice.velocity;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccountWindowTest {
+
+    private static final long MINUTE = 60_000L;
+
+    // One hour window in 60 one-minute buckets
+    private final AccountWindow window = new AccountWindow(60, MINUTE);
+
+    @Test
+    void rejectsWhenCountLimitReached() {
+        long t = 1_000 * MINUTE;
+        assertThat(window.tryRecord(t, 100, 2, 1_000_000)).isTrue();
+        assertThat(window.tryRecord(t + 1, 100, 2, 1_000_000)).isTrue();
+        assertThat(window.tryRecord(t + 2, 100, 2, 1_000_000)).isFalse();
+        assertThat(window.count(t + 2)).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsWhenAmountLimitReached() {
+        long t = 1_000 * MINUTE;
+        assertThat(window.tryRecord(t, 60_00, 10, 100_00)).isTrue();
+        assertThat(window.tryRecord(t, 50_00, 10, 100_00)).isFalse();
+        assertThat(window.tryRecord(t, 40_00, 10, 100_00)).isTrue();
+        assertThat(window.amount(t)).isEqualTo(100_00);
+    }
+
+    @Test
+    void oldBucketsSlideOutOfTheWindow() {
+        long t = 1_000 * MINUTE;
+        assertThat(window.tryRecord(t, 100, 2, 1_000_000)).isTrue();
+        assertThat(window.tryRecord(t + 30 * MINUTE, 100, 2, 1_000_000)).isTrue();
+        assertThat(window.tryRecord(t + 59 * MINUTE, 100, 2, 1_000_000)).isFalse();
+
+        // First withdrawal is now more than an hour old
+        assertThat(window.tryRecord(t + 60 * MINUTE, 100, 2, 1_000_000)).isTrue();
+        assertThat(window.count(t + 60 * MINUTE)).isEqualTo(2);
+        assertThat(window.isIdle(t + 200 * MINUTE)).isTrue();
+    }
+
+    @Test
+    void releaseGivesBackTheReservation() {
+        long t = 1_000 * MINUTE;
+        assertThat(window.tryRecord(t, 100, 1, 1_000_000)).isTrue();
+        window.release(t, 100);
+        assertThat(window.tryRecord(t, 100, 1, 1_000_000)).isTrue();
+    }
+
+    @Test
+    void seedingIgnoresEntriesOutsideTheWindow() {
+        long t = 1_000 * MINUTE;
+        window.record(t, 100);
+        window.record(t - 10 * MINUTE, 100);
+        window.record(t - 90 * MINUTE, 100);
+        assertThat(window.count(t)).isEqualTo(2);
+        assertThat(window.amount(t)).isEqualTo(200);
+    }
+}
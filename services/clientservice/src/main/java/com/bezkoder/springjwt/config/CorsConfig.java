@@ -16,6 +16,7 @@ public class CorsConfig {
                     .allowedOrigins("http://localhost:5173")
                     .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                     .allowedHeaders("*")
+                    .exposedHeaders("X-Next-Cursor")
                     .allowCredentials(true);
             }
         };
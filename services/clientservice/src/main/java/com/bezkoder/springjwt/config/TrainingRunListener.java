@@ -0,0 +1,39 @@
+package com.bezkoder.springjwt.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Profiles;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Ends the AppCDS training run started by the Dockerfile (profile "training") after one
+ * warm-up request. The profile is checked at runtime so the bean survives Spring AOT processing.
+ */
+@Component
+public class TrainingRunListener implements ApplicationListener<ApplicationReadyEvent> {
+  private static final Logger logger = LoggerFactory.getLogger(TrainingRunListener.class);
+
+  @Override
+  public void onApplicationEvent(ApplicationReadyEvent event) {
+    ConfigurableApplicationContext context = event.getApplicationContext();
+    if (!context.getEnvironment().acceptsProfiles(Profiles.of("training"))) {
+      return;
+    }
+
+    String port = context.getEnvironment().getProperty("local.server.port");
+    try {
+      new RestTemplate().getForEntity("http://localhost:" + port + "/api/user/me", String.class);
+    } catch (RestClientException e) {
+      // Expected: the warm-up request has no token, we only care about the classes it loads
+    }
+
+    logger.info("Training run finished, exiting.");
+    System.exit(SpringApplication.exit(context));
+  }
+}
@@ -1,41 +1,186 @@
 package com.bezkoder.springjwt.controllers;
 
-import com.bezkoder.springjwt.models.User;
+import com.bezkoder.springjwt.models.ERole;
+import com.bezkoder.springjwt.payload.request.BulkUserRequest;
+import com.bezkoder.springjwt.payload.response.AdminUserView;
+import com.bezkoder.springjwt.payload.response.BulkUpdateResponse;
 import com.bezkoder.springjwt.repository.UserRepository;
+import com.bezkoder.springjwt.repository.UserRepository.AdminUserRow;
+import com.bezkoder.springjwt.security.jwt.AuthFailureLog;
+import com.bezkoder.springjwt.security.password.PasswordHashingExecutor;
+import com.bezkoder.springjwt.security.services.BulkUserAccessService;
+import com.bezkoder.springjwt.security.services.UserAccessChangedEvent;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
-@CrossOrigin(origins = "*") // Adjust CORS if needed
 @RestController
 @RequestMapping("/api/admin")
 public class AdminController {
 
+    private static final int MAX_PAGE_SIZE = 200;
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     @Autowired
     private UserRepository userRepository;
 
-    // 🔁 Toggle blacklist status for a user by ID
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Autowired
+    private AuthFailureLog authFailureLog;
+
+    @Autowired
+    private BulkUserAccessService bulkUserAccessService;
+
+    // 🔁 Toggle blacklist status for a user by ID; the user's existing tokens stop working
     @PutMapping("/blacklist/{id}")
     public ResponseEntity<?> toggleBlacklist(@PathVariable Long id) {
         return userRepository.findById(id).map(user -> {
             user.setBlacklisted(!user.isBlacklisted());
+            user.setTokenVersion(user.getTokenVersion() + 1);
             userRepository.save(user);
+            eventPublisher.publishEvent(new UserAccessChangedEvent(List.of(id)));
             return ResponseEntity.ok().body("User " + (user.isBlacklisted() ? "blacklisted" : "unblacklisted"));
         }).orElse(ResponseEntity.notFound().build());
     }
 
-    // 📋 List all users (for admin dashboard)
+    // 🧹 Bulk blacklist / unblacklist by ids or listing filters, chunked set-based updates; returns the counts
+    @PostMapping("/users/blacklist")
+    public ResponseEntity<?> blacklistUsers(@RequestBody BulkUserRequest selection) {
+        return bulkUpdate(selection, () -> bulkUserAccessService.setBlacklisted(selection, true));
+    }
+
+    @PostMapping("/users/unblacklist")
+    public ResponseEntity<?> unblacklistUsers(@RequestBody BulkUserRequest selection) {
+        return bulkUpdate(selection, () -> bulkUserAccessService.setBlacklisted(selection, false));
+    }
+
+    // 🎭 Bulk role changes; role is ROLE_MODERATOR or just moderator
+    @PostMapping("/users/roles/{role}/grant")
+    public ResponseEntity<?> grantRole(@PathVariable String role, @RequestBody BulkUserRequest selection) {
+        ERole parsed = parseRole(role);
+        if (parsed == null) {
+            return ResponseEntity.badRequest().body("Unknown role " + role + ".");
+        }
+        return bulkUpdate(selection, () -> bulkUserAccessService.grantRole(selection, parsed));
+    }
+
+    @PostMapping("/users/roles/{role}/revoke")
+    public ResponseEntity<?> revokeRole(@PathVariable String role, @RequestBody BulkUserRequest selection) {
+        ERole parsed = parseRole(role);
+        if (parsed == null) {
+            return ResponseEntity.badRequest().body("Unknown role " + role + ".");
+        }
+        return bulkUpdate(selection, () -> bulkUserAccessService.revokeRole(selection, parsed));
+    }
+
+    // 📋 List users (for admin dashboard), one keyset page at a time. The body stays a plain array; the
+    // cursor for the next page, if any, comes in X-Next-Cursor and goes back as ?cursor= with the same filters.
     @GetMapping("/users")
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    public ResponseEntity<?> getAllUsers(
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) String email,
+            @RequestParam(required = false) Boolean blacklisted,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body("size must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+        String after;
+        try {
+            after = cursor != null ? new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid cursor.");
+        }
+
+        // One extra row tells whether there is a next page
+        PageRequest limit = PageRequest.of(0, size + 1);
+        boolean byUsername = username != null && !username.isBlank();
+        boolean byEmail = email != null && !email.isBlank();
+        List<AdminUserRow> rows;
+        if (byUsername) {
+            rows = userRepository.findAdminPageByUsername(UserRepository.likePrefix(username),
+                after != null ? after : "", byEmail ? UserRepository.likePrefix(email) : null, blacklisted, limit);
+        } else if (byEmail) {
+            rows = userRepository.findAdminPageByEmail(UserRepository.likePrefix(email), after != null ? after : "",
+                blacklisted, limit);
+        } else {
+            long afterId;
+            try {
+                afterId = after != null ? Long.parseLong(after) : 0L;
+            } catch (NumberFormatException e) {
+                return ResponseEntity.badRequest().body("Invalid cursor.");
+            }
+            rows = userRepository.findAdminPageById(afterId, blacklisted, limit);
+        }
+
+        boolean hasNext = rows.size() > size;
+        List<AdminUserRow> page = hasNext ? rows.subList(0, size) : rows;
+        List<Long> ids = page.stream().map(AdminUserRow::getId).collect(Collectors.toList());
+        List<AdminUserView> users = AdminUserView.of(page, ids.isEmpty() ? List.of() : userRepository.findRoleNames(ids));
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (hasNext) {
+            AdminUserRow last = page.get(page.size() - 1);
+            String key = byUsername ? last.getUsername() : byEmail ? last.getEmail() : String.valueOf(last.getId());
+            response.header(NEXT_CURSOR_HEADER,
+                Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8)));
+        }
+        return response.body(users);
+    }
+
+    // 📈 Password hashing pool: queue depth, rejections, hash latency
+    @GetMapping("/password-hashing")
+    public PasswordHashingExecutor.Stats getPasswordHashingStats() {
+        return passwordHashingExecutor.stats();
+    }
+
+    // 🚫 Rejected tokens and 401s by reason since startup
+    @GetMapping("/auth-failures")
+    public Map<AuthFailureLog.Reason, Long> getAuthFailures() {
+        return authFailureLog.counts();
     }
 
     @GetMapping("/clients")
     // @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<User>> getClients() {
-        return ResponseEntity.ok(userRepository.findAll());
+    public ResponseEntity<?> getClients(
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) String email,
+            @RequestParam(required = false) Boolean blacklisted,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return getAllUsers(username, email, blacklisted, cursor, size);
+    }
+
+    // Either ids or a filter: an empty selection would otherwise mean every user
+    private static ResponseEntity<?> bulkUpdate(BulkUserRequest selection, Supplier<BulkUpdateResponse> update) {
+        if (selection.hasIds() == selection.hasFilter()) {
+            return ResponseEntity.badRequest().body("Give either ids or username/email/blacklisted filters.");
+        }
+        return ResponseEntity.ok(update.get());
+    }
+
+    private static ERole parseRole(String role) {
+        String name = role.toUpperCase(Locale.ROOT);
+        try {
+            return ERole.valueOf(name.startsWith("ROLE_") ? name : "ROLE_" + name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
     }
 }
@@ -8,16 +8,22 @@ import java.util.stream.Collectors;
 import jakarta.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.bezkoder.springjwt.models.ERole;
@@ -25,14 +31,20 @@ import com.bezkoder.springjwt.models.Role;
 import com.bezkoder.springjwt.models.User;
 import com.bezkoder.springjwt.payload.request.LoginRequest;
 import com.bezkoder.springjwt.payload.request.SignupRequest;
+import com.bezkoder.springjwt.payload.request.TokenRefreshRequest;
+import com.bezkoder.springjwt.payload.response.AvailabilityResponse;
 import com.bezkoder.springjwt.payload.response.JwtResponse;
 import com.bezkoder.springjwt.payload.response.MessageResponse;
-import com.bezkoder.springjwt.repository.RoleRepository;
 import com.bezkoder.springjwt.repository.UserRepository;
 import com.bezkoder.springjwt.security.jwt.JwtUtils;
+import com.bezkoder.springjwt.security.jwt.JwtVerifier;
+import com.bezkoder.springjwt.security.password.PasswordHashingBusyException;
+import com.bezkoder.springjwt.security.services.RefreshTokenService;
+import com.bezkoder.springjwt.security.services.RoleCache;
+import com.bezkoder.springjwt.security.services.TokenRevocationList;
+import com.bezkoder.springjwt.security.services.UserAvailability;
 import com.bezkoder.springjwt.security.services.UserDetailsImpl;
 
-@CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
@@ -43,7 +55,10 @@ public class AuthController {
   UserRepository userRepository;
 
   @Autowired
-  RoleRepository roleRepository;
+  RoleCache roleCache;
+
+  @Autowired
+  UserAvailability userAvailability;
 
   @Autowired
   PasswordEncoder encoder;
@@ -51,6 +66,15 @@ public class AuthController {
   @Autowired
   JwtUtils jwtUtils;
 
+  @Autowired
+  RefreshTokenService refreshTokenService;
+
+  @Autowired
+  JwtVerifier jwtVerifier;
+
+  @Autowired
+  TokenRevocationList tokenRevocationList;
+
   @PostMapping("/signin")
   public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
 
@@ -66,21 +90,72 @@ public class AuthController {
         .collect(Collectors.toList());
 
     return ResponseEntity.ok(new JwtResponse(jwt, 
+                         refreshTokenService.issue(userDetails.getId(), userDetails.getTokenVersion()),
                          userDetails.getId(), 
                          userDetails.getUsername(), 
                          userDetails.getEmail(), 
                          roles));
   }
 
+  // New access token for a refresh token, without a password check; the refresh token is replaced
+  @PostMapping("/refresh")
+  public ResponseEntity<?> refreshToken(@Valid @RequestBody TokenRefreshRequest request) {
+    RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.getRefreshToken());
+    if (rotation == null) {
+      return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+          .body(new MessageResponse("Error: Refresh token is invalid or expired"));
+    }
+
+    UserDetailsImpl userDetails = rotation.user();
+    List<String> roles = userDetails.getAuthorities().stream()
+        .map(item -> item.getAuthority())
+        .collect(Collectors.toList());
+
+    return ResponseEntity.ok(new JwtResponse(jwtUtils.generateJwtToken(userDetails),
+                         rotation.refreshToken(),
+                         userDetails.getId(),
+                         userDetails.getUsername(),
+                         userDetails.getEmail(),
+                         roles));
+  }
+
+  // Revokes the presented access token and, when given, the refresh token's family
+  @PostMapping("/signout")
+  public ResponseEntity<?> signout(@RequestHeader(value = "Authorization", required = false) String authorization,
+      @RequestBody(required = false) TokenRefreshRequest request) {
+    if (authorization != null && authorization.startsWith("Bearer ")) {
+      JwtVerifier.VerifiedToken token = jwtVerifier.verify(authorization.substring(7));
+      if (token != null) {
+        tokenRevocationList.revoke(token.tokenId(), token.userId(), token.expiresAtMillis());
+      }
+    }
+    if (request != null && request.getRefreshToken() != null) {
+      refreshTokenService.revoke(request.getRefreshToken());
+    }
+    return ResponseEntity.ok(new MessageResponse("Signed out"));
+  }
+
+  // Live check for the signup form; most free values are answered without a query
+  @GetMapping("/available")
+  public ResponseEntity<?> checkAvailability(@RequestParam(required = false) String username,
+      @RequestParam(required = false) String email) {
+    if (username == null && email == null) {
+      return ResponseEntity.badRequest().body(new MessageResponse("Error: Give a username or an email."));
+    }
+    return ResponseEntity.ok(new AvailabilityResponse(
+        username != null ? userAvailability.isUsernameAvailable(username) : null,
+        email != null ? userAvailability.isEmailAvailable(email) : null));
+  }
+
   @PostMapping("/signup")
   public ResponseEntity<?> registerUser(@Valid @RequestBody SignupRequest signUpRequest) {
-    if (userRepository.existsByUsername(signUpRequest.getUsername())) {
+    if (!userAvailability.isUsernameAvailable(signUpRequest.getUsername())) {
       return ResponseEntity
           .badRequest()
           .body(new MessageResponse("Error: Username is already taken!"));
     }
 
-    if (userRepository.existsByEmail(signUpRequest.getEmail())) {
+    if (!userAvailability.isEmailAvailable(signUpRequest.getEmail())) {
       return ResponseEntity
           .badRequest()
           .body(new MessageResponse("Error: Email is already in use!"));
@@ -95,35 +170,44 @@ public class AuthController {
     Set<Role> roles = new HashSet<>();
 
     if (strRoles == null) {
-      Role userRole = roleRepository.findByName(ERole.ROLE_USER)
-          .orElseThrow(() -> new RuntimeException("Error: Role is not found."));
-      roles.add(userRole);
+      roles.add(roleCache.get(ERole.ROLE_USER));
     } else {
       strRoles.forEach(role -> {
         switch (role) {
         case "admin":
-          Role adminRole = roleRepository.findByName(ERole.ROLE_ADMIN)
-              .orElseThrow(() -> new RuntimeException("Error: Role is not found."));
-          roles.add(adminRole);
+          roles.add(roleCache.get(ERole.ROLE_ADMIN));
 
           break;
         case "mod":
-          Role modRole = roleRepository.findByName(ERole.ROLE_MODERATOR)
-              .orElseThrow(() -> new RuntimeException("Error: Role is not found."));
-          roles.add(modRole);
+          roles.add(roleCache.get(ERole.ROLE_MODERATOR));
 
           break;
         default:
-          Role userRole = roleRepository.findByName(ERole.ROLE_USER)
-              .orElseThrow(() -> new RuntimeException("Error: Role is not found."));
-          roles.add(userRole);
+          roles.add(roleCache.get(ERole.ROLE_USER));
         }
       });
     }
 
     user.setRoles(roles);
-    userRepository.save(user);
+    try {
+      userRepository.save(user);
+    } catch (DataIntegrityViolationException e) {
+      // Taken since the check: a concurrent signup, or a user the filters have not seen yet
+      return ResponseEntity
+          .badRequest()
+          .body(new MessageResponse(userRepository.existsByUsername(signUpRequest.getUsername())
+              ? "Error: Username is already taken!" : "Error: Email is already in use!"));
+    }
+    userAvailability.add(user.getUsername(), user.getEmail());
 
     return ResponseEntity.ok(new MessageResponse("User registered successfully!"));
   }
+
+  // The password hashing pool is full: refuse quickly rather than queue behind the burst
+  @ExceptionHandler(PasswordHashingBusyException.class)
+  public ResponseEntity<MessageResponse> passwordHashingBusy(PasswordHashingBusyException e) {
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(new MessageResponse("Error: " + e.getMessage()));
+  }
 }
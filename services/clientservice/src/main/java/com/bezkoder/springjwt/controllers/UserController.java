@@ -1,6 +1,7 @@
 package com.bezkoder.springjwt.controllers;
 
 import com.bezkoder.springjwt.models.User;
+import com.bezkoder.springjwt.payload.response.UserSummary;
 import com.bezkoder.springjwt.repository.UserRepository;
 import com.bezkoder.springjwt.security.services.UserDetailsImpl;
 
@@ -28,6 +29,17 @@ public class UserController {
 
     }
 
+    // For bankingservice, on every banking request: one projection query, no entities loaded
+    @GetMapping("/summary")
+    public ResponseEntity<?> getCurrentUserSummary(@AuthenticationPrincipal UserDetailsImpl userDetails) {
+        if (userDetails == null) {
+            return ResponseEntity.status(401).body("Unauthorized");
+        }
+
+        UserSummary summary = UserSummary.of(userRepository.findSummaryRowsById(userDetails.getId()));
+        return summary != null ? ResponseEntity.ok(summary) : ResponseEntity.status(404).body("User not found");
+    }
+
     @GetMapping("/profile")
     public ResponseEntity<?> getProfile(@AuthenticationPrincipal UserDetailsImpl userDetails) {
         if (userDetails == null) {
@@ -0,0 +1,68 @@
+package com.bezkoder.springjwt.grpc;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import io.grpc.Server;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+
+/**
+ * Runs the gRPC server next to Tomcat on {@code grpc.server.port}, started and stopped with the
+ * application context.
+ */
+@Component
+public class GrpcServerLifecycle implements SmartLifecycle {
+  private static final Logger logger = LoggerFactory.getLogger(GrpcServerLifecycle.class);
+
+  @Value("${grpc.server.port:9091}")
+  private int port;
+
+  @Autowired
+  private UserValidationGrpcService userValidationService;
+
+  private volatile Server server;
+
+  @Override
+  public void start() {
+    try {
+      server = NettyServerBuilder.forPort(port)
+          .addService(userValidationService)
+          .build()
+          .start();
+      logger.info("gRPC server started on port {}", server.getPort());
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not start gRPC server on port " + port, e);
+    }
+  }
+
+  @Override
+  public void stop() {
+    Server current = server;
+    if (current == null) {
+      return;
+    }
+    current.shutdown();
+    try {
+      if (!current.awaitTermination(5, TimeUnit.SECONDS)) {
+        current.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      current.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+    server = null;
+  }
+
+  @Override
+  public boolean isRunning() {
+    return server != null;
+  }
+}
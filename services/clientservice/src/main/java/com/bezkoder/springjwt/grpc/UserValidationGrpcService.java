@@ -0,0 +1,86 @@
+package com.bezkoder.springjwt.grpc;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.bezkoder.springjwt.payload.response.UserSummary;
+import com.bezkoder.springjwt.repository.UserRepository;
+import com.bezkoder.springjwt.security.jwt.JwtVerifier;
+import com.bezkoder.springjwt.security.services.TokenRevocationList;
+import com.bezkoder.springjwt.security.services.UserTokenVersions;
+import com.example.microbank.grpc.user.UserValidationGrpc;
+import com.example.microbank.grpc.user.ValidateTokenRequest;
+import com.example.microbank.grpc.user.ValidateTokenResponse;
+
+import io.grpc.stub.StreamObserver;
+
+/**
+ * gRPC counterpart of /api/user/me for bankingservice: answers only with the user id, the
+ * blacklisted flag and the admin role, over a single multiplexed HTTP/2 connection.
+ */
+@Component
+public class UserValidationGrpcService extends UserValidationGrpc.UserValidationImplBase {
+  @Autowired
+  private JwtVerifier jwtVerifier;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private UserTokenVersions userTokenVersions;
+
+  @Autowired
+  private TokenRevocationList tokenRevocationList;
+
+  @Override
+  public void validateToken(ValidateTokenRequest request, StreamObserver<ValidateTokenResponse> responseObserver) {
+    responseObserver.onNext(validate(request));
+    responseObserver.onCompleted();
+  }
+
+  @Override
+  public StreamObserver<ValidateTokenRequest> validateTokens(StreamObserver<ValidateTokenResponse> responseObserver) {
+    return new StreamObserver<>() {
+      @Override
+      public void onNext(ValidateTokenRequest request) {
+        responseObserver.onNext(validate(request));
+      }
+
+      @Override
+      public void onError(Throwable t) {
+        // Client cancelled or the stream broke; nothing to clean up
+      }
+
+      @Override
+      public void onCompleted() {
+        responseObserver.onCompleted();
+      }
+    };
+  }
+
+  private ValidateTokenResponse validate(ValidateTokenRequest request) {
+    ValidateTokenResponse.Builder response = ValidateTokenResponse.newBuilder()
+        .setRequestId(request.getRequestId());
+
+    String jwt = request.getToken();
+    if (jwt.startsWith("Bearer ")) {
+      jwt = jwt.substring(7);
+    }
+    JwtVerifier.VerifiedToken token = jwtVerifier.verify(jwt);
+    if (token == null || !userTokenVersions.isCurrent(token) || tokenRevocationList.isRevoked(token.tokenId())) {
+      return response.setValid(false).build();
+    }
+
+    UserSummary user = UserSummary.of(token.userId() != null
+        ? userRepository.findSummaryRowsById(token.userId())
+        : userRepository.findSummaryRowsByUsername(token.username()));
+    if (user == null) {
+      return response.setValid(false).build();
+    }
+    return response.setValid(true)
+        .setUserId(user.id())
+        .setBlacklisted(user.blacklisted())
+        .setAdmin(user.isAdmin())
+        .build();
+  }
+}
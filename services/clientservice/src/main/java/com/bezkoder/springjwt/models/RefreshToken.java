@@ -0,0 +1,82 @@
+package com.bezkoder.springjwt.models;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "refresh_tokens")
+public class RefreshToken {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "user_id", nullable = false)
+  private Long userId;
+
+  // SHA-256 of the token, base64url; the token itself is only ever known to the client
+  @Column(name = "token_hash", nullable = false, length = 64)
+  private String tokenHash;
+
+  // All tokens descending from one signin
+  @Column(nullable = false, length = 36)
+  private String family;
+
+  // users.token_version at signin; carried over to every rotation of the family
+  @Column(name = "token_version", nullable = false)
+  private int tokenVersion;
+
+  @Column(name = "expires_at", nullable = false)
+  private LocalDateTime expiresAt;
+
+  @Column(name = "used_at")
+  private LocalDateTime usedAt;
+
+  @Column(name = "created_at", nullable = false)
+  private LocalDateTime createdAt;
+
+  public RefreshToken() {
+  }
+
+  public RefreshToken(Long userId, String tokenHash, String family, int tokenVersion, LocalDateTime createdAt,
+      LocalDateTime expiresAt) {
+    this.userId = userId;
+    this.tokenHash = tokenHash;
+    this.family = family;
+    this.tokenVersion = tokenVersion;
+    this.createdAt = createdAt;
+    this.expiresAt = expiresAt;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public Long getUserId() {
+    return userId;
+  }
+
+  public String getTokenHash() {
+    return tokenHash;
+  }
+
+  public String getFamily() {
+    return family;
+  }
+
+  public int getTokenVersion() {
+    return tokenVersion;
+  }
+
+  public LocalDateTime getExpiresAt() {
+    return expiresAt;
+  }
+
+  public LocalDateTime getUsedAt() {
+    return usedAt;
+  }
+
+  public LocalDateTime getCreatedAt() {
+    return createdAt;
+  }
+}
@@ -0,0 +1,49 @@
+package com.bezkoder.springjwt.models;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "revoked_tokens")
+public class RevokedToken {
+  // The jti claim of the revoked access token
+  @Id
+  @Column(name = "token_id", length = 36)
+  private String tokenId;
+
+  @Column(name = "user_id")
+  private Long userId;
+
+  @Column(name = "expires_at", nullable = false)
+  private LocalDateTime expiresAt;
+
+  @Column(name = "revoked_at", nullable = false)
+  private LocalDateTime revokedAt;
+
+  public RevokedToken() {
+  }
+
+  public RevokedToken(String tokenId, Long userId, LocalDateTime expiresAt, LocalDateTime revokedAt) {
+    this.tokenId = tokenId;
+    this.userId = userId;
+    this.expiresAt = expiresAt;
+    this.revokedAt = revokedAt;
+  }
+
+  public String getTokenId() {
+    return tokenId;
+  }
+
+  public Long getUserId() {
+    return userId;
+  }
+
+  public LocalDateTime getExpiresAt() {
+    return expiresAt;
+  }
+
+  public LocalDateTime getRevokedAt() {
+    return revokedAt;
+  }
+}
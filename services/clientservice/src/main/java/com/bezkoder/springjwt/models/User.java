@@ -3,6 +3,8 @@ package com.bezkoder.springjwt.models;
 import java.util.HashSet;
 import java.util.Set;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -30,11 +32,16 @@ public class User {
 
   @NotBlank
   @Size(max = 120)
+  @JsonIgnore
   private String password;
 
   @Column(nullable = false)
   private boolean isBlacklisted = false; // <-- Add this field
 
+  // Carried in the JWT "ver" claim; see UserTokenVersions
+  @Column(nullable = false)
+  private int tokenVersion = 0;
+
   @ManyToMany(fetch = FetchType.LAZY)
   @JoinTable(  name = "user_roles", 
         joinColumns = @JoinColumn(name = "user_id"), 
@@ -97,4 +104,12 @@ public class User {
   public void setBlacklisted(boolean isBlacklisted) {
     this.isBlacklisted = isBlacklisted;
   }
+
+  public int getTokenVersion() {
+    return tokenVersion;
+  }
+
+  public void setTokenVersion(int tokenVersion) {
+    this.tokenVersion = tokenVersion;
+  }
 }
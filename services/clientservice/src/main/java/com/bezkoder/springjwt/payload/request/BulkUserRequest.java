@@ -0,0 +1,57 @@
+package com.bezkoder.springjwt.payload.request;
+
+import java.util.List;
+
+/**
+ * The users a bulk admin update applies to: either explicit {@code ids}, or the filters of the
+ * admin listing ({@code username} and {@code email} prefixes, {@code blacklisted} flag).
+ */
+public class BulkUserRequest {
+  private List<Long> ids;
+
+  private String username;
+
+  private String email;
+
+  private Boolean blacklisted;
+
+  public List<Long> getIds() {
+    return ids;
+  }
+
+  public void setIds(List<Long> ids) {
+    this.ids = ids;
+  }
+
+  public String getUsername() {
+    return username;
+  }
+
+  public void setUsername(String username) {
+    this.username = username;
+  }
+
+  public String getEmail() {
+    return email;
+  }
+
+  public void setEmail(String email) {
+    this.email = email;
+  }
+
+  public Boolean getBlacklisted() {
+    return blacklisted;
+  }
+
+  public void setBlacklisted(Boolean blacklisted) {
+    this.blacklisted = blacklisted;
+  }
+
+  public boolean hasIds() {
+    return ids != null && !ids.isEmpty();
+  }
+
+  public boolean hasFilter() {
+    return (username != null && !username.isBlank()) || (email != null && !email.isBlank()) || blacklisted != null;
+  }
+}
@@ -0,0 +1,27 @@
+package com.bezkoder.springjwt.payload.response;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.bezkoder.springjwt.repository.UserRepository.AdminUserRow;
+import com.bezkoder.springjwt.repository.UserRepository.UserRoleName;
+
+/** One row of the admin user listing; the password hash and token version stay out. */
+public record AdminUserView(Long id, String username, String email, boolean blacklisted, List<String> roles) {
+
+  // Joins a page of users with the roles fetched for the whole page, keeping the page order
+  public static List<AdminUserView> of(List<AdminUserRow> rows, List<UserRoleName> roleNames) {
+    Map<Long, List<String>> rolesByUser = new HashMap<>();
+    for (UserRoleName roleName : roleNames) {
+      rolesByUser.computeIfAbsent(roleName.getUserId(), id -> new ArrayList<>()).add(roleName.getRole().name());
+    }
+    List<AdminUserView> views = new ArrayList<>(rows.size());
+    for (AdminUserRow row : rows) {
+      views.add(new AdminUserView(row.getId(), row.getUsername(), row.getEmail(),
+          Boolean.TRUE.equals(row.getBlacklisted()), rolesByUser.getOrDefault(row.getId(), List.of())));
+    }
+    return views;
+  }
+}
@@ -0,0 +1,8 @@
+package com.bezkoder.springjwt.payload.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/** Whether the username and email asked about are free; a value that was not asked about is left out. */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record AvailabilityResponse(Boolean username, Boolean email) {
+}
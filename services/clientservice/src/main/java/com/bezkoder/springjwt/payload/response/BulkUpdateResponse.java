@@ -0,0 +1,5 @@
+package com.bezkoder.springjwt.payload.response;
+
+/** Outcome of a bulk admin update: users selected, and those actually changed by it. */
+public record BulkUpdateResponse(int matched, int updated) {
+}
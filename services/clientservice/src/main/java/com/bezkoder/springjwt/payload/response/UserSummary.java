@@ -0,0 +1,34 @@
+package com.bezkoder.springjwt.payload.response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.bezkoder.springjwt.repository.UserRepository.UserRoleRow;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * What other services need to know about the caller (/api/user/summary and the gRPC
+ * validation): no email, no password hash, role names only.
+ */
+public record UserSummary(Long id, String username, boolean blacklisted, List<String> roles) {
+
+  // One row per role, or a single row with a null role; null when there are no rows
+  public static UserSummary of(List<UserRoleRow> rows) {
+    if (rows.isEmpty()) {
+      return null;
+    }
+    UserRoleRow first = rows.get(0);
+    List<String> roles = new ArrayList<>(rows.size());
+    for (UserRoleRow row : rows) {
+      if (row.getRole() != null) {
+        roles.add(row.getRole().name());
+      }
+    }
+    return new UserSummary(first.getId(), first.getUsername(), Boolean.TRUE.equals(first.getBlacklisted()), roles);
+  }
+
+  @JsonIgnore
+  public boolean isAdmin() {
+    return roles.contains("ROLE_ADMIN");
+  }
+}
@@ -0,0 +1,40 @@
+package com.bezkoder.springjwt.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bezkoder.springjwt.models.RefreshToken;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+  Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+  // Claims the token for one rotation; 0 rows when another request already used it
+  @Transactional
+  @Modifying
+  @Query("update RefreshToken t set t.usedAt = :now where t.id = :id and t.usedAt is null")
+  int markUsed(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+  @Transactional
+  @Modifying
+  @Query("delete from RefreshToken t where t.family = :family")
+  int deleteFamily(@Param("family") String family);
+
+  @Transactional
+  @Modifying
+  @Query("delete from RefreshToken t where t.userId in :userIds")
+  int deleteByUserIds(@Param("userIds") Collection<Long> userIds);
+
+  @Transactional
+  @Modifying
+  @Query("delete from RefreshToken t where t.expiresAt < :now")
+  int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,32 @@
+package com.bezkoder.springjwt.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bezkoder.springjwt.models.RevokedToken;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+  // Startup load of the revocation list
+  @Query("select t.tokenId as tokenId, t.expiresAt as expiresAt from RevokedToken t where t.expiresAt > :now")
+  List<Revocation> findUnexpired(@Param("now") LocalDateTime now);
+
+  @Transactional
+  @Modifying
+  @Query("delete from RevokedToken t where t.expiresAt <= :now")
+  int deleteExpired(@Param("now") LocalDateTime now);
+
+  interface Revocation {
+    String getTokenId();
+
+    LocalDateTime getExpiresAt();
+  }
+}
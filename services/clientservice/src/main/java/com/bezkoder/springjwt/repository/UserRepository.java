@@ -1,10 +1,18 @@
 package com.bezkoder.springjwt.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.bezkoder.springjwt.models.ERole;
 import com.bezkoder.springjwt.models.User;
 
 @Repository
@@ -14,4 +22,123 @@ public interface UserRepository extends JpaRepository<User, Long> {
   Boolean existsByUsername(String username);
 
   Boolean existsByEmail(String email);
+
+  // Rehash on login: stores the same password hashed at the current BCrypt cost
+  @Transactional
+  @Modifying
+  @Query("update User u set u.password = :password where u.id = :id")
+  int updatePassword(@Param("id") Long id, @Param("password") String password);
+
+  // Users whose tokens were revoked at least once; everyone else is still at version 0
+  @Query("select u.id as id, u.tokenVersion as tokenVersion from User u where u.tokenVersion > 0")
+  List<TokenVersion> findRevokedTokenVersions();
+
+  @Query("select u.id as id, u.tokenVersion as tokenVersion from User u where u.id in :ids")
+  List<TokenVersion> findTokenVersions(@Param("ids") Collection<Long> ids);
+
+  // UserSummary in one query: plain columns, no User or Role entities, one row per role
+  @Query("select u.id as id, u.username as username, u.isBlacklisted as blacklisted, r.name as role"
+      + " from User u left join u.roles r where u.id = :id")
+  List<UserRoleRow> findSummaryRowsById(@Param("id") Long id);
+
+  @Query("select u.id as id, u.username as username, u.isBlacklisted as blacklisted, r.name as role"
+      + " from User u left join u.roles r where u.username = :username")
+  List<UserRoleRow> findSummaryRowsByUsername(@Param("username") String username);
+
+  // Admin listing, one keyset page at a time: rows after the cursor in index order, limited by the
+  // Pageable (page 0), no count query. Prefixes come escaped with '!', with the trailing '%' already added.
+  @Query("select u.id as id, u.username as username, u.email as email, u.isBlacklisted as blacklisted from User u"
+      + " where u.id > :afterId and (:blacklisted is null or u.isBlacklisted = :blacklisted) order by u.id")
+  List<AdminUserRow> findAdminPageById(@Param("afterId") long afterId, @Param("blacklisted") Boolean blacklisted,
+      Pageable limit);
+
+  @Query("select u.id as id, u.username as username, u.email as email, u.isBlacklisted as blacklisted from User u"
+      + " where u.username like :usernamePrefix escape '!' and u.username > :afterUsername"
+      + " and (:emailPrefix is null or u.email like :emailPrefix escape '!')"
+      + " and (:blacklisted is null or u.isBlacklisted = :blacklisted) order by u.username")
+  List<AdminUserRow> findAdminPageByUsername(@Param("usernamePrefix") String usernamePrefix,
+      @Param("afterUsername") String afterUsername, @Param("emailPrefix") String emailPrefix,
+      @Param("blacklisted") Boolean blacklisted, Pageable limit);
+
+  @Query("select u.id as id, u.username as username, u.email as email, u.isBlacklisted as blacklisted from User u"
+      + " where u.email like :emailPrefix escape '!' and u.email > :afterEmail"
+      + " and (:blacklisted is null or u.isBlacklisted = :blacklisted) order by u.email")
+  List<AdminUserRow> findAdminPageByEmail(@Param("emailPrefix") String emailPrefix,
+      @Param("afterEmail") String afterEmail, @Param("blacklisted") Boolean blacklisted, Pageable limit);
+
+  // Roles of a whole page in one query
+  @Query("select u.id as userId, r.name as role from User u join u.roles r where u.id in :ids")
+  List<UserRoleName> findRoleNames(@Param("ids") Collection<Long> ids);
+
+  // Bulk admin updates work on chunks of ids. A filter sweep walks the matching ids in keyset order.
+  @Query("select u.id from User u where u.id > :afterId"
+      + " and (:usernamePrefix is null or u.username like :usernamePrefix escape '!')"
+      + " and (:emailPrefix is null or u.email like :emailPrefix escape '!')"
+      + " and (:blacklisted is null or u.isBlacklisted = :blacklisted) order by u.id")
+  List<Long> findIdsAfter(@Param("afterId") long afterId, @Param("usernamePrefix") String usernamePrefix,
+      @Param("emailPrefix") String emailPrefix, @Param("blacklisted") Boolean blacklisted, Pageable limit);
+
+  // The ids of a chunk whose flag differs, i.e. the users an update to it would change
+  @Query("select u.id from User u where u.id in :ids and u.isBlacklisted <> :blacklisted")
+  List<Long> findIdsWithBlacklistedNot(@Param("ids") Collection<Long> ids, @Param("blacklisted") boolean blacklisted);
+
+  // Sets the flag and bumps the token version, so the users' existing tokens stop working
+  @Modifying
+  @Query("update User u set u.isBlacklisted = :blacklisted, u.tokenVersion = u.tokenVersion + 1 where u.id in :ids")
+  int updateBlacklisted(@Param("ids") Collection<Long> ids, @Param("blacklisted") boolean blacklisted);
+
+  @Modifying
+  @Query("update User u set u.tokenVersion = u.tokenVersion + 1 where u.id in :ids")
+  int incrementTokenVersions(@Param("ids") Collection<Long> ids);
+
+  // user_roles is the join table of User.roles, which JPQL cannot insert into: these go native
+  @Query(value = "select ur.user_id from user_roles ur where ur.role_id = :roleId and ur.user_id in (:ids)",
+      nativeQuery = true)
+  List<Long> findIdsWithRole(@Param("ids") Collection<Long> ids, @Param("roleId") Integer roleId);
+
+  @Modifying
+  @Query(value = "insert into user_roles (user_id, role_id) select u.id, :roleId from users u where u.id in (:ids)",
+      nativeQuery = true)
+  int insertRole(@Param("ids") Collection<Long> ids, @Param("roleId") Integer roleId);
+
+  @Modifying
+  @Query(value = "delete from user_roles where role_id = :roleId and user_id in (:ids)", nativeQuery = true)
+  int deleteRole(@Param("ids") Collection<Long> ids, @Param("roleId") Integer roleId);
+
+  // LIKE pattern matching values that start with prefix, wildcards in it taken literally (escape '!')
+  static String likePrefix(String prefix) {
+    return prefix.trim().replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+  }
+
+  interface AdminUserRow {
+    Long getId();
+
+    String getUsername();
+
+    String getEmail();
+
+    Boolean getBlacklisted();
+  }
+
+  interface UserRoleName {
+    Long getUserId();
+
+    ERole getRole();
+  }
+
+  interface UserRoleRow {
+    Long getId();
+
+    String getUsername();
+
+    Boolean getBlacklisted();
+
+    ERole getRole();
+  }
+
+  interface TokenVersion {
+    Long getId();
+
+    int getTokenVersion();
+  }
 }
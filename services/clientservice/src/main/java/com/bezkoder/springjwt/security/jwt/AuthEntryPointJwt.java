@@ -1,43 +1,66 @@
 package com.bezkoder.springjwt.security.jwt;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
 
 import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.stereotype.Component;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
 
+/**
+ * Writes the 401 body {"status", "error", "message", "path"} from bytes prepared once per
+ * message; only the request path is escaped per request, so no ObjectMapper or Map is built.
+ */
 @Component
 public class AuthEntryPointJwt implements AuthenticationEntryPoint {
+  private static final byte[] SUFFIX = "\"}".getBytes(StandardCharsets.UTF_8);
+  private static final int MAX_PREFIXES = 64;
 
-  private static final Logger logger = LoggerFactory.getLogger(AuthEntryPointJwt.class);
+  @Autowired
+  private AuthFailureLog authFailureLog;
+
+  // The messages come from a handful of exception types, so this stays small
+  private final ConcurrentHashMap<String, byte[]> prefixes = new ConcurrentHashMap<>();
 
   @Override
   public void commence(HttpServletRequest request, HttpServletResponse response, AuthenticationException authException)
       throws IOException, ServletException {
-    logger.error("Unauthorized error: {}", authException.getMessage());
+    String path = request.getServletPath();
+    authFailureLog.record(AuthFailureLog.Reason.UNAUTHORIZED, authException.getMessage() + " " + path);
+
+    byte[] prefix = prefix(authException.getMessage());
+    byte[] escapedPath = JsonStringEncoder.getInstance().quoteAsUTF8(path);
 
     response.setContentType(MediaType.APPLICATION_JSON_VALUE);
     response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-
-    final Map<String, Object> body = new HashMap<>();
-    body.put("status", HttpServletResponse.SC_UNAUTHORIZED);
-    body.put("error", "Unauthorized");
-    body.put("message", authException.getMessage());
-    body.put("path", request.getServletPath());
-
-    final ObjectMapper mapper = new ObjectMapper();
-    mapper.writeValue(response.getOutputStream(), body);
+    response.setContentLength(prefix.length + escapedPath.length + SUFFIX.length);
+    ServletOutputStream out = response.getOutputStream();
+    out.write(prefix);
+    out.write(escapedPath);
+    out.write(SUFFIX);
   }
 
+  private byte[] prefix(String message) {
+    String key = message != null ? message : "";
+    byte[] prefix = prefixes.get(key);
+    if (prefix == null) {
+      prefix = ("{\"status\":" + HttpServletResponse.SC_UNAUTHORIZED + ",\"error\":\"Unauthorized\",\"message\":"
+          + (message != null ? "\"" + new String(JsonStringEncoder.getInstance().quoteAsString(message)) + "\"" : "null")
+          + ",\"path\":\"").getBytes(StandardCharsets.UTF_8);
+      if (prefixes.size() < MAX_PREFIXES) {
+        prefixes.put(key, prefix);
+      }
+    }
+    return prefix;
+  }
 }
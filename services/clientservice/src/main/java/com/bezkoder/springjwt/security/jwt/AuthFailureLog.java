@@ -0,0 +1,70 @@
+package com.bezkoder.springjwt.security.jwt;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts rejected tokens and requests by reason and logs at most one line per reason per
+ * interval, with the number of rejections left out since the previous line. A flood of bad or
+ * expired tokens then costs a counter increment per request instead of a log write. Only
+ * unexpected errors carry a stack trace.
+ */
+@Component
+public class AuthFailureLog {
+  private static final Logger logger = LoggerFactory.getLogger(AuthFailureLog.class);
+
+  public enum Reason {
+    MALFORMED, EXPIRED, UNSUPPORTED, BAD_SIGNATURE, EMPTY, STALE_VERSION, UNKNOWN_USER, ERROR, UNAUTHORIZED,
+    BAD_REFRESH_TOKEN, REFRESH_TOKEN_REUSED, REVOKED
+  }
+
+  @Value("${bezkoder.app.authFailureLogIntervalMs:10000}")
+  private long intervalMs = 10000;
+
+  // Filled once here and only read afterwards, so the maps themselves need no locking
+  private final Map<Reason, LongAdder> counts = new EnumMap<>(Reason.class);
+  private final Map<Reason, LongAdder> suppressed = new EnumMap<>(Reason.class);
+  private final Map<Reason, AtomicLong> nextLogAt = new EnumMap<>(Reason.class);
+
+  public AuthFailureLog() {
+    for (Reason reason : Reason.values()) {
+      counts.put(reason, new LongAdder());
+      suppressed.put(reason, new LongAdder());
+      nextLogAt.put(reason, new AtomicLong());
+    }
+  }
+
+  public void record(Reason reason, String detail) {
+    record(reason, detail, null);
+  }
+
+  public void record(Reason reason, String detail, Throwable error) {
+    counts.get(reason).increment();
+    long now = System.currentTimeMillis();
+    AtomicLong next = nextLogAt.get(reason);
+    long due = next.get();
+    if (now < due || !next.compareAndSet(due, now + intervalMs)) {
+      suppressed.get(reason).increment();
+      return;
+    }
+    long skipped = suppressed.get(reason).sumThenReset();
+    if (error != null) {
+      logger.error("Authentication failed ({}): {} [{} more since last report]", reason, detail, skipped, error);
+    } else {
+      logger.warn("Authentication failed ({}): {} [{} more since last report]", reason, detail, skipped);
+    }
+  }
+
+  public Map<Reason, Long> counts() {
+    Map<Reason, Long> snapshot = new EnumMap<>(Reason.class);
+    counts.forEach((reason, count) -> snapshot.put(reason, count.sum()));
+    return snapshot;
+  }
+}
@@ -7,36 +7,55 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.bezkoder.springjwt.security.services.UserDetailsImpl;
+import com.bezkoder.springjwt.security.services.TokenRevocationList;
 import com.bezkoder.springjwt.security.services.UserDetailsServiceImpl;
+import com.bezkoder.springjwt.security.services.UserTokenVersions;
 
 public class AuthTokenFilter extends OncePerRequestFilter {
   @Autowired
-  private JwtUtils jwtUtils;
+  private JwtVerifier jwtVerifier;
 
   @Autowired
   private UserDetailsServiceImpl userDetailsService;
 
-  private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
+  @Autowired
+  private UserTokenVersions userTokenVersions;
+
+  // "claims" builds the principal from the token; "database" loads it through the user cache
+  @Value("${bezkoder.app.principalSource:claims}")
+  private String principalSource;
+
+  @Autowired
+  private AuthFailureLog authFailureLog;
+
+  @Autowired
+  private TokenRevocationList tokenRevocationList;
 
   @Override
   protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
       throws ServletException, IOException {
     try {
       String jwt = parseJwt(request);
-      if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-        String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
-        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+      JwtVerifier.VerifiedToken token = jwt != null ? jwtVerifier.verify(jwt) : null;
+      if (token != null && !userTokenVersions.isCurrent(token)) {
+        authFailureLog.record(AuthFailureLog.Reason.STALE_VERSION, token.username());
+      } else if (token != null && tokenRevocationList.isRevoked(token.tokenId())) {
+        authFailureLog.record(AuthFailureLog.Reason.REVOKED, token.username());
+      } else if (token != null) {
+        UserDetails userDetails = "claims".equals(principalSource) && token.userId() != null
+            ? UserDetailsImpl.fromToken(token)
+            : userDetailsService.loadCachedUserByUsername(token.username());
         UsernamePasswordAuthenticationToken authentication =
             new UsernamePasswordAuthenticationToken(
                 userDetails,
@@ -46,8 +65,10 @@ public class AuthTokenFilter extends OncePerRequestFilter {
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
       }
+    } catch (UsernameNotFoundException e) {
+      authFailureLog.record(AuthFailureLog.Reason.UNKNOWN_USER, e.getMessage());
     } catch (Exception e) {
-      logger.error("Cannot set user authentication: {}", e);
+      authFailureLog.record(AuthFailureLog.Reason.ERROR, "Cannot set user authentication", e);
     }
 
     filterChain.doFilter(request, response);
@@ -0,0 +1,153 @@
+package com.bezkoder.springjwt.security.jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.SignatureException;
+
+/**
+ * Verifies a token once per request: one immutable, thread-safe parser built at startup checks the
+ * signature and expiry and yields the claims in a single pass. Tokens verified recently are kept
+ * in a bounded cache keyed by their SHA-256 digest (the token itself is never stored) until they
+ * expire, so a client sending the same token again skips the HMAC and the JSON parsing. Expired
+ * and badly signed tokens are remembered the same way, so a client retrying one is turned away
+ * without parsing it again.
+ */
+@Component
+public class JwtVerifier {
+  @Autowired
+  private JwtUtils jwtUtils;
+
+  @Autowired
+  private AuthFailureLog authFailureLog;
+
+  @Value("${bezkoder.app.jwtCacheSize:10000}")
+  private int cacheSize;
+
+  private JwtParser parser;
+  private final ConcurrentHashMap<String, VerifiedToken> cache = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, AuthFailureLog.Reason> rejected = new ConcurrentHashMap<>();
+
+  @PostConstruct
+  void buildParser() {
+    parser = Jwts.parserBuilder().setSigningKey(jwtUtils.key()).build();
+  }
+
+  /** The token's claims, or null when it is malformed, badly signed or expired. */
+  public VerifiedToken verify(String token) {
+    if (token == null || token.isEmpty()) {
+      authFailureLog.record(AuthFailureLog.Reason.EMPTY, "no token");
+      return null;
+    }
+    long now = System.currentTimeMillis();
+    String digest = digest(token);
+    VerifiedToken cached = cache.get(digest);
+    if (cached != null) {
+      if (cached.isValidAt(now)) {
+        return cached;
+      }
+      cache.remove(digest, cached);
+    }
+    AuthFailureLog.Reason known = rejected.get(digest);
+    if (known != null) {
+      authFailureLog.record(known, "token rejected before");
+      return null;
+    }
+
+    VerifiedToken verified = parse(token, digest);
+    if (verified != null && verified.isValidAt(now)) {
+      remember(digest, verified, now);
+    }
+    return verified;
+  }
+
+  private VerifiedToken parse(String token, String digest) {
+    try {
+      return VerifiedToken.of(parser.parseClaimsJws(token).getBody());
+    } catch (MalformedJwtException e) {
+      authFailureLog.record(AuthFailureLog.Reason.MALFORMED, e.getMessage());
+    } catch (ExpiredJwtException e) {
+      authFailureLog.record(AuthFailureLog.Reason.EXPIRED, e.getMessage());
+      reject(digest, AuthFailureLog.Reason.EXPIRED);
+    } catch (UnsupportedJwtException e) {
+      authFailureLog.record(AuthFailureLog.Reason.UNSUPPORTED, e.getMessage());
+    } catch (SignatureException e) {
+      authFailureLog.record(AuthFailureLog.Reason.BAD_SIGNATURE, e.getMessage());
+      reject(digest, AuthFailureLog.Reason.BAD_SIGNATURE);
+    } catch (IllegalArgumentException e) {
+      authFailureLog.record(AuthFailureLog.Reason.EMPTY, e.getMessage());
+    }
+    return null;
+  }
+
+  // Expired and badly signed tokens never become valid; cleared wholesale when full
+  private void reject(String digest, AuthFailureLog.Reason reason) {
+    if (rejected.size() >= cacheSize) {
+      rejected.clear();
+    }
+    rejected.put(digest, reason);
+  }
+
+  // When full, expired entries go first, then arbitrary ones down to three quarters of the size
+  private void remember(String digest, VerifiedToken verified, long now) {
+    if (cache.size() >= cacheSize) {
+      cache.values().removeIf(entry -> !entry.isValidAt(now));
+      Iterator<String> keys = cache.keySet().iterator();
+      while (cache.size() > cacheSize * 3 / 4 && keys.hasNext()) {
+        keys.next();
+        keys.remove();
+      }
+    }
+    cache.put(digest, verified);
+  }
+
+  private static String digest(String token) {
+    try {
+      byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+      return Base64.getEncoder().encodeToString(hash);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  /**
+   * What a request needs from a verified token. tokenId and userId are null, roles empty and
+   * version 0 for tokens issued before they carried those claims.
+   */
+  public record VerifiedToken(String username, String tokenId, Long userId, List<String> roles, int version,
+      long expiresAtMillis) {
+
+    static VerifiedToken of(Claims claims) {
+      long expiresAt = claims.getExpiration() != null ? claims.getExpiration().getTime() : Long.MAX_VALUE;
+      List<?> roles = claims.get(JwtUtils.ROLES_CLAIM, List.class);
+      Integer version = claims.get(JwtUtils.VERSION_CLAIM, Integer.class);
+      return new VerifiedToken(claims.getSubject(),
+          claims.getId(),
+          claims.get(JwtUtils.USER_ID_CLAIM, Long.class),
+          roles != null ? roles.stream().map(String::valueOf).toList() : List.of(),
+          version != null ? version : 0,
+          expiresAt);
+    }
+
+    boolean isValidAt(long nowMillis) {
+      return nowMillis < expiresAtMillis;
+    }
+  }
+}
@@ -0,0 +1,10 @@
+package com.bezkoder.springjwt.security.password;
+
+/** The password hashing pool is saturated; the caller should answer 503 and let the client retry. */
+public class PasswordHashingBusyException extends RuntimeException {
+  private static final long serialVersionUID = 1L;
+
+  public PasswordHashingBusyException(String message) {
+    super(message);
+  }
+}
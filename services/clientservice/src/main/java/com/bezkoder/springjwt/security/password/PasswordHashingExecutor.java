@@ -0,0 +1,115 @@
+package com.bezkoder.springjwt.security.password;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs BCrypt hashing and verification on a small fixed pool with a bounded queue, so a burst of
+ * logins or signups uses at most that many cores and the Tomcat threads stay free for every other
+ * endpoint. When the queue is full the work is refused at once with
+ * {@link PasswordHashingBusyException} instead of piling up behind it.
+ */
+@Component
+public class PasswordHashingExecutor {
+  @Value("${bezkoder.app.passwordHashing.threads:0}")
+  private int threads;
+
+  @Value("${bezkoder.app.passwordHashing.queueSize:64}")
+  private int queueSize;
+
+  @Value("${bezkoder.app.passwordHashing.timeoutMs:5000}")
+  private long timeoutMs;
+
+  private ThreadPoolExecutor executor;
+
+  private final LongAdder completed = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder totalNanos = new LongAdder();
+  private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+  @PostConstruct
+  void start() {
+    // 0 means half the cores, leaving the rest to request handling
+    int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    AtomicInteger counter = new AtomicInteger();
+    executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueSize),
+        runnable -> {
+          Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        },
+        new ThreadPoolExecutor.AbortPolicy());
+  }
+
+  @PreDestroy
+  void stop() {
+    executor.shutdownNow();
+  }
+
+  /** Runs the work on the pool and waits for it; the time spent queued counts towards the timeout. */
+  public <T> T run(Callable<T> work) {
+    Future<T> future;
+    try {
+      future = executor.submit(() -> {
+        long start = System.nanoTime();
+        try {
+          return work.call();
+        } finally {
+          long elapsed = System.nanoTime() - start;
+          completed.increment();
+          totalNanos.add(elapsed);
+          maxNanos.accumulate(elapsed);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      rejected.increment();
+      throw new PasswordHashingBusyException("Too many sign-in requests, please retry shortly");
+    }
+
+    try {
+      return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      future.cancel(true);
+      rejected.increment();
+      throw new PasswordHashingBusyException("Password check timed out, please retry shortly");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      future.cancel(true);
+      throw new PasswordHashingBusyException("Password check interrupted");
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtime) {
+        throw runtime;
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  public Stats stats() {
+    long count = completed.sum();
+    return new Stats(executor.getPoolSize(), executor.getActiveCount(), executor.getQueue().size(), queueSize,
+        count, rejected.sum(),
+        count > 0 ? totalNanos.sum() / count / 1_000_000.0 : 0.0,
+        maxNanos.get() / 1_000_000.0);
+  }
+
+  /** Queue depth and hash latency, for /api/admin/password-hashing. */
+  public record Stats(int threads, int active, int queued, int queueCapacity, long completed, long rejected,
+      double averageMillis, double maxMillis) {
+  }
+}
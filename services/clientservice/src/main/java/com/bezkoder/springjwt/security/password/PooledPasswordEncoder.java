@@ -0,0 +1,32 @@
+package com.bezkoder.springjwt.security.password;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Hands encode and matches of the wrapped encoder to the {@link PasswordHashingExecutor}. The
+ * cheap upgradeEncoding check stays on the caller's thread.
+ */
+public class PooledPasswordEncoder implements PasswordEncoder {
+  private final PasswordEncoder delegate;
+  private final PasswordHashingExecutor executor;
+
+  public PooledPasswordEncoder(PasswordEncoder delegate, PasswordHashingExecutor executor) {
+    this.delegate = delegate;
+    this.executor = executor;
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return executor.run(() -> delegate.encode(rawPassword));
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    return executor.run(() -> delegate.matches(rawPassword, encodedPassword));
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    return delegate.upgradeEncoding(encodedPassword);
+  }
+}
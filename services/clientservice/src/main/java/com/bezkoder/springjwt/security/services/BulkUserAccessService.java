@@ -0,0 +1,132 @@
+package com.bezkoder.springjwt.security.services;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiFunction;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bezkoder.springjwt.models.ERole;
+import com.bezkoder.springjwt.payload.request.BulkUserRequest;
+import com.bezkoder.springjwt.payload.response.BulkUpdateResponse;
+import com.bezkoder.springjwt.repository.UserRepository;
+
+/**
+ * Blacklist and role changes for many users at once. The selected ids are handled in chunks of
+ * {@code bezkoder.app.bulkChunkSize}, each with a few set-based statements in its own transaction:
+ * find the users the change would affect, bump their token version, apply the change. A single
+ * {@link UserAccessChangedEvent} for everyone changed follows the last chunk, or the first failed
+ * one, since the chunks before it are committed.
+ */
+@Service
+public class BulkUserAccessService {
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private RoleCache roleCache;
+
+  @Autowired
+  private ApplicationEventPublisher eventPublisher;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Value("${bezkoder.app.bulkChunkSize:1000}")
+  private int chunkSize;
+
+  public BulkUpdateResponse setBlacklisted(BulkUserRequest selection, boolean blacklisted) {
+    return apply(selection, (ids, changed) -> {
+      List<Long> affected = userRepository.findIdsWithBlacklistedNot(ids, blacklisted);
+      changed.addAll(affected);
+      return affected.isEmpty() ? 0 : userRepository.updateBlacklisted(affected, blacklisted);
+    });
+  }
+
+  public BulkUpdateResponse grantRole(BulkUserRequest selection, ERole role) {
+    Integer roleId = roleCache.get(role).getId();
+    return apply(selection, (ids, changed) -> {
+      List<Long> affected = new ArrayList<>(ids);
+      affected.removeAll(userRepository.findIdsWithRole(ids, roleId));
+      if (affected.isEmpty()) {
+        return 0;
+      }
+      changed.addAll(affected);
+      userRepository.incrementTokenVersions(affected);
+      return userRepository.insertRole(affected, roleId); // ids of missing users insert nothing
+    });
+  }
+
+  public BulkUpdateResponse revokeRole(BulkUserRequest selection, ERole role) {
+    Integer roleId = roleCache.get(role).getId();
+    return apply(selection, (ids, changed) -> {
+      List<Long> affected = userRepository.findIdsWithRole(ids, roleId);
+      if (affected.isEmpty()) {
+        return 0;
+      }
+      changed.addAll(affected);
+      userRepository.incrementTokenVersions(affected);
+      return userRepository.deleteRole(affected, roleId);
+    });
+  }
+
+  // Runs the update on each chunk of the selection and returns the counts
+  private BulkUpdateResponse apply(BulkUserRequest selection, BiFunction<List<Long>, List<Long>, Integer> update) {
+    List<Long> changed = new ArrayList<>();
+    int matched = 0;
+    int updated = 0;
+    try {
+      if (selection.hasIds()) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(selection.getIds()));
+        ids.removeIf(Objects::isNull);
+        matched = ids.size();
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+          List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+          updated += runChunk(chunk, update, changed);
+        }
+      } else {
+        String usernamePrefix = blankToNull(selection.getUsername());
+        String emailPrefix = blankToNull(selection.getEmail());
+        PageRequest limit = PageRequest.of(0, chunkSize);
+        long afterId = 0L;
+        List<Long> chunk;
+        do {
+          chunk = userRepository.findIdsAfter(afterId,
+              usernamePrefix != null ? UserRepository.likePrefix(usernamePrefix) : null,
+              emailPrefix != null ? UserRepository.likePrefix(emailPrefix) : null,
+              selection.getBlacklisted(), limit);
+          if (chunk.isEmpty()) {
+            break;
+          }
+          matched += chunk.size();
+          updated += runChunk(chunk, update, changed);
+          afterId = chunk.get(chunk.size() - 1);
+        } while (chunk.size() == chunkSize);
+      }
+    } finally {
+      if (!changed.isEmpty()) {
+        eventPublisher.publishEvent(new UserAccessChangedEvent(changed));
+      }
+    }
+    return new BulkUpdateResponse(matched, updated);
+  }
+
+  // One transaction; its changed ids count only once it has committed
+  private int runChunk(List<Long> ids, BiFunction<List<Long>, List<Long>, Integer> update, List<Long> changed) {
+    List<Long> chunkChanged = new ArrayList<>();
+    Integer updated = transactionTemplate.execute(status -> update.apply(ids, chunkChanged));
+    changed.addAll(chunkChanged);
+    return updated;
+  }
+
+  private static String blankToNull(String value) {
+    return value == null || value.isBlank() ? null : value;
+  }
+}
@@ -0,0 +1,159 @@
+package com.bezkoder.springjwt.security.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bezkoder.springjwt.models.RefreshToken;
+import com.bezkoder.springjwt.models.User;
+import com.bezkoder.springjwt.repository.RefreshTokenRepository;
+import com.bezkoder.springjwt.repository.UserRepository;
+import com.bezkoder.springjwt.security.jwt.AuthFailureLog;
+
+/**
+ * Long-lived, single-use refresh tokens that trade for a new short-lived access token without a
+ * password check. Only a SHA-256 of each token is stored, looked up through its unique index.
+ * Every refresh marks the token used and issues the next one of the same family; a used token
+ * presented again means it leaked, so the whole family is revoked. A family only rotates while the
+ * user is not blacklisted and still has the token version it was issued under, and a user's
+ * families are deleted as soon as their roles or blacklist flag change.
+ */
+@Service
+public class RefreshTokenService {
+  private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+  private static final int DELETE_CHUNK = 500;
+
+  @Autowired
+  private RefreshTokenRepository refreshTokenRepository;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private AuthFailureLog authFailureLog;
+
+  @Value("${bezkoder.app.refreshTokenExpirationMs:1209600000}")
+  private long refreshTokenExpirationMs;
+
+  @Value("${bezkoder.app.refreshTokenCleanupMs:3600000}")
+  private long cleanupIntervalMs;
+
+  private final SecureRandom random = new SecureRandom();
+  private ScheduledExecutorService cleaner;
+
+  @PostConstruct
+  void startCleanup() {
+    cleaner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "refresh-token-cleanup");
+      thread.setDaemon(true);
+      return thread;
+    });
+    cleaner.scheduleWithFixedDelay(this::deleteExpired, cleanupIntervalMs, cleanupIntervalMs, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  void stopCleanup() {
+    cleaner.shutdownNow();
+  }
+
+  /** A new token family, at signin, bound to the token version the access token was issued with. */
+  public String issue(Long userId, int tokenVersion) {
+    return issue(userId, UUID.randomUUID().toString(), tokenVersion, LocalDateTime.now());
+  }
+
+  /**
+   * Uses up the token and returns the user it was issued to with the next token of its family,
+   * or null when the token is unknown, expired or already used, or the user's access changed since
+   * the family was issued.
+   */
+  @Transactional
+  public Rotation rotate(String token) {
+    LocalDateTime now = LocalDateTime.now();
+    RefreshToken current = refreshTokenRepository.findByTokenHash(hash(token)).orElse(null);
+    if (current == null || !current.getExpiresAt().isAfter(now)) {
+      authFailureLog.record(AuthFailureLog.Reason.BAD_REFRESH_TOKEN, current == null ? "unknown" : "expired");
+      return null;
+    }
+    if (current.getUsedAt() != null || refreshTokenRepository.markUsed(current.getId(), now) == 0) {
+      refreshTokenRepository.deleteFamily(current.getFamily());
+      authFailureLog.record(AuthFailureLog.Reason.REFRESH_TOKEN_REUSED, "user " + current.getUserId());
+      return null;
+    }
+    User user = userRepository.findById(current.getUserId()).orElse(null);
+    if (user == null || user.isBlacklisted() || user.getTokenVersion() != current.getTokenVersion()) {
+      refreshTokenRepository.deleteFamily(current.getFamily());
+      authFailureLog.record(AuthFailureLog.Reason.BAD_REFRESH_TOKEN, "stale family of user " + current.getUserId());
+      return null;
+    }
+    return new Rotation(UserDetailsImpl.build(user),
+        issue(user.getId(), current.getFamily(), current.getTokenVersion(), now));
+  }
+
+  /** Signout: the token and every other token of its family stop working. */
+  public void revoke(String token) {
+    refreshTokenRepository.findByTokenHash(hash(token))
+        .ifPresent(current -> refreshTokenRepository.deleteFamily(current.getFamily()));
+  }
+
+  /** Roles or blacklist flag changed: every refresh token of those users stops working. */
+  @EventListener
+  public void onAccessChanged(UserAccessChangedEvent event) {
+    List<Long> userIds = new ArrayList<>(event.userIds());
+    for (int from = 0; from < userIds.size(); from += DELETE_CHUNK) {
+      refreshTokenRepository.deleteByUserIds(userIds.subList(from, Math.min(from + DELETE_CHUNK, userIds.size())));
+    }
+  }
+
+  void deleteExpired() {
+    try {
+      int deleted = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+      if (deleted > 0) {
+        logger.info("Deleted {} expired refresh tokens", deleted);
+      }
+    } catch (RuntimeException e) {
+      logger.error("Refresh token cleanup failed", e);
+    }
+  }
+
+  private String issue(Long userId, String family, int tokenVersion, LocalDateTime now) {
+    byte[] bytes = new byte[32];
+    random.nextBytes(bytes);
+    String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    refreshTokenRepository.save(new RefreshToken(userId, hash(token), family, tokenVersion, now,
+        now.plusNanos(refreshTokenExpirationMs * 1_000_000)));
+    return token;
+  }
+
+  private static String hash(String token) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  /** The principal to issue an access token for, and the refresh token replacing the used one. */
+  public record Rotation(UserDetailsImpl user, String refreshToken) {
+  }
+}
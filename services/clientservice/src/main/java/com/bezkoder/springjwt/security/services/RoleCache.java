@@ -0,0 +1,41 @@
+package com.bezkoder.springjwt.security.services;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+import jakarta.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.bezkoder.springjwt.models.ERole;
+import com.bezkoder.springjwt.models.Role;
+import com.bezkoder.springjwt.repository.RoleRepository;
+
+/**
+ * The roles table, read once at startup. Roles are seeded by migration and never change at runtime,
+ * so signup and the bulk role updates take them from here instead of querying per role.
+ */
+@Component
+public class RoleCache {
+  @Autowired
+  private RoleRepository roleRepository;
+
+  private Map<ERole, Role> roles;
+
+  @PostConstruct
+  void load() {
+    Map<ERole, Role> loaded = new EnumMap<>(ERole.class);
+    roleRepository.findAll().forEach(role -> loaded.put(role.getName(), role));
+    roles = Collections.unmodifiableMap(loaded);
+  }
+
+  public Role get(ERole name) {
+    Role role = roles.get(name);
+    if (role == null) {
+      throw new RuntimeException("Error: Role is not found.");
+    }
+    return role;
+  }
+}
@@ -0,0 +1,122 @@
+package com.bezkoder.springjwt.security.services;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.bezkoder.springjwt.models.RevokedToken;
+import com.bezkoder.springjwt.repository.RevokedTokenRepository;
+import com.bezkoder.springjwt.util.BloomFilter;
+
+/**
+ * Access tokens revoked before they expire, by jti. Revocations are stored in revoked_tokens and
+ * mirrored in memory: a Bloom filter answers the usual "not revoked" with a few hash probes, and
+ * only its rare "maybe" is confirmed against the exact set. Both are loaded at startup, and
+ * revocations of tokens that have expired anyway are pruned periodically, rebuilding the filter.
+ */
+@Component
+public class TokenRevocationList {
+  private static final Logger logger = LoggerFactory.getLogger(TokenRevocationList.class);
+  private static final double FALSE_POSITIVE_RATE = 0.001;
+
+  @Autowired
+  private RevokedTokenRepository revokedTokenRepository;
+
+  @Value("${bezkoder.app.revocation.expectedTokens:100000}")
+  private int expectedTokens;
+
+  @Value("${bezkoder.app.revocation.pruneMs:600000}")
+  private long pruneIntervalMs;
+
+  // jti -> expiry in epoch millis
+  private final ConcurrentHashMap<String, Long> revoked = new ConcurrentHashMap<>();
+  private volatile BloomFilter filter;
+  private ScheduledExecutorService pruner;
+
+  @PostConstruct
+  void load() {
+    revokedTokenRepository.findUnexpired(LocalDateTime.now())
+        .forEach(row -> revoked.put(row.getTokenId(), toMillis(row.getExpiresAt())));
+    rebuild();
+    if (!revoked.isEmpty()) {
+      logger.info("Loaded {} revoked tokens", revoked.size());
+    }
+
+    pruner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "token-revocation-prune");
+      thread.setDaemon(true);
+      return thread;
+    });
+    pruner.scheduleWithFixedDelay(this::prune, pruneIntervalMs, pruneIntervalMs, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  void stop() {
+    pruner.shutdownNow();
+  }
+
+  public boolean isRevoked(String tokenId) {
+    return tokenId != null && filter.mightContain(tokenId) && revoked.containsKey(tokenId);
+  }
+
+  /** Revokes the token until expiresAtMillis, after which it is rejected as expired anyway. */
+  public void revoke(String tokenId, Long userId, long expiresAtMillis) {
+    if (tokenId == null || expiresAtMillis <= System.currentTimeMillis()) {
+      return;
+    }
+    revokedTokenRepository.save(new RevokedToken(tokenId, userId, toLocal(expiresAtMillis), LocalDateTime.now()));
+    synchronized (this) {
+      revoked.put(tokenId, expiresAtMillis);
+      filter.put(tokenId);
+      if (revoked.size() > filter.expectedInsertions()) {
+        rebuild();
+      }
+    }
+  }
+
+  void prune() {
+    try {
+      long now = System.currentTimeMillis();
+      synchronized (this) {
+        if (revoked.values().removeIf(expiresAt -> expiresAt <= now)) {
+          rebuild();
+        }
+      }
+      revokedTokenRepository.deleteExpired(toLocal(now));
+    } catch (RuntimeException e) {
+      logger.error("Pruning revoked tokens failed", e);
+    }
+  }
+
+  public int size() {
+    return revoked.size();
+  }
+
+  // A filter sized for twice the current revocations, so it is not rebuilt again right away
+  private synchronized void rebuild() {
+    BloomFilter next = new BloomFilter(Math.max(expectedTokens, revoked.size() * 2), FALSE_POSITIVE_RATE);
+    revoked.keySet().forEach(next::put);
+    filter = next;
+  }
+
+  private static long toMillis(LocalDateTime time) {
+    return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+  }
+
+  private static LocalDateTime toLocal(long millis) {
+    return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+  }
+}
@@ -0,0 +1,10 @@
+package com.bezkoder.springjwt.security.services;
+
+import java.util.Collection;
+
+/**
+ * Published once the roles or blacklist flag of some users have changed and their token versions
+ * were bumped in the database, so that caches holding what their tokens granted can drop it.
+ */
+public record UserAccessChangedEvent(Collection<Long> userIds) {
+}
@@ -0,0 +1,141 @@
+package com.bezkoder.springjwt.security.services;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import com.bezkoder.springjwt.repository.UserRepository;
+import com.bezkoder.springjwt.repository.UserRepository.AdminUserRow;
+import com.bezkoder.springjwt.util.BloomFilter;
+
+/**
+ * Whether a username or email is still free, answered from Bloom filters over the lower-cased
+ * usernames and emails of all users: a value the filter has never seen is free without a query, and
+ * only a "maybe" is checked in the database. The filters are built at startup, extended by signups,
+ * and rebuilt every {@code bezkoder.app.availability.rebuildMs} to pick up users created elsewhere
+ * and drop deleted ones. An answer can be stale; the unique keys on users stay the final check.
+ */
+@Component
+public class UserAvailability {
+  private static final Logger logger = LoggerFactory.getLogger(UserAvailability.class);
+  private static final double FALSE_POSITIVE_RATE = 0.01;
+  private static final int LOAD_PAGE_SIZE = 5000;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Value("${bezkoder.app.availability.expectedUsers:100000}")
+  private int expectedUsers;
+
+  @Value("${bezkoder.app.availability.rebuildMs:600000}")
+  private long rebuildIntervalMs;
+
+  private record Filters(BloomFilter usernames, BloomFilter emails, AtomicInteger count) {
+  }
+
+  private volatile Filters filters;
+  // The filters a rebuild is loading; signups during the load go into both
+  private Filters building;
+  private boolean rebuildQueued;
+  private ScheduledExecutorService rebuilder;
+
+  @PostConstruct
+  void load() {
+    load(expectedUsers);
+    rebuilder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "user-availability-rebuild");
+      thread.setDaemon(true);
+      return thread;
+    });
+    rebuilder.scheduleWithFixedDelay(this::rebuild, rebuildIntervalMs, rebuildIntervalMs, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  void stop() {
+    rebuilder.shutdownNow();
+  }
+
+  public boolean isUsernameAvailable(String username) {
+    return !filters.usernames().mightContain(key(username)) || !userRepository.existsByUsername(username);
+  }
+
+  public boolean isEmailAvailable(String email) {
+    return !filters.emails().mightContain(key(email)) || !userRepository.existsByEmail(email);
+  }
+
+  /** Records a user once it is committed. */
+  public synchronized void add(String username, String email) {
+    put(filters, username, email);
+    if (building != null) {
+      put(building, username, email);
+    }
+    // Past its expected size the false positive rate climbs: rebuild, sized for twice as many
+    if (filters.count().get() > filters.usernames().expectedInsertions() && !rebuildQueued) {
+      rebuildQueued = true;
+      rebuilder.execute(this::rebuild);
+    }
+  }
+
+  void rebuild() {
+    try {
+      load(Math.max(expectedUsers, filters.count().get() * 2));
+    } catch (RuntimeException e) {
+      synchronized (this) {
+        building = null;
+      }
+      logger.error("Rebuilding the availability filters failed", e);
+    } finally {
+      synchronized (this) {
+        rebuildQueued = false;
+      }
+    }
+  }
+
+  private void load(int size) {
+    Filters next = new Filters(new BloomFilter(size, FALSE_POSITIVE_RATE), new BloomFilter(size, FALSE_POSITIVE_RATE),
+        new AtomicInteger());
+    synchronized (this) {
+      building = next;
+    }
+    // Keyset pages over the primary key, so the scan never holds a long read
+    long afterId = 0L;
+    List<AdminUserRow> page;
+    do {
+      page = userRepository.findAdminPageById(afterId, null, PageRequest.of(0, LOAD_PAGE_SIZE));
+      for (AdminUserRow row : page) {
+        put(next, row.getUsername(), row.getEmail());
+      }
+      if (!page.isEmpty()) {
+        afterId = page.get(page.size() - 1).getId();
+      }
+    } while (page.size() == LOAD_PAGE_SIZE);
+    synchronized (this) {
+      filters = next;
+      building = null;
+    }
+    logger.debug("Availability filters built over {} users", next.count().get());
+  }
+
+  private static void put(Filters target, String username, String email) {
+    target.usernames().put(key(username));
+    target.emails().put(key(email));
+    target.count().incrementAndGet();
+  }
+
+  private static String key(String value) {
+    return value.toLowerCase(Locale.ROOT);
+  }
+}
@@ -10,6 +10,7 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import com.bezkoder.springjwt.models.User;
+import com.bezkoder.springjwt.security.jwt.JwtVerifier.VerifiedToken;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 public class UserDetailsImpl implements UserDetails {
@@ -26,13 +27,22 @@ public class UserDetailsImpl implements UserDetails {
 
   private Collection<? extends GrantedAuthority> authorities;
 
+  @JsonIgnore
+  private int tokenVersion;
+
   public UserDetailsImpl(Long id, String username, String email, String password,
       Collection<? extends GrantedAuthority> authorities) {
+    this(id, username, email, password, authorities, 0);
+  }
+
+  public UserDetailsImpl(Long id, String username, String email, String password,
+      Collection<? extends GrantedAuthority> authorities, int tokenVersion) {
     this.id = id;
     this.username = username;
     this.email = email;
     this.password = password;
     this.authorities = authorities;
+    this.tokenVersion = tokenVersion;
   }
 
   public static UserDetailsImpl build(User user) {
@@ -45,7 +55,17 @@ public class UserDetailsImpl implements UserDetails {
         user.getUsername(), 
         user.getEmail(),
         user.getPassword(), 
-        authorities);
+        authorities,
+        user.getTokenVersion());
+  }
+
+  // Principal for a request, from the token's claims alone; there is no email or password
+  public static UserDetailsImpl fromToken(VerifiedToken token) {
+    List<GrantedAuthority> authorities = token.roles().stream()
+        .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role))
+        .collect(Collectors.toList());
+
+    return new UserDetailsImpl(token.userId(), token.username(), null, null, authorities, token.version());
   }
 
   @Override
@@ -61,6 +81,10 @@ public class UserDetailsImpl implements UserDetails {
     return email;
   }
 
+  public int getTokenVersion() {
+    return tokenVersion;
+  }
+
   @Override
   public String getPassword() {
     return password;
@@ -1,7 +1,14 @@
 package com.bezkoder.springjwt.security.services;
 
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -11,10 +18,16 @@ import com.bezkoder.springjwt.models.User;
 import com.bezkoder.springjwt.repository.UserRepository;
 
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
   @Autowired
   UserRepository userRepository;
 
+  @Value("${bezkoder.app.userDetailsCacheSize:10000}")
+  private int cacheSize;
+
+  // Principals for bezkoder.app.principalSource=database, dropped when the user's access changes
+  private final ConcurrentHashMap<String, UserDetailsImpl> cache = new ConcurrentHashMap<>();
+
   @Override
   @Transactional
   public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -24,4 +37,35 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     return UserDetailsImpl.build(user);
   }
 
+  // Called by the authentication provider after a successful login whose hash used a lower cost
+  // than bezkoder.app.bcryptStrength, with the password hashed again at the current cost
+  @Override
+  public UserDetails updatePassword(UserDetails user, String newPassword) {
+    UserDetailsImpl current = (UserDetailsImpl) user;
+    userRepository.updatePassword(current.getId(), newPassword);
+    cache.remove(current.getUsername());
+    return new UserDetailsImpl(current.getId(), current.getUsername(), current.getEmail(), newPassword,
+        current.getAuthorities(), current.getTokenVersion());
+  }
+
+  // For authenticating requests, not logins: a cached principal may hold a superseded password hash
+  public UserDetailsImpl loadCachedUserByUsername(String username) throws UsernameNotFoundException {
+    UserDetailsImpl cached = cache.get(username);
+    if (cached != null) {
+      return cached;
+    }
+    UserDetailsImpl loaded = (UserDetailsImpl) loadUserByUsername(username);
+    if (cache.size() >= cacheSize) {
+      cache.clear();
+    }
+    cache.put(username, loaded);
+    return loaded;
+  }
+
+  @EventListener
+  public void onAccessChanged(UserAccessChangedEvent event) {
+    Set<Long> changed = new HashSet<>(event.userIds());
+    cache.values().removeIf(user -> changed.contains(user.getId()));
+  }
+
 }
@@ -0,0 +1,52 @@
+package com.bezkoder.springjwt.security.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.bezkoder.springjwt.repository.UserRepository;
+import com.bezkoder.springjwt.security.jwt.JwtVerifier.VerifiedToken;
+
+/**
+ * The current token version of every user whose tokens were ever revoked, kept in memory so a
+ * request can be checked against its "ver" claim without a query. Users missing from the map are
+ * at version 0. Loaded at startup and refreshed on {@link UserAccessChangedEvent}.
+ */
+@Component
+public class UserTokenVersions {
+  private static final int RELOAD_CHUNK = 1000;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  private final ConcurrentHashMap<Long, Integer> versions = new ConcurrentHashMap<>();
+
+  @PostConstruct
+  void load() {
+    userRepository.findRevokedTokenVersions().forEach(v -> versions.put(v.getId(), v.getTokenVersion()));
+  }
+
+  @EventListener
+  public void onAccessChanged(UserAccessChangedEvent event) {
+    // A bulk update can change thousands of users; keep each IN list reasonable
+    List<Long> ids = new ArrayList<>(event.userIds());
+    for (int from = 0; from < ids.size(); from += RELOAD_CHUNK) {
+      userRepository.findTokenVersions(ids.subList(from, Math.min(from + RELOAD_CHUNK, ids.size())))
+          .forEach(v -> versions.merge(v.getId(), v.getTokenVersion(), Math::max));
+    }
+  }
+
+  /** False when the token was issued before the user's roles or blacklist flag last changed. */
+  public boolean isCurrent(VerifiedToken token) {
+    if (token.userId() == null) {
+      return true; // issued before tokens carried claims; expires on its own
+    }
+    return token.version() >= versions.getOrDefault(token.userId(), 0);
+  }
+}
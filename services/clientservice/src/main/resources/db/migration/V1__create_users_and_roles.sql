@@ -0,0 +1,27 @@
+-- Auth schema. IF NOT EXISTS keeps this a no-op on databases created by the old ddl-auto=update.
+CREATE TABLE IF NOT EXISTS roles (
+    id   INT         NOT NULL AUTO_INCREMENT,
+    name VARCHAR(20),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_roles_name UNIQUE (name)
+);
+
+-- The unique keys double as the indexes behind findByUsername / existsByUsername / existsByEmail.
+CREATE TABLE IF NOT EXISTS users (
+    id             BIGINT       NOT NULL AUTO_INCREMENT,
+    username       VARCHAR(20)  NOT NULL,
+    email          VARCHAR(50)  NOT NULL,
+    password       VARCHAR(120) NOT NULL,
+    is_blacklisted BOOLEAN      NOT NULL DEFAULT FALSE,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE IF NOT EXISTS user_roles (
+    user_id BIGINT NOT NULL,
+    role_id INT    NOT NULL,
+    PRIMARY KEY (user_id, role_id),
+    CONSTRAINT fk_user_roles_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_user_roles_role FOREIGN KEY (role_id) REFERENCES roles (id)
+);
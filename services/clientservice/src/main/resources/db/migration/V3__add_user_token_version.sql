@@ -0,0 +1,2 @@
+-- Bumped whenever a user's roles or blacklist flag change; tokens carrying an older version are rejected.
+ALTER TABLE users ADD COLUMN token_version INT NOT NULL DEFAULT 0;
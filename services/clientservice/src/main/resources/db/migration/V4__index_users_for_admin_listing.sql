@@ -0,0 +1,3 @@
+-- Admin listing filtered on the blacklist flag, in id order (keyset pagination).
+-- Username and email prefix searches use the existing unique keys.
+CREATE INDEX idx_users_blacklisted_id ON users (is_blacklisted, id);
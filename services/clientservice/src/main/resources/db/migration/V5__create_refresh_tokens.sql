@@ -0,0 +1,18 @@
+-- Refresh tokens (security.services.RefreshTokenService), stored as the SHA-256 of the token only.
+-- Each token is used once and replaced by a new one of the same family; presenting a used token
+-- again revokes the whole family. Expired rows are deleted by the service's cleanup task.
+CREATE TABLE IF NOT EXISTS refresh_tokens (
+    id         BIGINT      NOT NULL AUTO_INCREMENT,
+    user_id    BIGINT      NOT NULL,
+    token_hash VARCHAR(64) NOT NULL,
+    family     VARCHAR(36) NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    used_at    DATETIME(6),
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_refresh_tokens_hash UNIQUE (token_hash),
+    CONSTRAINT fk_refresh_tokens_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE INDEX idx_refresh_tokens_family ON refresh_tokens (family);
+CREATE INDEX idx_refresh_tokens_expires_at ON refresh_tokens (expires_at);
@@ -0,0 +1,11 @@
+-- Access tokens revoked before their expiry, by JWT id (jti). Checked in memory
+-- (security.services.TokenRevocationList); rows are deleted once the token would have expired anyway.
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+    token_id   VARCHAR(36) NOT NULL,
+    user_id    BIGINT,
+    expires_at DATETIME(6) NOT NULL,
+    revoked_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (token_id)
+);
+
+CREATE INDEX idx_revoked_tokens_expires_at ON revoked_tokens (expires_at);
@@ -0,0 +1,3 @@
+-- The users.token_version a refresh token family was issued under; a family issued before the user's
+-- roles or blacklist flag changed no longer rotates.
+ALTER TABLE refresh_tokens ADD COLUMN token_version INT NOT NULL DEFAULT 0;
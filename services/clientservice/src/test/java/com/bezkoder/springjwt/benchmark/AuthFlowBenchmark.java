@@ -0,0 +1,91 @@
+package com.bezkoder.springjwt.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+
+import com.bezkoder.springjwt.SpringBootSecurityJwtApplication;
+import com.bezkoder.springjwt.controllers.AuthController;
+import com.bezkoder.springjwt.payload.request.LoginRequest;
+import com.bezkoder.springjwt.payload.request.SignupRequest;
+import com.bezkoder.springjwt.payload.request.TokenRefreshRequest;
+import com.bezkoder.springjwt.payload.response.JwtResponse;
+
+/**
+ * Throughput of getting a fresh access token: {@code signin} (BCrypt at the default cost 10 on the
+ * hashing pool, user load, JWT, new refresh token) against {@code refresh} (SHA-256 lookup of the
+ * refresh token, rotation, user load, JWT). Both call {@link AuthController} in a full application
+ * context on the in-memory H2 database of the tests, one thread.
+ * Not run by the test suite: after {@code mvn test-compile}, run {@link #main} with the test classpath.
+ * On a single-core VM (JDK 17) this measured about 13 signins/s against about 420 refreshes/s (noisy:
+ * used refresh tokens pile up in the table until they expire).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthFlowBenchmark {
+  private ConfigurableApplicationContext context;
+  private AuthController authController;
+  private LoginRequest login;
+  private TokenRefreshRequest refresh;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = SpringApplication.run(SpringBootSecurityJwtApplication.class,
+        "--server.port=0", "--grpc.server.port=0", "--logging.level.root=WARN");
+    authController = context.getBean(AuthController.class);
+
+    SignupRequest signup = new SignupRequest();
+    signup.setUsername("bench");
+    signup.setEmail("bench@example.com");
+    signup.setPassword("benchmark-password");
+    authController.registerUser(signup);
+
+    login = new LoginRequest();
+    login.setUsername("bench");
+    login.setPassword("benchmark-password");
+    refresh = new TokenRefreshRequest();
+    refresh.setRefreshToken(((JwtResponse) authController.authenticateUser(login).getBody()).getRefreshToken());
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public Object signin() {
+    return authController.authenticateUser(login).getBody();
+  }
+
+  // Each refresh uses up the token, so the next call presents its successor
+  @Benchmark
+  public Object refresh() {
+    ResponseEntity<?> response = authController.refreshToken(refresh);
+    refresh.setRefreshToken(((JwtResponse) response.getBody()).getRefreshToken());
+    return response.getBody();
+  }
+
+  public static void main(String[] args) throws Exception {
+    new Runner(new OptionsBuilder().include(AuthFlowBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,152 @@
+package com.bezkoder.springjwt.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.bezkoder.springjwt.models.ERole;
+import com.bezkoder.springjwt.models.User;
+import com.bezkoder.springjwt.repository.RoleRepository;
+import com.bezkoder.springjwt.repository.UserRepository;
+import com.bezkoder.springjwt.repository.UserRepository.TokenVersion;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest(properties = "bezkoder.app.bulkChunkSize=2")
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class AdminControllerTest {
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private RoleRepository roleRepository;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @BeforeEach
+  void createUsers() {
+    if (userRepository.existsByUsername("list_a")) {
+      return;
+    }
+    for (String name : new String[] { "list_a", "list_b", "list_c", "list_d", "listxe" }) {
+      User user = new User(name, name + "@listing.test", "hash");
+      user.setBlacklisted(name.equals("list_b") || name.equals("list_d"));
+      user.setRoles(Set.of(roleRepository.findByName(ERole.ROLE_USER).orElseThrow()));
+      userRepository.save(user);
+    }
+  }
+
+  @Test
+  void pagesThroughAUsernamePrefixWithCursors() throws Exception {
+    // "_" is literal: listxe does not match "list_"
+    List<Map<String, Object>> all = fetchAll(get("/api/admin/users").param("username", "list_").param("size", "2"));
+
+    assertThat(all).extracting(user -> user.get("username")).containsExactly("list_a", "list_b", "list_c", "list_d");
+    assertThat(all.get(0)).containsEntry("roles", List.of("ROLE_USER")).doesNotContainKey("password");
+  }
+
+  @Test
+  void filtersOnTheBlacklistFlagInIdOrder() throws Exception {
+    List<Map<String, Object>> blacklisted = fetchAll(get("/api/admin/clients").param("blacklisted", "true").param("size", "1"));
+
+    assertThat(blacklisted).extracting(user -> user.get("username")).contains("list_b", "list_d")
+        .doesNotContain("list_a", "list_c");
+    assertThat(blacklisted).extracting(user -> ((Number) user.get("id")).longValue()).isSorted();
+  }
+
+  @Test
+  void searchesByEmailPrefixAndRejectsBadInput() throws Exception {
+    List<Map<String, Object>> found = fetchAll(get("/api/admin/users").param("email", "list_c@"));
+    assertThat(found).extracting(user -> user.get("email")).containsExactly("list_c@listing.test");
+
+    mockMvc.perform(get("/api/admin/users").param("size", "0")).andExpect(status().isBadRequest());
+    mockMvc.perform(get("/api/admin/users").param("cursor", "bm90LWEtbnVtYmVy")).andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void bulkBlacklistsByIdsAndFilterInChunks() throws Exception {
+    List<Long> ids = new ArrayList<>();
+    for (String name : new String[] { "bulk_a", "bulk_b", "bulk_c", "bulk_d", "bulk_e" }) {
+      User user = new User(name, name + "@bulk.test", "hash");
+      user.setBlacklisted(name.equals("bulk_b"));
+      ids.add(userRepository.save(user).getId());
+    }
+
+    // bulk_b is already blacklisted, 999999 does not exist: neither is updated nor gets a new token version
+    List<Long> requested = new ArrayList<>(ids.subList(0, 3));
+    requested.add(999999L);
+    assertThat(bulk("/api/admin/users/blacklist", Map.of("ids", requested)))
+        .containsEntry("matched", 4).containsEntry("updated", 2);
+    assertThat(userRepository.findTokenVersions(ids)).extracting(TokenVersion::getTokenVersion)
+        .containsExactly(1, 0, 1, 0, 0);
+
+    // The filter sweep walks all five in chunks of two and clears the three blacklisted ones
+    assertThat(bulk("/api/admin/users/unblacklist", Map.of("username", "bulk_")))
+        .containsEntry("matched", 5).containsEntry("updated", 3);
+    assertThat(userRepository.findAllById(ids)).noneMatch(User::isBlacklisted);
+  }
+
+  @Test
+  void bulkGrantsAndRevokesRolesOnlyWhereTheyChange() throws Exception {
+    assertThat(bulk("/api/admin/users/roles/moderator/grant", Map.of("username", "list_")))
+        .containsEntry("matched", 4).containsEntry("updated", 4);
+    assertThat(bulk("/api/admin/users/roles/ROLE_MODERATOR/grant", Map.of("username", "list_a")))
+        .containsEntry("updated", 0);
+    assertThat(userRepository.findSummaryRowsByUsername("list_c"))
+        .extracting(UserRepository.UserRoleRow::getRole).containsExactlyInAnyOrder(ERole.ROLE_USER, ERole.ROLE_MODERATOR);
+
+    assertThat(bulk("/api/admin/users/roles/moderator/revoke", Map.of("username", "list_", "blacklisted", true)))
+        .containsEntry("matched", 2).containsEntry("updated", 2);
+    assertThat(bulk("/api/admin/users/roles/moderator/revoke", Map.of("username", "list_")))
+        .containsEntry("updated", 2);
+  }
+
+  @Test
+  void bulkRejectsAnEmptySelectionAndUnknownRoles() throws Exception {
+    mockMvc.perform(post("/api/admin/users/blacklist").contentType(MediaType.APPLICATION_JSON).content("{}"))
+        .andExpect(status().isBadRequest());
+    mockMvc.perform(post("/api/admin/users/roles/owner/grant").contentType(MediaType.APPLICATION_JSON)
+        .content("{\"ids\":[1]}")).andExpect(status().isBadRequest());
+  }
+
+  private Map<String, Object> bulk(String path, Map<String, Object> selection) throws Exception {
+    String response = mockMvc.perform(post(path).contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(selection)))
+        .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+    return objectMapper.readValue(response, new TypeReference<Map<String, Object>>() { });
+  }
+
+  private List<Map<String, Object>> fetchAll(MockHttpServletRequestBuilder request) throws Exception {
+    List<Map<String, Object>> all = new ArrayList<>();
+    String cursor = null;
+    do {
+      MvcResult result = mockMvc.perform(cursor == null ? request : request.param("cursor", cursor))
+          .andExpect(status().isOk()).andReturn();
+      all.addAll(objectMapper.readValue(result.getResponse().getContentAsString(),
+          new TypeReference<List<Map<String, Object>>>() { }));
+      cursor = result.getResponse().getHeader(AdminController.NEXT_CURSOR_HEADER);
+    } while (cursor != null);
+    return all;
+  }
+}
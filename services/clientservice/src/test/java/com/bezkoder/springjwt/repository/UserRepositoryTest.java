@@ -0,0 +1,43 @@
+package com.bezkoder.springjwt.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.bezkoder.springjwt.models.ERole;
+import com.bezkoder.springjwt.models.User;
+import com.bezkoder.springjwt.payload.response.UserSummary;
+
+@SpringBootTest
+class UserRepositoryTest {
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private RoleRepository roleRepository;
+
+  @Test
+  void summaryComesFromOneProjectionQuery() {
+    User user = new User("summary1", "summary1@example.com", "hash");
+    user.setBlacklisted(true);
+    user.setRoles(Set.of(roleRepository.findByName(ERole.ROLE_USER).orElseThrow(),
+        roleRepository.findByName(ERole.ROLE_ADMIN).orElseThrow()));
+    user = userRepository.save(user);
+
+    UserSummary summary = UserSummary.of(userRepository.findSummaryRowsById(user.getId()));
+    assertThat(summary.username()).isEqualTo("summary1");
+    assertThat(summary.blacklisted()).isTrue();
+    assertThat(summary.roles()).containsExactlyInAnyOrder("ROLE_USER", "ROLE_ADMIN");
+    assertThat(summary.isAdmin()).isTrue();
+
+    User noRoles = userRepository.save(new User("summary2", "summary2@example.com", "hash"));
+    UserSummary plain = UserSummary.of(userRepository.findSummaryRowsByUsername("summary2"));
+    assertThat(plain.id()).isEqualTo(noRoles.getId());
+    assertThat(plain.roles()).isEmpty();
+    assertThat(UserSummary.of(userRepository.findSummaryRowsByUsername("nobody"))).isNull();
+  }
+}
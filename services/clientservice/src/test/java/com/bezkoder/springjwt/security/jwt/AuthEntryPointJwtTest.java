@@ -0,0 +1,41 @@
+package com.bezkoder.springjwt.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.InsufficientAuthenticationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class AuthEntryPointJwtTest {
+
+  @Test
+  void writesTheSameJsonBodyAsBefore() throws Exception {
+    AuthEntryPointJwt entryPoint = new AuthEntryPointJwt();
+    AuthFailureLog authFailureLog = new AuthFailureLog();
+    ReflectionTestUtils.setField(entryPoint, "authFailureLog", authFailureLog);
+
+    for (String path : new String[] { "/api/user/me", "/api/\"odd\"\\path" }) {
+      MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+      request.setServletPath(path);
+      MockHttpServletResponse response = new MockHttpServletResponse();
+
+      entryPoint.commence(request, response, new InsufficientAuthenticationException("Full authentication is required"));
+
+      assertThat(response.getStatus()).isEqualTo(401);
+      assertThat(response.getContentLength()).isEqualTo(response.getContentAsByteArray().length);
+      Map<String, Object> body = new ObjectMapper().readValue(response.getContentAsByteArray(), new TypeReference<Map<String, Object>>() { });
+      assertThat(body).containsEntry("status", 401)
+          .containsEntry("error", "Unauthorized")
+          .containsEntry("message", "Full authentication is required")
+          .containsEntry("path", path);
+    }
+    assertThat(authFailureLog.counts()).containsEntry(AuthFailureLog.Reason.UNAUTHORIZED, 2L);
+  }
+}
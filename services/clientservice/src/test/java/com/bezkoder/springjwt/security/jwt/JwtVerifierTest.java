@@ -0,0 +1,102 @@
+package com.bezkoder.springjwt.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.bezkoder.springjwt.security.services.UserDetailsImpl;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+
+class JwtVerifierTest {
+  private JwtUtils jwtUtils;
+  private JwtVerifier verifier;
+  private AuthFailureLog authFailureLog;
+
+  @BeforeEach
+  void setUp() {
+    jwtUtils = new JwtUtils();
+    ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "======================BezKoder=Spring===========================");
+    ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 60000);
+    jwtUtils.buildKey();
+
+    verifier = new JwtVerifier();
+    ReflectionTestUtils.setField(verifier, "jwtUtils", jwtUtils);
+    authFailureLog = new AuthFailureLog();
+    ReflectionTestUtils.setField(verifier, "authFailureLog", authFailureLog);
+    ReflectionTestUtils.setField(verifier, "cacheSize", 4);
+    verifier.buildParser();
+  }
+
+  private String token(String username, long expiresInMillis) {
+    return Jwts.builder()
+        .setSubject(username)
+        .setExpiration(new Date(System.currentTimeMillis() + expiresInMillis))
+        .signWith(jwtUtils.key(), SignatureAlgorithm.HS256)
+        .compact();
+  }
+
+  @Test
+  void verifiesAndCachesValidTokens() {
+    String token = token("alice", 60000);
+
+    JwtVerifier.VerifiedToken first = verifier.verify(token);
+    assertThat(first.username()).isEqualTo("alice");
+    assertThat(first.userId()).isNull();
+    assertThat(first.roles()).isEmpty();
+    assertThat(verifier.verify(token)).isSameAs(first);
+  }
+
+  @Test
+  void carriesThePrincipalInClaims() {
+    UserDetailsImpl user = new UserDetailsImpl(42L, "carol", "carol@example.com", "hash",
+        List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN")), 3);
+    String token = jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+
+    JwtVerifier.VerifiedToken verified = verifier.verify(token);
+    assertThat(verified.userId()).isEqualTo(42L);
+    assertThat(verified.roles()).containsExactly("ROLE_USER", "ROLE_ADMIN");
+    assertThat(verified.version()).isEqualTo(3);
+
+    UserDetailsImpl principal = UserDetailsImpl.fromToken(verified);
+    assertThat(principal.getId()).isEqualTo(42L);
+    assertThat(principal.getUsername()).isEqualTo("carol");
+    assertThat(principal.getAuthorities()).extracting("authority").containsExactly("ROLE_USER", "ROLE_ADMIN");
+  }
+
+  @Test
+  void rejectsTamperedExpiredAndEmptyTokens() {
+    String token = token("bob", 60000);
+    String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+    assertThat(verifier.verify(tampered)).isNull();
+    String expired = token("bob", -1000);
+    assertThat(verifier.verify(expired)).isNull();
+    assertThat(verifier.verify(expired)).isNull(); // remembered, not parsed again
+    assertThat(verifier.verify("not-a-jwt")).isNull();
+    assertThat(verifier.verify("")).isNull();
+
+    assertThat(authFailureLog.counts())
+        .containsEntry(AuthFailureLog.Reason.BAD_SIGNATURE, 1L)
+        .containsEntry(AuthFailureLog.Reason.EXPIRED, 2L)
+        .containsEntry(AuthFailureLog.Reason.MALFORMED, 1L)
+        .containsEntry(AuthFailureLog.Reason.EMPTY, 1L);
+  }
+
+  @Test
+  void staysBoundedWhenFull() {
+    for (int i = 0; i < 20; i++) {
+      assertThat(verifier.verify(token("user" + i, 60000)).username()).isEqualTo("user" + i);
+    }
+    assertThat((Map<?, ?>) ReflectionTestUtils.getField(verifier, "cache")).hasSizeLessThanOrEqualTo(4);
+  }
+}
@@ -0,0 +1,68 @@
+package com.bezkoder.springjwt.security.password;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.bezkoder.springjwt.models.User;
+import com.bezkoder.springjwt.repository.UserRepository;
+
+@SpringBootTest
+class PasswordHashingTest {
+  @Autowired
+  private AuthenticationManager authenticationManager;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Test
+  void loginRehashesPasswordsStoredAtALowerCost() {
+    userRepository.save(new User("rehash1", "rehash1@example.com", new BCryptPasswordEncoder(4).encode("secret12")));
+
+    authenticationManager.authenticate(new UsernamePasswordAuthenticationToken("rehash1", "secret12"));
+
+    String stored = userRepository.findByUsername("rehash1").orElseThrow().getPassword();
+    assertThat(stored).startsWith("$2a$10$");
+    assertThat(new BCryptPasswordEncoder().matches("secret12", stored)).isTrue();
+  }
+
+  @Test
+  void refusesWorkAtOnceWhenTheQueueIsFull() throws Exception {
+    PasswordHashingExecutor pool = new PasswordHashingExecutor();
+    ReflectionTestUtils.setField(pool, "threads", 1);
+    ReflectionTestUtils.setField(pool, "queueSize", 1);
+    ReflectionTestUtils.setField(pool, "timeoutMs", 5000L);
+    pool.start();
+
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService callers = Executors.newFixedThreadPool(2);
+    try {
+      callers.submit(() -> pool.run(() -> release.await(5, TimeUnit.SECONDS)));
+      callers.submit(() -> pool.run(() -> true));
+      while (pool.stats().queued() < 1) {
+        Thread.sleep(5);
+      }
+
+      assertThatThrownBy(() -> pool.run(() -> true)).isInstanceOf(PasswordHashingBusyException.class);
+      assertThat(pool.stats().rejected()).isEqualTo(1);
+    } finally {
+      release.countDown();
+      callers.shutdown();
+      callers.awaitTermination(5, TimeUnit.SECONDS);
+      pool.stop();
+    }
+    assertThat(pool.stats().completed()).isEqualTo(2);
+  }
+}
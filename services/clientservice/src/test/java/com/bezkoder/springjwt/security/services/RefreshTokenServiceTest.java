@@ -0,0 +1,111 @@
+package com.bezkoder.springjwt.security.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import com.bezkoder.springjwt.models.RefreshToken;
+import com.bezkoder.springjwt.models.User;
+import com.bezkoder.springjwt.repository.RefreshTokenRepository;
+import com.bezkoder.springjwt.repository.UserRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class RefreshTokenServiceTest {
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private RefreshTokenService refreshTokenService;
+
+  @Autowired
+  private RefreshTokenRepository refreshTokenRepository;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void refreshRotatesAndRevokesTheFamilyOnReuse() throws Exception {
+    post("/api/auth/signup", "{\"username\":\"refresh1\",\"email\":\"refresh1@example.com\",\"password\":\"secret12\"}",
+        status().isOk());
+    Map<String, Object> signin = post("/api/auth/signin", "{\"username\":\"refresh1\",\"password\":\"secret12\"}",
+        status().isOk());
+    String first = (String) signin.get("refreshToken");
+    assertThat(first).isNotBlank();
+
+    Map<String, Object> refreshed = post("/api/auth/refresh", body(first), status().isOk());
+    String second = (String) refreshed.get("refreshToken");
+    assertThat(second).isNotEqualTo(first);
+    assertThat((String) refreshed.get("accessToken")).isNotBlank();
+    assertThat(refreshed).containsEntry("username", "refresh1");
+
+    // The used token comes back: it leaked, so its successor stops working too
+    post("/api/auth/refresh", body(first), status().isUnauthorized());
+    post("/api/auth/refresh", body(second), status().isUnauthorized());
+    post("/api/auth/refresh", body("never-issued"), status().isUnauthorized());
+  }
+
+  @Test
+  void cleanupDeletesExpiredTokens() {
+    User user = userRepository.save(new User("refresh2", "refresh2@example.com", "hash"));
+    LocalDateTime now = LocalDateTime.now();
+    RefreshToken expired = refreshTokenRepository.save(
+        new RefreshToken(user.getId(), "expired-hash", "family-expired", 0, now.minusDays(2), now.minusDays(1)));
+    String live = refreshTokenService.issue(user.getId(), user.getTokenVersion());
+
+    refreshTokenService.deleteExpired();
+
+    assertThat(refreshTokenRepository.findById(expired.getId())).isEmpty();
+    assertThat(refreshTokenService.rotate(live)).isNotNull();
+  }
+
+  @Test
+  void familiesStopRotatingOnceTheUsersAccessChanged() {
+    User user = userRepository.save(new User("refresh3", "refresh3@example.com", "hash"));
+    String bumped = refreshTokenService.issue(user.getId(), user.getTokenVersion());
+    String blacklisted = refreshTokenService.issue(user.getId(), user.getTokenVersion() + 1);
+    String changed = refreshTokenService.issue(user.getId(), user.getTokenVersion() + 1);
+
+    // Issued before the version bump that came with a role change
+    user.setTokenVersion(user.getTokenVersion() + 1);
+    userRepository.save(user);
+    assertThat(refreshTokenService.rotate(bumped)).isNull();
+
+    user.setBlacklisted(true);
+    userRepository.save(user);
+    assertThat(refreshTokenService.rotate(blacklisted)).isNull();
+
+    refreshTokenService.onAccessChanged(new UserAccessChangedEvent(List.of(user.getId())));
+    user.setBlacklisted(false);
+    userRepository.save(user);
+    assertThat(refreshTokenService.rotate(changed)).isNull();
+    assertThat(refreshTokenRepository.findAll()).noneMatch(token -> token.getUserId().equals(user.getId()));
+  }
+
+  private String body(String refreshToken) {
+    return "{\"refreshToken\":\"" + refreshToken + "\"}";
+  }
+
+  private Map<String, Object> post(String path, String json, ResultMatcher expected) throws Exception {
+    String response = mockMvc.perform(MockMvcRequestBuilders.post(path)
+        .contentType(MediaType.APPLICATION_JSON).content(json))
+        .andExpect(expected).andReturn().getResponse().getContentAsString();
+    return objectMapper.readValue(response, new TypeReference<Map<String, Object>>() { });
+  }
+}
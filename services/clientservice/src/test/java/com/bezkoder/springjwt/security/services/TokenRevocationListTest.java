@@ -0,0 +1,72 @@
+package com.bezkoder.springjwt.security.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.bezkoder.springjwt.repository.RevokedTokenRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class TokenRevocationListTest {
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private TokenRevocationList tokenRevocationList;
+
+  @Autowired
+  private RevokedTokenRepository revokedTokenRepository;
+
+  @Test
+  void signoutRevokesTheAccessAndRefreshTokens() throws Exception {
+    mockMvc.perform(post("/api/auth/signup").contentType(MediaType.APPLICATION_JSON)
+        .content("{\"username\":\"revoke1\",\"email\":\"revoke1@example.com\",\"password\":\"secret12\"}"))
+        .andExpect(status().isOk());
+    String signin = mockMvc.perform(post("/api/auth/signin").contentType(MediaType.APPLICATION_JSON)
+        .content("{\"username\":\"revoke1\",\"password\":\"secret12\"}"))
+        .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+    Map<String, Object> tokens = new ObjectMapper().readValue(signin, new TypeReference<Map<String, Object>>() { });
+    String bearer = "Bearer " + tokens.get("accessToken");
+    String refresh = "{\"refreshToken\":\"" + tokens.get("refreshToken") + "\"}";
+
+    mockMvc.perform(get("/api/user/summary").header("Authorization", bearer)).andExpect(status().isOk());
+    long revokedBefore = revokedTokenRepository.count();
+
+    mockMvc.perform(post("/api/auth/signout").header("Authorization", bearer)
+        .contentType(MediaType.APPLICATION_JSON).content(refresh)).andExpect(status().isOk());
+
+    assertThat(revokedTokenRepository.count()).isEqualTo(revokedBefore + 1);
+    mockMvc.perform(get("/api/user/summary").header("Authorization", bearer)).andExpect(status().isUnauthorized());
+    mockMvc.perform(post("/api/auth/refresh").contentType(MediaType.APPLICATION_JSON).content(refresh))
+        .andExpect(status().isUnauthorized());
+  }
+
+  @Test
+  void pruneDropsRevocationsOfExpiredTokens() throws Exception {
+    int before = tokenRevocationList.size();
+    tokenRevocationList.revoke("prune-me", null, System.currentTimeMillis() + 200);
+    tokenRevocationList.revoke("already-expired", null, System.currentTimeMillis() - 1);
+    assertThat(tokenRevocationList.isRevoked("prune-me")).isTrue();
+    assertThat(tokenRevocationList.isRevoked("already-expired")).isFalse();
+    assertThat(tokenRevocationList.size()).isEqualTo(before + 1);
+
+    Thread.sleep(300);
+    tokenRevocationList.prune();
+
+    assertThat(tokenRevocationList.isRevoked("prune-me")).isFalse();
+    assertThat(revokedTokenRepository.findById("prune-me")).isEmpty();
+  }
+}
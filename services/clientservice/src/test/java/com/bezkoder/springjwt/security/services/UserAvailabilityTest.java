@@ -0,0 +1,70 @@
+package com.bezkoder.springjwt.security.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.bezkoder.springjwt.models.User;
+import com.bezkoder.springjwt.repository.UserRepository;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class UserAvailabilityTest {
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private UserAvailability userAvailability;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Test
+  void signupMakesTheUsernameAndEmailTaken() throws Exception {
+    mockMvc.perform(get("/api/auth/available").param("username", "avail1").param("email", "avail1@example.com"))
+        .andExpect(status().isOk())
+        .andExpect(content().json("{\"username\":true,\"email\":true}"));
+
+    signup("avail1", "avail1@example.com").andExpect(status().isOk());
+
+    mockMvc.perform(get("/api/auth/available").param("username", "avail1"))
+        .andExpect(status().isOk())
+        .andExpect(content().json("{\"username\":false}"))
+        .andExpect(jsonPath("$.email").doesNotExist());
+    mockMvc.perform(get("/api/auth/available").param("email", "avail1@example.com"))
+        .andExpect(content().json("{\"email\":false}"));
+    signup("avail1", "other@example.com").andExpect(status().isBadRequest());
+    mockMvc.perform(get("/api/auth/available")).andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void uniqueKeysCatchUsersTheFiltersHaveNotSeen() throws Exception {
+    // Created behind the filters' back, as by another instance
+    userRepository.save(new User("avail2", "avail2@example.com", "hash"));
+
+    signup("avail2", "fresh2@example.com").andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message").value("Error: Username is already taken!"));
+    signup("fresh2", "avail2@example.com").andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message").value("Error: Email is already in use!"));
+
+    userAvailability.rebuild();
+    assertThat(userAvailability.isUsernameAvailable("avail2")).isFalse();
+    assertThat(userAvailability.isUsernameAvailable("fresh2")).isTrue();
+  }
+
+  private ResultActions signup(String username, String email) throws Exception {
+    return mockMvc.perform(post("/api/auth/signup").contentType(MediaType.APPLICATION_JSON)
+        .content("{\"username\":\"" + username + "\",\"email\":\"" + email + "\",\"password\":\"secret12\"}"));
+  }
+}
@@ -0,0 +1,31 @@
+package com.bezkoder.springjwt.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+class BloomFilterTest {
+
+  @Test
+  void neverMissesAnAddedValueAndRarelyClaimsOthers() {
+    BloomFilter filter = new BloomFilter(10_000, 0.001);
+    String[] added = new String[10_000];
+    for (int i = 0; i < added.length; i++) {
+      added[i] = UUID.randomUUID().toString();
+      filter.put(added[i]);
+    }
+
+    for (String value : added) {
+      assertThat(filter.mightContain(value)).isTrue();
+    }
+    int falsePositives = 0;
+    for (int i = 0; i < 100_000; i++) {
+      if (filter.mightContain(UUID.randomUUID().toString())) {
+        falsePositives++;
+      }
+    }
+    assertThat(falsePositives).isLessThan(300); // 0.1% expected, 0.3% allowed
+  }
+}